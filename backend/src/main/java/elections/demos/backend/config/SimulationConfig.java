@@ -0,0 +1,21 @@
+package elections.demos.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * De pool waarop de simulaties van SimulationService draaien. Een simulatie houdt alle threads van de pool bezig tot
+ * het tijdsbudget op is, met een eigen pool blijven de commonPool en de parallel streams van de rest van de
+ * applicatie vrij. Het aantal threads is begrensd met <code>election.simulation.parallelism</code>.
+ */
+@Configuration
+public class SimulationConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool simulationPool(@Value("${election.simulation.parallelism:4}") int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -1,19 +1,30 @@
 package elections.demos.backend.controller;
 
 import elections.demos.backend.dto.GetCandidatesDTO;
+import elections.demos.backend.dto.KieskringSeatsDTO;
+import elections.demos.backend.dto.PreferenceVotesDTO;
 import elections.demos.backend.service.CandidateService;
+import elections.demos.backend.service.KieskringSeatService;
+import elections.demos.backend.service.PreferenceVotesService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/{electionId}/candidate")
 public class CandidateController {
 
     private final CandidateService candidateService;
+    private final PreferenceVotesService preferenceVotesService;
+    private final KieskringSeatService kieskringSeatService;
 
-    public CandidateController(CandidateService candidateService) {
+    public CandidateController(CandidateService candidateService, PreferenceVotesService preferenceVotesService,
+                               KieskringSeatService kieskringSeatService) {
         this.candidateService = candidateService;
+        this.preferenceVotesService = preferenceVotesService;
+        this.kieskringSeatService = kieskringSeatService;
     }
 
     @GetMapping("/party/{partyId}")
@@ -23,4 +34,27 @@ public class CandidateController {
         GetCandidatesDTO response = candidateService.getCandidatesByParty(electionId, partyId);
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/votes")
+    public ResponseEntity<List<PreferenceVotesDTO>> getCandidateVotes(
+            @PathVariable String electionId,
+            @RequestParam(required = false) Integer kieskring) {
+        return preferenceVotesService.getCandidateVotes(electionId, kieskring)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/elected-by-preference")
+    public ResponseEntity<List<PreferenceVotesDTO>> getElectedByPreference(@PathVariable String electionId) {
+        return preferenceVotesService.getElectedByPreference(electionId)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/kieskring-seats")
+    public ResponseEntity<List<KieskringSeatsDTO>> getKieskringSeats(@PathVariable String electionId) {
+        return kieskringSeatService.getKieskringSeats(electionId)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,34 @@
+package elections.demos.backend.controller;
+
+import elections.demos.backend.service.CoalitionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/{electionId}/coalitions")
+public class CoalitionController {
+
+    private final CoalitionService coalitionService;
+
+    public CoalitionController(CoalitionService coalitionService) {
+        this.coalitionService = coalitionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getCoalitions(@PathVariable String electionId,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           @RequestParam(defaultValue = "parties") String sort,
+                                           @RequestParam(required = false) Integer maxParties) {
+        try {
+            return coalitionService.getCoalitions(electionId, page, size, sort, maxParties)
+                    .<ResponseEntity<?>>map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
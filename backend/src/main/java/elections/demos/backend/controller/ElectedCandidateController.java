@@ -0,0 +1,29 @@
+package elections.demos.backend.controller;
+
+import elections.demos.backend.dto.ElectedPartyDTO;
+import elections.demos.backend.service.ElectedCandidateService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/{electionId}/elected")
+public class ElectedCandidateController {
+
+    private final ElectedCandidateService electedCandidateService;
+
+    public ElectedCandidateController(ElectedCandidateService electedCandidateService) {
+        this.electedCandidateService = electedCandidateService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ElectedPartyDTO>> getElectedParties(@PathVariable String electionId) {
+        List<ElectedPartyDTO> response = electedCandidateService.getElectedParties(electionId);
+        if (response.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+}
@@ -0,0 +1,44 @@
+package elections.demos.backend.controller;
+
+import elections.demos.backend.dto.MunicipalityVotesDTO;
+import elections.demos.backend.dto.PollingStationDTO;
+import elections.demos.backend.service.MunicipalityService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/{electionId}/municipality")
+public class MunicipalityController {
+
+    private final MunicipalityService municipalityService;
+
+    public MunicipalityController(MunicipalityService municipalityService) {
+        this.municipalityService = municipalityService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<MunicipalityVotesDTO>> getMunicipalities(@PathVariable String electionId) {
+        return municipalityService.getMunicipalities(electionId)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<MunicipalityVotesDTO> getMunicipality(@PathVariable String electionId,
+                                                                @PathVariable String code) {
+        return municipalityService.getMunicipality(electionId, code)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{code}/polling-stations")
+    public ResponseEntity<List<PollingStationDTO>> getPollingStations(@PathVariable String electionId,
+                                                                      @PathVariable String code) {
+        return municipalityService.getPollingStations(electionId, code)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
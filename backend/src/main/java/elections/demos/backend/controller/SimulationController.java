@@ -0,0 +1,31 @@
+package elections.demos.backend.controller;
+
+import elections.demos.backend.dto.SimulationRequestDTO;
+import elections.demos.backend.service.SimulationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/{electionId}/simulation")
+public class SimulationController {
+
+    private final SimulationService simulationService;
+
+    public SimulationController(SimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> simulate(@PathVariable String electionId, @RequestBody SimulationRequestDTO request) {
+        try {
+            return simulationService.simulate(electionId, request)
+                    .<ResponseEntity<?>>map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package elections.demos.backend.controller;
+
+import elections.demos.backend.dto.TurnoutDTO;
+import elections.demos.backend.service.TurnoutService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/{electionId}/turnout")
+public class TurnoutController {
+
+    private final TurnoutService turnoutService;
+
+    public TurnoutController(TurnoutService turnoutService) {
+        this.turnoutService = turnoutService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TurnoutDTO>> getTurnout(@PathVariable String electionId,
+                                                       @RequestParam(defaultValue = "kieskring") String level) {
+        return turnoutService.getTurnout(electionId, level)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<TurnoutDTO> getTurnout(@PathVariable String electionId, @PathVariable String id,
+                                                 @RequestParam(defaultValue = "kieskring") String level) {
+        return turnoutService.getTurnout(electionId, level, id)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,52 @@
+package elections.demos.backend.dto;
+
+import java.util.List;
+
+public class CoalitionDTO {
+    private List<String> partyIds;
+    private List<String> partyNames;
+    private int seats;
+    // zetels boven de meerderheid
+    private int surplus;
+
+    public CoalitionDTO() {}
+
+    public CoalitionDTO(List<String> partyIds, List<String> partyNames, int seats, int surplus) {
+        this.partyIds = partyIds;
+        this.partyNames = partyNames;
+        this.seats = seats;
+        this.surplus = surplus;
+    }
+
+    public List<String> getPartyIds() {
+        return partyIds;
+    }
+
+    public void setPartyIds(List<String> partyIds) {
+        this.partyIds = partyIds;
+    }
+
+    public List<String> getPartyNames() {
+        return partyNames;
+    }
+
+    public void setPartyNames(List<String> partyNames) {
+        this.partyNames = partyNames;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public int getSurplus() {
+        return surplus;
+    }
+
+    public void setSurplus(int surplus) {
+        this.surplus = surplus;
+    }
+}
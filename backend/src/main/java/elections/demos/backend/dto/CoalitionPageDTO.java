@@ -0,0 +1,85 @@
+package elections.demos.backend.dto;
+
+import java.util.List;
+
+public class CoalitionPageDTO {
+    private String electionId;
+    private int numberOfSeats;
+    private int majority;
+    private int totalCoalitions;
+    private int page;
+    private int size;
+    private List<CoalitionDTO> coalitions;
+
+    public CoalitionPageDTO() {}
+
+    public CoalitionPageDTO(String electionId, int numberOfSeats, int majority, int totalCoalitions, int page,
+                            int size, List<CoalitionDTO> coalitions) {
+        this.electionId = electionId;
+        this.numberOfSeats = numberOfSeats;
+        this.majority = majority;
+        this.totalCoalitions = totalCoalitions;
+        this.page = page;
+        this.size = size;
+        this.coalitions = coalitions;
+    }
+
+    public String getElectionId() {
+        return electionId;
+    }
+
+    public void setElectionId(String electionId) {
+        this.electionId = electionId;
+    }
+
+    public int getNumberOfSeats() {
+        return numberOfSeats;
+    }
+
+    public void setNumberOfSeats(int numberOfSeats) {
+        this.numberOfSeats = numberOfSeats;
+    }
+
+    public int getMajority() {
+        return majority;
+    }
+
+    public void setMajority(int majority) {
+        this.majority = majority;
+    }
+
+    /**
+     * @return het aantal coalities over alle pagina's.
+     */
+    public int getTotalCoalitions() {
+        return totalCoalitions;
+    }
+
+    public void setTotalCoalitions(int totalCoalitions) {
+        this.totalCoalitions = totalCoalitions;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public List<CoalitionDTO> getCoalitions() {
+        return coalitions;
+    }
+
+    public void setCoalitions(List<CoalitionDTO> coalitions) {
+        this.coalitions = coalitions;
+    }
+}
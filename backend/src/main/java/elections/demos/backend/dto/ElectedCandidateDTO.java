@@ -0,0 +1,39 @@
+package elections.demos.backend.dto;
+
+public class ElectedCandidateDTO {
+    private String candidateId;
+    private String name;
+    private int ranking;
+
+    public ElectedCandidateDTO() {}
+
+    public ElectedCandidateDTO(String candidateId, String name, int ranking) {
+        this.candidateId = candidateId;
+        this.name = name;
+        this.ranking = ranking;
+    }
+
+    public String getCandidateId() {
+        return candidateId;
+    }
+
+    public void setCandidateId(String candidateId) {
+        this.candidateId = candidateId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getRanking() {
+        return ranking;
+    }
+
+    public void setRanking(int ranking) {
+        this.ranking = ranking;
+    }
+}
@@ -0,0 +1,51 @@
+package elections.demos.backend.dto;
+
+import java.util.List;
+
+public class ElectedPartyDTO {
+    private String partyCode;
+    private String partyName;
+    private int seats;
+    private List<ElectedCandidateDTO> candidates;
+
+    public ElectedPartyDTO() {}
+
+    public ElectedPartyDTO(String partyCode, String partyName, int seats, List<ElectedCandidateDTO> candidates) {
+        this.partyCode = partyCode;
+        this.partyName = partyName;
+        this.seats = seats;
+        this.candidates = candidates;
+    }
+
+    public String getPartyCode() {
+        return partyCode;
+    }
+
+    public void setPartyCode(String partyCode) {
+        this.partyCode = partyCode;
+    }
+
+    public String getPartyName() {
+        return partyName;
+    }
+
+    public void setPartyName(String partyName) {
+        this.partyName = partyName;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public List<ElectedCandidateDTO> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<ElectedCandidateDTO> candidates) {
+        this.candidates = candidates;
+    }
+}
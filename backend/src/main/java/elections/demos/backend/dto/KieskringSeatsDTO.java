@@ -0,0 +1,41 @@
+package elections.demos.backend.dto;
+
+import java.util.Map;
+
+public class KieskringSeatsDTO {
+    private String party;
+    private int seats;
+    private Map<Integer, Integer> seatsPerKieskring;
+
+    public KieskringSeatsDTO() {}
+
+    public KieskringSeatsDTO(String party, int seats, Map<Integer, Integer> seatsPerKieskring) {
+        this.party = party;
+        this.seats = seats;
+        this.seatsPerKieskring = seatsPerKieskring;
+    }
+
+    public String getParty() {
+        return party;
+    }
+
+    public void setParty(String party) {
+        this.party = party;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public Map<Integer, Integer> getSeatsPerKieskring() {
+        return seatsPerKieskring;
+    }
+
+    public void setSeatsPerKieskring(Map<Integer, Integer> seatsPerKieskring) {
+        this.seatsPerKieskring = seatsPerKieskring;
+    }
+}
@@ -0,0 +1,72 @@
+package elections.demos.backend.dto;
+
+import java.util.List;
+
+public class MunicipalityVotesDTO {
+    private String code;
+    private String name;
+    private long cast;
+    private long validVotes;
+    private long rejectedVotes;
+    private List<PartyVotesDTO> parties;
+
+    public MunicipalityVotesDTO() {}
+
+    public MunicipalityVotesDTO(String code, String name, long cast, long validVotes, long rejectedVotes,
+                                List<PartyVotesDTO> parties) {
+        this.code = code;
+        this.name = name;
+        this.cast = cast;
+        this.validVotes = validVotes;
+        this.rejectedVotes = rejectedVotes;
+        this.parties = parties;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCast() {
+        return cast;
+    }
+
+    public void setCast(long cast) {
+        this.cast = cast;
+    }
+
+    public long getValidVotes() {
+        return validVotes;
+    }
+
+    public void setValidVotes(long validVotes) {
+        this.validVotes = validVotes;
+    }
+
+    public long getRejectedVotes() {
+        return rejectedVotes;
+    }
+
+    public void setRejectedVotes(long rejectedVotes) {
+        this.rejectedVotes = rejectedVotes;
+    }
+
+    public List<PartyVotesDTO> getParties() {
+        return parties;
+    }
+
+    public void setParties(List<PartyVotesDTO> parties) {
+        this.parties = parties;
+    }
+}
@@ -12,6 +12,9 @@ public class PartyDataDTO {
     private double percentage;
     private long totalVotes;
     private String color;  // New field
+    // Stemmen nodig voor de volgende zetel en stemmen waarbij de laatste zetel verloren gaat, null als die er niet is
+    private Long votesForNextSeat;
+    private Long votesToLoseSeat;
 
     public PartyDataDTO(String partyId, String partyName, int seats, double percentage, long totalVotes) {
         this.partyId = partyId;
@@ -71,6 +74,22 @@ public class PartyDataDTO {
         this.totalVotes = totalVotes;
     }
 
+    public Long getVotesForNextSeat() {
+        return votesForNextSeat;
+    }
+
+    public void setVotesForNextSeat(Long votesForNextSeat) {
+        this.votesForNextSeat = votesForNextSeat;
+    }
+
+    public Long getVotesToLoseSeat() {
+        return votesToLoseSeat;
+    }
+
+    public void setVotesToLoseSeat(Long votesToLoseSeat) {
+        this.votesToLoseSeat = votesToLoseSeat;
+    }
+
     public PartyResult toEntity(Election election) {
         PartyResult result = new PartyResult();
         result.setElection(election);
@@ -0,0 +1,61 @@
+package elections.demos.backend.dto;
+
+import java.util.List;
+
+public class PollingStationDTO {
+    private String id;
+    private String name;
+    private long cast;
+    private long totalCounted;
+    private List<PartyVotesDTO> parties;
+
+    public PollingStationDTO() {}
+
+    public PollingStationDTO(String id, String name, long cast, long totalCounted, List<PartyVotesDTO> parties) {
+        this.id = id;
+        this.name = name;
+        this.cast = cast;
+        this.totalCounted = totalCounted;
+        this.parties = parties;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCast() {
+        return cast;
+    }
+
+    public void setCast(long cast) {
+        this.cast = cast;
+    }
+
+    public long getTotalCounted() {
+        return totalCounted;
+    }
+
+    public void setTotalCounted(long totalCounted) {
+        this.totalCounted = totalCounted;
+    }
+
+    public List<PartyVotesDTO> getParties() {
+        return parties;
+    }
+
+    public void setParties(List<PartyVotesDTO> parties) {
+        this.parties = parties;
+    }
+}
@@ -0,0 +1,70 @@
+package elections.demos.backend.dto;
+
+public class PreferenceVotesDTO {
+    private String candidateId;
+    private String name;
+    private String partyCode;
+    private String partyName;
+    private long votes;
+    private boolean electedByPreference;
+
+    public PreferenceVotesDTO() {}
+
+    public PreferenceVotesDTO(String candidateId, String name, String partyCode, String partyName, long votes,
+                              boolean electedByPreference) {
+        this.candidateId = candidateId;
+        this.name = name;
+        this.partyCode = partyCode;
+        this.partyName = partyName;
+        this.votes = votes;
+        this.electedByPreference = electedByPreference;
+    }
+
+    public String getCandidateId() {
+        return candidateId;
+    }
+
+    public void setCandidateId(String candidateId) {
+        this.candidateId = candidateId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPartyCode() {
+        return partyCode;
+    }
+
+    public void setPartyCode(String partyCode) {
+        this.partyCode = partyCode;
+    }
+
+    public String getPartyName() {
+        return partyName;
+    }
+
+    public void setPartyName(String partyName) {
+        this.partyName = partyName;
+    }
+
+    public long getVotes() {
+        return votes;
+    }
+
+    public void setVotes(long votes) {
+        this.votes = votes;
+    }
+
+    public boolean isElectedByPreference() {
+        return electedByPreference;
+    }
+
+    public void setElectedByPreference(boolean electedByPreference) {
+        this.electedByPreference = electedByPreference;
+    }
+}
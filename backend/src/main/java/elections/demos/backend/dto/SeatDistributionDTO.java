@@ -0,0 +1,73 @@
+package elections.demos.backend.dto;
+
+import java.util.Map;
+
+public class SeatDistributionDTO {
+    private String partyName;
+    private int baselineSeats;
+    private double meanSeats;
+    private int minSeats;
+    private int maxSeats;
+    // aantal zetels -> aantal iteraties
+    private Map<Integer, Long> histogram;
+
+    public SeatDistributionDTO() {}
+
+    public SeatDistributionDTO(String partyName, int baselineSeats, double meanSeats, int minSeats, int maxSeats,
+                               Map<Integer, Long> histogram) {
+        this.partyName = partyName;
+        this.baselineSeats = baselineSeats;
+        this.meanSeats = meanSeats;
+        this.minSeats = minSeats;
+        this.maxSeats = maxSeats;
+        this.histogram = histogram;
+    }
+
+    public String getPartyName() {
+        return partyName;
+    }
+
+    public void setPartyName(String partyName) {
+        this.partyName = partyName;
+    }
+
+    public int getBaselineSeats() {
+        return baselineSeats;
+    }
+
+    public void setBaselineSeats(int baselineSeats) {
+        this.baselineSeats = baselineSeats;
+    }
+
+    public double getMeanSeats() {
+        return meanSeats;
+    }
+
+    public void setMeanSeats(double meanSeats) {
+        this.meanSeats = meanSeats;
+    }
+
+    public int getMinSeats() {
+        return minSeats;
+    }
+
+    public void setMinSeats(int minSeats) {
+        this.minSeats = minSeats;
+    }
+
+    public int getMaxSeats() {
+        return maxSeats;
+    }
+
+    public void setMaxSeats(int maxSeats) {
+        this.maxSeats = maxSeats;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Map<Integer, Long> histogram) {
+        this.histogram = histogram;
+    }
+}
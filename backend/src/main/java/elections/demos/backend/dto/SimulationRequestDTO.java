@@ -0,0 +1,52 @@
+package elections.demos.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimulationRequestDTO {
+    private List<VoteShiftDTO> shifts = new ArrayList<>();
+    private Long iterations;
+    private Long timeBudgetMillis;
+    private Long seed;
+
+    public SimulationRequestDTO() {}
+
+    public SimulationRequestDTO(List<VoteShiftDTO> shifts, Long iterations, Long timeBudgetMillis, Long seed) {
+        this.shifts = shifts;
+        this.iterations = iterations;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.seed = seed;
+    }
+
+    public List<VoteShiftDTO> getShifts() {
+        return shifts;
+    }
+
+    public void setShifts(List<VoteShiftDTO> shifts) {
+        this.shifts = shifts;
+    }
+
+    public Long getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(Long iterations) {
+        this.iterations = iterations;
+    }
+
+    public Long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    public void setTimeBudgetMillis(Long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,65 @@
+package elections.demos.backend.dto;
+
+import java.util.List;
+
+public class SimulationResultDTO {
+    private String electionId;
+    private long requestedIterations;
+    private long iterations;
+    private long elapsedMillis;
+    private List<SeatDistributionDTO> parties;
+
+    public SimulationResultDTO() {}
+
+    public SimulationResultDTO(String electionId, long requestedIterations, long iterations, long elapsedMillis,
+                               List<SeatDistributionDTO> parties) {
+        this.electionId = electionId;
+        this.requestedIterations = requestedIterations;
+        this.iterations = iterations;
+        this.elapsedMillis = elapsedMillis;
+        this.parties = parties;
+    }
+
+    public String getElectionId() {
+        return electionId;
+    }
+
+    public void setElectionId(String electionId) {
+        this.electionId = electionId;
+    }
+
+    public long getRequestedIterations() {
+        return requestedIterations;
+    }
+
+    public void setRequestedIterations(long requestedIterations) {
+        this.requestedIterations = requestedIterations;
+    }
+
+    /**
+     * @return de iteraties die zijn uitgevoerd, minder dan gevraagd als de tijd op was.
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(long iterations) {
+        this.iterations = iterations;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<SeatDistributionDTO> getParties() {
+        return parties;
+    }
+
+    public void setParties(List<SeatDistributionDTO> parties) {
+        this.parties = parties;
+    }
+}
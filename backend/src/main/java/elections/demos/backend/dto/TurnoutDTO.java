@@ -0,0 +1,92 @@
+package elections.demos.backend.dto;
+
+import java.util.Map;
+
+public class TurnoutDTO {
+    private String id;
+    private String name;
+    private long cast;
+    private long totalCounted;
+    private long rejected;
+    private long uncounted;
+    private Map<String, Long> rejectedReasons;
+    private Map<String, Long> uncountedReasons;
+
+    public TurnoutDTO() {}
+
+    public TurnoutDTO(String id, String name, long cast, long totalCounted, long rejected, long uncounted,
+                      Map<String, Long> rejectedReasons, Map<String, Long> uncountedReasons) {
+        this.id = id;
+        this.name = name;
+        this.cast = cast;
+        this.totalCounted = totalCounted;
+        this.rejected = rejected;
+        this.uncounted = uncounted;
+        this.rejectedReasons = rejectedReasons;
+        this.uncountedReasons = uncountedReasons;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCast() {
+        return cast;
+    }
+
+    public void setCast(long cast) {
+        this.cast = cast;
+    }
+
+    public long getTotalCounted() {
+        return totalCounted;
+    }
+
+    public void setTotalCounted(long totalCounted) {
+        this.totalCounted = totalCounted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getUncounted() {
+        return uncounted;
+    }
+
+    public void setUncounted(long uncounted) {
+        this.uncounted = uncounted;
+    }
+
+    public Map<String, Long> getRejectedReasons() {
+        return rejectedReasons;
+    }
+
+    public void setRejectedReasons(Map<String, Long> rejectedReasons) {
+        this.rejectedReasons = rejectedReasons;
+    }
+
+    public Map<String, Long> getUncountedReasons() {
+        return uncountedReasons;
+    }
+
+    public void setUncountedReasons(Map<String, Long> uncountedReasons) {
+        this.uncountedReasons = uncountedReasons;
+    }
+}
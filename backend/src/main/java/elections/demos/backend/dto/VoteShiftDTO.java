@@ -0,0 +1,54 @@
+package elections.demos.backend.dto;
+
+/**
+ * Een verschuiving van stemmen in een simulatie: <code>percentage</code> procent van de stemmen van partij
+ * <code>from</code> gaat naar partij <code>to</code>, per kieskring willekeurig tot <code>spread</code> procentpunt
+ * meer of minder.
+ */
+public class VoteShiftDTO {
+    private String from;
+    private String to;
+    private double percentage;
+    private double spread;
+
+    public VoteShiftDTO() {}
+
+    public VoteShiftDTO(String from, String to, double percentage, double spread) {
+        this.from = from;
+        this.to = to;
+        this.percentage = percentage;
+        this.spread = spread;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public double getPercentage() {
+        return percentage;
+    }
+
+    public void setPercentage(double percentage) {
+        this.percentage = percentage;
+    }
+
+    public double getSpread() {
+        return spread;
+    }
+
+    public void setSpread(double spread) {
+        this.spread = spread;
+    }
+}
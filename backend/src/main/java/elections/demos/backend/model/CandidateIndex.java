@@ -0,0 +1,90 @@
+package elections.demos.backend.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vindt de partijen van een verkiezing op partijcode en de kandidaten op partijcode en kandidaatnummer uit de
+ * kandidatenlijst. Dezelfde kandidaat staat op de lijst van elke kieskring, zo hoeft bij het inlezen niet voor elke
+ * kandidaat alle kandidaten van alle partijen te worden doorzocht.<br/>
+ * <b>Niet opgeslagen in de database, de index wordt opnieuw opgebouwd uit de partijen.</b>
+ */
+public class CandidateIndex {
+    private final String electionId;
+    private final Map<String, Party> parties = new HashMap<>();
+    // partijcode -> kandidaatnummer -> kandidaat
+    private final Map<String, Map<String, Candidate>> candidates = new HashMap<>();
+    private int size;
+
+    public CandidateIndex(String electionId) {
+        this.electionId = electionId;
+    }
+
+    /**
+     * Bouwt de index op uit de partijen en hun kandidaten. Alleen hier worden de kandidaten van de partijen
+     * doorlopen, daarna wordt de index bijgehouden door {@link Election#addParty(Party)} en
+     * {@link Party#addCandidate(Candidate)}.
+     */
+    public static CandidateIndex of(String electionId, List<Party> parties) {
+        CandidateIndex index = new CandidateIndex(electionId);
+        for (Party party : parties) {
+            index.add(party);
+            party.getCandidates().forEach(index::add);
+        }
+        return index;
+    }
+
+    /**
+     * Voegt een partij toe als er nog geen partij met dezelfde code in de index staat.
+     */
+    public void add(Party party) {
+        if (party.getPartyCode() != null) {
+            parties.putIfAbsent(party.getPartyCode(), party);
+        }
+    }
+
+    /**
+     * Voegt een kandidaat toe als die nog niet in de index staat. Het kandidaatnummer wordt afgeleid uit het id van
+     * de kandidaat, <code>verkiezing_partijcode_nummer</code>.
+     */
+    public void add(Candidate candidate) {
+        Party party = candidate.getParty();
+        if (party == null || party.getPartyCode() == null || candidate.getId() == null) {
+            return;
+        }
+        String prefix = electionId + "_" + party.getPartyCode() + "_";
+        if (!candidate.getId().startsWith(prefix)) {
+            return;
+        }
+        add(party.getPartyCode(), candidate.getId().substring(prefix.length()), candidate);
+    }
+
+    private void add(String partyCode, String candidateId, Candidate candidate) {
+        if (candidates.computeIfAbsent(partyCode, code -> new HashMap<>()).putIfAbsent(candidateId, candidate) == null) {
+            size++;
+        }
+    }
+
+    /**
+     * @return de partij met deze code, of <code>null</code>.
+     */
+    public Party findParty(String partyCode) {
+        return parties.get(partyCode);
+    }
+
+    /**
+     * @return de kandidaat met dit nummer op de lijst van de partij, of <code>null</code>.
+     */
+    public Candidate findCandidate(String partyCode, String candidateId) {
+        Map<String, Candidate> ofParty = candidates.get(partyCode);
+        return ofParty == null ? null : ofParty.get(candidateId);
+    }
+
+    /**
+     * @return het aantal kandidaten.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,213 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * De voorkeurstemmen per kandidaat, landelijk en per kieskring. De kandidaten krijgen een opvolgend nummer (ordinal)
+ * op volgorde van binnenkomst, gevonden op hun partij en hun nummer uit de kandidatenlijst. De stemmen staan in een
+ * <code>long[kandidaat]</code> voor het land en een <code>long[kieskring][kandidaat]</code> voor de kieskringen.<br/>
+ * <br/>
+ * Met de voorkeurdrempel uit de verkiezingsdefinitie, een percentage van de kiesdeler, wordt bepaald welke
+ * kandidaten met voorkeurstemmen zijn gekozen, zie {@link #electedByPreference(String, int, long, int)}.<br/>
+ * <b>Niet opgeslagen in de database, wel in de snapshot van de verkiezing.</b>
+ */
+public class CandidateVotes {
+    /**
+     * Het ordinal als een kandidaat of kieskring niet bestaat.
+     */
+    public static final int NOT_FOUND = -1;
+    /**
+     * De voorkeurdrempel van de Tweede Kamer, als de verkiezingsdefinitie er geen noemt.
+     */
+    public static final int DEFAULT_PREFERENCE_THRESHOLD = 25;
+
+    // Woordenboek van de kandidaten: partij-id::kandidaatnummer -> ordinal
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> partyIds = new ArrayList<>();
+    private final List<String> candidateIds = new ArrayList<>();
+    private long[] national = new long[0];
+
+    // Woordenboek van de kieskringen: nummer -> ordinal
+    private final Map<Integer, Integer> kieskringOrdinals = new HashMap<>();
+    private final List<Integer> kieskringNumbers = new ArrayList<>();
+    private long[][] perKieskring = new long[0][];
+
+    private int preferenceThreshold = DEFAULT_PREFERENCE_THRESHOLD;
+
+    /**
+     * @return het ordinal van de kandidaat, de kandidaat wordt toegevoegd als die nieuw is.
+     */
+    public int candidate(String partyId, String candidateId) {
+        String key = partyId + "::" + candidateId;
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ordinal = partyIds.size();
+        ordinals.put(key, ordinal);
+        partyIds.add(partyId);
+        candidateIds.add(candidateId);
+        if (ordinal >= national.length) {
+            national = Arrays.copyOf(national, Math.max(ordinal + 1, national.length * 2));
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return het ordinal van de kieskring met dit nummer, de kieskring wordt toegevoegd als die nieuw is.
+     */
+    public int kieskring(int number) {
+        Integer ordinal = kieskringOrdinals.get(number);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ordinal = kieskringNumbers.size();
+        kieskringOrdinals.put(number, ordinal);
+        kieskringNumbers.add(number);
+        if (ordinal >= perKieskring.length) {
+            int oldLength = perKieskring.length;
+            perKieskring = Arrays.copyOf(perKieskring, Math.max(ordinal + 1, oldLength * 2));
+            Arrays.fill(perKieskring, oldLength, perKieskring.length, new long[0]);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Telt landelijke stemmen op.
+     */
+    public void addNational(int candidate, long votes) {
+        national[candidate] += votes;
+    }
+
+    /**
+     * Telt stemmen in een kieskring op.
+     */
+    public void addKieskring(int kieskring, int candidate, long votes) {
+        long[] row = perKieskring[kieskring];
+        if (candidate >= row.length) {
+            row = Arrays.copyOf(row, Math.max(candidate + 1, partyIds.size()));
+            perKieskring[kieskring] = row;
+        }
+        row[candidate] += votes;
+    }
+
+    /**
+     * Zet de landelijke stemmen op 0, voordat het totaalbestand opnieuw wordt ingelezen.
+     */
+    public void clearNational() {
+        Arrays.fill(national, 0);
+    }
+
+    /**
+     * Zet de stemmen van een kieskring op 0, voordat het bestand van de kieskring opnieuw wordt ingelezen.
+     */
+    public void clearKieskring(int kieskring) {
+        Arrays.fill(perKieskring[kieskring], 0);
+    }
+
+    /**
+     * @return een kopie waaraan stemmen kunnen worden toegevoegd zonder dat dit exemplaar verandert.
+     */
+    public CandidateVotes copy() {
+        CandidateVotes copy = new CandidateVotes();
+        copy.setPreferenceThreshold(preferenceThreshold);
+        for (int candidate = 0; candidate < size(); candidate++) {
+            copy.addNational(copy.candidate(partyIds.get(candidate), candidateIds.get(candidate)),
+                    national[candidate]);
+        }
+        for (int kieskring = 0; kieskring < kieskringCount(); kieskring++) {
+            copy.kieskring(kieskringNumbers.get(kieskring));
+            copy.perKieskring[kieskring] = perKieskring[kieskring].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Bepaalt welke kandidaten van een partij met voorkeurstemmen zijn gekozen: de kandidaten met minstens de
+     * voorkeurdrempel, een percentage van de kiesdeler, en niet meer dan de partij zetels heeft. Bij meer kandidaten
+     * dan zetels gaan de meeste stemmen voor. De kiesdeler, <code>validVotes / seats</code>, is geen geheel getal,
+     * daarom wordt <code>votes * 100 * seats &gt;= threshold * validVotes</code> vergeleken.
+     *
+     * @param partyId    het id van de partij.
+     * @param partySeats het aantal zetels van de partij.
+     * @param validVotes het aantal geldige stemmen op alle partijen samen.
+     * @param seats      het aantal zetels van de verkiezing.
+     * @return de ordinals van de gekozen kandidaten, de meeste stemmen eerst.
+     */
+    public int[] electedByPreference(String partyId, int partySeats, long validVotes, int seats) {
+        List<Integer> elected = new ArrayList<>();
+        for (int candidate = 0; candidate < size(); candidate++) {
+            if (partyIds.get(candidate).equals(partyId) && reachesThreshold(candidate, validVotes, seats)) {
+                elected.add(candidate);
+            }
+        }
+        elected.sort((a, b) -> Long.compare(national[b], national[a]));
+        return elected.stream().limit(Math.max(partySeats, 0)).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return of de kandidaat landelijk minstens de voorkeurdrempel heeft gehaald.
+     */
+    public boolean reachesThreshold(int candidate, long validVotes, int seats) {
+        long votes = national[candidate];
+        return validVotes > 0 && votes > 0 && votes * 100L * seats >= (long) preferenceThreshold * validVotes;
+    }
+
+    public int find(String partyId, String candidateId) {
+        return ordinals.getOrDefault(partyId + "::" + candidateId, NOT_FOUND);
+    }
+
+    public int findKieskring(int number) {
+        return kieskringOrdinals.getOrDefault(number, NOT_FOUND);
+    }
+
+    /**
+     * @return het aantal kandidaten.
+     */
+    public int size() {
+        return partyIds.size();
+    }
+
+    public String partyId(int candidate) {
+        return partyIds.get(candidate);
+    }
+
+    public String candidateId(int candidate) {
+        return candidateIds.get(candidate);
+    }
+
+    public long national(int candidate) {
+        return national[candidate];
+    }
+
+    public int kieskringCount() {
+        return kieskringNumbers.size();
+    }
+
+    public int kieskringNumber(int kieskring) {
+        return kieskringNumbers.get(kieskring);
+    }
+
+    /**
+     * @return de stemmen van een kandidaat in een kieskring, of 0.
+     */
+    public long votes(int kieskring, int candidate) {
+        long[] row = perKieskring[kieskring];
+        return candidate < row.length ? row[candidate] : 0;
+    }
+
+    /**
+     * @return de voorkeurdrempel als percentage van de kiesdeler, zoals <code>25</code>.
+     */
+    public int getPreferenceThreshold() {
+        return preferenceThreshold;
+    }
+
+    public void setPreferenceThreshold(int preferenceThreshold) {
+        this.preferenceThreshold = preferenceThreshold;
+    }
+}
@@ -0,0 +1,80 @@
+package elections.demos.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Een kandidaat die volgens het proces-verbaal van de Kiesraad, het bestand <code>Resultaat_&lt;verkiezing&gt;</code>,
+ * is gekozen. Het id is hetzelfde als dat van de kandidaat, <code>verkiezing_partijcode_nummer</code>. De partij en
+ * de kandidaat worden opgezocht in de {@link CandidateIndex} van de verkiezing, ze zijn <code>null</code> als de
+ * kandidatenlijst niet is ingelezen.<br/>
+ * <br/>
+ * Het id wordt niet door de database uitgedeeld, zo kan Hibernate alle gekozen kandidaten in één batch opslaan. Een
+ * nieuw exemplaar wordt daarom altijd als nieuw gezien, zonder eerst in de database te kijken.
+ */
+@Entity
+@Table(name = "elected_candidate", indexes = @Index(columnList = "election_id"))
+public class ElectedCandidate implements Persistable<String> {
+
+    @Id
+    private String id;
+
+    @Column(name = "election_id", nullable = false)
+    private String electionId;
+
+    private String partyCode;
+
+    private String candidateNumber;
+
+    // De plaats op de lijst van gekozen kandidaten van de partij
+    private int ranking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "party_id")
+    private Party party;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "candidate_id")
+    private Candidate candidate;
+
+    @Transient
+    private boolean isNew = true;
+
+    public ElectedCandidate() {}
+
+    public ElectedCandidate(String electionId, String partyCode, String candidateNumber, int ranking) {
+        this.id = electionId + "_" + partyCode + "_" + candidateNumber;
+        this.electionId = electionId;
+        this.partyCode = partyCode;
+        this.candidateNumber = candidateNumber;
+        this.ranking = ranking;
+    }
+
+    /**
+     * Koppelt de partij en de kandidaat van de verkiezing, opgezocht in de index van de verkiezing.
+     */
+    public void linkTo(CandidateIndex index) {
+        this.party = index.findParty(partyCode);
+        this.candidate = index.findCandidate(partyCode, candidateNumber);
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @Override
+    public String getId() { return id; }
+    public String getElectionId() { return electionId; }
+    public String getPartyCode() { return partyCode; }
+    public String getCandidateNumber() { return candidateNumber; }
+    public int getRanking() { return ranking; }
+    public Party getParty() { return party; }
+    public Candidate getCandidate() { return candidate; }
+}
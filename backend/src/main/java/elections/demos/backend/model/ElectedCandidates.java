@@ -0,0 +1,72 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * De gekozen kandidaten uit het bestand <code>Resultaat_&lt;verkiezing&gt;</code>, met de officiële zetels per partij:
+ * het aantal gekozen kandidaten van de partij. De zetels worden bijgehouden terwijl de kandidaten worden toegevoegd,
+ * zodat ze niet opnieuw hoeven te worden berekend.<br/>
+ * <b>Niet zelf opgeslagen in de database, de {@link ElectedCandidate}s wel.</b>
+ */
+public class ElectedCandidates {
+    private final List<ElectedCandidate> candidates = new ArrayList<>();
+    // partijcode -> zetels, in de volgorde van het resultaat
+    private final Map<String, Integer> seats = new LinkedHashMap<>();
+
+    public static ElectedCandidates of(List<ElectedCandidate> candidates) {
+        ElectedCandidates electedCandidates = new ElectedCandidates();
+        candidates.forEach(electedCandidates::add);
+        return electedCandidates;
+    }
+
+    public void add(ElectedCandidate candidate) {
+        candidates.add(candidate);
+        seats.merge(candidate.getPartyCode(), 1, Integer::sum);
+    }
+
+    /**
+     * Haalt alle kandidaten weg, voordat het resultaat opnieuw wordt ingelezen.
+     */
+    public void clear() {
+        candidates.clear();
+        seats.clear();
+    }
+
+    /**
+     * Koppelt alle kandidaten aan de partijen en kandidaten van de verkiezing, zoals na het opslaan van de verkiezing.
+     */
+    public void linkTo(Election election) {
+        CandidateIndex index = election.getCandidateIndex();
+        candidates.forEach(candidate -> candidate.linkTo(index));
+    }
+
+    public List<ElectedCandidate> getCandidates() {
+        return Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * @return de officiële zetels van de partij, of 0.
+     */
+    public int seats(String partyCode) {
+        return seats.getOrDefault(partyCode, 0);
+    }
+
+    /**
+     * @return partijcode -> zetels, alleen de partijen met zetels.
+     */
+    public Map<String, Integer> getSeatsPerParty() {
+        return Collections.unmodifiableMap(seats);
+    }
+
+    public boolean isEmpty() {
+        return candidates.isEmpty();
+    }
+
+    public int size() {
+        return candidates.size();
+    }
+}
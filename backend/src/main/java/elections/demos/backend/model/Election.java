@@ -38,19 +38,53 @@ public class Election {
     @OneToMany(mappedBy = "election", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Region> regions = new ArrayList<>();
 
+    // Op volgorde van opslaan, zodat gelijke stemmen bij elke zetelverdeling op dezelfde manier worden beslist
     @OneToMany(mappedBy = "election", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     private List<PartyResult> partyResults = new ArrayList<>();
 
     // ======== Transient rekenbuffers (niet in DB) ========
+    // partij-ordinal uit de PartyDictionary van de parser -> votes, met het id (TK2023_1) en de naam per ordinal
     @Transient
-    private final Map<String, Long> votesPerParty = new HashMap<>();
+    private long[] votesPerParty = new long[0];
 
     @Transient
-    private final Map<String, String> namePerParty = new HashMap<>();
+    private final List<String> partyIdPerOrdinal = new ArrayList<>();
 
-    // kieskring -> (partyName -> votes)
     @Transient
-    private final Map<Integer, Map<String, Long>> kieskringPartyVotes = new HashMap<>();
+    private final List<String> namePerOrdinal = new ArrayList<>();
+
+    // kieskring-ordinal -> ordinal, opgebouwd uit de regio's zodra het eerst nodig is
+    @Transient
+    private KieskringIndex kieskringIndex;
+
+    // [kieskring][partij] -> votes
+    @Transient
+    private KieskringVotes kieskringVotes;
+
+    // [gemeente][partij] -> votes, met de uitgebrachte, geldige en ongeldige stemmen per gemeente
+    @Transient
+    private MunicipalityVotes municipalityVotes;
+
+    // Kolommen (stembureau, partij, votes), met de uitgebrachte en getelde stemmen per stembureau
+    @Transient
+    private PollingStationVotes pollingStationVotes;
+
+    // Voorkeurstemmen per kandidaat, landelijk en [kieskring][kandidaat], met de voorkeurdrempel
+    @Transient
+    private CandidateVotes candidateVotes;
+
+    // Uitgebrachte, getelde, ongeldige en niet getelde stemmen per kieskring, gemeente en stembureau
+    @Transient
+    private TurnoutVotes turnoutVotes;
+
+    // De gekozen kandidaten uit het resultaat van de Kiesraad, opgeslagen door de ElectedCandidateService
+    @Transient
+    private ElectedCandidates electedCandidates;
+
+    // (partijcode, kandidaatnummer) -> kandidaat, opgebouwd uit de partijen zodra het eerst nodig is
+    @Transient
+    private CandidateIndex candidateIndex;
 
     @Transient
     private long totalValidVotes = 0L;
@@ -71,6 +105,9 @@ public class Election {
         if (!parties.contains(party)) {
             parties.add(party);
             party.setElection(this);
+            if (candidateIndex != null) {
+                candidateIndex.add(party);
+            }
         }
     }
 
@@ -78,6 +115,9 @@ public class Election {
         if (!regions.contains(region)) {
             regions.add(region);
             region.setElection(this);
+            if (kieskringIndex != null) {
+                kieskringIndex.add(region);
+            }
         }
     }
 
@@ -151,8 +191,8 @@ public class Election {
 
     public void addPartyResult(PartyResult partyResult) {
         if (partyResult != null) {
+            // setElection voegt het resultaat al toe, achteraan de lijst
             partyResult.setElection(this);
-            partyResults.add(partyResult);
         }
     }
 
@@ -167,17 +207,69 @@ public class Election {
     // ======== API voor parser/service ========
 
     /**
-     * Voeg stemmen toe tijdens het parsen (accumuleert per partij).
+     * Voeg stemmen toe tijdens het parsen (accumuleert per partij). Het id van de partij binnen de verkiezing, zoals
+     * <code>TK2023_1</code>, wordt alleen de eerste keer voor een ordinal gemaakt.
+     *
+     * @param party     het ordinal van de partij in de PartyDictionary van de parser.
+     * @param partyId   het id van de partij in het bestand, zoals <code>1</code>.
+     * @param votes     de stemmen.
+     * @param partyName de naam van de partij, of <code>null</code>.
      */
-    public void addPartyVotes(String partyId, long votes, String partyName) {
-        if (partyId == null) return;
-        votesPerParty.merge(partyId, votes, Long::sum);
+    public void addPartyVotes(int party, String partyId, long votes, String partyName) {
+        if (party < 0 || partyId == null) return;
+        while (partyIdPerOrdinal.size() <= party) {
+            partyIdPerOrdinal.add(null);
+            namePerOrdinal.add(null);
+        }
+        if (partyIdPerOrdinal.get(party) == null) {
+            partyIdPerOrdinal.set(party, electionId + "_" + partyId);
+        }
         if (partyName != null && !partyName.isBlank()) {
-            namePerParty.put(partyId, partyName);
+            namePerOrdinal.set(party, partyName);
+        }
+        if (party >= votesPerParty.length) {
+            votesPerParty = Arrays.copyOf(votesPerParty, Math.max(party + 1, votesPerParty.length * 2));
         }
+        votesPerParty[party] += votes;
         totalValidVotes += votes;
     }
 
+    /**
+     * De index van de kieskringen, opgebouwd uit de regio's de eerste keer dat die nodig is. Regio's die daarna
+     * worden toegevoegd komen er direct bij.
+     */
+    public KieskringIndex getKieskringIndex() {
+        if (kieskringIndex == null) {
+            kieskringIndex = KieskringIndex.of(regions);
+        }
+        return kieskringIndex;
+    }
+
+    /**
+     * De index van de partijen en kandidaten, opgebouwd uit de partijen de eerste keer dat die nodig is. Partijen en
+     * kandidaten die daarna worden toegevoegd komen er direct bij.
+     */
+    public CandidateIndex getCandidateIndex() {
+        if (candidateIndex == null) {
+            candidateIndex = CandidateIndex.of(electionId, parties);
+        }
+        return candidateIndex;
+    }
+
+    // Aangeroepen door Party#addCandidate, alleen nodig als de index al is opgebouwd
+    void candidateAdded(Candidate candidate) {
+        if (candidateIndex != null) {
+            candidateIndex.add(candidate);
+        }
+    }
+
+    private KieskringVotes kieskringVotes() {
+        if (kieskringVotes == null) {
+            kieskringVotes = new KieskringVotes(getKieskringIndex());
+        }
+        return kieskringVotes;
+    }
+
     /**
      * Voeg stemmen toe op kieskring-niveau tijdens het parsen.
      * Gebruikt de ContestName (bijv. "Amsterdam") om de juiste KIESKRING-regio te vinden.
@@ -187,39 +279,161 @@ public class Election {
             return;
         }
 
-        // Zoek bijbehorende KIESKRING-regio op basis van naam
-        Region match = regions.stream()
-                .filter(r -> "KIESKRING".equalsIgnoreCase(r.getRegionCategory()))
-                .filter(r -> r.getRegionName() != null && r.getRegionName().equalsIgnoreCase(contestName))
-                .findFirst()
-                .orElse(null);
+        int kieskring = getKieskringIndex().ordinalOf(contestName);
+        if (kieskring == KieskringIndex.NOT_FOUND) {
+            return; // geen passende regio gevonden
+        }
+        kieskringVotes().add(kieskring, partyName, votes);
+    }
+
+    /**
+     * Voeg stemmen toe op kieskring-niveau tijdens het parsen, op basis van het nummer van de kieskring.
+     */
+    public void addKieskringPartyVotes(int regionNumber, String partyName, long votes) {
+        if (partyName == null || votes <= 0) {
+            return;
+        }
+
+        // Alleen kieskringen die in de verkiezingsdefinitie staan
+        int kieskring = getKieskringIndex().ordinalOf(regionNumber);
+        if (kieskring == KieskringIndex.NOT_FOUND) {
+            return; // geen passende regio gevonden
+        }
+        kieskringVotes().add(kieskring, partyName, votes);
+    }
+
+    /**
+     * Voeg stemmen toe op kieskring-niveau tijdens het parsen, op basis van het nummer van de kieskring en het
+     * ordinal van de partij in de PartyDictionary van de parser. De naam wordt alleen de eerste keer gebruikt.
+     */
+    public void addKieskringPartyVotes(int regionNumber, int party, String partyName, long votes) {
+        if (party < 0 || partyName == null || votes <= 0) {
+            return;
+        }
 
-        if (match == null || match.getRegionNumber() == null) {
+        int kieskring = getKieskringIndex().ordinalOf(regionNumber);
+        if (kieskring == KieskringIndex.NOT_FOUND) {
             return; // geen passende regio gevonden
         }
+        kieskringVotes().add(kieskring, party, partyName, votes);
+    }
 
-        Integer kk = match.getRegionNumber();
-        kieskringPartyVotes
-                .computeIfAbsent(kk, x -> new HashMap<>())
-                .merge(partyName, votes, Long::sum);
+    /**
+     * @return de stemmen per kieskring en partij die tijdens het parsen zijn opgeteld, als matrix met een kolom per
+     * partij.
+     */
+    public KieskringVotes getKieskringVotes() {
+        return kieskringVotes();
     }
 
+    /**
+     * @return kieskring -> (partyName -> votes), een nieuwe map met de stemmen die tijdens het parsen zijn opgeteld.
+     */
     public Map<Integer, Map<String, Long>> getKieskringPartyVotes() {
-        return kieskringPartyVotes;
+        return kieskringVotes == null ? new HashMap<>() : kieskringVotes.toMap();
+    }
+
+    /**
+     * @return de stemmen per gemeente die tijdens het parsen zijn opgeteld, leeg als er geen gemeenten zijn gelezen.
+     */
+    public MunicipalityVotes getMunicipalityVotes() {
+        if (municipalityVotes == null) {
+            municipalityVotes = new MunicipalityVotes();
+        }
+        return municipalityVotes;
+    }
+
+    /**
+     * Neemt de stemmen per gemeente over, zoals van een eerdere import of van de verkiezing voor het opslaan.
+     */
+    public void setMunicipalityVotes(MunicipalityVotes municipalityVotes) {
+        this.municipalityVotes = municipalityVotes;
+    }
+
+    /**
+     * @return de stemmen per stembureau die tijdens het parsen zijn opgeslagen, leeg als er geen stembureaus zijn
+     * gelezen.
+     */
+    public PollingStationVotes getPollingStationVotes() {
+        if (pollingStationVotes == null) {
+            pollingStationVotes = new PollingStationVotes();
+        }
+        return pollingStationVotes;
+    }
+
+    /**
+     * Neemt de stemmen per stembureau over, zoals van een eerdere import of van de verkiezing voor het opslaan.
+     */
+    public void setPollingStationVotes(PollingStationVotes pollingStationVotes) {
+        this.pollingStationVotes = pollingStationVotes;
+    }
+
+    /**
+     * @return de voorkeurstemmen per kandidaat die tijdens het parsen zijn opgeteld, leeg als er geen kandidaten zijn
+     * gelezen.
+     */
+    public CandidateVotes getCandidateVotes() {
+        if (candidateVotes == null) {
+            candidateVotes = new CandidateVotes();
+        }
+        return candidateVotes;
+    }
+
+    /**
+     * Neemt de voorkeurstemmen over, zoals van een eerdere import of van de verkiezing voor het opslaan.
+     */
+    public void setCandidateVotes(CandidateVotes candidateVotes) {
+        this.candidateVotes = candidateVotes;
+    }
+
+    /**
+     * @return de opkomst en de ongeldige en niet getelde stemmen die tijdens het parsen zijn gelezen, leeg als er
+     * geen tellingen zijn gelezen.
+     */
+    public TurnoutVotes getTurnoutVotes() {
+        if (turnoutVotes == null) {
+            turnoutVotes = new TurnoutVotes();
+        }
+        return turnoutVotes;
+    }
+
+    /**
+     * Neemt de opkomst over, zoals van een eerdere import of van de verkiezing voor het opslaan.
+     */
+    public void setTurnoutVotes(TurnoutVotes turnoutVotes) {
+        this.turnoutVotes = turnoutVotes;
+    }
+
+    /**
+     * @return de gekozen kandidaten die tijdens het parsen zijn gelezen, leeg als het resultaat niet is ingelezen.
+     */
+    public ElectedCandidates getElectedCandidates() {
+        if (electedCandidates == null) {
+            electedCandidates = new ElectedCandidates();
+        }
+        return electedCandidates;
+    }
+
+    /**
+     * @return de stemmen per partij-ordinal, een kopie zo lang als er ordinals zijn (alleen voor rekenen).
+     */
+    public long[] getVotesPerParty() {
+        return Arrays.copyOf(votesPerParty, partyIdPerOrdinal.size());
     }
 
     /**
-     * Onveranderbare view op stemmen per partij (alleen voor rekenen).
+     * @return het id van de partij per ordinal, zoals <code>TK2023_1</code>, of <code>null</code> voor een ordinal
+     * zonder stemmen.
      */
-    public Map<String, Long> getVotesPerParty() {
-        return Collections.unmodifiableMap(votesPerParty);
+    public List<String> getPartyIdPerOrdinal() {
+        return Collections.unmodifiableList(partyIdPerOrdinal);
     }
 
     /**
-     * Onveranderbare view op partijnamen per partij-id (alleen voor tonen/DTO).
+     * @return de naam van de partij per ordinal, of <code>null</code> (alleen voor tonen/DTO).
      */
-    public Map<String, String> getNamePerParty() {
-        return Collections.unmodifiableMap(namePerParty);
+    public List<String> getNamePerOrdinal() {
+        return Collections.unmodifiableList(namePerOrdinal);
     }
 
     /**
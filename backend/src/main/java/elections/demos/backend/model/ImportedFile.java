@@ -0,0 +1,57 @@
+package elections.demos.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Een EML-bestand dat is ingelezen voor een verkiezing. Aan de hand van de grootte en de hash van de inhoud kan
+ * bij een nieuwe import worden bepaald welke bestanden door de Kiesraad zijn gewijzigd.
+ */
+@Entity
+@Table(name = "imported_file",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"election_id", "file_name"}))
+public class ImportedFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "election_id", nullable = false)
+    private String electionId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    private String fileType;
+
+    private long size;
+
+    // Alleen om het hashen over te slaan, bij een gelijke grootte en tijd wordt de inhoud niet opnieuw gelezen
+    private long lastModified;
+
+    // SHA-256 van de inhoud, hexadecimaal
+    @Column(length = 64, nullable = false)
+    private String hash;
+
+    public ImportedFile() {}
+
+    public ImportedFile(String electionId, String fileName) {
+        this.electionId = electionId;
+        this.fileName = fileName;
+    }
+
+    public Long getId() { return id; }
+    public String getElectionId() { return electionId; }
+    public String getFileName() { return fileName; }
+    public String getFileType() { return fileType; }
+    public long getSize() { return size; }
+    public long getLastModified() { return lastModified; }
+    public String getHash() { return hash; }
+
+    public void setId(Long id) { this.id = id; }
+    public void setElectionId(String electionId) { this.electionId = electionId; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+    public void setSize(long size) { this.size = size; }
+    public void setLastModified(long lastModified) { this.lastModified = lastModified; }
+    public void setHash(String hash) { this.hash = hash; }
+}
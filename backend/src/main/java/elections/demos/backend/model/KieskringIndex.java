@@ -0,0 +1,93 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Geeft elke KIESKRING-regio van een verkiezing een opvolgend nummer (ordinal), te vinden op regionummer en op
+ * genormaliseerde naam. Zo kan bij het optellen van de stemmen een kieskring worden gevonden zonder alle regio's
+ * langs te lopen.<br/>
+ * <b>Niet opgeslagen in de database, de index wordt opnieuw opgebouwd uit de regio's.</b>
+ */
+public class KieskringIndex {
+    /**
+     * De ordinal als een kieskring niet bestaat.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final Map<String, Integer> byName = new HashMap<>();
+    // regionummer -> ordinal, NOT_FOUND voor onbekende nummers
+    private int[] byNumber = new int[0];
+    private final List<Integer> regionNumbers = new ArrayList<>();
+    private final List<String> regionNames = new ArrayList<>();
+
+    /**
+     * Bouwt de index op uit alle regio's, alleen de kieskringen met een nummer worden opgenomen.
+     */
+    public static KieskringIndex of(List<Region> regions) {
+        KieskringIndex index = new KieskringIndex();
+        regions.forEach(index::add);
+        return index;
+    }
+
+    /**
+     * Voegt een regio toe als het een kieskring met een nummer is die nog niet in de index staat.
+     */
+    public void add(Region region) {
+        if (!"KIESKRING".equalsIgnoreCase(region.getRegionCategory()) || region.getRegionNumber() == null
+                || region.getRegionNumber() < 0 || ordinalOf(region.getRegionNumber()) != NOT_FOUND) {
+            return;
+        }
+        int number = region.getRegionNumber();
+        int ordinal = regionNumbers.size();
+        if (number >= byNumber.length) {
+            int oldLength = byNumber.length;
+            byNumber = Arrays.copyOf(byNumber, Math.max(number + 1, oldLength * 2));
+            Arrays.fill(byNumber, oldLength, byNumber.length, NOT_FOUND);
+        }
+        byNumber[number] = ordinal;
+        regionNumbers.add(number);
+        regionNames.add(region.getRegionName());
+        if (region.getRegionName() != null) {
+            byName.putIfAbsent(normalize(region.getRegionName()), ordinal);
+        }
+    }
+
+    /**
+     * @return de ordinal van de kieskring met dit nummer, of {@link #NOT_FOUND}.
+     */
+    public int ordinalOf(int regionNumber) {
+        return regionNumber >= 0 && regionNumber < byNumber.length ? byNumber[regionNumber] : NOT_FOUND;
+    }
+
+    /**
+     * @return de ordinal van de kieskring met deze naam, hoofdletters en spaties eromheen tellen niet mee, of
+     * {@link #NOT_FOUND}.
+     */
+    public int ordinalOf(String regionName) {
+        return regionName == null ? NOT_FOUND : byName.getOrDefault(normalize(regionName), NOT_FOUND);
+    }
+
+    public int regionNumber(int ordinal) {
+        return regionNumbers.get(ordinal);
+    }
+
+    public String regionName(int ordinal) {
+        return regionNames.get(ordinal);
+    }
+
+    /**
+     * @return het aantal kieskringen.
+     */
+    public int size() {
+        return regionNumbers.size();
+    }
+
+    private static String normalize(String regionName) {
+        return regionName.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,166 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * De stemmen per kieskring en partij tijdens het parsen, als matrix <code>long[kieskring][partij]</code>. De rijen
+ * zijn de ordinals van de {@link KieskringIndex}, de kolommen worden per partijnaam uitgedeeld in de volgorde
+ * waarin de partijen voorkomen. Met het ordinal van de partij uit de PartyDictionary van de parser wordt de kolom
+ * gevonden zonder de naam op te zoeken.<br/>
+ * <b>Niet opgeslagen in de database, zie PartyKieskringResult.</b>
+ */
+public class KieskringVotes {
+    private final KieskringIndex index;
+    private long[][] votes;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<String> partyNames = new ArrayList<>();
+    // partij-ordinal -> kolom + 1, 0 als de kolom nog niet bekend is
+    private int[] columnByParty = new int[0];
+
+    public KieskringVotes(KieskringIndex index) {
+        this.index = index;
+        this.votes = new long[index.size()][0];
+    }
+
+    /**
+     * Telt stemmen op, de kolom wordt gevonden met het ordinal van de partij.
+     */
+    public void add(int kieskring, int party, String partyName, long partyVotes) {
+        if (party >= columnByParty.length) {
+            columnByParty = Arrays.copyOf(columnByParty, Math.max(party + 1, columnByParty.length * 2));
+        }
+        int column = columnByParty[party] - 1;
+        if (column < 0) {
+            column = column(partyName);
+            columnByParty[party] = column + 1;
+        }
+        add(kieskring, column, partyVotes);
+    }
+
+    /**
+     * Telt stemmen op, de kolom wordt gevonden met de naam van de partij.
+     */
+    public void add(int kieskring, String partyName, long partyVotes) {
+        add(kieskring, column(partyName), partyVotes);
+    }
+
+    private void add(int kieskring, int column, long partyVotes) {
+        if (kieskring >= votes.length) {
+            // Een kieskring die na de eerste stemmen aan de index is toegevoegd
+            int oldLength = votes.length;
+            votes = Arrays.copyOf(votes, Math.max(kieskring + 1, index.size()));
+            Arrays.fill(votes, oldLength, votes.length, new long[0]);
+        }
+        long[] row = votes[kieskring];
+        if (column >= row.length) {
+            row = Arrays.copyOf(row, Math.max(column + 1, partyNames.size()));
+            votes[kieskring] = row;
+        }
+        row[column] += partyVotes;
+    }
+
+    private int column(String partyName) {
+        Integer column = columns.get(partyName);
+        if (column == null) {
+            column = partyNames.size();
+            columns.put(partyName, column);
+            partyNames.add(partyName);
+        }
+        return column;
+    }
+
+    /**
+     * @return de stemmen van een partij in een kieskring, of 0.
+     */
+    public long get(int kieskring, String partyName) {
+        Integer column = columns.get(partyName);
+        if (column == null || kieskring >= votes.length || column >= votes[kieskring].length) {
+            return 0;
+        }
+        return votes[kieskring][column];
+    }
+
+    /**
+     * @return of er nog geen stemmen zijn opgeteld.
+     */
+    public boolean isEmpty() {
+        return partyNames.isEmpty();
+    }
+
+    /**
+     * @return het aantal rijen, een rij per kieskring in de {@link KieskringIndex}.
+     */
+    public int kieskringCount() {
+        return votes.length;
+    }
+
+    /**
+     * @return het nummer van de kieskring in een rij.
+     */
+    public int regionNumber(int kieskring) {
+        return index.regionNumber(kieskring);
+    }
+
+    /**
+     * @return het aantal kolommen, een kolom per partij.
+     */
+    public int partyCount() {
+        return partyNames.size();
+    }
+
+    /**
+     * @return de naam van de partij in een kolom, zoals die in PartyKieskringResult wordt opgeslagen.
+     */
+    public String partyName(int column) {
+        return partyNames.get(column);
+    }
+
+    /**
+     * @return de kolom van een partij, of -1 als de partij geen stemmen heeft.
+     */
+    public int find(String partyName) {
+        Integer column = columns.get(partyName);
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * @return een kopie van de stemmen als volledige matrix, <code>long[kieskring][kolom]</code>, met een rij per
+     * kieskring en een kolom per partij.
+     */
+    public long[][] toMatrix() {
+        long[][] matrix = new long[votes.length][];
+        for (int kieskring = 0; kieskring < votes.length; kieskring++) {
+            matrix[kieskring] = Arrays.copyOf(votes[kieskring], partyNames.size());
+        }
+        return matrix;
+    }
+
+    /**
+     * @return de stemmen in een rij en kolom, of 0.
+     */
+    public long votes(int kieskring, int column) {
+        long[] row = votes[kieskring];
+        return column < row.length ? row[column] : 0;
+    }
+
+    /**
+     * @return kieskringnummer -> (partijnaam -> stemmen), alleen kieskringen en partijen met stemmen.
+     */
+    public Map<Integer, Map<String, Long>> toMap() {
+        Map<Integer, Map<String, Long>> kieskringPartyVotes = new HashMap<>();
+        for (int kieskring = 0; kieskring < votes.length; kieskring++) {
+            long[] row = votes[kieskring];
+            for (int column = 0; column < row.length; column++) {
+                if (row[column] != 0) {
+                    kieskringPartyVotes.computeIfAbsent(index.regionNumber(kieskring), x -> new HashMap<>())
+                            .put(partyNames.get(column), row[column]);
+                }
+            }
+        }
+        return kieskringPartyVotes;
+    }
+}
@@ -0,0 +1,171 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * De stemmen per gemeente en partij, als matrix <code>long[gemeente][partij]</code>, met per gemeente het aantal
+ * uitgebrachte, geldige en ongeldige stemmen. De gemeenten krijgen een opvolgend nummer (ordinal) op volgorde van
+ * binnenkomst, gevonden op hun code, zoals <code>0363</code>. De kolommen worden per partijnaam uitgedeeld, net als
+ * bij {@link KieskringVotes}, en met het ordinal van de partij uit de PartyDictionary van de parser gevonden zonder
+ * de naam op te zoeken.<br/>
+ * <b>Niet opgeslagen in de database, wel in de snapshot van de verkiezing.</b>
+ */
+public class MunicipalityVotes {
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> codes = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private long[][] votes = new long[0][];
+    private long[] cast = new long[0];
+    private long[] valid = new long[0];
+    private long[] rejected = new long[0];
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<String> partyNames = new ArrayList<>();
+    // partij-ordinal -> kolom + 1, 0 als de kolom nog niet bekend is
+    private int[] columnByParty = new int[0];
+
+    /**
+     * @return het ordinal van de gemeente met deze code, de gemeente wordt toegevoegd als die nieuw is.
+     */
+    public int municipality(String code, String name) {
+        Integer ordinal = ordinals.get(code);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ordinal = codes.size();
+        ordinals.put(code, ordinal);
+        codes.add(code);
+        names.add(name);
+        if (ordinal >= votes.length) {
+            int length = Math.max(ordinal + 1, votes.length * 2);
+            int oldLength = votes.length;
+            votes = Arrays.copyOf(votes, length);
+            Arrays.fill(votes, oldLength, length, new long[0]);
+            cast = Arrays.copyOf(cast, length);
+            valid = Arrays.copyOf(valid, length);
+            rejected = Arrays.copyOf(rejected, length);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return het ordinal van de gemeente met deze code, of -1.
+     */
+    public int find(String code) {
+        return ordinals.getOrDefault(code, -1);
+    }
+
+    /**
+     * Telt stemmen op, de kolom wordt gevonden met het ordinal van de partij.
+     */
+    public void addPartyVotes(int municipality, int party, String partyName, long partyVotes) {
+        if (party >= columnByParty.length) {
+            columnByParty = Arrays.copyOf(columnByParty, Math.max(party + 1, columnByParty.length * 2));
+        }
+        int column = columnByParty[party] - 1;
+        if (column < 0) {
+            column = column(partyName);
+            columnByParty[party] = column + 1;
+        }
+        addPartyVotes(municipality, column, partyVotes);
+    }
+
+    /**
+     * Telt stemmen op, de kolom wordt gevonden met de naam van de partij.
+     */
+    public void addPartyVotes(int municipality, String partyName, long partyVotes) {
+        addPartyVotes(municipality, column(partyName), partyVotes);
+    }
+
+    private void addPartyVotes(int municipality, int column, long partyVotes) {
+        long[] row = votes[municipality];
+        if (column >= row.length) {
+            row = Arrays.copyOf(row, Math.max(column + 1, partyNames.size()));
+            votes[municipality] = row;
+        }
+        row[column] += partyVotes;
+    }
+
+    /**
+     * Telt de uitgebrachte, geldige en ongeldige stemmen van een gemeente op, een ontbrekend aantal is -1.
+     */
+    public void addMetadata(int municipality, long castVotes, long validVotes, long rejectedVotes) {
+        cast[municipality] += Math.max(castVotes, 0);
+        valid[municipality] += Math.max(validVotes, 0);
+        rejected[municipality] += Math.max(rejectedVotes, 0);
+    }
+
+    /**
+     * Zet alle aantallen van een gemeente op 0, voordat het bestand van de gemeente opnieuw wordt ingelezen.
+     */
+    public void clear(int municipality) {
+        Arrays.fill(votes[municipality], 0);
+        cast[municipality] = 0;
+        valid[municipality] = 0;
+        rejected[municipality] = 0;
+    }
+
+    private int column(String partyName) {
+        Integer column = columns.get(partyName);
+        if (column == null) {
+            column = partyNames.size();
+            columns.put(partyName, column);
+            partyNames.add(partyName);
+        }
+        return column;
+    }
+
+    /**
+     * @return het aantal gemeenten.
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    public String code(int municipality) {
+        return codes.get(municipality);
+    }
+
+    public String name(int municipality) {
+        return names.get(municipality);
+    }
+
+    /**
+     * @return de namen van de partijen, de kolommen van de matrix.
+     */
+    public List<String> getPartyNames() {
+        return List.copyOf(partyNames);
+    }
+
+    /**
+     * @return de stemmen van een partij in een gemeente, of 0.
+     */
+    public long votes(int municipality, int column) {
+        long[] row = votes[municipality];
+        return column < row.length ? row[column] : 0;
+    }
+
+    /**
+     * @return de stemmen van een partij in een gemeente, of 0.
+     */
+    public long votes(int municipality, String partyName) {
+        Integer column = columns.get(partyName);
+        return column == null ? 0 : votes(municipality, column);
+    }
+
+    public long cast(int municipality) {
+        return cast[municipality];
+    }
+
+    public long valid(int municipality) {
+        return valid[municipality];
+    }
+
+    public long rejected(int municipality) {
+        return rejected[municipality];
+    }
+}
@@ -57,6 +57,9 @@ public class Party {
         if (!candidates.contains(candidate)) {
             candidates.add(candidate);
             candidate.setParty(this);
+            if (election != null) {
+                election.candidateAdded(candidate);
+            }
         }
     }
 
@@ -0,0 +1,41 @@
+package elections.demos.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * De zetels van een partij op haar lijst in één kieskring. Alleen de lijsten met zetels worden opgeslagen.
+ */
+@Entity
+@Table(name = "party_kieskring_seats")
+public class PartyKieskringSeats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer kieskring;
+    private String party;
+    private Integer seats;
+    private String electionId;
+
+    public PartyKieskringSeats() {}
+
+    public PartyKieskringSeats(Integer kieskring, String party, Integer seats, String electionId) {
+        this.kieskring = kieskring;
+        this.party = party;
+        this.seats = seats;
+        this.electionId = electionId;
+    }
+
+    public Long getId() { return id; }
+    public Integer getKieskring() { return kieskring; }
+    public String getParty() { return party; }
+    public Integer getSeats() { return seats; }
+    public String getElectionId() { return electionId; }
+
+    public void setId(Long id) { this.id = id; }
+    public void setKieskring(Integer kieskring) { this.kieskring = kieskring; }
+    public void setParty(String party) { this.party = party; }
+    public void setSeats(Integer seats) { this.seats = seats; }
+    public void setElectionId(String electionId) { this.electionId = electionId; }
+}
@@ -0,0 +1,293 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * De stemmen per stembureau en partij, in kolommen opgeslagen: per rij het ordinal van het stembureau, het ordinal
+ * van de partij en het aantal stemmen, elk in een eigen primitieve array. De id's en namen van de stembureaus en de
+ * namen van de partijen staan maar één keer in een woordenboek, de rijen verwijzen ernaar met hun ordinal. Per
+ * stembureau worden ook de uitgebrachte en getelde stemmen bijgehouden.<br/>
+ * <br/>
+ * Een rij kost 16 bytes, zo passen de ruim 10.000 stembureaus met elk zo'n 26 partijen in ongeveer 4 MB per
+ * verkiezing. Om een antwoord te geven worden de kolommen in één keer doorlopen, zie {@link #scan(IntPredicate,
+ * RowVisitor)}, {@link #votesPerParty(IntPredicate)} en {@link #votesPerStation(int)}.<br/>
+ * <b>Niet opgeslagen in de database, wel in de snapshot van de verkiezing.</b>
+ */
+public class PollingStationVotes {
+    /**
+     * Het ordinal als een stembureau of partij niet bestaat.
+     */
+    public static final int NOT_FOUND = -1;
+
+    /**
+     * Krijgt de rijen een voor een.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int station, int party, long votes);
+    }
+
+    // Woordenboek van de stembureaus: id -> ordinal
+    private final Map<String, Integer> stationOrdinals = new HashMap<>();
+    private final List<String> stationIds = new ArrayList<>();
+    private final List<String> stationNames = new ArrayList<>();
+    private long[] cast = new long[0];
+    private long[] counted = new long[0];
+
+    // Woordenboek van de partijen: naam -> ordinal
+    private final Map<String, Integer> partyOrdinals = new HashMap<>();
+    private final List<String> partyNames = new ArrayList<>();
+
+    // De kolommen
+    private int rows;
+    private int[] stationColumn = new int[0];
+    private int[] partyColumn = new int[0];
+    private long[] votesColumn = new long[0];
+
+    /**
+     * @return het ordinal van het stembureau met dit id, het stembureau wordt toegevoegd als het nieuw is.
+     */
+    public int station(String id) {
+        Integer ordinal = stationOrdinals.get(id);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ordinal = stationIds.size();
+        stationOrdinals.put(id, ordinal);
+        stationIds.add(id);
+        stationNames.add(null);
+        if (ordinal >= cast.length) {
+            cast = Arrays.copyOf(cast, Math.max(ordinal + 1, cast.length * 2));
+            counted = Arrays.copyOf(counted, cast.length);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return het ordinal van de partij met deze naam, de partij wordt toegevoegd als die nieuw is.
+     */
+    public int party(String name) {
+        Integer ordinal = partyOrdinals.get(name);
+        if (ordinal == null) {
+            ordinal = partyNames.size();
+            partyOrdinals.put(name, ordinal);
+            partyNames.add(name);
+        }
+        return ordinal;
+    }
+
+    public void setStationName(int station, String name) {
+        stationNames.set(station, name);
+    }
+
+    /**
+     * Legt de uitgebrachte en getelde stemmen van een stembureau vast, een ontbrekend aantal is -1.
+     */
+    public void setMetadata(int station, long castVotes, long countedVotes) {
+        cast[station] = Math.max(castVotes, 0);
+        counted[station] = Math.max(countedVotes, 0);
+    }
+
+    /**
+     * Voegt een rij toe.
+     */
+    public void addVotes(int station, int party, long votes) {
+        if (rows == votesColumn.length) {
+            int capacity = Math.max(1024, rows * 2);
+            stationColumn = Arrays.copyOf(stationColumn, capacity);
+            partyColumn = Arrays.copyOf(partyColumn, capacity);
+            votesColumn = Arrays.copyOf(votesColumn, capacity);
+        }
+        stationColumn[rows] = station;
+        partyColumn[rows] = party;
+        votesColumn[rows] = votes;
+        rows++;
+    }
+
+    /**
+     * Haalt de rijen voor <code>toRow</code> weg waarvan het stembureau in <code>stations</code> staat, in één
+     * keer door de kolommen. Zo worden de oude stemmen van stembureaus die opnieuw zijn ingelezen verwijderd.
+     *
+     * @param stations de stembureaus waarvan de rijen weg moeten.
+     * @param toRow    alleen de rijen voor deze rij worden weggehaald, de rijen erna blijven altijd staan.
+     * @return het aantal verwijderde rijen.
+     */
+    public int removeRows(BitSet stations, int toRow) {
+        int kept = 0;
+        for (int row = 0; row < rows; row++) {
+            if (row < toRow && stations.get(stationColumn[row])) {
+                continue;
+            }
+            stationColumn[kept] = stationColumn[row];
+            partyColumn[kept] = partyColumn[row];
+            votesColumn[kept] = votesColumn[row];
+            kept++;
+        }
+        int removed = rows - kept;
+        rows = kept;
+        return removed;
+    }
+
+    /**
+     * @return een kopie waaraan stemmen kunnen worden toegevoegd zonder dat dit exemplaar verandert.
+     */
+    public PollingStationVotes copy() {
+        PollingStationVotes copy = new PollingStationVotes();
+        for (int station = 0; station < stationIds.size(); station++) {
+            copy.station(stationIds.get(station));
+            copy.setStationName(station, stationNames.get(station));
+            copy.setMetadata(station, cast[station], counted[station]);
+        }
+        partyNames.forEach(copy::party);
+        copy.rows = rows;
+        copy.stationColumn = Arrays.copyOf(stationColumn, rows);
+        copy.partyColumn = Arrays.copyOf(partyColumn, rows);
+        copy.votesColumn = Arrays.copyOf(votesColumn, rows);
+        return copy;
+    }
+
+    /**
+     * Maakt de kolommen precies zo groot als nodig, als er geen rijen meer bij komen.
+     */
+    public void trim() {
+        stationColumn = Arrays.copyOf(stationColumn, rows);
+        partyColumn = Arrays.copyOf(partyColumn, rows);
+        votesColumn = Arrays.copyOf(votesColumn, rows);
+        cast = Arrays.copyOf(cast, stationIds.size());
+        counted = Arrays.copyOf(counted, stationIds.size());
+    }
+
+    /**
+     * Geeft alle rijen van de stembureaus die door het filter komen aan de visitor, in de volgorde waarin ze zijn
+     * toegevoegd.
+     */
+    public void scan(IntPredicate stationFilter, RowVisitor visitor) {
+        for (int row = 0; row < rows; row++) {
+            int station = stationColumn[row];
+            if (stationFilter.test(station)) {
+                visitor.visit(station, partyColumn[row], votesColumn[row]);
+            }
+        }
+    }
+
+    /**
+     * Geeft alle rijen aan de visitor.
+     */
+    public void scan(RowVisitor visitor) {
+        for (int row = 0; row < rows; row++) {
+            visitor.visit(stationColumn[row], partyColumn[row], votesColumn[row]);
+        }
+    }
+
+    /**
+     * @return de stemmen per partij, opgeteld over de stembureaus die door het filter komen, op ordinal van de
+     * partij.
+     */
+    public long[] votesPerParty(IntPredicate stationFilter) {
+        long[] votes = new long[partyNames.size()];
+        for (int row = 0; row < rows; row++) {
+            if (stationFilter.test(stationColumn[row])) {
+                votes[partyColumn[row]] += votesColumn[row];
+            }
+        }
+        return votes;
+    }
+
+    /**
+     * @param party het ordinal van de partij, of {@link #NOT_FOUND} voor alle partijen samen.
+     * @return de stemmen per stembureau, op ordinal van het stembureau.
+     */
+    public long[] votesPerStation(int party) {
+        long[] votes = new long[stationIds.size()];
+        for (int row = 0; row < rows; row++) {
+            if (party == NOT_FOUND || partyColumn[row] == party) {
+                votes[stationColumn[row]] += votesColumn[row];
+            }
+        }
+        return votes;
+    }
+
+    /**
+     * @return de stembureaus waarvan het id door het filter komt, bruikbaar als filter voor de andere methoden.
+     */
+    public BitSet stations(Predicate<String> idFilter) {
+        BitSet stations = new BitSet(stationIds.size());
+        for (int station = 0; station < stationIds.size(); station++) {
+            if (idFilter.test(stationIds.get(station))) {
+                stations.set(station);
+            }
+        }
+        return stations;
+    }
+
+    /**
+     * @return de stembureaus van een gemeente, hun id begint met de code van de gemeente, zoals
+     * <code>0363::SB1</code>.
+     */
+    public BitSet stationsOfMunicipality(String municipalityCode) {
+        String prefix = municipalityCode + "::";
+        return stations(id -> id.startsWith(prefix));
+    }
+
+    public int findStation(String id) {
+        return stationOrdinals.getOrDefault(id, NOT_FOUND);
+    }
+
+    public int findParty(String name) {
+        return partyOrdinals.getOrDefault(name, NOT_FOUND);
+    }
+
+    public int stationCount() {
+        return stationIds.size();
+    }
+
+    public String stationId(int station) {
+        return stationIds.get(station);
+    }
+
+    public String stationName(int station) {
+        return stationNames.get(station);
+    }
+
+    public long cast(int station) {
+        return cast[station];
+    }
+
+    public long counted(int station) {
+        return counted[station];
+    }
+
+    public int partyCount() {
+        return partyNames.size();
+    }
+
+    public String partyName(int party) {
+        return partyNames.get(party);
+    }
+
+    /**
+     * @return het aantal rijen.
+     */
+    public int rowCount() {
+        return rows;
+    }
+
+    public int stationAt(int row) {
+        return stationColumn[row];
+    }
+
+    public int partyAt(int row) {
+        return partyColumn[row];
+    }
+
+    public long votesAt(int row) {
+        return votesColumn[row];
+    }
+}
@@ -0,0 +1,233 @@
+package elections.demos.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * De opkomst per kieskring, gemeente en stembureau: de uitgebrachte en getelde stemmen, en de ongeldige, blanco en
+ * niet getelde stemmen per reden. De redenen krijgen een opvolgend nummer (ordinal) op volgorde van binnenkomst,
+ * zoals <code>ongeldig</code> en <code>blanco</code> bij de ongeldige stemmen en <code>geen verklaring</code> bij
+ * de niet getelde stemmen. Per niveau hebben de eenheden ook een ordinal, de aantallen staan in primitieve arrays:
+ * <code>long[eenheid]</code> voor de uitgebrachte en getelde stemmen en <code>long[eenheid][reden]</code> voor de
+ * redenen.<br/>
+ * <br/>
+ * De kieskringen hebben hun nummer als id, zoals <code>10</code>, de gemeenten hun code, zoals <code>0358</code>,
+ * en de stembureaus het id uit het bestand, zoals <code>0363::SB1</code>.<br/>
+ * <b>Niet opgeslagen in de database, wel in de snapshot van de verkiezing.</b>
+ */
+public class TurnoutVotes {
+    /**
+     * Het ordinal als een eenheid of reden niet bestaat.
+     */
+    public static final int NOT_FOUND = -1;
+
+    /**
+     * Het niveau waarop de opkomst is geteld.
+     */
+    public enum Level {
+        KIESKRING, MUNICIPALITY, REPORTING_UNIT
+    }
+
+    // De eenheden van één niveau
+    private static final class Units {
+        // Woordenboek van de eenheden: id -> ordinal
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private long[] cast = new long[0];
+        private long[] counted = new long[0];
+        private long[][] reasons = new long[0][];
+    }
+
+    // Woordenboek van de redenen: soort::code -> ordinal
+    private final Map<String, Integer> reasonOrdinals = new HashMap<>();
+    private final List<String> reasonCodes = new ArrayList<>();
+    private final List<Boolean> rejectedReasons = new ArrayList<>();
+
+    private final Units[] levels = new Units[Level.values().length];
+
+    public TurnoutVotes() {
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = new Units();
+        }
+    }
+
+    /**
+     * @param code     de ReasonCode uit het bestand, zoals <code>blanco</code>.
+     * @param rejected <code>true</code> voor de ongeldige en blanco stemmen (RejectedVotes), <code>false</code> voor
+     *                 de niet getelde stemmen (UncountedVotes).
+     * @return het ordinal van de reden, de reden wordt toegevoegd als die nieuw is.
+     */
+    public int reason(String code, boolean rejected) {
+        String key = (rejected ? "rejected::" : "uncounted::") + code;
+        Integer ordinal = reasonOrdinals.get(key);
+        if (ordinal == null) {
+            ordinal = reasonCodes.size();
+            reasonOrdinals.put(key, ordinal);
+            reasonCodes.add(code);
+            rejectedReasons.add(rejected);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return het ordinal van de eenheid met dit id, de eenheid wordt toegevoegd als die nieuw is.
+     */
+    public int unit(Level level, String id) {
+        Units units = levels[level.ordinal()];
+        Integer ordinal = units.ordinals.get(id);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ordinal = units.ids.size();
+        units.ordinals.put(id, ordinal);
+        units.ids.add(id);
+        units.names.add(null);
+        if (ordinal >= units.cast.length) {
+            int oldLength = units.cast.length;
+            int capacity = Math.max(ordinal + 1, oldLength * 2);
+            units.cast = Arrays.copyOf(units.cast, capacity);
+            units.counted = Arrays.copyOf(units.counted, capacity);
+            units.reasons = Arrays.copyOf(units.reasons, capacity);
+            Arrays.fill(units.reasons, oldLength, capacity, new long[0]);
+        }
+        return ordinal;
+    }
+
+    public void setName(Level level, int unit, String name) {
+        levels[level.ordinal()].names.set(unit, name);
+    }
+
+    /**
+     * Telt de uitgebrachte en getelde stemmen van een eenheid op, een ontbrekend aantal is -1.
+     */
+    public void addMetadata(Level level, int unit, long castVotes, long countedVotes) {
+        Units units = levels[level.ordinal()];
+        units.cast[unit] += Math.max(castVotes, 0);
+        units.counted[unit] += Math.max(countedVotes, 0);
+    }
+
+    /**
+     * Telt stemmen met een reden op.
+     */
+    public void addReason(Level level, int unit, int reason, long votes) {
+        Units units = levels[level.ordinal()];
+        long[] row = units.reasons[unit];
+        if (reason >= row.length) {
+            row = Arrays.copyOf(row, Math.max(reason + 1, reasonCodes.size()));
+            units.reasons[unit] = row;
+        }
+        row[reason] += votes;
+    }
+
+    /**
+     * Zet alle aantallen van een eenheid op 0, voordat die opnieuw wordt ingelezen.
+     */
+    public void clear(Level level, int unit) {
+        Units units = levels[level.ordinal()];
+        units.cast[unit] = 0;
+        units.counted[unit] = 0;
+        Arrays.fill(units.reasons[unit], 0);
+    }
+
+    /**
+     * @return een kopie waaraan stemmen kunnen worden toegevoegd zonder dat dit exemplaar verandert.
+     */
+    public TurnoutVotes copy() {
+        TurnoutVotes copy = new TurnoutVotes();
+        for (int reason = 0; reason < reasonCount(); reason++) {
+            copy.reason(reasonCodes.get(reason), rejectedReasons.get(reason));
+        }
+        for (Level level : Level.values()) {
+            Units units = levels[level.ordinal()];
+            for (int unit = 0; unit < units.ids.size(); unit++) {
+                copy.unit(level, units.ids.get(unit));
+                copy.setName(level, unit, units.names.get(unit));
+                copy.addMetadata(level, unit, units.cast[unit], units.counted[unit]);
+                copy.levels[level.ordinal()].reasons[unit] = units.reasons[unit].clone();
+            }
+        }
+        return copy;
+    }
+
+    public int find(Level level, String id) {
+        return levels[level.ordinal()].ordinals.getOrDefault(id, NOT_FOUND);
+    }
+
+    /**
+     * @return het aantal eenheden op dit niveau.
+     */
+    public int size(Level level) {
+        return levels[level.ordinal()].ids.size();
+    }
+
+    public String id(Level level, int unit) {
+        return levels[level.ordinal()].ids.get(unit);
+    }
+
+    public String name(Level level, int unit) {
+        return levels[level.ordinal()].names.get(unit);
+    }
+
+    public long cast(Level level, int unit) {
+        return levels[level.ordinal()].cast[unit];
+    }
+
+    public long counted(Level level, int unit) {
+        return levels[level.ordinal()].counted[unit];
+    }
+
+    /**
+     * @return de stemmen van een eenheid met deze reden, of 0.
+     */
+    public long votes(Level level, int unit, int reason) {
+        long[] row = levels[level.ordinal()].reasons[unit];
+        return reason < row.length ? row[reason] : 0;
+    }
+
+    /**
+     * @return de ongeldige en blanco stemmen van een eenheid samen.
+     */
+    public long rejected(Level level, int unit) {
+        return sum(level, unit, true);
+    }
+
+    /**
+     * @return de niet getelde stemmen van een eenheid, alle redenen samen.
+     */
+    public long uncounted(Level level, int unit) {
+        return sum(level, unit, false);
+    }
+
+    private long sum(Level level, int unit, boolean rejected) {
+        long[] row = levels[level.ordinal()].reasons[unit];
+        long sum = 0;
+        for (int reason = 0; reason < row.length; reason++) {
+            if (rejectedReasons.get(reason) == rejected) {
+                sum += row[reason];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return het aantal redenen.
+     */
+    public int reasonCount() {
+        return reasonCodes.size();
+    }
+
+    public String reasonCode(int reason) {
+        return reasonCodes.get(reason);
+    }
+
+    /**
+     * @return of het een reden van ongeldige of blanco stemmen is, anders is het een reden van niet getelde stemmen.
+     */
+    public boolean isRejected(int reason) {
+        return rejectedReasons.get(reason);
+    }
+}
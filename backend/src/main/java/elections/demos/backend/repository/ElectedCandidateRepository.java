@@ -0,0 +1,26 @@
+package elections.demos.backend.repository;
+
+import elections.demos.backend.model.ElectedCandidate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ElectedCandidateRepository extends JpaRepository<ElectedCandidate, String> {
+
+    @Query("""
+       SELECT e FROM ElectedCandidate e
+       LEFT JOIN FETCH e.party
+       LEFT JOIN FETCH e.candidate
+       WHERE e.electionId = :electionId
+       ORDER BY e.partyCode, e.ranking
+    """)
+    List<ElectedCandidate> findByElectionId(@Param("electionId") String electionId);
+
+    // Eén statement, niet eerst alle rijen laden
+    @Modifying
+    @Query("DELETE FROM ElectedCandidate e WHERE e.electionId = :electionId")
+    void deleteByElectionId(@Param("electionId") String electionId);
+}
@@ -0,0 +1,13 @@
+package elections.demos.backend.repository;
+
+import elections.demos.backend.model.ImportedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ImportedFileRepository extends JpaRepository<ImportedFile, Long> {
+
+    List<ImportedFile> findByElectionId(String electionId);
+
+    void deleteByElectionId(String electionId);
+}
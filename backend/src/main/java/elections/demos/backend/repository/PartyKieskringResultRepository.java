@@ -4,12 +4,15 @@ import elections.demos.backend.model.PartyKieskringResult;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PartyKieskringResultRepository extends JpaRepository<PartyKieskringResult, Long> {
 
     void deleteByElectionId(String electionId);
 
+    void deleteByElectionIdAndKieskringIn(String electionId, Collection<Integer> kieskringen);
+
     @Query("""
        SELECT p.kieskring, p.party, SUM(p.votes)
        FROM PartyKieskringResult p
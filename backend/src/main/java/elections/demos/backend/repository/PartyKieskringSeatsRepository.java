@@ -0,0 +1,19 @@
+package elections.demos.backend.repository;
+
+import elections.demos.backend.model.PartyKieskringSeats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PartyKieskringSeatsRepository extends JpaRepository<PartyKieskringSeats, Long> {
+
+    List<PartyKieskringSeats> findByElectionId(String electionId);
+
+    // Eén statement, niet eerst alle rijen laden
+    @Modifying
+    @Query("DELETE FROM PartyKieskringSeats p WHERE p.electionId = :electionId")
+    void deleteByElectionId(@Param("electionId") String electionId);
+}
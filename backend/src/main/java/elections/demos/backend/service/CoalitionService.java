@@ -0,0 +1,120 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.CoalitionDTO;
+import elections.demos.backend.dto.CoalitionPageDTO;
+import elections.demos.backend.utils.CoalitionEnumerator;
+import elections.demos.backend.utils.SeatAllocationEngine;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Geeft de minimale meerderheidscoalities van een verkiezing: de partijen die samen de meerderheid van de zetels
+ * hebben en die kwijt zijn zodra één van hen vertrekt, zie {@link CoalitionEnumerator}. De zetels worden verdeeld
+ * met de stemmen in de snapshot van de verkiezing, net als bij de uitslag.<br/>
+ * <br/>
+ * De coalities worden per verkiezing onthouden, samen met de zetels waarmee ze zijn gevonden. Zodra de zetels na een
+ * nieuwe import anders zijn, worden ze opnieuw gezocht.
+ */
+@Service
+public class CoalitionService {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Eerst de minste partijen, dan de meeste zetels
+    private static final Comparator<CoalitionDTO> BY_PARTIES = Comparator
+            .comparingInt((CoalitionDTO coalition) -> coalition.getPartyIds().size())
+            .thenComparing(Comparator.comparingInt(CoalitionDTO::getSeats).reversed());
+    // Eerst de kleinste meerderheid, dan de minste partijen
+    private static final Comparator<CoalitionDTO> BY_SEATS = Comparator
+            .comparingInt(CoalitionDTO::getSeats)
+            .thenComparingInt(coalition -> coalition.getPartyIds().size());
+
+    // De coalities van een verkiezing, gevonden met deze zetels per partij
+    private record Coalitions(int[] seats, List<CoalitionDTO> coalitions) {
+    }
+
+    private final ElectionSnapshotService snapshotService;
+    private final Map<String, Coalitions> coalitionsPerElection = new ConcurrentHashMap<>();
+
+    public CoalitionService(ElectionSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param page       de pagina, vanaf 0.
+     * @param size       het aantal coalities per pagina.
+     * @param sort       <code>parties</code> voor de minste partijen eerst, <code>seats</code> voor de kleinste
+     *                   meerderheid eerst.
+     * @param maxParties het grootste aantal partijen van een coalitie, of <code>null</code>.
+     * @return een pagina met coalities, leeg als de verkiezing geen snapshot heeft.
+     * @throws IllegalArgumentException als de pagina, de grootte of de sortering niet klopt.
+     */
+    public Optional<CoalitionPageDTO> getCoalitions(String electionId, int page, int size, String sort,
+                                                    Integer maxParties) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("The page can't be negative and the size must be between 1 and "
+                    + MAX_PAGE_SIZE + ".");
+        }
+        Comparator<CoalitionDTO> order = switch (sort) {
+            case "parties" -> BY_PARTIES;
+            case "seats" -> BY_SEATS;
+            default -> throw new IllegalArgumentException("Unknown sort: " + sort);
+        };
+        return snapshotService.find(electionId).map(snapshot -> {
+            List<CoalitionDTO> coalitions = new ArrayList<>(coalitions(snapshot));
+            if (maxParties != null) {
+                coalitions.removeIf(coalition -> coalition.getPartyIds().size() > maxParties);
+            }
+            coalitions.sort(order);
+            int from = (int) Math.min((long) page * size, coalitions.size());
+            int to = Math.min(from + size, coalitions.size());
+            return new CoalitionPageDTO(electionId, snapshot.getNumberOfSeats(),
+                    CoalitionEnumerator.majority(snapshot.getNumberOfSeats()), coalitions.size(), page, size,
+                    List.copyOf(coalitions.subList(from, to)));
+        });
+    }
+
+    // De coalities bij de zetels die uit de stemmen in de snapshot volgen, uit het geheugen als die niet zijn veranderd
+    private List<CoalitionDTO> coalitions(ElectionSnapshot snapshot) {
+        List<ElectionSnapshot.PartyEntry> parties = snapshot.getParties();
+        long[] votes = parties.stream().mapToLong(ElectionSnapshot.PartyEntry::votes).toArray();
+        int[] seats = SeatAllocationEngine.tweedeKamer().allocate(votes, snapshot.getNumberOfSeats());
+        Coalitions known = coalitionsPerElection.get(snapshot.getElectionId());
+        if (known != null && Arrays.equals(known.seats(), seats)) {
+            return known.coalitions();
+        }
+
+        // Alleen de partijen met zetels krijgen een bit in de coalities
+        int[] seated = IntStream.range(0, seats.length).filter(party -> seats[party] > 0).toArray();
+        int[] seatedSeats = Arrays.stream(seated).map(party -> seats[party]).toArray();
+        int majority = CoalitionEnumerator.majority(snapshot.getNumberOfSeats());
+        long start = System.nanoTime();
+        long[] masks = CoalitionEnumerator.minimalWinning(seatedSeats, majority);
+        List<CoalitionDTO> coalitions = new ArrayList<>(masks.length);
+        for (long mask : masks) {
+            List<Integer> members = new ArrayList<>();
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                members.add(seated[Long.numberOfTrailingZeros(rest)]);
+            }
+            members.sort(Comparator.comparingInt((Integer party) -> seats[party]).reversed());
+            int coalitionSeats = CoalitionEnumerator.seats(mask, seatedSeats);
+            coalitions.add(new CoalitionDTO(members.stream().map(party -> parties.get(party).id()).toList(),
+                    members.stream().map(party -> parties.get(party).name()).toList(), coalitionSeats,
+                    coalitionSeats - majority));
+        }
+        System.out.println("Found " + coalitions.size() + " minimal winning coalitions for election "
+                + snapshot.getElectionId() + " in " + (System.nanoTime() - start) / 1000 + " µs");
+        coalitions = List.copyOf(coalitions);
+        coalitionsPerElection.put(snapshot.getElectionId(), new Coalitions(seats, coalitions));
+        return coalitions;
+    }
+}
@@ -2,12 +2,19 @@ package elections.demos.backend.service;
 
 import elections.demos.backend.dto.ExistingElectionDTO;
 import elections.demos.backend.model.Election;
+import elections.demos.backend.model.KieskringVotes;
+import elections.demos.backend.model.Region;
 import elections.demos.backend.repository.ElectionRepository;
 import elections.demos.backend.repository.PartyRepository;
+import elections.demos.backend.utils.ElectionManifest;
 import elections.demos.backend.utils.PathUtils;
 import elections.demos.backend.utils.xml.DutchElectionParser;
 import elections.demos.backend.utils.xml.DutchElectionParserBuilder;
+import elections.demos.backend.utils.xml.ImportPhaseEvent;
+import elections.demos.backend.utils.xml.PartyDictionary;
 import elections.demos.backend.utils.xml.transformers.*;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.xml.sax.SAXException;
@@ -15,13 +22,22 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * A demo service for demonstrating how an EML-XML parser can be used inside a backend application.<br/>
  * <br/>
+ * The files of every import are recorded by the {@link ImportedFileService}. When an election is read again, only
+ * the files that have been changed since are parsed, and only the results they feed are calculated again.<br/>
+ * <br/>
+ * After every import an {@link elections.demos.backend.utils.snapshot.ElectionSnapshot} is written by the
+ * {@link ElectionSnapshotService}, so the next start of the application can serve the results right away.<br/>
+ * <br/>
  * <i><b>NOTE: </b>There are some TODO's and FIXME's present that need fixing!</i>
  */
 @Service
@@ -29,11 +45,31 @@ public class DutchElectionServiceImpl implements DutchElectionService {
     private final ElectionRepository electionRepository;
     private final DutchPartyService dutchPartyService;
     private final PartyRepository partyRepository;
+    private final ImportedFileService importedFileService;
+    private final ImportMetricsService importMetricsService;
+    private final ElectionSnapshotService electionSnapshotService;
+    private final ElectedCandidateService electedCandidateService;
+    private final KieskringSeatService kieskringSeatService;
+    private final int parserWorkers;
+    private final DutchElectionParser.Engine parserEngine;
 
-    public DutchElectionServiceImpl(ElectionRepository electionRepository, PartyRepository partyRepository, DutchPartyService dutchPartyService) {
+    public DutchElectionServiceImpl(ElectionRepository electionRepository, PartyRepository partyRepository, DutchPartyService dutchPartyService,
+                                    ImportedFileService importedFileService, ImportMetricsService importMetricsService,
+                                    ElectionSnapshotService electionSnapshotService,
+                                    ElectedCandidateService electedCandidateService,
+                                    KieskringSeatService kieskringSeatService,
+                                    @Value("${election.parser.workers:1}") int parserWorkers,
+                                    @Value("${election.parser.engine:SAX}") DutchElectionParser.Engine parserEngine) {
         this.electionRepository = electionRepository;
         this.partyRepository = partyRepository;
         this.dutchPartyService = dutchPartyService;
+        this.importedFileService = importedFileService;
+        this.importMetricsService = importMetricsService;
+        this.electionSnapshotService = electionSnapshotService;
+        this.electedCandidateService = electedCandidateService;
+        this.kieskringSeatService = kieskringSeatService;
+        this.parserWorkers = parserWorkers;
+        this.parserEngine = parserEngine;
     }
 
     @Transactional
@@ -43,40 +79,49 @@ public class DutchElectionServiceImpl implements DutchElectionService {
 
         // Check if election already exists in the database
         Optional<Election> existingElection = electionRepository.findByElectionId(electionId);
-        if (existingElection.isPresent()) {
-            System.out.println("Election already exists in database, returning stored data");
+        String folder = PathUtils.getResourcePath("/%s".formatted(folderName));
+        if (existingElection.isPresent() && (folder == null || !Files.exists(Path.of(folder)))) {
+            System.out.println("Election already exists in database and its files are not found, returning stored data");
             return existingElection.get();
         }
 
-        // Create new election object for parsing
-        Election election = new Election(electionId);
+        try {
+            List<ElectionManifest.Entry> files;
+            try (ElectionManifest manifest = PathUtils.getManifest(folder)) {
+                files = importedFileService.electionFiles(electionId, manifest);
+            }
 
-        // Build parser with transformers
-        DutchElectionParser electionParser = DutchElectionParserBuilder.create()
-                .withDefinitionTransformer(new DutchDefinitionTransformer(election))
-                .withCandidateTransformer(new DutchCandidateTransformer(election))
-                .withResultTransformer(new DutchResultTransformer(election))
-                .withNationalVotesTransformer(new DutchNationalVotesTransformer(election))
-                .withConstituencyVotesTransformer(new DutchConstituencyVotesTransformer(election))
-                .withMunicipalityVotesTransformer(new DutchMunicipalityVotesTransformer(election))
-                .withPartyVotesTransformer(new DutchPartyTransformer(election))
-                .build();
+            if (existingElection.isPresent()) {
+                if (!importedFileService.hasRecordedFiles(electionId)) {
+                    // Imported before the files were recorded, assume the stored data matches the files
+                    System.out.println("Election already exists in database, recording its files");
+                    importedFileService.record(electionId, files);
+                    return existingElection.get();
+                }
 
-        try {
-            // Parse XML files
-            electionParser.parseResults(electionId, PathUtils.getResourcePath("/%s".formatted(folderName)));
-
-            // Save kieskring data before persisting (transient fields are lost after save)
-            Map<Integer, Map<String, Long>> kieskringData = election.getKieskringPartyVotes();
-
-            // Save to database
-            election = electionRepository.save(election);
-            
-            // Process kieskring results using the data captured before persistence
-            if (!kieskringData.isEmpty()) {
-                dutchPartyService.calculateKieskringResults(electionId, kieskringData);
+                ImportedFileService.Changes changes = importedFileService.findChanges(electionId, files);
+                if (changes.isEmpty()) {
+                    System.out.println("Election already exists in database, returning stored data");
+                    if (electionSnapshotService.find(electionId).isEmpty()) {
+                        electionSnapshotService.write(existingElection.get());
+                    }
+                    return existingElection.get();
+                }
+                if (changes.isIncremental()) {
+                    System.out.println("Re-importing " + changes.changed().size() + " changed files");
+                    Election election = reimportChangedFiles(existingElection.get(), folder, changes);
+                    importedFileService.record(electionId, files);
+                    electionSnapshotService.write(election);
+                    return election;
+                }
+
+                System.out.println("The definition or candidate lists changed, importing the whole election again");
+                deleteElection(existingElection.get());
             }
 
+            Election election = importElection(electionId, folder);
+            importedFileService.record(electionId, files);
+            electionSnapshotService.write(election);
             return election;
         } catch (IOException | XMLStreamException | NullPointerException | ParserConfigurationException |
                  SAXException e) {
@@ -86,6 +131,171 @@ public class DutchElectionServiceImpl implements DutchElectionService {
         }
     }
 
+    private Election importElection(String electionId, String folder)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        // Create new election object for parsing
+        Election election = new Election(electionId);
+
+        // The typed transformers look up the party ordinals in the same dictionary the parser fills, the parties of
+        // the election definition get the first ordinals
+        PartyDictionary partyDictionary = new PartyDictionary();
+        DutchPartyTransformer partyTransformer = new DutchPartyTransformer(election, partyDictionary);
+        DutchPollingStationTransformer pollingStationTransformer =
+                new DutchPollingStationTransformer(election, partyDictionary);
+
+        // Build parser with transformers
+        DutchElectionParser electionParser = DutchElectionParserBuilder.create()
+                .withDefinitionTransformer(new DutchDefinitionTransformer(election, partyDictionary))
+                .withCandidateTransformer(new DutchCandidateTransformer(election))
+                .withResultTransformer(new DutchResultTransformer(election))
+                .withNationalVotesTransformer(new DutchNationalVotesTransformer(election, partyDictionary))
+                .withConstituencyVotesTransformer(new DutchConstituencyVotesTransformer(election, partyDictionary))
+                .withMunicipalityVotesTransformer(new DutchMunicipalityVotesTransformer(election, partyDictionary))
+                .withPartyVotesTransformer(partyTransformer)
+                .withPollingStationTransformer(pollingStationTransformer)
+                .withPartyDictionary(partyDictionary)
+                .withWorkers(parserWorkers)
+                .withEngine(parserEngine)
+                .withMetrics(importMetricsService)
+                .build();
+
+        // Parse XML files
+        electionParser.parseResults(electionId, folder);
+        partyTransformer.materializePartyResults();
+        pollingStationTransformer.removeReplacedRows();
+
+        // Save kieskring data before persisting (transient fields are lost after save)
+        KieskringVotes kieskringVotes = election.getKieskringVotes();
+
+        // Save to database
+        Election savedElection = importMetricsService.timeSave(() -> electionRepository.save(election));
+        // The votes per municipality, polling station and candidate are only kept in memory and in the snapshot
+        savedElection.setMunicipalityVotes(election.getMunicipalityVotes());
+        savedElection.setPollingStationVotes(election.getPollingStationVotes());
+        savedElection.setCandidateVotes(election.getCandidateVotes());
+        savedElection.setTurnoutVotes(election.getTurnoutVotes());
+        electedCandidateService.replace(savedElection, election.getElectedCandidates());
+
+        // Process kieskring results using the data captured before persistence
+        if (!kieskringVotes.isEmpty()) {
+            ImportPhaseEvent event = ImportPhaseEvent.start("kieskring results");
+            dutchPartyService.calculateKieskringResults(electionId, kieskringVotes);
+            event.commit();
+
+            ImportPhaseEvent seats = ImportPhaseEvent.start("kieskring seats");
+            kieskringSeatService.apportion(savedElection, kieskringVotes);
+            seats.commit();
+        }
+
+        return savedElection;
+    }
+
+    /**
+     * Parses only the changed votes files into the stored election. The definition and candidate lists are already
+     * in the database, so only the votes transformers are needed.
+     */
+    private Election reimportChangedFiles(Election election, String folder, ImportedFileService.Changes changes)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        boolean totalsChanged = changes.contains(ElectionManifest.FileType.TOTAL_VOTES);
+        if (totalsChanged) {
+            // The party transformer adds up the votes, the totals file is counted again from scratch
+            election.getPartyResults().forEach(result -> result.setTotalVotes(0));
+        }
+
+        // The municipalities, polling stations and kieskringen whose files are parsed again start over, the others are
+        // kept from the snapshot
+        electionSnapshotService.find(election.getElectionId()).ifPresent(snapshot -> {
+            election.setMunicipalityVotes(snapshot.toMunicipalityVotes());
+            election.setPollingStationVotes(snapshot.toPollingStationVotes());
+            election.setCandidateVotes(snapshot.toCandidateVotes());
+            election.setTurnoutVotes(snapshot.toTurnoutVotes());
+        });
+
+        Set<Path> changedFiles = new HashSet<>();
+        changes.changed().forEach(entry -> changedFiles.add(entry.path()));
+        // The definition is not parsed again, the parties that are already stored get the first ordinals
+        PartyDictionary partyDictionary = new PartyDictionary();
+        election.getParties().forEach(party -> partyDictionary.ordinalOf(party.getPartyCode(), party.getName()));
+        DutchPartyTransformer partyTransformer = new DutchPartyTransformer(election, partyDictionary);
+        DutchPollingStationTransformer pollingStationTransformer =
+                new DutchPollingStationTransformer(election, partyDictionary);
+        DutchElectionParser electionParser = DutchElectionParserBuilder.create()
+                .withResultTransformer(new DutchResultTransformer(election))
+                .withNationalVotesTransformer(new DutchNationalVotesTransformer(election, partyDictionary))
+                .withConstituencyVotesTransformer(new DutchConstituencyVotesTransformer(election, partyDictionary))
+                .withMunicipalityVotesTransformer(new DutchMunicipalityVotesTransformer(election, partyDictionary))
+                .withPartyVotesTransformer(partyTransformer)
+                .withPollingStationTransformer(pollingStationTransformer)
+                .withPartyDictionary(partyDictionary)
+                .withWorkers(parserWorkers)
+                .withEngine(parserEngine)
+                .withMetrics(importMetricsService)
+                .withFileSelection(changedFiles::contains)
+                .build();
+        electionParser.parseResults(election.getElectionId(), folder);
+        partyTransformer.materializePartyResults();
+        pollingStationTransformer.removeReplacedRows();
+
+        // Only the kieskringen whose files have been parsed again are replaced
+        Set<Integer> kieskringen = changedKieskringen(election, changes);
+        if (!kieskringen.isEmpty() || !election.getKieskringVotes().isEmpty()) {
+            ImportPhaseEvent event = ImportPhaseEvent.start("kieskring results");
+            dutchPartyService.replaceKieskringResults(election.getElectionId(), kieskringen,
+                    election.getKieskringVotes());
+            event.commit();
+
+            // The seats of the other kieskringen can change as well, the whole matrix is divided again
+            ImportPhaseEvent seats = ImportPhaseEvent.start("kieskring seats");
+            kieskringSeatService.reapportion(election);
+            seats.commit();
+        }
+
+        if (totalsChanged) {
+            dutchPartyService.recalculateSeats(election);
+        }
+        Election savedElection = importMetricsService.timeSave(() -> electionRepository.save(election));
+        savedElection.setMunicipalityVotes(election.getMunicipalityVotes());
+        savedElection.setPollingStationVotes(election.getPollingStationVotes());
+        savedElection.setCandidateVotes(election.getCandidateVotes());
+        savedElection.setTurnoutVotes(election.getTurnoutVotes());
+        electedCandidateService.replace(savedElection, election.getElectedCandidates());
+        return savedElection;
+    }
+
+    // The numbers of the kieskringen of the changed kieskring files, found by the name in the file name
+    static Set<Integer> changedKieskringen(Election election, ImportedFileService.Changes changes) {
+        Set<Integer> kieskringen = new HashSet<>();
+        for (ElectionManifest.Entry entry : changes.changed()) {
+            if (entry.type() != ElectionManifest.FileType.VOTES || entry.kieskring() == null) {
+                continue;
+            }
+            for (Region region : election.getRegions()) {
+                if ("KIESKRING".equalsIgnoreCase(region.getRegionCategory()) && region.getRegionNumber() != null
+                        && entry.kieskring().equalsIgnoreCase(region.getRegionName())) {
+                    kieskringen.add(region.getRegionNumber());
+                }
+            }
+        }
+        return kieskringen;
+    }
+
+    // Removes everything of the election, so it can be imported from scratch
+    private void deleteElection(Election election) {
+        dutchPartyService.deleteKieskringResults(election.getElectionId());
+        kieskringSeatService.delete(election.getElectionId());
+        electedCandidateService.delete(election.getElectionId());
+        importedFileService.forget(election.getElectionId());
+        electionRepository.delete(election);
+        electionRepository.flush();
+    }
+
+    /**
+     * Closes the zip archives that have been read, when the application shuts down.
+     */
+    @PreDestroy
+    public void closeManifests() throws IOException {
+        PathUtils.closeManifests();
+    }
 
     /**
      * Gets an election by ID from the database
@@ -2,11 +2,11 @@ package elections.demos.backend.service;
 
 import elections.demos.backend.dto.PartyDataDTO;
 import elections.demos.backend.model.Election;
+import elections.demos.backend.model.KieskringVotes;
 import elections.demos.backend.model.Party;
 import elections.demos.backend.model.PartyResult;
 import elections.demos.backend.model.PartyKieskringResult;
 import elections.demos.backend.repository.ElectionRepository;
-import elections.demos.backend.repository.PartyRepository;
 import elections.demos.backend.repository.PartyResultRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,27 +14,28 @@ import org.springframework.transaction.annotation.Transactional;
 import elections.demos.backend.dto.KieskringTopPartiesDTO;
 import elections.demos.backend.dto.PartyVotesDTO;
 import elections.demos.backend.repository.PartyKieskringResultRepository;
+import elections.demos.backend.utils.SeatAllocationEngine;
 
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class DutchPartyService {
     private final ElectionRepository electionRepository;
-    private final PartyRepository partyRepository;
     private final PartyResultRepository partyResultRepository;
     private final PartyKieskringResultRepository partyKieskringResultRepository;
+    private final ElectionSnapshotService electionSnapshotService;
 
 
     @Autowired
-    public DutchPartyService(ElectionRepository electionRepository, PartyRepository partyRepository, PartyResultRepository partyResultRepository,
-                             PartyKieskringResultRepository partyKieskringResultRepository) {
+    public DutchPartyService(ElectionRepository electionRepository, PartyResultRepository partyResultRepository,
+                             PartyKieskringResultRepository partyKieskringResultRepository,
+                             ElectionSnapshotService electionSnapshotService) {
         this.electionRepository = electionRepository;
-        this.partyRepository = partyRepository;
         this.partyResultRepository = partyResultRepository;
         this.partyKieskringResultRepository = partyKieskringResultRepository;
+        this.electionSnapshotService = electionSnapshotService;
     }
 
     public List<PartyDataDTO> calculateSeats(String electionId, int totalSeats) {
@@ -44,86 +45,98 @@ public class DutchPartyService {
         Election election = electionRepository.findByElectionId(electionId).orElseThrow(() -> new IllegalArgumentException("Election not found: " + electionId));
         System.out.println("Election found: " + election.getElectionId());
 
-        // Extract votes per party
-        Map<String, Long> votesPerParty = extractVotesPerParty(election);
-        if (votesPerParty.isEmpty()) {
+        // Calculate seats, in the order the results were stored, the most seats first
+        List<PartyDataDTO> seatResults = new ArrayList<>(calculateSeatsWithVotes(inStoredOrder(election.getPartyResults()),
+                totalSeats));
+        if (seatResults.isEmpty()) {
             System.err.println("No votes found for election: " + electionId);
             return List.of();
         }
-
-        // Calculate seats
-        List<PartyDataDTO> seatResults = calculateSeatsWithVotes(votesPerParty, totalSeats);
+        seatResults.sort(Comparator.comparingInt(PartyDataDTO::getSeats).reversed());
         System.out.println("Calculated " + seatResults.size() + " party results for election: " + electionId);
         return seatResults;
     }
 
     @Transactional
     public List<PartyResult> calculateAndStoreResults(Election election) {
+        List<PartyResult> partyResults = inStoredOrder(election.getPartyResults());
         partyResultRepository.deleteByElectionId(election.getElectionId());
-        Map<String, Long> votesPerParty = extractVotesPerParty(election);
-        List<PartyDataDTO> seatResults = calculateSeatsWithVotes(votesPerParty, election.getNumberOfSeats());
-        return savePartyResults(seatResults, election);
+        List<PartyDataDTO> seatResults = calculateSeatsWithVotes(partyResults, election.getNumberOfSeats());
+        List<PartyResult> results = savePartyResults(seatResults, partyResults, election);
+        // De snapshot mag niet de oude resultaten blijven geven
+        electionSnapshotService.refresh(election);
+        return results;
+    }
+
+    /**
+     * Werkt de zetels en percentages van de bestaande PartyResults bij na een gedeeltelijke import, zonder ze eerst
+     * te verwijderen.
+     */
+    @Transactional
+    public void recalculateSeats(Election election) {
+        List<PartyResult> partyResults = inStoredOrder(election.getPartyResults());
+        long[] votes = votesPerParty(partyResults);
+        long totalValidVotes = Arrays.stream(votes).sum();
+        int[] seats = SeatAllocationEngine.tweedeKamer().allocate(votes, election.getNumberOfSeats());
+        for (int party = 0; party < votes.length; party++) {
+            PartyResult result = partyResults.get(party);
+            result.setSeats(seats[party]);
+            result.setPercentage(totalValidVotes == 0 ? 0.0 : (votes[party] * 100.0) / totalValidVotes);
+        }
     }
 
     private Election getElectionById(String electionId) {
         return electionRepository.findByElectionId(electionId).orElseThrow(() -> new IllegalArgumentException("Election not found: " + electionId));
     }
 
-    private Map<String, Long> extractVotesPerParty(Election election) {
-        return election.getPartyResults().stream().collect(Collectors.toMap(pr -> pr.getParty().getId(), PartyResult::getTotalVotes));
+    /**
+     * Zet de resultaten op id, de volgorde waarin ze zijn opgeslagen, net als {@link ElectionDataService} doet. Een
+     * partij zonder stemmen heeft geen resultaat, de positie in de lijst is dus niet het ordinal van de partij. Wel
+     * wordt een gelijk aantal stemmen zo bij elke verdeling en bij de marges op dezelfde manier beslist. Resultaten
+     * die nog niet zijn opgeslagen komen achteraan, in de volgorde van de lijst.
+     */
+    private static List<PartyResult> inStoredOrder(List<PartyResult> partyResults) {
+        return partyResults.stream()
+                .sorted(Comparator.comparing(PartyResult::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
     }
 
-    private List<PartyDataDTO> calculateSeatsWithVotes(Map<String, Long> votesPerParty, int totalSeats) {
-        long totalValidVotes = votesPerParty.values().stream().mapToLong(Long::longValue).sum();
+    // De stemmen per resultaat, in de volgorde van de lijst
+    private static long[] votesPerParty(List<PartyResult> partyResults) {
+        return partyResults.stream().mapToLong(PartyResult::getTotalVotes).toArray();
+    }
+
+    /**
+     * Verdeelt de zetels zoals bij een nieuwe import, met de {@link SeatAllocationEngine} volgens de Kieswet.
+     *
+     * @return een DTO per resultaat, in dezelfde volgorde, of een lege lijst als er geen stemmen zijn.
+     */
+    private static List<PartyDataDTO> calculateSeatsWithVotes(List<PartyResult> partyResults, int totalSeats) {
+        long[] votes = votesPerParty(partyResults);
+        long totalValidVotes = Arrays.stream(votes).sum();
         if (totalValidVotes == 0) return List.of();
 
-        double quota = (double) totalValidVotes / totalSeats;
-        Map<String, Integer> seats = new HashMap<>();
-        Map<String, Double> remainders = new HashMap<>();
-        int assigned = 0;
-
-        for (var entry : votesPerParty.entrySet()) {
-            double quotient = entry.getValue() / quota;
-            int baseSeats = (int) Math.floor(quotient);
-            seats.put(entry.getKey(), baseSeats);
-            assigned += baseSeats;
-            remainders.put(entry.getKey(), quotient - baseSeats);
+        int[] seats = SeatAllocationEngine.tweedeKamer().allocate(votes, totalSeats);
+        List<PartyDataDTO> dtos = new ArrayList<>(votes.length);
+        for (int party = 0; party < votes.length; party++) {
+            Party entity = partyResults.get(party).getParty();
+            double percentage = (votes[party] * 100.0) / totalValidVotes;
+            dtos.add(new PartyDataDTO(entity.getId(), entity.getName(), seats[party], percentage, votes[party]));
         }
-
-        assignRemainingSeats(seats, remainders, totalSeats - assigned);
-
-        return convertToPartyDataDTOs(seats, votesPerParty, totalValidVotes);
+        return dtos;
     }
 
-    private void assignRemainingSeats(Map<String, Integer> seats, Map<String, Double> remainders, int remainingSeats) {
-        if (remainingSeats > 0) {
-            remainders.entrySet().stream().sorted((a, b) -> Double.compare(b.getValue(), a.getValue())).limit(remainingSeats).forEach(entry -> seats.merge(entry.getKey(), 1, Integer::sum));
+    // De DTO's staan in de volgorde van de resultaten waaruit ze zijn berekend, de partij komt uit het resultaat
+    private List<PartyResult> savePartyResults(List<PartyDataDTO> seatResults, List<PartyResult> partyResults,
+                                               Election election) {
+        List<PartyResult> results = new ArrayList<>(seatResults.size());
+        for (int party = 0; party < seatResults.size(); party++) {
+            results.add(createPartyResultEntity(seatResults.get(party), partyResults.get(party).getParty(), election));
         }
-    }
-
-    private List<PartyDataDTO> convertToPartyDataDTOs(Map<String, Integer> seats, Map<String, Long> votesPerParty, long totalValidVotes) {
-        return seats.entrySet().stream().map(entry -> {
-            String partyId = entry.getKey();
-            long votes = votesPerParty.get(partyId);
-            double percentage = (votes * 100.0) / totalValidVotes;
-            String partyName = partyRepository.findById(partyId).map(Party::getName).orElse("Unknown Party");
-            return new PartyDataDTO(partyId, partyName, entry.getValue(), percentage, votes);
-        }).sorted(Comparator.comparingInt(PartyDataDTO::getSeats).reversed()).collect(Collectors.toList());
-    }
-
-    private List<PartyResult> savePartyResults(List<PartyDataDTO> seatResults, Election election) {
-        List<PartyResult> results = seatResults.stream().map(dto -> createPartyResultEntity(dto, election)).collect(Collectors.toList());
         return partyResultRepository.saveAll(results);
     }
 
-    private PartyResult createPartyResultEntity(PartyDataDTO dto, Election election) {
-        Party party = partyRepository.findById(dto.getPartyId())
-                .orElseGet(() -> {
-                    System.out.println("Saving new party: " + dto.getPartyId() + " (" + dto.getPartyName() + ")");
-                    Party newParty = new Party(dto.getPartyId().split("_")[1], dto.getPartyName(), election);
-                    return partyRepository.save(newParty);
-                });
-
+    private PartyResult createPartyResultEntity(PartyDataDTO dto, Party party, Election election) {
         PartyResult result = new PartyResult();
         result.setElection(election);
         result.setParty(party);
@@ -165,22 +178,57 @@ public class DutchPartyService {
      * Sla de per-kieskring stemmen (gevuld door DutchConstituencyVotesTransformer) op in de database.
      */
     @Transactional
-    public void calculateKieskringResults(String electionId, Map<Integer, Map<String, Long>> kieskringData) {
+    public void calculateKieskringResults(String electionId, KieskringVotes kieskringVotes) {
         partyKieskringResultRepository.deleteByElectionId(electionId);
 
-        if (kieskringData == null || kieskringData.isEmpty()) {
+        if (kieskringVotes.isEmpty()) {
             System.out.println("No kieskring votes found for election " + electionId + " – did the constituency files run?");
             return;
         }
 
-        List<PartyKieskringResult> toSave = new ArrayList<>();
-        kieskringData.forEach((kieskring, perParty) ->
-                perParty.forEach((partyName, votes) ->
-                        toSave.add(new PartyKieskringResult(kieskring, partyName, votes, electionId))
-                )
-        );
-
+        List<PartyKieskringResult> toSave = toKieskringResults(electionId, kieskringVotes);
         partyKieskringResultRepository.saveAll(toSave);
         System.out.println("Saved " + toSave.size() + " kieskring results for election " + electionId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Verwijder alle per-kieskring resultaten van een verkiezing, voordat die opnieuw wordt ingelezen.
+     */
+    @Transactional
+    public void deleteKieskringResults(String electionId) {
+        partyKieskringResultRepository.deleteByElectionId(electionId);
+    }
+
+    /**
+     * Vervang alleen de resultaten van de opnieuw ingelezen kieskringen, de andere kieskringen blijven staan.
+     *
+     * @param kieskringen    de nummers van de kieskringen waarvan de bestanden opnieuw zijn ingelezen.
+     * @param kieskringVotes de stemmen uit die bestanden, een kieskring zonder stemmen wordt alleen verwijderd.
+     */
+    @Transactional
+    public void replaceKieskringResults(String electionId, Collection<Integer> kieskringen,
+                                        KieskringVotes kieskringVotes) {
+        List<PartyKieskringResult> toSave = toKieskringResults(electionId, kieskringVotes);
+        Set<Integer> replaced = new HashSet<>(kieskringen);
+        toSave.forEach(result -> replaced.add(result.getKieskring()));
+        partyKieskringResultRepository.deleteByElectionIdAndKieskringIn(electionId, replaced);
+
+        partyKieskringResultRepository.saveAll(toSave);
+        System.out.println("Replaced " + replaced.size() + " kieskringen with " + toSave.size() + " results for election " + electionId);
+    }
+
+    // Een resultaat per kieskring en partij met stemmen, uit de matrix van het parsen
+    private static List<PartyKieskringResult> toKieskringResults(String electionId, KieskringVotes kieskringVotes) {
+        List<PartyKieskringResult> results = new ArrayList<>();
+        for (int kieskring = 0; kieskring < kieskringVotes.kieskringCount(); kieskring++) {
+            for (int party = 0; party < kieskringVotes.partyCount(); party++) {
+                long votes = kieskringVotes.votes(kieskring, party);
+                if (votes != 0) {
+                    results.add(new PartyKieskringResult(kieskringVotes.regionNumber(kieskring),
+                            kieskringVotes.partyName(party), votes, electionId));
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,94 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.ElectedCandidateDTO;
+import elections.demos.backend.dto.ElectedPartyDTO;
+import elections.demos.backend.model.Candidate;
+import elections.demos.backend.model.ElectedCandidate;
+import elections.demos.backend.model.ElectedCandidates;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.repository.ElectedCandidateRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Slaat de gekozen kandidaten uit het resultaat van de Kiesraad op en geeft de officiële zetels per partij. Die
+ * hoeven dus niet opnieuw te worden berekend. Per verkiezing wordt het antwoord in het geheugen bewaard, na een
+ * nieuwe import wordt het vervangen.
+ */
+@Service
+@Transactional
+public class ElectedCandidateService {
+    private final ElectedCandidateRepository electedCandidateRepository;
+    private final Map<String, List<ElectedPartyDTO>> cache = new ConcurrentHashMap<>();
+
+    public ElectedCandidateService(ElectedCandidateRepository electedCandidateRepository) {
+        this.electedCandidateRepository = electedCandidateRepository;
+    }
+
+    /**
+     * Vervangt de gekozen kandidaten van een verkiezing door die van de laatste import, in één batch. Als het
+     * resultaat niet is ingelezen blijven de opgeslagen kandidaten staan.
+     *
+     * @param savedElection     de opgeslagen verkiezing, de kandidaten worden aan haar partijen en kandidaten gekoppeld.
+     * @param electedCandidates de gekozen kandidaten die tijdens het parsen zijn gelezen.
+     */
+    public void replace(Election savedElection, ElectedCandidates electedCandidates) {
+        if (electedCandidates.isEmpty()) {
+            return;
+        }
+        String electionId = savedElection.getElectionId();
+        electedCandidates.linkTo(savedElection);
+        electedCandidateRepository.deleteByElectionId(electionId);
+        electedCandidateRepository.saveAll(electedCandidates.getCandidates());
+        cache.put(electionId, toDTOs(electedCandidates));
+        System.out.println("Saved " + electedCandidates.size() + " elected candidates for election " + electionId);
+    }
+
+    /**
+     * Verwijdert de gekozen kandidaten van een verkiezing, voordat die opnieuw wordt ingelezen.
+     */
+    public void delete(String electionId) {
+        electedCandidateRepository.deleteByElectionId(electionId);
+        cache.remove(electionId);
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @return de partijen met zetels en hun gekozen kandidaten, de meeste zetels eerst, leeg als het resultaat niet
+     * is ingelezen.
+     */
+    @Transactional(readOnly = true)
+    public List<ElectedPartyDTO> getElectedParties(String electionId) {
+        List<ElectedPartyDTO> parties = cache.get(electionId);
+        if (parties == null) {
+            parties = toDTOs(ElectedCandidates.of(electedCandidateRepository.findByElectionId(electionId)));
+            if (!parties.isEmpty()) {
+                cache.put(electionId, parties);
+            }
+        }
+        return parties;
+    }
+
+    private static List<ElectedPartyDTO> toDTOs(ElectedCandidates electedCandidates) {
+        Map<String, ElectedPartyDTO> parties = new LinkedHashMap<>();
+        for (ElectedCandidate elected : electedCandidates.getCandidates()) {
+            ElectedPartyDTO party = parties.computeIfAbsent(elected.getPartyCode(), code -> new ElectedPartyDTO(code,
+                    elected.getParty() == null ? null : elected.getParty().getName(), electedCandidates.seats(code),
+                    new ArrayList<>()));
+            Candidate candidate = elected.getCandidate();
+            party.getCandidates().add(new ElectedCandidateDTO(elected.getId(),
+                    candidate == null ? null : candidate.getFullName(), elected.getRanking()));
+        }
+        List<ElectedPartyDTO> sorted = new ArrayList<>(parties.values());
+        sorted.forEach(party -> party.getCandidates().sort(Comparator.comparingInt(ElectedCandidateDTO::getRanking)));
+        sorted.sort(Comparator.comparingInt(ElectedPartyDTO::getSeats).reversed());
+        return List.copyOf(sorted);
+    }
+}
@@ -7,11 +7,13 @@ import elections.demos.backend.model.PartyResult;
 import elections.demos.backend.repository.ElectionRepository;
 import elections.demos.backend.repository.PartyRepository;
 import elections.demos.backend.repository.PartyResultRepository;
+import elections.demos.backend.utils.SeatAllocationEngine;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Transactional
@@ -21,17 +23,25 @@ public class ElectionDataService {
     private final ElectionRepository electionRepo;
     private final PartyRepository partyRepo;
     private final PartyResultRepository resultRepo;
+    private final ElectionSnapshotService snapshotService;
+    // Per verkiezing de zetelmarges, bij de stemmen en zetels waarmee ze zijn berekend
+    private final Map<String, Margins> marginsPerElection = new ConcurrentHashMap<>();
+
+    private record Margins(long[] votes, int[] seats, int totalSeats, long[] gain, long[] loss) {
+    }
 
     public ElectionDataService(
             DutchElectionService electionService,
             ElectionRepository electionRepo,
             PartyRepository partyRepo,
-            PartyResultRepository resultRepo
+            PartyResultRepository resultRepo,
+            ElectionSnapshotService snapshotService
     ) {
         this.electionService = electionService;
         this.electionRepo = electionRepo;
         this.partyRepo = partyRepo;
         this.resultRepo = resultRepo;
+        this.snapshotService = snapshotService;
     }
 
     /**
@@ -39,11 +49,18 @@ public class ElectionDataService {
      * Als de resultaten nog niet bestaan, worden ze berekend en opgeslagen.
      */
     public List<PartyDataDTO> getResults(String electionId, String folderName, int totalSeats) {
+        // ✅ 0. Serve from the snapshot, without the database
+        Optional<ElectionSnapshot> snapshot = snapshotService.find(electionId);
+        if (snapshot.isPresent()) {
+            System.out.println("Returning results from the snapshot of election: " + electionId);
+            return convertToDTOs(electionId, snapshot.get(), totalSeats);
+        }
+
         // ✅ 1. Check if election already exists in DB
         List<PartyResult> existingResults = resultRepo.findByElection_ElectionId(electionId);
         if (!existingResults.isEmpty()) {
             System.out.println("Returning existing results for election: " + electionId);
-            return convertToDTOs(existingResults);
+            return convertToDTOs(electionId, existingResults, totalSeats);
         }
 
         // ✅ 2. Parse XML via DutchElectionService if results don't exist
@@ -52,13 +69,14 @@ public class ElectionDataService {
             throw new IllegalStateException("Parsing failed for election: " + electionId);
         }
 
-        Map<String, Long> votesPerParty = parsedElection.getVotesPerParty();
-        Map<String, String> namePerParty = parsedElection.getNamePerParty();
+        // Per partij-ordinal uit de PartyDictionary van de import
+        long[] votesPerParty = parsedElection.getVotesPerParty();
+        List<String> partyIds = parsedElection.getPartyIdPerOrdinal();
+        List<String> names = parsedElection.getNamePerOrdinal();
         long totalValidVotes = parsedElection.getTotalValidVotes();
 
-        // ✅ 3. Calculate seats & percentages
-        Map<String, Integer> seatsPerParty = computeSeats(votesPerParty, totalSeats);
-        Map<String, Double> pctPerParty = computePercentages(votesPerParty, totalValidVotes);
+        // ✅ 3. Calculate seats
+        int[] seatsPerParty = computeSeats(votesPerParty, totalSeats);
 
         // ✅ 4. Save election (if new)
         Election election = electionRepo.findByElectionId(electionId)
@@ -68,102 +86,138 @@ public class ElectionDataService {
                 });
 
         // ✅ 5. Create PartyResults and associate with Election
-        List<PartyResult> newResults = seatsPerParty.entrySet().stream()
-                .map(entry -> {
-                    String partyId = normalizePartyId(entry.getKey(), electionId);
-                    int seats = entry.getValue();
-                    double pct = pctPerParty.getOrDefault(partyId, 0.0);
-                    long votes = votesPerParty.getOrDefault(partyId, 0L);
-                    String name = namePerParty.getOrDefault(partyId, partyId);
-
-                    Party party = partyRepo.findById(partyId)
-                            .orElseGet(() -> {
-                                System.out.println("Saving new party: " + partyId + " (" + name + ")");
-                                Party newParty = new Party(partyId.split("_")[1], name, election);
-                                return partyRepo.save(newParty);
-                            });
-                    PartyResult result = new PartyResult();
-                    result.setElection(election);
-                    result.setParty(party);
-                    result.setSeats(seats); // Set calculated seats
-                    result.setPercentage(pct); // Set calculated percentage
-                    result.setTotalVotes(votes);
-                    System.out.println("Created PartyResult: " + partyId + " - Seats: " + seats + ", Votes: " + votes);
-                    return result;
-                })
-                .collect(Collectors.toList());
+        List<PartyResult> newResults = new ArrayList<>();
+        for (int ordinal = 0; ordinal < votesPerParty.length; ordinal++) {
+            String partyId = partyIds.get(ordinal);
+            if (partyId == null) {
+                continue; // een partij zonder stemmen
+            }
+            int seats = seatsPerParty[ordinal];
+            long votes = votesPerParty[ordinal];
+            double pct = percentage(votes, totalValidVotes);
+            String name = names.get(ordinal) != null ? names.get(ordinal) : partyId;
+
+            Party party = partyRepo.findById(partyId)
+                    .orElseGet(() -> {
+                        System.out.println("Saving new party: " + partyId + " (" + name + ")");
+                        Party newParty = new Party(partyId.substring(electionId.length() + 1), name, election);
+                        return partyRepo.save(newParty);
+                    });
+            PartyResult result = new PartyResult();
+            result.setElection(election);
+            result.setParty(party);
+            result.setSeats(seats); // Set calculated seats
+            result.setPercentage(pct); // Set calculated percentage
+            result.setTotalVotes(votes);
+            System.out.println("Created PartyResult: " + partyId + " - Seats: " + seats + ", Votes: " + votes);
+            newResults.add(result);
+        }
 
         resultRepo.saveAll(newResults);
         System.out.println("Saved " + newResults.size() + " PartyResults for election: " + electionId);
+        snapshotService.refresh(parsedElection);
 
         // ✅ 6. Return as DTOs
-        List<PartyDataDTO> dtos = convertToDTOs(newResults);
+        List<PartyDataDTO> dtos = convertToDTOs(electionId, newResults, totalSeats);
         System.out.println("Returning " + dtos.size() + " DTOs for election: " + electionId);
         return dtos;
     }
 
-    private String normalizePartyId(String partyId, String electionId) {
-        if (partyId != null && partyId.contains("_")) {
-            String[] parts = partyId.split("_");
-            if (parts.length == 2 && parts[0].equals(electionId)) {
-                return partyId; // Already normalized
-            }
-            return electionId + "_" + parts[parts.length - 1];
-        }
-        return electionId + "_" + partyId; // Ensure prefix if missing
-    }
     public List<PartyDataDTO> getResultsAsDTOByElection(String electionId,
                                                         String folderName,
                                                         int totalSeats) {
         return getResults(electionId, folderName, totalSeats);
     }
 
-    // ===== Helper: converteert PartyResult → DTO =====
-    private List<PartyDataDTO> convertToDTOs(List<PartyResult> results) {
-        return results.stream()
-                .sorted(Comparator.comparingInt(PartyResult::getSeats).reversed())
-                .map(r -> new PartyDataDTO(
-                        r.getParty().getId(),
-                        r.getParty().getName(),
-                        r.getSeats(),
-                        r.getPercentage(),
-                        r.getTotalVotes()
-                ))
-                .collect(Collectors.toList());
+    // ===== Helper: converteert PartyResult → DTO, met de opgeslagen zetels =====
+    private List<PartyDataDTO> convertToDTOs(String electionId, List<PartyResult> results, int totalSeats) {
+        // In de volgorde waarin ze zijn opgeslagen, zodat gelijke stemmen bij de marges net zo worden beslist als bij
+        // de verdeling
+        List<PartyResult> ordered = results.stream()
+                .sorted(Comparator.comparing(PartyResult::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        long[] votesPerParty = new long[ordered.size()];
+        int[] seatsPerParty = new int[ordered.size()];
+        List<PartyDataDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < votesPerParty.length; i++) {
+            PartyResult r = ordered.get(i);
+            votesPerParty[i] = r.getTotalVotes();
+            seatsPerParty[i] = r.getSeats();
+            dtos.add(new PartyDataDTO(r.getParty().getId(), r.getParty().getName(), r.getSeats(), r.getPercentage(),
+                    r.getTotalVotes()));
+        }
+        return withMargins(electionId, dtos, votesPerParty, seatsPerParty, totalSeats);
     }
 
-    // ===== Helper: berekent zetels (D’Hondt methode) =====
-    private Map<String, Integer> computeSeats(Map<String, Long> votesPerParty, int totalSeats) {
-        Map<String, Integer> seats = new HashMap<>();
-        if (votesPerParty == null || votesPerParty.isEmpty() || totalSeats <= 0) return seats;
-
-        votesPerParty.keySet().forEach(p -> seats.put(p, 0));
-
-        for (int i = 0; i < totalSeats; i++) {
-            String best = null;
-            double bestScore = -1.0;
-            for (var e : votesPerParty.entrySet()) {
-                int s = seats.get(e.getKey());
-                double score = (double) e.getValue() / (s + 1);
-                if (score > bestScore) {
-                    bestScore = score;
-                    best = e.getKey();
-                }
-            }
-            if (best == null) break;
-            seats.put(best, seats.get(best) + 1);
+    // ===== Helper: converteert een snapshot → DTO, de zetels worden berekend zoals bij een nieuwe import =====
+    private List<PartyDataDTO> convertToDTOs(String electionId, ElectionSnapshot snapshot, int totalSeats) {
+        List<ElectionSnapshot.PartyEntry> parties = snapshot.getParties().stream()
+                .filter(party -> party.votes() > 0)
+                .toList();
+        long[] votesPerParty = new long[parties.size()];
+        long totalValidVotes = 0;
+        for (int i = 0; i < votesPerParty.length; i++) {
+            votesPerParty[i] = parties.get(i).votes();
+            totalValidVotes += votesPerParty[i];
         }
-        return seats;
+
+        int[] seatsPerParty = computeSeats(votesPerParty, totalSeats);
+        List<PartyDataDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < votesPerParty.length; i++) {
+            ElectionSnapshot.PartyEntry party = parties.get(i);
+            dtos.add(new PartyDataDTO(party.id(), party.name(), seatsPerParty[i],
+                    percentage(votesPerParty[i], totalValidVotes), votesPerParty[i]));
+        }
+        return withMargins(electionId, dtos, votesPerParty, seatsPerParty, totalSeats);
     }
 
-    // ===== Helper: berekent percentages =====
-    private Map<String, Double> computePercentages(Map<String, Long> votesPerParty, long totalValidVotes) {
-        Map<String, Double> percentages = new HashMap<>();
-        if (totalValidVotes <= 0) return percentages;
+    // ===== Helper: berekent zetels per partij-index volgens de Kieswet (D’Hondt na de kiesdeler) =====
+    private int[] computeSeats(long[] votesPerParty, int totalSeats) {
+        return SeatAllocationEngine.tweedeKamer().allocate(votesPerParty, totalSeats);
+    }
 
-        for (var e : votesPerParty.entrySet()) {
-            percentages.put(e.getKey(), (e.getValue() * 100.0) / totalValidVotes);
+    /**
+     * Vult bij elke partij de stemmen in die nodig zijn voor de volgende zetel en waarbij de laatste zetel verloren
+     * gaat, zie {@link SeatAllocationEngine#margins(long[], int, int[], long[], long[])}, en sorteert de partijen op
+     * hun zetels. De marges horen bij de getoonde zetels: als die niet de verdeling van deze stemmen zijn, zoals bij
+     * opgeslagen zetels van een oudere verdeling, zijn er geen marges. De marges worden onthouden zolang de stemmen,
+     * de zetels en het aantal zetels hetzelfde blijven.
+     *
+     * @param dtos          de partijen in de volgorde van hun ordinals.
+     * @param votesPerParty de stemmen per ordinal.
+     * @param seatsPerParty de getoonde zetels per ordinal.
+     */
+    private List<PartyDataDTO> withMargins(String electionId, List<PartyDataDTO> dtos, long[] votesPerParty,
+                                           int[] seatsPerParty, int totalSeats) {
+        Margins margins = marginsPerElection.get(electionId);
+        if (margins == null || margins.totalSeats() != totalSeats || !Arrays.equals(margins.votes(), votesPerParty)
+                || !Arrays.equals(margins.seats(), seatsPerParty)) {
+            margins = new Margins(votesPerParty, seatsPerParty, totalSeats, new long[votesPerParty.length],
+                    new long[votesPerParty.length]);
+            SeatAllocationEngine engine = SeatAllocationEngine.tweedeKamer();
+            if (Arrays.equals(engine.allocate(votesPerParty, totalSeats), seatsPerParty)) {
+                engine.margins(votesPerParty, totalSeats, seatsPerParty, margins.gain(), margins.loss());
+            } else {
+                Arrays.fill(margins.gain(), SeatAllocationEngine.NO_MARGIN);
+                Arrays.fill(margins.loss(), SeatAllocationEngine.NO_MARGIN);
+            }
+            marginsPerElection.put(electionId, margins);
         }
-        return percentages;
+        for (int party = 0; party < dtos.size(); party++) {
+            dtos.get(party).setVotesForNextSeat(margin(margins.gain()[party]));
+            dtos.get(party).setVotesToLoseSeat(margin(margins.loss()[party]));
+        }
+        List<PartyDataDTO> sorted = new ArrayList<>(dtos);
+        sorted.sort(Comparator.comparingInt(PartyDataDTO::getSeats).reversed());
+        return sorted;
+    }
+
+    private static Long margin(long votes) {
+        return votes == SeatAllocationEngine.NO_MARGIN ? null : votes;
+    }
+
+    // ===== Helper: berekent een percentage =====
+    private static double percentage(long votes, long totalValidVotes) {
+        return totalValidVotes <= 0 ? 0.0 : (votes * 100.0) / totalValidVotes;
     }
 }
@@ -0,0 +1,200 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.TurnoutVotes;
+import elections.demos.backend.repository.PartyKieskringResultRepository;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes an {@link ElectionSnapshot} of every election that has been imported and maps all snapshots into memory
+ * when the application starts. A new instance can then serve the results of those elections right away, without
+ * the XML files and without the database.<br/>
+ * <br/>
+ * A snapshot is only a copy, when it can't be written or read the election is simply loaded in the usual way. Every
+ * path that writes the results of an election to the database takes a new snapshot, see {@link #refresh(Election)}.
+ * <br/>
+ * A mapped file can't be replaced on every platform, so every snapshot of an election is written to a new file, like
+ * <code>TK2023.3.snapshot</code>. The older files are removed once they are no longer used, or else at the next
+ * start.
+ */
+@Service
+public class ElectionSnapshotService implements ApplicationRunner {
+    private static final String EXTENSION = ".snapshot";
+
+    private final PartyKieskringResultRepository partyKieskringResultRepository;
+    private final Path folder;
+    private final Map<String, ElectionSnapshot> snapshots = new ConcurrentHashMap<>();
+    // electionId -> the file of the snapshot that is served, and the highest generation of its files in the folder
+    private final Map<String, SnapshotFile> files = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    // TK2023.3.snapshot, a snapshot written before there were generations is TK2023.snapshot with generation 0
+    private record SnapshotFile(Path path, String electionId, long generation) {
+        static SnapshotFile of(Path path) {
+            String name = path.getFileName().toString();
+            String stem = name.substring(0, name.length() - EXTENSION.length());
+            int dot = stem.lastIndexOf('.');
+            if (dot > 0) {
+                try {
+                    return new SnapshotFile(path, stem.substring(0, dot), Long.parseLong(stem.substring(dot + 1)));
+                } catch (NumberFormatException e) {
+                    // Not a generation, the dot is part of the election id
+                }
+            }
+            return new SnapshotFile(path, stem, 0);
+        }
+    }
+
+    public ElectionSnapshotService(PartyKieskringResultRepository partyKieskringResultRepository,
+                                   @Value("${election.snapshot.folder:snapshots}") String folder) {
+        this.partyKieskringResultRepository = partyKieskringResultRepository;
+        this.folder = Path.of(folder);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        loadSnapshots();
+    }
+
+    /**
+     * Maps the newest snapshot of every election in the snapshot folder, files that can't be read are skipped. The
+     * older snapshots of an election are removed.
+     */
+    public void loadSnapshots() {
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        Map<String, List<SnapshotFile>> filesPerElection = new HashMap<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(folder, "*" + EXTENSION)) {
+            for (Path path : paths) {
+                SnapshotFile file = SnapshotFile.of(path);
+                filesPerElection.computeIfAbsent(file.electionId(), electionId -> new ArrayList<>()).add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read the snapshots in " + folder + ": " + e.getMessage());
+            return;
+        }
+        for (List<SnapshotFile> electionFiles : filesPerElection.values()) {
+            electionFiles.sort(Comparator.comparingLong(SnapshotFile::generation).reversed());
+            generations.merge(electionFiles.get(0).electionId(), electionFiles.get(0).generation(), Math::max);
+            boolean loaded = false;
+            for (SnapshotFile file : electionFiles) {
+                if (loaded) {
+                    delete(file);
+                    continue;
+                }
+                try {
+                    ElectionSnapshot snapshot = ElectionSnapshot.map(file.path());
+                    snapshots.put(snapshot.getElectionId(), snapshot);
+                    files.put(snapshot.getElectionId(), file);
+                    loaded = true;
+                    System.out.println("Loaded snapshot of election " + snapshot.getElectionId());
+                } catch (IOException e) {
+                    // TODO replace with proper usage of a logging framework
+                    System.err.println("Skipping snapshot " + file.path() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param electionId the election, like <code>TK2023</code>.
+     * @return the snapshot of the election, if there is one.
+     */
+    public Optional<ElectionSnapshot> find(String electionId) {
+        return Optional.ofNullable(snapshots.get(electionId));
+    }
+
+    /**
+     * Takes a new snapshot after the results of an election have been written outside an import. An election that
+     * has been loaded from the database doesn't have the votes per municipality, polling station and candidate or
+     * the turnout, those are taken over from the current snapshot.
+     *
+     * @param election the election whose results have been written.
+     */
+    public void refresh(Election election) {
+        find(election.getElectionId()).ifPresent(snapshot -> {
+            if (election.getMunicipalityVotes().size() == 0) {
+                election.setMunicipalityVotes(snapshot.toMunicipalityVotes());
+            }
+            if (election.getPollingStationVotes().stationCount() == 0) {
+                election.setPollingStationVotes(snapshot.toPollingStationVotes());
+            }
+            if (election.getCandidateVotes().size() == 0) {
+                election.setCandidateVotes(snapshot.toCandidateVotes());
+            }
+            TurnoutVotes turnoutVotes = election.getTurnoutVotes();
+            if (Arrays.stream(TurnoutVotes.Level.values()).allMatch(level -> turnoutVotes.size(level) == 0)) {
+                election.setTurnoutVotes(snapshot.toTurnoutVotes());
+            }
+        });
+        write(election);
+    }
+
+    /**
+     * Takes a snapshot of an election that has been imported and writes it to the snapshot folder. The kieskring
+     * results are taken from the database, so they must have been saved already.
+     *
+     * @param election the imported election.
+     */
+    public void write(Election election) {
+        Map<Integer, Map<String, Long>> kieskringPartyVotes = new HashMap<>();
+        List<Object[]> rows = partyKieskringResultRepository.findVotesPerPartyPerKieskring(election.getElectionId());
+        for (Object[] row : rows) {
+            kieskringPartyVotes.computeIfAbsent((Integer) row[0], kieskring -> new HashMap<>())
+                    .put((String) row[1], (Long) row[2]);
+        }
+
+        String electionId = election.getElectionId();
+        ElectionSnapshot snapshot = ElectionSnapshot.of(election, kieskringPartyVotes);
+        long generation = generations.merge(electionId, 1L, Long::sum);
+        SnapshotFile file = new SnapshotFile(folder.resolve(electionId + "." + generation + EXTENSION), electionId,
+                generation);
+        try {
+            Files.createDirectories(folder);
+            snapshot.write(file.path());
+            snapshots.put(electionId, snapshot);
+            SnapshotFile previous = files.put(electionId, file);
+            if (previous != null) {
+                delete(previous);
+            }
+            System.out.println("Wrote snapshot of election " + electionId);
+        } catch (IOException e) {
+            // The election has been imported, only the next start will be slower. The old snapshot would give the
+            // old results, so it is no longer served, and not at the next start either.
+            snapshots.remove(electionId);
+            SnapshotFile previous = files.remove(electionId);
+            if (previous != null) {
+                delete(previous);
+            }
+            System.err.println("Failed to write the snapshot of election " + electionId + ": " + e.getMessage());
+        }
+    }
+
+    // A file that is still mapped can't be removed on every platform, it is removed at the next start instead
+    private static void delete(SnapshotFile file) {
+        try {
+            Files.deleteIfExists(file.path());
+        } catch (IOException e) {
+            // TODO replace with proper usage of a logging framework
+            System.err.println("Failed to remove the old snapshot " + file.path() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.utils.ElectionManifest;
+import elections.demos.backend.utils.xml.ImportPhaseEvent;
+import elections.demos.backend.utils.xml.ParserMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the measurements of an import as Micrometer meters, which Actuator exposes under
+ * <code>/actuator/metrics</code>:
+ * <ul>
+ *     <li><code>election.parser.bytes</code> and <code>election.parser.elements</code>, counters per file type. Their
+ *     rate is the throughput in bytes/s and elements/s.</li>
+ *     <li><code>election.parser.throughput.bytes</code> and <code>election.parser.throughput.elements</code>, the
+ *     throughput of each single file per file type, to find the slow files.</li>
+ *     <li><code>election.parser.file</code>, the time it took to parse a file per file type.</li>
+ *     <li><code>election.parser.callback</code>, the latency of the votes transformers per method.</li>
+ *     <li><code>election.parser.symbols</code>, the values of the symbol table of the parser, counted per
+ *     <code>result</code>: <code>hit</code>, <code>miss</code> or <code>overflow</code>.</li>
+ *     <li><code>election.import.save</code>, the time it took to save an election.</li>
+ * </ul>
+ * The file type is the {@link ElectionManifest.FileType}, or <code>UNKNOWN</code>.
+ */
+@Service
+public class ImportMetricsService implements ParserMetrics {
+    private static final String UNKNOWN = "UNKNOWN";
+
+    // The meters of a single file type.
+    private record FileMeters(Counter bytes, Counter elements, Timer duration, DistributionSummary bytesPerSecond,
+                              DistributionSummary elementsPerSecond) {
+    }
+
+    private final boolean timeCallbacks;
+    private final Map<ElectionManifest.FileType, FileMeters> fileMeters = new EnumMap<>(ElectionManifest.FileType.class);
+    private final FileMeters unknownFileMeters;
+    private final Timer[] callbackTimers = new Timer[ParserMetrics.Callback.values().length];
+    private final Counter symbolHits;
+    private final Counter symbolMisses;
+    private final Counter symbolOverflows;
+    private final Timer saveTimer;
+
+    public ImportMetricsService(MeterRegistry meterRegistry,
+                                @Value("${election.parser.metrics.callbacks:false}") boolean timeCallbacks) {
+        this.timeCallbacks = timeCallbacks;
+        for (ElectionManifest.FileType type : ElectionManifest.FileType.values()) {
+            fileMeters.put(type, fileMeters(meterRegistry, type.name()));
+        }
+        unknownFileMeters = fileMeters(meterRegistry, UNKNOWN);
+        for (ParserMetrics.Callback callback : ParserMetrics.Callback.values()) {
+            callbackTimers[callback.ordinal()] = Timer.builder("election.parser.callback")
+                    .description("The time a votes transformer takes for a single call")
+                    .tag("callback", callback.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        symbolHits = symbolCounter(meterRegistry, "hit");
+        symbolMisses = symbolCounter(meterRegistry, "miss");
+        symbolOverflows = symbolCounter(meterRegistry, "overflow");
+        saveTimer = Timer.builder("election.import.save")
+                .description("The time it takes to save a parsed election")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter symbolCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("election.parser.symbols")
+                .description("The values of the EML files that have been looked up in the symbol table")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static FileMeters fileMeters(MeterRegistry meterRegistry, String type) {
+        return new FileMeters(
+                Counter.builder("election.parser.bytes")
+                        .description("The bytes of the EML files that have been parsed")
+                        .baseUnit("bytes")
+                        .tag("type", type)
+                        .register(meterRegistry),
+                Counter.builder("election.parser.elements")
+                        .description("The elements of the EML files that have been parsed")
+                        .baseUnit("elements")
+                        .tag("type", type)
+                        .register(meterRegistry),
+                Timer.builder("election.parser.file")
+                        .description("The time it takes to parse a single EML file")
+                        .tag("type", type)
+                        .register(meterRegistry),
+                DistributionSummary.builder("election.parser.throughput.bytes")
+                        .description("The bytes per second at which a single EML file has been parsed")
+                        .baseUnit("bytes/s")
+                        .tag("type", type)
+                        .register(meterRegistry),
+                DistributionSummary.builder("election.parser.throughput.elements")
+                        .description("The elements per second at which a single EML file has been parsed")
+                        .baseUnit("elements/s")
+                        .tag("type", type)
+                        .register(meterRegistry));
+    }
+
+    @Override
+    public void fileParsed(ElectionManifest.FileType type, long bytes, long elements, long nanos) {
+        FileMeters meters = type == null ? unknownFileMeters : fileMeters.get(type);
+        meters.bytes().increment(bytes);
+        meters.elements().increment(elements);
+        meters.duration().record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos > 0) {
+            meters.bytesPerSecond().record(bytes * 1e9 / nanos);
+            meters.elementsPerSecond().record(elements * 1e9 / nanos);
+        }
+    }
+
+    @Override
+    public boolean timesCallbacks() {
+        return timeCallbacks;
+    }
+
+    @Override
+    public void callbackTimed(ParserMetrics.Callback callback, long nanos) {
+        callbackTimers[callback.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void symbolsCounted(long hits, long misses, long overflows) {
+        symbolHits.increment(hits);
+        symbolMisses.increment(misses);
+        symbolOverflows.increment(overflows);
+    }
+
+    /**
+     * Times saving an election, both as a meter and as an {@link ImportPhaseEvent}.
+     *
+     * @param save saves the election.
+     * @return the result of saving.
+     */
+    public <T> T timeSave(Supplier<T> save) {
+        ImportPhaseEvent event = ImportPhaseEvent.start("save");
+        try {
+            return saveTimer.record(save);
+        } finally {
+            event.commit();
+        }
+    }
+}
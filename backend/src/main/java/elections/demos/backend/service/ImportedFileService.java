@@ -0,0 +1,172 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.model.ImportedFile;
+import elections.demos.backend.repository.ImportedFileRepository;
+import elections.demos.backend.utils.ElectionManifest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the EML files that have been imported for an election, so a new import only has to process the
+ * files the Kiesraad has changed since. A file is compared by its size and the SHA-256 of its content. The content
+ * is only read again when the size or the modification time differs from the recorded one.<br/>
+ * <br/>
+ * The size and modification time are read from the file itself every time, not taken from the cached
+ * {@link ElectionManifest}: a corrected file that is overwritten in place doesn't change its folder, so the manifest
+ * isn't scanned again.
+ */
+@Service
+@Transactional
+public class ImportedFileService {
+    private final ImportedFileRepository importedFileRepository;
+
+    /**
+     * The files that differ from the ones recorded for an election.
+     *
+     * @param changed the files that are new or whose content changed.
+     * @param removed the names of the recorded files that are no longer there.
+     */
+    public record Changes(List<ElectionManifest.Entry> changed, Set<String> removed) {
+
+        /**
+         * @return <code>true</code> if the files are exactly the ones that have been imported.
+         */
+        public boolean isEmpty() {
+            return changed.isEmpty() && removed.isEmpty();
+        }
+
+        /**
+         * Only votes can be imported again on their own. Everything else depends on the election definition and the
+         * candidate lists, so when one of those changes, or a file disappears, the whole election is imported again.
+         *
+         * @return <code>true</code> if only the files with votes or results changed.
+         */
+        public boolean isIncremental() {
+            return removed.isEmpty() && changed.stream().allMatch(entry ->
+                    entry.type() == ElectionManifest.FileType.VOTES
+                            || entry.type() == ElectionManifest.FileType.TOTAL_VOTES
+                            || entry.type() == ElectionManifest.FileType.RESULT);
+        }
+
+        /**
+         * @param type the kind of file.
+         * @return <code>true</code> if at least one of the changed files is of that kind.
+         */
+        public boolean contains(ElectionManifest.FileType type) {
+            return changed.stream().anyMatch(entry -> entry.type() == type);
+        }
+    }
+
+    public ImportedFileService(ImportedFileRepository importedFileRepository) {
+        this.importedFileRepository = importedFileRepository;
+    }
+
+    /**
+     * @param electionId the election, like <code>TK2023</code>.
+     * @param manifest   the files in the folder or zip archive.
+     * @return the files in the manifest that belong to the election.
+     */
+    public List<ElectionManifest.Entry> electionFiles(String electionId, ElectionManifest manifest) {
+        return manifest.getEntries().stream()
+                .filter(entry -> entry.type() != null && electionId.equals(entry.electionId()))
+                .toList();
+    }
+
+    /**
+     * @param electionId the election, like <code>TK2023</code>.
+     * @return <code>true</code> if the files of the election have been recorded before.
+     */
+    public boolean hasRecordedFiles(String electionId) {
+        return !importedFileRepository.findByElectionId(electionId).isEmpty();
+    }
+
+    /**
+     * Compares the files with the ones that have been recorded for the election.
+     *
+     * @param electionId the election, like <code>TK2023</code>.
+     * @param files      the files of the election as they are now.
+     * @return the files that have been added, changed or removed.
+     * @throws IOException in case a file can't be read.
+     */
+    @Transactional(readOnly = true)
+    public Changes findChanges(String electionId, List<ElectionManifest.Entry> files) throws IOException {
+        Map<String, ImportedFile> recorded = recordedFiles(electionId);
+        Set<String> removed = new HashSet<>(recorded.keySet());
+        List<ElectionManifest.Entry> changed = new ArrayList<>();
+        for (ElectionManifest.Entry file : files) {
+            ElectionManifest.Entry entry = file.refresh();
+            removed.remove(entry.fileName());
+            if (isChanged(recorded.get(entry.fileName()), entry)) {
+                changed.add(entry);
+            }
+        }
+        return new Changes(changed, removed);
+    }
+
+    /**
+     * Records the files as they have been imported. Files that are no longer there are forgotten.
+     *
+     * @param electionId the election, like <code>TK2023</code>.
+     * @param files      the files of the election that have been imported.
+     * @throws IOException in case a file can't be read.
+     */
+    public void record(String electionId, List<ElectionManifest.Entry> files) throws IOException {
+        Map<String, ImportedFile> recorded = recordedFiles(electionId);
+        List<ImportedFile> toSave = new ArrayList<>();
+        for (ElectionManifest.Entry file : files) {
+            ElectionManifest.Entry entry = file.refresh();
+            ImportedFile importedFile = recorded.remove(entry.fileName());
+            if (importedFile != null && importedFile.getSize() == entry.size()
+                    && importedFile.getLastModified() == entry.lastModified()) {
+                continue;
+            }
+            if (importedFile == null) {
+                importedFile = new ImportedFile(electionId, entry.fileName());
+            }
+            importedFile.setFileType(entry.type().name());
+            importedFile.setSize(entry.size());
+            importedFile.setLastModified(entry.lastModified());
+            importedFile.setHash(entry.contentHash());
+            toSave.add(importedFile);
+        }
+        importedFileRepository.deleteAll(recorded.values());
+        importedFileRepository.saveAll(toSave);
+        System.out.println("Recorded " + toSave.size() + " imported files for election " + electionId);
+    }
+
+    /**
+     * Forgets all the files of the election, before it is imported from scratch.
+     *
+     * @param electionId the election, like <code>TK2023</code>.
+     */
+    public void forget(String electionId) {
+        importedFileRepository.deleteByElectionId(electionId);
+    }
+
+    private Map<String, ImportedFile> recordedFiles(String electionId) {
+        Map<String, ImportedFile> recorded = new HashMap<>();
+        for (ImportedFile importedFile : importedFileRepository.findByElectionId(electionId)) {
+            recorded.put(importedFile.getFileName(), importedFile);
+        }
+        return recorded;
+    }
+
+    private static boolean isChanged(ImportedFile importedFile, ElectionManifest.Entry entry) throws IOException {
+        if (importedFile == null || importedFile.getSize() != entry.size()) {
+            return true;
+        }
+        if (importedFile.getLastModified() == entry.lastModified()) {
+            return false;
+        }
+        // Touched, but maybe the same content, like a file that has been downloaded again
+        return !importedFile.getHash().equals(entry.contentHash());
+    }
+}
@@ -0,0 +1,158 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.KieskringSeatsDTO;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.KieskringIndex;
+import elections.demos.backend.model.KieskringVotes;
+import elections.demos.backend.model.Party;
+import elections.demos.backend.model.PartyKieskringSeats;
+import elections.demos.backend.repository.PartyKieskringResultRepository;
+import elections.demos.backend.repository.PartyKieskringSeatsRepository;
+import elections.demos.backend.utils.KieskringApportionment;
+import elections.demos.backend.utils.SeatAllocationEngine;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verdeelt de zetels van elke partij over haar lijsten in de kieskringen, zie {@link KieskringApportionment}. De
+ * verdeling wordt één keer per import berekend uit de matrix met stemmen per kieskring en partij van het parsen, alleen
+ * de lijsten met zetels worden opgeslagen. De zetels per partij zijn dezelfde als in de uitslag: verdeeld met de
+ * stemmen van de partijen, zie {@link ElectionSnapshot#votesPerParty(Election)}.<br/>
+ * <br/>
+ * Per verkiezing wordt het antwoord in het geheugen bewaard. Na een nieuwe import wordt het pas vervangen als de
+ * transactie is gecommit, zodat er geen verdeling wordt gegeven die niet in de database staat.
+ */
+@Service
+@Transactional
+public class KieskringSeatService {
+    private final PartyKieskringSeatsRepository partyKieskringSeatsRepository;
+    private final PartyKieskringResultRepository partyKieskringResultRepository;
+    private final Map<String, List<KieskringSeatsDTO>> cache = new ConcurrentHashMap<>();
+
+    public KieskringSeatService(PartyKieskringSeatsRepository partyKieskringSeatsRepository,
+                                PartyKieskringResultRepository partyKieskringResultRepository) {
+        this.partyKieskringSeatsRepository = partyKieskringSeatsRepository;
+        this.partyKieskringResultRepository = partyKieskringResultRepository;
+    }
+
+    /**
+     * Verdeelt de zetels over de partijen en hun lijsten en vervangt de opgeslagen verdeling.
+     *
+     * @param election       de verkiezing, met de partijen en hun resultaten.
+     * @param kieskringVotes de stemmen per kieskring en partij.
+     */
+    public void apportion(Election election, KieskringVotes kieskringVotes) {
+        String electionId = election.getElectionId();
+        // De zetels per partij zoals in de uitslag, in de kolom van de partij; de kolommen zijn op partijnaam, zoals
+        // ze in PartyKieskringResult staan
+        List<Party> parties = election.getParties();
+        int[] partySeats = SeatAllocationEngine.tweedeKamer()
+                .allocate(ElectionSnapshot.votesPerParty(election), election.getNumberOfSeats());
+        int[] seatsPerColumn = new int[kieskringVotes.partyCount()];
+        for (int party = 0; party < partySeats.length; party++) {
+            int column = kieskringVotes.find(parties.get(party).getName());
+            if (column >= 0) {
+                seatsPerColumn[column] = partySeats[party];
+            }
+        }
+        int[][] seats = KieskringApportionment.apportion(kieskringVotes.toMatrix(), seatsPerColumn);
+
+        List<PartyKieskringSeats> toSave = new ArrayList<>();
+        for (int kieskring = 0; kieskring < seats.length; kieskring++) {
+            for (int column = 0; column < seatsPerColumn.length; column++) {
+                if (seats[kieskring][column] > 0) {
+                    toSave.add(new PartyKieskringSeats(kieskringVotes.regionNumber(kieskring),
+                            kieskringVotes.partyName(column), seats[kieskring][column], electionId));
+                }
+            }
+        }
+        partyKieskringSeatsRepository.deleteByElectionId(electionId);
+        partyKieskringSeatsRepository.saveAll(toSave);
+        List<KieskringSeatsDTO> kieskringSeats = toDTOs(toSave);
+        afterCommit(() -> cache.put(electionId, kieskringSeats));
+        System.out.println("Saved " + toSave.size() + " kieskring seats for election " + electionId);
+    }
+
+    /**
+     * Verdeelt de zetels opnieuw met de opgeslagen stemmen per kieskring, nadat een deel van de kieskringen opnieuw
+     * is ingelezen.
+     */
+    public void reapportion(Election election) {
+        KieskringIndex index = KieskringIndex.of(election.getRegions());
+        KieskringVotes kieskringVotes = new KieskringVotes(index);
+        for (Object[] row : partyKieskringResultRepository.findVotesPerPartyPerKieskring(election.getElectionId())) {
+            int kieskring = index.ordinalOf((Integer) row[0]);
+            if (kieskring != KieskringIndex.NOT_FOUND) {
+                kieskringVotes.add(kieskring, (String) row[1], ((Number) row[2]).longValue());
+            }
+        }
+        apportion(election, kieskringVotes);
+    }
+
+    /**
+     * Verwijdert de zetels per kieskring van een verkiezing, voordat die opnieuw wordt ingelezen.
+     */
+    public void delete(String electionId) {
+        partyKieskringSeatsRepository.deleteByElectionId(electionId);
+        afterCommit(() -> cache.remove(electionId));
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @return de partijen met zetels en hun zetels per kieskring, de meeste zetels eerst, leeg als er geen verdeling
+     * is opgeslagen.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<KieskringSeatsDTO>> getKieskringSeats(String electionId) {
+        List<KieskringSeatsDTO> parties = cache.get(electionId);
+        if (parties == null) {
+            List<KieskringSeatsDTO> loaded = toDTOs(partyKieskringSeatsRepository.findByElectionId(electionId));
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            // Een verdeling die net is gecommit gaat voor
+            parties = cache.computeIfAbsent(electionId, key -> loaded);
+        }
+        return Optional.of(parties);
+    }
+
+    // Na de commit van de transactie, of meteen als er geen transactie is
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static List<KieskringSeatsDTO> toDTOs(List<PartyKieskringSeats> rows) {
+        Map<String, KieskringSeatsDTO> parties = new LinkedHashMap<>();
+        for (PartyKieskringSeats row : rows) {
+            KieskringSeatsDTO party = parties.computeIfAbsent(row.getParty(),
+                    name -> new KieskringSeatsDTO(name, 0, new TreeMap<>()));
+            party.setSeats(party.getSeats() + row.getSeats());
+            party.getSeatsPerKieskring().merge(row.getKieskring(), row.getSeats(), Integer::sum);
+        }
+        List<KieskringSeatsDTO> sorted = new ArrayList<>(parties.values());
+        sorted.sort(Comparator.comparingInt(KieskringSeatsDTO::getSeats).reversed()
+                .thenComparing(KieskringSeatsDTO::getParty));
+        return List.copyOf(sorted);
+    }
+}
@@ -0,0 +1,102 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.MunicipalityVotesDTO;
+import elections.demos.backend.dto.PartyVotesDTO;
+import elections.demos.backend.dto.PollingStationDTO;
+import elections.demos.backend.model.PollingStationVotes;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Geeft de stemmen per gemeente en per stembureau. Die staan niet in de database, ze worden gelezen uit de snapshot
+ * van de verkiezing die na de import in het geheugen is gemapt.
+ */
+@Service
+public class MunicipalityService {
+    private final ElectionSnapshotService snapshotService;
+
+    public MunicipalityService(ElectionSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @return alle gemeenten op volgorde van hun code, leeg als de verkiezing geen snapshot heeft.
+     */
+    public Optional<List<MunicipalityVotesDTO>> getMunicipalities(String electionId) {
+        return snapshotService.find(electionId).map(snapshot -> {
+            String[] parties = snapshot.getMunicipalityParties();
+            List<MunicipalityVotesDTO> municipalities = new ArrayList<>();
+            for (int row = 0; row < snapshot.getMunicipalities().size(); row++) {
+                municipalities.add(toDTO(snapshot, parties, row));
+            }
+            return municipalities;
+        });
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param code       de code van de gemeente, zoals <code>0363</code>.
+     * @return de gemeente, leeg als die of de snapshot van de verkiezing niet bestaat.
+     */
+    public Optional<MunicipalityVotesDTO> getMunicipality(String electionId, String code) {
+        return snapshotService.find(electionId).flatMap(snapshot -> {
+            List<ElectionSnapshot.MunicipalityEntry> municipalities = snapshot.getMunicipalities();
+            for (int row = 0; row < municipalities.size(); row++) {
+                if (municipalities.get(row).code().equals(code)) {
+                    return Optional.of(toDTO(snapshot, snapshot.getMunicipalityParties(), row));
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param code       de code van de gemeente, zoals <code>0363</code>.
+     * @return de stembureaus van de gemeente met hun stemmen per partij, leeg als de verkiezing geen snapshot heeft.
+     */
+    public Optional<List<PollingStationDTO>> getPollingStations(String electionId, String code) {
+        return snapshotService.find(electionId).map(snapshot -> {
+            PollingStationVotes pollingStationVotes = snapshot.getPollingStationVotes();
+            BitSet stations = pollingStationVotes.stationsOfMunicipality(code);
+            // Eén keer door de kolommen, de rijen van een stembureau staan achter elkaar
+            Map<Integer, List<PartyVotesDTO>> partyVotes = new LinkedHashMap<>();
+            stations.stream().forEach(station -> partyVotes.put(station, new ArrayList<>()));
+            pollingStationVotes.scan(stations::get, (station, party, votes) -> partyVotes.get(station)
+                    .add(new PartyVotesDTO(pollingStationVotes.partyName(party), votes)));
+
+            List<PollingStationDTO> pollingStations = new ArrayList<>();
+            partyVotes.forEach((station, parties) -> {
+                parties.sort(Comparator.comparingLong(PartyVotesDTO::getVotes).reversed());
+                pollingStations.add(new PollingStationDTO(pollingStationVotes.stationId(station),
+                        pollingStationVotes.stationName(station), pollingStationVotes.cast(station),
+                        pollingStationVotes.counted(station), parties));
+            });
+            return pollingStations;
+        });
+    }
+
+    // De partijen met stemmen, de meeste stemmen eerst
+    private static MunicipalityVotesDTO toDTO(ElectionSnapshot snapshot, String[] parties, int row) {
+        ElectionSnapshot.MunicipalityEntry municipality = snapshot.getMunicipalities().get(row);
+        List<PartyVotesDTO> partyVotes = new ArrayList<>();
+        for (int column = 0; column < parties.length; column++) {
+            long votes = snapshot.getMunicipalityVotes(row, column);
+            if (votes > 0) {
+                partyVotes.add(new PartyVotesDTO(parties[column], votes));
+            }
+        }
+        partyVotes.sort(Comparator.comparingLong(PartyVotesDTO::getVotes).reversed());
+        return new MunicipalityVotesDTO(municipality.code(), municipality.name(), municipality.cast(),
+                municipality.valid(), municipality.rejected(), partyVotes);
+    }
+}
@@ -0,0 +1,128 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.PreferenceVotesDTO;
+import elections.demos.backend.model.CandidateVotes;
+import elections.demos.backend.utils.SeatAllocationEngine;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Geeft de voorkeurstemmen per kandidaat en de kandidaten die met voorkeurstemmen zijn gekozen. Die staan niet in de
+ * database, ze worden gelezen uit de snapshot van de verkiezing die na de import in het geheugen is gemapt.
+ */
+@Service
+public class PreferenceVotesService {
+    private final ElectionSnapshotService snapshotService;
+
+    public PreferenceVotesService(ElectionSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param kieskring  het nummer van een kieskring, of <code>null</code> voor de landelijke stemmen.
+     * @return de kandidaten met stemmen, de meeste stemmen eerst, leeg als de verkiezing geen snapshot heeft of de
+     * kieskring niet bestaat.
+     */
+    public Optional<List<PreferenceVotesDTO>> getCandidateVotes(String electionId, Integer kieskring) {
+        return snapshotService.find(electionId).flatMap(snapshot -> {
+            CandidateVotes candidateVotes = snapshot.getCandidateVotes();
+            int row = kieskring == null ? CandidateVotes.NOT_FOUND : candidateVotes.findKieskring(kieskring);
+            if (kieskring != null && row == CandidateVotes.NOT_FOUND) {
+                return Optional.empty();
+            }
+            boolean[] elected = electedByPreference(snapshot);
+            Map<String, String> names = names(snapshot);
+            List<PreferenceVotesDTO> candidates = new ArrayList<>();
+            for (int candidate = 0; candidate < candidateVotes.size(); candidate++) {
+                long votes = row == CandidateVotes.NOT_FOUND ? candidateVotes.national(candidate)
+                        : candidateVotes.votes(row, candidate);
+                if (votes > 0) {
+                    candidates.add(toDTO(snapshot, names, candidate, votes, elected[candidate]));
+                }
+            }
+            candidates.sort(Comparator.comparingLong(PreferenceVotesDTO::getVotes).reversed());
+            return Optional.of(candidates);
+        });
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @return de kandidaten die met voorkeurstemmen zijn gekozen, per partij op volgorde van hun stemmen, leeg als
+     * de verkiezing geen snapshot heeft.
+     */
+    public Optional<List<PreferenceVotesDTO>> getElectedByPreference(String electionId) {
+        return snapshotService.find(electionId).map(snapshot -> {
+            CandidateVotes candidateVotes = snapshot.getCandidateVotes();
+            long validVotes = validVotes(snapshot);
+            Map<String, String> names = names(snapshot);
+            int[] seats = seatsPerParty(snapshot);
+            List<PreferenceVotesDTO> elected = new ArrayList<>();
+            for (int party = 0; party < seats.length; party++) {
+                String partyCode = snapshot.getParties().get(party).partyCode();
+                for (int candidate : candidateVotes.electedByPreference(partyCode, seats[party], validVotes,
+                        snapshot.getNumberOfSeats())) {
+                    elected.add(toDTO(snapshot, names, candidate, candidateVotes.national(candidate), true));
+                }
+            }
+            return elected;
+        });
+    }
+
+    // Per kandidaat-ordinal of de kandidaat met voorkeurstemmen is gekozen
+    private static boolean[] electedByPreference(ElectionSnapshot snapshot) {
+        CandidateVotes candidateVotes = snapshot.getCandidateVotes();
+        long validVotes = validVotes(snapshot);
+        int[] seats = seatsPerParty(snapshot);
+        boolean[] elected = new boolean[candidateVotes.size()];
+        for (int party = 0; party < seats.length; party++) {
+            String partyCode = snapshot.getParties().get(party).partyCode();
+            for (int candidate : candidateVotes.electedByPreference(partyCode, seats[party], validVotes,
+                    snapshot.getNumberOfSeats())) {
+                elected[candidate] = true;
+            }
+        }
+        return elected;
+    }
+
+    // De zetels per partij, in de volgorde van de partijen in de snapshot, berekend uit de stemmen zoals bij de uitslag
+    private static int[] seatsPerParty(ElectionSnapshot snapshot) {
+        long[] votes = snapshot.getParties().stream().mapToLong(ElectionSnapshot.PartyEntry::votes).toArray();
+        return SeatAllocationEngine.tweedeKamer().allocate(votes, snapshot.getNumberOfSeats());
+    }
+
+    private static long validVotes(ElectionSnapshot snapshot) {
+        return snapshot.getParties().stream().mapToLong(ElectionSnapshot.PartyEntry::votes).sum();
+    }
+
+    // Het id van de kandidaat, verkiezing_partijcode_nummer, -> de naam
+    private static Map<String, String> names(ElectionSnapshot snapshot) {
+        Map<String, String> names = new HashMap<>();
+        for (ElectionSnapshot.CandidateEntry candidate : snapshot.getCandidates()) {
+            String name = candidate.initials() == null ? candidate.lastName()
+                    : candidate.initials() + " " + candidate.lastName();
+            names.put(candidate.id(), name);
+        }
+        return names;
+    }
+
+    private static PreferenceVotesDTO toDTO(ElectionSnapshot snapshot, Map<String, String> names, int candidate,
+                                            long votes, boolean elected) {
+        CandidateVotes candidateVotes = snapshot.getCandidateVotes();
+        String partyCode = candidateVotes.partyId(candidate);
+        String candidateId = "%s_%s_%s".formatted(snapshot.getElectionId(), partyCode,
+                candidateVotes.candidateId(candidate));
+        String partyName = snapshot.getParties().stream()
+                .filter(party -> partyCode.equals(party.partyCode()))
+                .map(ElectionSnapshot.PartyEntry::name)
+                .findFirst().orElse(null);
+        return new PreferenceVotesDTO(candidateId, names.get(candidateId), partyCode, partyName, votes, elected);
+    }
+}
@@ -0,0 +1,139 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.SeatDistributionDTO;
+import elections.demos.backend.dto.SimulationRequestDTO;
+import elections.demos.backend.dto.SimulationResultDTO;
+import elections.demos.backend.dto.VoteShiftDTO;
+import elections.demos.backend.utils.SeatAllocationEngine;
+import elections.demos.backend.utils.SeatSimulation;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simuleert verschuivingen van stemmen tussen partijen, zie {@link SeatSimulation}. De stemmen per kieskring komen
+ * uit de snapshot van de verkiezing, zonder kieskringen wordt het landelijke totaal als één kieskring gebruikt. De
+ * zetels worden verdeeld zoals de Kieswet dat doet, zie {@link SeatAllocationEngine#tweedeKamer()}. De simulaties
+ * draaien op een eigen pool, zie {@link elections.demos.backend.config.SimulationConfig}, zodat ze de commonPool niet
+ * bezet houden.
+ */
+@Service
+public class SimulationService {
+    private final ElectionSnapshotService snapshotService;
+    private final ForkJoinPool simulationPool;
+    private final long defaultIterations;
+    private final long maxIterations;
+    private final long defaultTimeBudgetMillis;
+    private final long maxTimeBudgetMillis;
+
+    public SimulationService(ElectionSnapshotService snapshotService, ForkJoinPool simulationPool,
+                             @Value("${election.simulation.iterations:100000}") long defaultIterations,
+                             @Value("${election.simulation.max-iterations:1000000}") long maxIterations,
+                             @Value("${election.simulation.time-budget-ms:2000}") long defaultTimeBudgetMillis,
+                             @Value("${election.simulation.max-time-budget-ms:10000}") long maxTimeBudgetMillis) {
+        this.snapshotService = snapshotService;
+        this.simulationPool = simulationPool;
+        this.defaultIterations = defaultIterations;
+        this.maxIterations = maxIterations;
+        this.defaultTimeBudgetMillis = defaultTimeBudgetMillis;
+        this.maxTimeBudgetMillis = maxTimeBudgetMillis;
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param request    de verschuivingen, het aantal iteraties en het tijdsbudget.
+     * @return de verdeling van de zetels per partij, leeg als de verkiezing geen snapshot heeft.
+     * @throws IllegalArgumentException als een partij niet bestaat, een percentage niet klopt of de verschuivingen
+     *                                  uit een partij samen meer dan 100% zijn.
+     */
+    public Optional<SimulationResultDTO> simulate(String electionId, SimulationRequestDTO request) {
+        return snapshotService.find(electionId).map(snapshot -> simulate(snapshot, request));
+    }
+
+    private SimulationResultDTO simulate(ElectionSnapshot snapshot, SimulationRequestDTO request) {
+        // De stemmen per kieskring en partij, de partijen op naam
+        String[] parties = snapshot.getKieskringParties();
+        long[][] votes = new long[snapshot.getKieskringen().length][parties.length];
+        for (int row = 0; row < votes.length; row++) {
+            for (int column = 0; column < parties.length; column++) {
+                votes[row][column] = snapshot.getKieskringVotes(row, column);
+            }
+        }
+        if (votes.length == 0) {
+            List<ElectionSnapshot.PartyEntry> entries = snapshot.getParties();
+            parties = entries.stream().map(ElectionSnapshot.PartyEntry::name).toArray(String[]::new);
+            votes = new long[][]{entries.stream().mapToLong(ElectionSnapshot.PartyEntry::votes).toArray()};
+        }
+
+        List<SeatSimulation.Shift> shifts = new ArrayList<>();
+        for (VoteShiftDTO shift : request.getShifts() == null ? List.<VoteShiftDTO>of() : request.getShifts()) {
+            if (shift.getPercentage() < 0 || shift.getPercentage() > 100 || shift.getSpread() < 0) {
+                throw new IllegalArgumentException("A percentage must be between 0 and 100, a spread can't be negative.");
+            }
+            shifts.add(new SeatSimulation.Shift(column(snapshot, parties, shift.getFrom()),
+                    column(snapshot, parties, shift.getTo()), shift.getPercentage() / 100, shift.getSpread() / 100));
+        }
+        long iterations = bounded(request.getIterations(), defaultIterations, maxIterations);
+        long timeBudgetMillis = bounded(request.getTimeBudgetMillis(), defaultTimeBudgetMillis, maxTimeBudgetMillis);
+        long seed = request.getSeed() != null ? request.getSeed() : System.nanoTime();
+
+        long start = System.nanoTime();
+        SeatSimulation.Result result = new SeatSimulation(votes, snapshot.getNumberOfSeats(), shifts,
+                SeatAllocationEngine::tweedeKamer)
+                .run(simulationPool, iterations, seed, TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("Simulated " + result.iterations() + " of " + iterations + " iterations for election "
+                + snapshot.getElectionId() + " in " + elapsedMillis + " ms");
+
+        List<SeatDistributionDTO> distributions = new ArrayList<>();
+        for (int party = 0; party < parties.length; party++) {
+            TreeMap<Integer, Long> histogram = new TreeMap<>();
+            long[] counts = result.histograms()[party];
+            for (int seats = 0; seats < counts.length; seats++) {
+                if (counts[seats] != 0) {
+                    histogram.put(seats, counts[seats]);
+                }
+            }
+            int baselineSeats = result.baselineSeats()[party];
+            distributions.add(new SeatDistributionDTO(parties[party], baselineSeats, result.meanSeats(party),
+                    histogram.isEmpty() ? baselineSeats : histogram.firstKey(),
+                    histogram.isEmpty() ? baselineSeats : histogram.lastKey(), histogram));
+        }
+        distributions.sort((a, b) -> Double.compare(b.getMeanSeats(), a.getMeanSeats()));
+        return new SimulationResultDTO(snapshot.getElectionId(), iterations, result.iterations(), elapsedMillis,
+                distributions);
+    }
+
+    // De kolom van een partij, gevonden op naam, id of partijcode
+    private static int column(ElectionSnapshot snapshot, String[] parties, String party) {
+        String name = party;
+        for (ElectionSnapshot.PartyEntry entry : snapshot.getParties()) {
+            if (party != null && (party.equals(entry.id()) || party.equals(entry.partyCode()))) {
+                name = entry.name();
+            }
+        }
+        for (int column = 0; column < parties.length; column++) {
+            if (parties[column].equals(party) || parties[column].equals(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown party: " + party);
+    }
+
+    private static long bounded(Long value, long defaultValue, long max) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value <= 0) {
+            throw new IllegalArgumentException("The iterations and the time budget must be positive.");
+        }
+        return Math.min(value, max);
+    }
+}
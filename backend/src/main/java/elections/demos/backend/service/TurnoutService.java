@@ -0,0 +1,95 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.TurnoutDTO;
+import elections.demos.backend.model.TurnoutVotes;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Geeft de opkomst en de ongeldige, blanco en niet getelde stemmen per kieskring, gemeente of stembureau. Die staan
+ * niet in de database, ze worden gelezen uit de snapshot van de verkiezing die na de import in het geheugen is gemapt.
+ */
+@Service
+public class TurnoutService {
+    private final ElectionSnapshotService snapshotService;
+
+    public TurnoutService(ElectionSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param level      het niveau: <code>kieskring</code>, <code>municipality</code> of <code>reporting-unit</code>.
+     * @return de opkomst van alle eenheden van het niveau, op volgorde van inlezen, leeg als de verkiezing geen
+     * snapshot heeft of het niveau niet bestaat.
+     */
+    public Optional<List<TurnoutDTO>> getTurnout(String electionId, String level) {
+        return level(level).flatMap(turnoutLevel -> snapshotService.find(electionId).map(snapshot -> {
+            TurnoutVotes turnoutVotes = snapshot.getTurnoutVotes();
+            List<TurnoutDTO> turnout = new ArrayList<>();
+            for (int unit = 0; unit < turnoutVotes.size(turnoutLevel); unit++) {
+                turnout.add(toDTO(snapshot, turnoutLevel, unit));
+            }
+            return turnout;
+        }));
+    }
+
+    /**
+     * @param electionId de verkiezing, zoals <code>TK2023</code>.
+     * @param level      het niveau: <code>kieskring</code>, <code>municipality</code> of <code>reporting-unit</code>.
+     * @param id         het nummer van de kieskring, de code van de gemeente of het id van het stembureau, zoals
+     *                   <code>0363::SB1</code>.
+     * @return de opkomst van de eenheid, leeg als de verkiezing geen snapshot heeft of de eenheid niet bestaat.
+     */
+    public Optional<TurnoutDTO> getTurnout(String electionId, String level, String id) {
+        return level(level).flatMap(turnoutLevel -> snapshotService.find(electionId).flatMap(snapshot -> {
+            int unit = snapshot.getTurnoutVotes().find(turnoutLevel, id);
+            return unit == TurnoutVotes.NOT_FOUND ? Optional.empty()
+                    : Optional.of(toDTO(snapshot, turnoutLevel, unit));
+        }));
+    }
+
+    // kieskring, municipality of reporting-unit
+    private static Optional<TurnoutVotes.Level> level(String level) {
+        try {
+            return Optional.of(TurnoutVotes.Level.valueOf(level.toUpperCase(Locale.ROOT).replace('-', '_')));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static TurnoutDTO toDTO(ElectionSnapshot snapshot, TurnoutVotes.Level level, int unit) {
+        TurnoutVotes turnoutVotes = snapshot.getTurnoutVotes();
+        Map<String, Long> rejectedReasons = new LinkedHashMap<>();
+        Map<String, Long> uncountedReasons = new LinkedHashMap<>();
+        for (int reason = 0; reason < turnoutVotes.reasonCount(); reason++) {
+            (turnoutVotes.isRejected(reason) ? rejectedReasons : uncountedReasons)
+                    .put(turnoutVotes.reasonCode(reason), turnoutVotes.votes(level, unit, reason));
+        }
+        String id = turnoutVotes.id(level, unit);
+        return new TurnoutDTO(id, name(snapshot, level, unit), turnoutVotes.cast(level, unit),
+                turnoutVotes.counted(level, unit), turnoutVotes.rejected(level, unit),
+                turnoutVotes.uncounted(level, unit), rejectedReasons, uncountedReasons);
+    }
+
+    // De kieskringen hebben geen naam in de telling, die komt uit de regio's van de verkiezingsdefinitie
+    private static String name(ElectionSnapshot snapshot, TurnoutVotes.Level level, int unit) {
+        TurnoutVotes turnoutVotes = snapshot.getTurnoutVotes();
+        if (level != TurnoutVotes.Level.KIESKRING) {
+            return turnoutVotes.name(level, unit);
+        }
+        String number = turnoutVotes.id(level, unit);
+        return snapshot.getRegions().stream()
+                .filter(region -> "KIESKRING".equals(region.category()) && region.number() != null
+                        && number.equals(String.valueOf(region.number())))
+                .map(ElectionSnapshot.RegionEntry::name)
+                .findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,99 @@
+package elections.demos.backend.utils;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the minimal winning coalitions of an election: the sets of parties that together have at least the majority
+ * of the seats, and lose it as soon as any one of them leaves. A coalition is a bitmask over the party ordinals, bit
+ * <code>p</code> is set when party <code>p</code> takes part, so at most 64 parties can have seats.<br/>
+ * <br/>
+ * The parties are searched from the largest to the smallest. A coalition is complete as soon as it reaches the
+ * majority: any larger set isn't minimal, and the party added last is its smallest one, without which it has no
+ * majority. A branch is cut off when even all the smaller parties together can't bring the majority, so only the
+ * subsets that can still win are ever visited.
+ */
+public class CoalitionEnumerator {
+    // The ordinals of the parties with seats, the most seats first.
+    private final int[] order;
+    // The seats of the parties in that order, and the seats of each party and all the smaller ones together.
+    private final int[] seats;
+    private final int[] suffix;
+    private final int majority;
+    private long[] coalitions = new long[16];
+    private int size;
+
+    private CoalitionEnumerator(int[] seatsPerParty, int majority) {
+        this.majority = majority;
+        order = IntStream.range(0, seatsPerParty.length)
+                .filter(party -> seatsPerParty[party] > 0)
+                .boxed()
+                .sorted((a, b) -> Integer.compare(seatsPerParty[b], seatsPerParty[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        if (Arrays.stream(order).anyMatch(party -> party >= Long.SIZE)) {
+            throw new IllegalArgumentException("Only the first " + Long.SIZE + " party ordinals can have seats.");
+        }
+        seats = new int[order.length];
+        suffix = new int[order.length + 1];
+        for (int index = order.length - 1; index >= 0; index--) {
+            seats[index] = seatsPerParty[order[index]];
+            suffix[index] = suffix[index + 1] + seats[index];
+        }
+    }
+
+    /**
+     * @param seatsPerParty the seats per party ordinal.
+     * @param majority      the seats a coalition needs, like <code>76</code> of 150.
+     * @return the minimal winning coalitions as bitmasks over the party ordinals, in the order they are found.
+     */
+    public static long[] minimalWinning(int[] seatsPerParty, int majority) {
+        if (majority <= 0) {
+            return new long[0];
+        }
+        CoalitionEnumerator enumerator = new CoalitionEnumerator(seatsPerParty, majority);
+        enumerator.search(0, 0L, 0);
+        return Arrays.copyOf(enumerator.coalitions, enumerator.size);
+    }
+
+    /**
+     * @return the majority of a number of seats, more than half of them.
+     */
+    public static int majority(int totalSeats) {
+        return totalSeats / 2 + 1;
+    }
+
+    /**
+     * @return the seats of a coalition.
+     */
+    public static int seats(long coalition, int[] seatsPerParty) {
+        int total = 0;
+        for (long members = coalition; members != 0; members &= members - 1) {
+            total += seatsPerParty[Long.numberOfTrailingZeros(members)];
+        }
+        return total;
+    }
+
+    // Adds each of the parties from index on to a coalition that doesn't have the majority yet.
+    private void search(int index, long coalition, int total) {
+        for (int next = index; next < order.length; next++) {
+            if (total + suffix[next] < majority) {
+                // Not even all the smaller parties together bring the majority
+                return;
+            }
+            long withNext = coalition | 1L << order[next];
+            if (total + seats[next] >= majority) {
+                add(withNext);
+            } else {
+                search(next + 1, withNext, total + seats[next]);
+            }
+        }
+    }
+
+    private void add(long coalition) {
+        if (size == coalitions.length) {
+            coalitions = Arrays.copyOf(coalitions, size * 2);
+        }
+        coalitions[size++] = coalition;
+    }
+}
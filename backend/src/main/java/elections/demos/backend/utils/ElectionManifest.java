@@ -0,0 +1,330 @@
+package elections.demos.backend.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All the EML files found within a folder, collected in a single walk over that folder. Every file is classified by
+ * its name, which the Kiesraad composes of the type of the file, the election and, depending on the type, the
+ * kieskring or municipality:
+ * <ul>
+ *     <li><code>Verkiezingsdefinitie_TK2023.eml.xml</code></li>
+ *     <li><code>Kandidatenlijsten_TK2023_Haarlem.eml.xml</code></li>
+ *     <li><code>Resultaat_TK2023.eml.xml</code></li>
+ *     <li><code>Totaaltelling_TK2023.eml.xml</code></li>
+ *     <li><code>Telling_TK2023_kieskring_Haarlem.eml.xml</code></li>
+ *     <li><code>Telling_TK2023_gemeente_Velsen.eml.xml</code></li>
+ * </ul>
+ * The manifest also remembers the last modification time of every folder it walked. As long as none of those
+ * changed, no file has been added, removed or renamed and the manifest can be used again, see
+ * {@link PathUtils#getManifest(String)}. A file that is overwritten in place doesn't change its folder, so the size
+ * and modification time of an entry are those of the scan, see {@link Entry#refresh()}.<br/>
+ * <br/>
+ * The files can also be read straight from a zip archive as published by the Kiesraad, see {@link #scanZip(Path)}.
+ * The paths of such a manifest point into the archive, {@link Files#newInputStream} inflates an entry while it is
+ * being read, so nothing is extracted to disk.<br/>
+ * <br/>
+ * The archive stays open as long as the manifest is used. Whoever creates a manifest holds the first reference to it,
+ * every {@link #acquire()} adds one and every {@link #close()} gives one back. The archive is closed when the last
+ * reference is given back, so an import that is still reading from it isn't cut off when the cached manifest is
+ * replaced.
+ */
+public class ElectionManifest implements Closeable {
+    /**
+     * The kind of data an EML file contains, recognized by the start of its name.
+     */
+    public enum FileType {
+        DEFINITION("Verkiezingsdefinitie_"),
+        CANDIDATE_LISTS("Kandidatenlijsten_"),
+        RESULT("Resultaat_"),
+        TOTAL_VOTES("Totaaltelling_"),
+        VOTES("Telling_");
+
+        private final String prefix;
+
+        FileType(String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * @param fileName the name of the file without the folder.
+         * @return the kind of data in the file, <code>null</code> when the name is not recognized.
+         */
+        public static FileType of(String fileName) {
+            for (FileType type : values()) {
+                if (fileName.startsWith(type.prefix)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A single EML file.
+     *
+     * @param path         the location of the file.
+     * @param type         the kind of data in the file, <code>null</code> when the name is not recognized.
+     * @param electionId   the election, like <code>TK2023</code>, or <code>null</code>.
+     * @param kieskring    the name of the kieskring for candidate lists and kieskring votes, otherwise <code>null</code>.
+     * @param municipality the name of the municipality for municipality votes, otherwise <code>null</code>.
+     * @param size         the size of the file in bytes.
+     * @param lastModified the last modification time of the file in milliseconds since the epoch.
+     */
+    public record Entry(Path path, FileType type, String electionId, String kieskring, String municipality,
+                        long size, long lastModified) {
+
+        /**
+         * @return the name of the file without the folder.
+         */
+        public String fileName() {
+            return path.getFileName().toString();
+        }
+
+        /**
+         * Reads the size and the modification time of the file again. The manifest is only scanned again when a
+         * folder changes, a file that has been overwritten in place keeps the values of the scan.
+         *
+         * @return this entry when nothing changed, otherwise a copy with the current size and modification time.
+         * @throws IOException in case the file is gone or can't be read.
+         */
+        public Entry refresh() throws IOException {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            long currentSize = attrs.size();
+            long currentLastModified = attrs.lastModifiedTime().toMillis();
+            if (currentSize == size && currentLastModified == lastModified) {
+                return this;
+            }
+            return new Entry(path, type, electionId, kieskring, municipality, currentSize, currentLastModified);
+        }
+
+        /**
+         * Reads the whole file, or the inflated entry of an archive, and computes the SHA-256 of its content.
+         *
+         * @return the hash as 64 hexadecimal characters.
+         * @throws IOException in case the file can't be read.
+         */
+        public String contentHash() throws IOException {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(path)) {
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    private static final String KIESKRING = "_kieskring_";
+    private static final String MUNICIPALITY = "_gemeente_";
+
+    private final Path root;
+    private final List<Entry> entries;
+    private final Map<Path, Long> folders;
+    // The opened zip archive, null for a folder.
+    private final FileSystem archive;
+    // The references that have not been given back yet.
+    private int references = 1;
+
+    private ElectionManifest(Path root, List<Entry> entries, Map<Path, Long> folders, FileSystem archive) {
+        this.root = root;
+        this.entries = Collections.unmodifiableList(entries);
+        this.folders = folders;
+        this.archive = archive;
+    }
+
+    /**
+     * Walks the folder and everything in it once and classifies all the XML files it contains.
+     *
+     * @param root the folder containing the election data.
+     * @return the manifest of the folder.
+     * @throws IOException in case something went wrong while traversing the folders.
+     */
+    public static ElectionManifest scan(Path root) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Map<Path, Long> folders = new HashMap<>();
+        walk(root, entries, folders);
+        return new ElectionManifest(root, entries, folders, null);
+    }
+
+    /**
+     * Opens a zip archive and classifies all the XML files it contains. Only the modification time of the archive
+     * itself is remembered, the archive changes as a whole.
+     *
+     * @param zipFile the zip archive containing the election data.
+     * @return the manifest of the archive, which must be closed once it is no longer used.
+     * @throws IOException in case the archive can't be opened or read.
+     */
+    public static ElectionManifest scanZip(Path zipFile) throws IOException {
+        FileSystem archive = FileSystems.newFileSystem(zipFile);
+        try {
+            List<Entry> entries = new ArrayList<>();
+            for (Path root : archive.getRootDirectories()) {
+                walk(root, entries, new HashMap<>());
+            }
+            Map<Path, Long> folders = Map.of(zipFile, Files.getLastModifiedTime(zipFile).toMillis());
+            return new ElectionManifest(zipFile, entries, folders, archive);
+        } catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param path the location of the election data.
+     * @return <code>true</code> if the location is a zip archive rather than a folder.
+     */
+    public static boolean isZip(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().toLowerCase().endsWith(".zip");
+    }
+
+    private static void walk(Path root, List<Entry> entries, Map<Path, Long> folders) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                folders.put(dir, attrs.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".xml")) {
+                    entries.add(classify(file, fileName, attrs));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        entries.sort(Comparator.comparing(Entry::fileName));
+    }
+
+    private static Entry classify(Path file, String fileName, BasicFileAttributes attrs) {
+        FileType type = FileType.of(fileName);
+        String electionId = null;
+        String kieskring = null;
+        String municipality = null;
+        if (type != null) {
+            // Strip the type and the extensions, what is left is like TK2023_kieskring_Haarlem
+            String rest = fileName.substring(type.prefix.length());
+            int dot = rest.indexOf('.');
+            rest = dot < 0 ? rest : rest.substring(0, dot);
+            int underscore = rest.indexOf('_');
+            electionId = underscore < 0 ? rest : rest.substring(0, underscore);
+            String area = underscore < 0 ? null : rest.substring(underscore);
+            if (area != null && area.startsWith(KIESKRING)) {
+                kieskring = area.substring(KIESKRING.length());
+            } else if (area != null && area.startsWith(MUNICIPALITY)) {
+                municipality = area.substring(MUNICIPALITY.length());
+            } else if (area != null && type == FileType.CANDIDATE_LISTS) {
+                kieskring = area.substring(1);
+            }
+        }
+        return new Entry(file, type, electionId, kieskring, municipality, attrs.size(),
+                attrs.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Tells whether the folder still looks the same as when it was scanned. Only the folders are checked, adding,
+     * removing or renaming a file changes the modification time of the folder containing it.
+     *
+     * @return <code>true</code> if none of the folders has been changed, removed or added.
+     */
+    public boolean isCurrent() {
+        try {
+            for (Map.Entry<Path, Long> folder : folders.entrySet()) {
+                if (Files.getLastModifiedTime(folder.getKey()).toMillis() != folder.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the files whose name starts with the prefix, sorted by their name.
+     *
+     * @param prefix the start of the file names, like <code>Telling_TK2023_kieskring</code>.
+     * @return a new list with the matching files.
+     */
+    public List<Path> files(String prefix) {
+        List<Path> files = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.fileName().startsWith(prefix)) {
+                files.add(entry.path());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Adds a reference to the manifest, which must be given back with {@link #close()}.
+     *
+     * @return the manifest itself.
+     * @throws IllegalStateException when all the references have already been given back.
+     */
+    public synchronized ElectionManifest acquire() {
+        if (references == 0) {
+            throw new IllegalStateException("The manifest of " + root + " has already been closed.");
+        }
+        references++;
+        return this;
+    }
+
+    /**
+     * Gives back a reference. When it was the last one the zip archive, if any, is closed, the paths of the entries
+     * can't be read afterward.
+     *
+     * @throws IOException in case the archive can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (references == 0 || --references > 0) {
+                return;
+            }
+        }
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    /**
+     * @return the folder or zip archive that has been scanned.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return all the XML files, sorted by their name.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+}
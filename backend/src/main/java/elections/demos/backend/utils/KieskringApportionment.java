@@ -0,0 +1,71 @@
+package elections.demos.backend.utils;
+
+/**
+ * Divides the seats of every party over its lists in the kieskringen, like the Kieswet does after the seats per party
+ * are known: the seats of a party go to its lists by the full quotas of the party, then by the largest remainders. The
+ * votes are a dense matrix of kieskringen by party ordinals, the same shape the {@link SeatSimulation} uses.<br/>
+ * <br/>
+ * Every kieskring counts as a list of its own. The Kieswet takes lists with the same candidates in several kieskringen
+ * together first, those groups can't be told from the votes alone.
+ */
+public class KieskringApportionment {
+    private KieskringApportionment() {
+    }
+
+    /**
+     * Divides the seats over the parties like the Kieswet does for the Tweede Kamer, and then over their lists.
+     *
+     * @param votes      the votes per kieskring and party ordinal, <code>votes[kieskring][party]</code>.
+     * @param totalSeats the number of seats to divide.
+     * @return the seats per kieskring and party ordinal, <code>seats[kieskring][party]</code>.
+     */
+    public static int[][] apportion(long[][] votes, int totalSeats) {
+        return apportion(votes, SeatAllocationEngine.tweedeKamer().allocate(nationalVotes(votes), totalSeats));
+    }
+
+    /**
+     * Divides the seats of every party over its lists.
+     *
+     * @param votes         the votes per kieskring and party ordinal, <code>votes[kieskring][party]</code>.
+     * @param seatsPerParty the seats per party ordinal.
+     * @return the seats per kieskring and party ordinal, <code>seats[kieskring][party]</code>.
+     */
+    public static int[][] apportion(long[][] votes, int[] seatsPerParty) {
+        int kieskringen = votes.length;
+        int[][] seats = new int[kieskringen][seatsPerParty.length];
+        SeatAllocationEngine engine = new SeatAllocationEngine(SeatAllocationEngine.Method.HARE, false);
+        // One column of the matrix at a time, the arrays are shared by all the parties
+        long[] listVotes = new long[kieskringen];
+        int[] listSeats = new int[kieskringen];
+        for (int party = 0; party < seatsPerParty.length; party++) {
+            if (seatsPerParty[party] == 0) {
+                continue;
+            }
+            for (int kieskring = 0; kieskring < kieskringen; kieskring++) {
+                listVotes[kieskring] = party < votes[kieskring].length ? votes[kieskring][party] : 0;
+            }
+            engine.allocate(listVotes, seatsPerParty[party], listSeats);
+            for (int kieskring = 0; kieskring < kieskringen; kieskring++) {
+                seats[kieskring][party] = listSeats[kieskring];
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * @return the votes per party ordinal over all the kieskringen.
+     */
+    public static long[] nationalVotes(long[][] votes) {
+        int parties = 0;
+        for (long[] kieskring : votes) {
+            parties = Math.max(parties, kieskring.length);
+        }
+        long[] national = new long[parties];
+        for (long[] kieskring : votes) {
+            for (int party = 0; party < kieskring.length; party++) {
+                national[party] += kieskring[party];
+            }
+        }
+        return national;
+    }
+}
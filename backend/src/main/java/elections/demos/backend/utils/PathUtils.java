@@ -5,18 +5,18 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A helper-class used for traversing a directory structure which contains the Dutch election data.
  */
 public class PathUtils {
+    // The manifests of the folders that have been scanned, they are used again as long as the folders don't change.
+    private static final Map<Path, ElectionManifest> manifests = new ConcurrentHashMap<>();
 
     /**
      * Starting from @{code sourceLocation} searches the folder and any folder contained in it for files with the
@@ -28,17 +28,57 @@ public class PathUtils {
      * @throws IOException in case something went wrong while traversing the folders.
      */
     public static List<Path> findFilesToScan(String sourceLocation, String prefix) throws IOException {
-        List<Path> filesToScan = new ArrayList<>();
-        Files.walkFileTree(Path.of(sourceLocation), new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                String fileName = file.getFileName().toString();
-                if (fileName.startsWith(prefix) && fileName.endsWith(".xml"))
-                    filesToScan.add(file);
-                return FileVisitResult.CONTINUE;
+        try (ElectionManifest manifest = getManifest(sourceLocation)) {
+            return manifest.files(prefix);
+        }
+    }
+
+    /**
+     * Returns the manifest of all the EML files in the {@code sourceLocation} and any folder contained in it. The
+     * folders are only walked again when one of them has been changed since the last time. The
+     * {@code sourceLocation} can also be a zip archive, its entries are then read without extracting them.<br/>
+     * <br/>
+     * The manifest is returned with a reference for the caller, who must close it once its files have been read. A
+     * replaced archive stays open until the last caller is done with it.
+     * @param sourceLocation the folder or zip archive containing the election data.
+     * @return the manifest of the folder.
+     * @throws IOException in case something went wrong while traversing the folders.
+     */
+    public static synchronized ElectionManifest getManifest(String sourceLocation) throws IOException {
+        Path root = Path.of(sourceLocation).toAbsolutePath().normalize();
+        ElectionManifest manifest = manifests.get(root);
+        if (manifest == null || !manifest.isCurrent()) {
+            if (manifest != null) {
+                // A changed archive is opened again, the cache gives back its reference to the old one.
+                manifest.close();
             }
-        });
-        return filesToScan;
+            manifest = ElectionManifest.isZip(root) ? ElectionManifest.scanZip(root) : ElectionManifest.scan(root);
+            manifests.put(root, manifest);
+        }
+        return manifest.acquire();
+    }
+
+    /**
+     * Removes the manifest of the {@code sourceLocation} from the cache. Its archive is closed as soon as nobody
+     * uses it anymore.
+     * @param sourceLocation the folder or zip archive containing the election data.
+     * @throws IOException in case the archive can't be closed.
+     */
+    public static synchronized void closeManifest(String sourceLocation) throws IOException {
+        ElectionManifest manifest = manifests.remove(Path.of(sourceLocation).toAbsolutePath().normalize());
+        if (manifest != null) {
+            manifest.close();
+        }
+    }
+
+    /**
+     * Removes all the manifests from the cache, when the application shuts down.
+     * @throws IOException in case an archive can't be closed.
+     */
+    public static synchronized void closeManifests() throws IOException {
+        for (Path root : List.copyOf(manifests.keySet())) {
+            closeManifest(root.toString());
+        }
     }
 
     /**
@@ -48,8 +88,8 @@ public class PathUtils {
      * @return a fully qualified absolute path to the resource.
      */
     public static String getResourcePath(String resourceName) {
-        // If it is an absolute directory name, we're done
-        if (Path.of(resourceName).toFile().isDirectory()) {
+        // If it is an absolute directory name, or a zip archive, we're done
+        if (Path.of(resourceName).toFile().isDirectory() || ElectionManifest.isZip(Path.of(resourceName))) {
             return resourceName;
         }
         try {
@@ -0,0 +1,455 @@
+package elections.demos.backend.utils;
+
+import java.util.Arrays;
+
+/**
+ * Divides the seats of an election over the parties, by the votes per party ordinal. It supports the two highest
+ * averages methods, D'Hondt and Sainte-Laguë, and the largest remainders method of Hare. Optionally, like the Kieswet
+ * does for the Tweede Kamer, the lists that didn't reach the full quota (kiesdeler), <code>votes / seats</code>, get no
+ * seats at all.<br/>
+ * <br/>
+ * The averages and the remainders are fractions, they are never divided: two of them are compared by multiplying
+ * crosswise, exact to the last vote, see {@link #compare(long, long, long, long)}. The seats are handed out from a
+ * binary heap of the parties, so a division takes <code>O(parties + seats * log(parties))</code>. The heap is kept by
+ * the engine, when the caller hands in the array for the seats a repeated division doesn't allocate anything.<br/>
+ * <br/>
+ * When two parties have the same average or remainder the party with the lowest ordinal goes first, where the Kieswet
+ * draws lots.<br/>
+ * <br/>
+ * For the highest averages methods the engine also tells how close each party is to its next seat and to losing its
+ * last one, see {@link #margins(long[], int, int[], long[], long[])}.<br/>
+ * <br/>
+ * An engine is <b>not</b> thread-safe, each thread needs its own.
+ */
+public class SeatAllocationEngine {
+    /**
+     * The margin of a party that can't get another seat or has no seat to lose.
+     */
+    public static final long NO_MARGIN = -1;
+
+    /**
+     * The way the seats are divided.
+     */
+    public enum Method {
+        /**
+         * Highest averages, with <code>1, 2, 3, ...</code> as divisors. Used for the Tweede Kamer.
+         */
+        D_HONDT,
+        /**
+         * Highest averages, with <code>1, 3, 5, ...</code> as divisors.
+         */
+        SAINTE_LAGUE,
+        /**
+         * The full quotas first, then the largest remainders.
+         */
+        HARE
+    }
+
+    private final Method method;
+    private final boolean fullQuotaThreshold;
+    // The parties that take part, as a binary max-heap ordered by their next average or their remainder.
+    private int[] heap = new int[0];
+    private int heapSize;
+    // The votes and seats of the division that is running.
+    private long[] votes;
+    private int[] seats;
+    // For Hare, the remainders of the full quotas, all over the same denominator: the total votes.
+    private long[] remainders = new long[0];
+
+    /**
+     * @param method             the way the seats are divided.
+     * @param fullQuotaThreshold <code>true</code> to leave out the lists with fewer votes than the full quota.
+     */
+    public SeatAllocationEngine(Method method, boolean fullQuotaThreshold) {
+        if (method == null) {
+            throw new IllegalArgumentException("The method cannot be null.");
+        }
+        this.method = method;
+        this.fullQuotaThreshold = fullQuotaThreshold;
+    }
+
+    /**
+     * @return an engine that divides the seats like the Kieswet does for the Tweede Kamer: D'Hondt, after leaving out
+     * the lists that didn't reach the full quota.
+     */
+    public static SeatAllocationEngine tweedeKamer() {
+        return new SeatAllocationEngine(Method.D_HONDT, true);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public boolean hasFullQuotaThreshold() {
+        return fullQuotaThreshold;
+    }
+
+    /**
+     * Divides the seats over the parties.
+     *
+     * @param votesPerParty the votes per party ordinal, a negative number counts as 0.
+     * @param totalSeats    the number of seats to divide.
+     * @return the seats per party ordinal.
+     */
+    public int[] allocate(long[] votesPerParty, int totalSeats) {
+        int[] seatsPerParty = new int[votesPerParty.length];
+        allocate(votesPerParty, totalSeats, seatsPerParty);
+        return seatsPerParty;
+    }
+
+    /**
+     * Divides the seats over the parties, into an array of the caller.
+     *
+     * @param votesPerParty the votes per party ordinal, a negative number counts as 0.
+     * @param totalSeats    the number of seats to divide.
+     * @param seatsPerParty receives the seats per party ordinal, at least as long as <code>votesPerParty</code>.
+     * @return the number of seats that have been handed out, less than <code>totalSeats</code> only when no party
+     * takes part.
+     */
+    public int allocate(long[] votesPerParty, int totalSeats, int[] seatsPerParty) {
+        if (seatsPerParty.length < votesPerParty.length) {
+            throw new IllegalArgumentException("There are more parties than seat counts.");
+        }
+        Arrays.fill(seatsPerParty, 0, votesPerParty.length, 0);
+        long totalVotes = 0;
+        for (long partyVotes : votesPerParty) {
+            totalVotes += Math.max(partyVotes, 0);
+        }
+        if (totalSeats <= 0 || totalVotes == 0) {
+            return 0;
+        }
+        votes = votesPerParty;
+        seats = seatsPerParty;
+        try {
+            return method == Method.HARE
+                    ? largestRemainders(totalVotes, totalSeats)
+                    : highestAverages(totalVotes, totalSeats);
+        } finally {
+            votes = null;
+            seats = null;
+        }
+    }
+
+    /**
+     * Calculates for every party how many votes it needs to gain its next seat and how many it can lose before it
+     * loses its last seat, when the votes of all the other parties stay the same. Instead of dividing the seats
+     * again for every number of votes, the margins follow from the averages of the division:
+     * <ul>
+     *     <li>A party gains a seat once its next average, <code>votes / divisor(seats)</code>, beats the lowest
+     *     average for which another party got a seat.</li>
+     *     <li>A party loses a seat once the average of its last seat, <code>votes / divisor(seats - 1)</code>, falls
+     *     below the highest next average of the other parties.</li>
+     *     <li>With the full quota threshold, a party below the quota first needs the votes to reach it, and a party
+     *     that falls below the quota loses all its seats. The quota moves along with the votes of the party.</li>
+     * </ul>
+     * Each margin is found by a single division of whole numbers, so all of them together take <code>O(parties)</code>.
+     * That holds as long as the other parties keep their place above or below the quota. When the votes of a margin
+     * move the quota past another party, a gain can push that party out and a loss can let it in, and the seats of
+     * that party go elsewhere. Such a margin is searched again by dividing the seats, the seats of a party never go
+     * down as its votes go up, so a binary search between the margin and the votes it has takes
+     * <code>O(log(votes))</code> divisions.
+     *
+     * @param votesPerParty the votes per party ordinal.
+     * @param totalSeats    the number of seats.
+     * @param seatsPerParty the seats per party ordinal, as divided by this engine.
+     * @param gain          receives the votes each party needs for its next seat, or {@link #NO_MARGIN}.
+     * @param loss          receives the votes each party can lose plus one, so the votes after which it has lost
+     *                      its last seat, or {@link #NO_MARGIN} for a party without seats.
+     * @throws IllegalStateException for the largest remainders method, its quota moves with every vote.
+     */
+    public void margins(long[] votesPerParty, int totalSeats, int[] seatsPerParty, long[] gain, long[] loss) {
+        if (method == Method.HARE) {
+            throw new IllegalStateException("The margins are only known for the highest averages methods.");
+        }
+        int parties = votesPerParty.length;
+        Arrays.fill(gain, 0, parties, NO_MARGIN);
+        Arrays.fill(loss, 0, parties, NO_MARGIN);
+        long totalVotes = 0;
+        for (long partyVotes : votesPerParty) {
+            totalVotes += Math.max(partyVotes, 0);
+        }
+        if (totalSeats <= 0 || totalVotes == 0) {
+            return;
+        }
+        seats = seatsPerParty;
+        try {
+            // The two weakest seats that have been given, and the two strongest next averages of the parties that
+            // take part, so for every party the best of the others is known.
+            int weakest = -1;
+            int secondWeakest = -1;
+            int strongest = -1;
+            int secondStrongest = -1;
+            for (int party = 0; party < parties; party++) {
+                if (seatsPerParty[party] > 0) {
+                    if (weakest < 0 || weaker(votesPerParty, party, weakest)) {
+                        secondWeakest = weakest;
+                        weakest = party;
+                    } else if (secondWeakest < 0 || weaker(votesPerParty, party, secondWeakest)) {
+                        secondWeakest = party;
+                    }
+                }
+                if (takesPart(votesPerParty[party], totalVotes, totalSeats)) {
+                    if (strongest < 0 || stronger(votesPerParty, party, strongest)) {
+                        secondStrongest = strongest;
+                        strongest = party;
+                    } else if (secondStrongest < 0 || stronger(votesPerParty, party, secondStrongest)) {
+                        secondStrongest = party;
+                    }
+                }
+            }
+            for (int party = 0; party < parties; party++) {
+                long partyVotes = Math.max(votesPerParty[party], 0);
+                int lastSeat = weakest == party ? secondWeakest : weakest;
+                if (lastSeat >= 0) {
+                    // The fewest votes w with w / divisor(seats) beating votes(lastSeat) / divisor(seats(lastSeat) - 1)
+                    long product = Math.multiplyExact(votesPerParty[lastSeat], divisorFor(seatsPerParty[party]));
+                    long divisor = divisorFor(seatsPerParty[lastSeat] - 1);
+                    long needed = party < lastSeat ? ceilDiv(product, divisor) : product / divisor + 1;
+                    if (fullQuotaThreshold && !reachesQuota(partyVotes, totalVotes, totalSeats)) {
+                        needed = Math.max(needed, partyVotes + votesToReachQuota(partyVotes, totalVotes, totalSeats));
+                    }
+                    gain[party] = Math.max(needed - partyVotes, 1);
+                }
+                if (seatsPerParty[party] > 0) {
+                    int nextSeat = strongest == party ? secondStrongest : strongest;
+                    // The most votes w with w / divisor(seats - 1) losing to votes(nextSeat) / divisor(seats(nextSeat))
+                    long lostAt = 0;
+                    if (nextSeat >= 0) {
+                        long product = Math.multiplyExact(votesPerParty[nextSeat], divisorFor(seatsPerParty[party] - 1));
+                        long divisor = divisorFor(seatsPerParty[nextSeat]);
+                        lostAt = nextSeat < party ? product / divisor : (product - 1) / divisor;
+                    }
+                    if (fullQuotaThreshold && totalSeats > 1) {
+                        // Below the quota when w * seats < totalVotes - partyVotes + w
+                        lostAt = Math.max(lostAt, ceilDiv(totalVotes - partyVotes, totalSeats - 1) - 1);
+                    }
+                    loss[party] = partyVotes - Math.max(Math.min(lostAt, partyVotes - 1), 0);
+                }
+            }
+        } finally {
+            seats = null;
+        }
+        if (fullQuotaThreshold) {
+            searchCrossingMargins(votesPerParty, totalVotes, totalSeats, seatsPerParty, gain, loss);
+        }
+    }
+
+    // Searches the margins again for which another party crosses the quota, by dividing the seats.
+    private void searchCrossingMargins(long[] votesPerParty, long totalVotes, int totalSeats, int[] seatsPerParty,
+                                       long[] gain, long[] loss) {
+        long[] changed = null;
+        int[] changedSeats = null;
+        for (int party = 0; party < votesPerParty.length; party++) {
+            long partyVotes = Math.max(votesPerParty[party], 0);
+            boolean gainCrosses = gain[party] != NO_MARGIN
+                    && crossesQuota(votesPerParty, party, totalVotes, totalVotes + gain[party], totalSeats);
+            boolean lossCrosses = loss[party] != NO_MARGIN
+                    && crossesQuota(votesPerParty, party, totalVotes, totalVotes - loss[party], totalSeats);
+            if (!gainCrosses && !lossCrosses) {
+                continue;
+            }
+            if (changed == null) {
+                changed = votesPerParty.clone();
+                changedSeats = new int[votesPerParty.length];
+            }
+            if (gainCrosses) {
+                // The fewest votes in (partyVotes, partyVotes + gain] with another seat, at the margin there is one
+                long low = partyVotes + 1;
+                long high = partyVotes + gain[party];
+                while (low < high) {
+                    long middle = low + (high - low) / 2;
+                    if (seatsWith(changed, party, middle, totalSeats, changedSeats) > seatsPerParty[party]) {
+                        high = middle;
+                    } else {
+                        low = middle + 1;
+                    }
+                }
+                gain[party] = low - partyVotes;
+            }
+            if (lossCrosses) {
+                // The fewest votes in (partyVotes - loss, partyVotes] that keep the seats, with the votes it has they
+                // are kept
+                long low = partyVotes - loss[party] + 1;
+                long high = partyVotes;
+                while (low < high) {
+                    long middle = low + (high - low) / 2;
+                    if (seatsWith(changed, party, middle, totalSeats, changedSeats) >= seatsPerParty[party]) {
+                        high = middle;
+                    } else {
+                        low = middle + 1;
+                    }
+                }
+                loss[party] = partyVotes - low + 1;
+            }
+            changed[party] = votesPerParty[party];
+        }
+    }
+
+    // Whether another party that takes part is above the quota at one total and below it at the other.
+    private static boolean crossesQuota(long[] votesPerParty, int party, long totalVotes, long changedTotal,
+                                        int totalSeats) {
+        for (int other = 0; other < votesPerParty.length; other++) {
+            if (other != party && votesPerParty[other] > 0
+                    && reachesQuota(votesPerParty[other], totalVotes, totalSeats)
+                    != reachesQuota(votesPerParty[other], changedTotal, totalSeats)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The seats of a party when it has these votes and the others keep theirs.
+    private int seatsWith(long[] changed, int party, long partyVotes, int totalSeats, int[] changedSeats) {
+        changed[party] = partyVotes;
+        allocate(changed, totalSeats, changedSeats);
+        return changedSeats[party];
+    }
+
+    // Whether the last seat of party a was given at a lower average than the last seat of party b.
+    private boolean weaker(long[] votesPerParty, int a, int b) {
+        int order = compare(votesPerParty[a], divisor(b) - step(), votesPerParty[b], divisor(a) - step());
+        return order < 0 || order == 0 && a > b;
+    }
+
+    // Whether the next average of party a beats the next average of party b.
+    private boolean stronger(long[] votesPerParty, int a, int b) {
+        int order = compare(votesPerParty[a], divisor(b), votesPerParty[b], divisor(a));
+        return order > 0 || order == 0 && a < b;
+    }
+
+    // The difference between two successive divisors.
+    private long step() {
+        return method == Method.SAINTE_LAGUE ? 2 : 1;
+    }
+
+    private boolean takesPart(long votes, long totalVotes, int totalSeats) {
+        return votes > 0 && (!fullQuotaThreshold || reachesQuota(votes, totalVotes, totalSeats));
+    }
+
+    // The votes a party needs to reach the quota, which rises along with its votes: (votes + x) * seats >= total + x.
+    private static long votesToReachQuota(long votes, long totalVotes, int totalSeats) {
+        if (totalSeats <= 1) {
+            return 0;
+        }
+        return Math.max(ceilDiv(totalVotes - votes * totalSeats, totalSeats - 1), 0);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * @return whether the votes reach the full quota, <code>totalVotes / totalSeats</code>.
+     */
+    public static boolean reachesQuota(long votes, long totalVotes, int totalSeats) {
+        return compare(votes, totalSeats, totalVotes, 1) >= 0;
+    }
+
+    private int highestAverages(long totalVotes, int totalSeats) {
+        fillHeap(totalVotes, totalSeats);
+        if (heapSize == 0) {
+            return 0;
+        }
+        for (int seat = 0; seat < totalSeats; seat++) {
+            // The top of the heap has the highest average, after its seat it moves down to its next average
+            seats[heap[0]]++;
+            siftDown(0);
+        }
+        return totalSeats;
+    }
+
+    private int largestRemainders(long totalVotes, int totalSeats) {
+        if (remainders.length < votes.length) {
+            remainders = new long[votes.length];
+        }
+        // The full quotas: votes * seats / totalVotes, the remainders are over totalVotes
+        int assigned = 0;
+        for (int party = 0; party < votes.length; party++) {
+            long product = Math.multiplyExact(Math.max(votes[party], 0), (long) totalSeats);
+            seats[party] = (int) (product / totalVotes);
+            remainders[party] = product % totalVotes;
+            assigned += seats[party];
+        }
+        fillHeap(totalVotes, totalSeats);
+        if (heapSize == 0) {
+            Arrays.fill(seats, 0, votes.length, 0);
+            return 0;
+        }
+        while (assigned < totalSeats) {
+            // Each party gets at most one remainder seat, unless there are more seats left than parties take part
+            if (heapSize == 0) {
+                fillHeap(totalVotes, totalSeats);
+            }
+            seats[heap[0]]++;
+            assigned++;
+            heap[0] = heap[--heapSize];
+            siftDown(0);
+        }
+        return assigned;
+    }
+
+    // Puts the parties that take part on the heap, in O(parties).
+    private void fillHeap(long totalVotes, int totalSeats) {
+        if (heap.length < votes.length) {
+            heap = new int[votes.length];
+        }
+        heapSize = 0;
+        for (int party = 0; party < votes.length; party++) {
+            if (votes[party] > 0 && (!fullQuotaThreshold || reachesQuota(votes[party], totalVotes, totalSeats))) {
+                heap[heapSize++] = party;
+            }
+        }
+        for (int index = heapSize / 2 - 1; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    private void siftDown(int index) {
+        int party = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], party)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = party;
+    }
+
+    // Whether party a gets the next seat before party b.
+    private boolean before(int a, int b) {
+        int order = method == Method.HARE
+                ? Long.compare(remainders[a], remainders[b])
+                : compare(votes[a], divisor(b), votes[b], divisor(a));
+        return order > 0 || order == 0 && a < b;
+    }
+
+    // The divisor of the next seat of a party: its average is votes / divisor.
+    private long divisor(int party) {
+        return divisorFor(seats[party]);
+    }
+
+    // The divisor of the next seat of a party with this number of seats.
+    private long divisorFor(int partySeats) {
+        return method == Method.SAINTE_LAGUE ? 2L * partySeats + 1 : partySeats + 1L;
+    }
+
+    /**
+     * Compares <code>a * b</code> with <code>c * d</code> without overflow, so <code>a / d</code> can be compared with
+     * <code>c / b</code> exactly.
+     *
+     * @return a negative number, zero or a positive number as the first product is less than, equal to or greater
+     * than the second one. All the arguments must be non-negative.
+     */
+    static int compare(long a, long b, long c, long d) {
+        int high = Long.compare(Math.multiplyHigh(a, b), Math.multiplyHigh(c, d));
+        return high != 0 ? high : Long.compareUnsigned(a * b, c * d);
+    }
+}
@@ -0,0 +1,184 @@
+package elections.demos.backend.utils;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs what-if scenarios on the votes of an election many times over, to see how the seats might come out: "what if
+ * 2% of the votes of party A go to party B, a bit more in one kieskring and a bit less in the other". Every iteration
+ * moves a share of the votes of each kieskring, drawn uniformly around the requested share, divides the seats with a
+ * {@link SeatAllocationEngine} and counts the seats of every party in a histogram.<br/>
+ * <br/>
+ * The iterations are split over the tasks of a {@link ForkJoinPool}. Each task has its own random generator, split
+ * from the seed, so a run that isn't cut short by its time budget gives the same histograms for the same seed. A task
+ * allocates its arrays and its engine once, the iterations themselves allocate nothing.
+ */
+public class SeatSimulation {
+    // The iterations a task runs itself, larger runs are split in two.
+    private static final int CHUNK = 4096;
+    // The number of iterations between two looks at the clock.
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /**
+     * Moves a share of the votes of one party to another party in every kieskring.
+     *
+     * @param from     the party ordinal that loses the votes.
+     * @param to       the party ordinal that gets the votes.
+     * @param fraction the share of the votes of <code>from</code> that moves, like <code>0.02</code>.
+     * @param spread   how far the share of each kieskring may be off, the share is drawn uniformly from
+     *                 <code>fraction - spread</code> to <code>fraction + spread</code>, within 0 and 1.
+     */
+    public record Shift(int from, int to, double fraction, double spread) {
+    }
+
+    /**
+     * The outcome of a run.
+     *
+     * @param iterations    the number of iterations that have run, fewer than requested when the time was up.
+     * @param baselineSeats the seats per party ordinal without any shift.
+     * @param histograms    per party ordinal the number of iterations per number of seats.
+     */
+    public record Result(long iterations, int[] baselineSeats, long[][] histograms) {
+        /**
+         * @return the average number of seats of the party over all the iterations.
+         */
+        public double meanSeats(int party) {
+            long sum = 0;
+            long[] histogram = histograms[party];
+            for (int seats = 0; seats < histogram.length; seats++) {
+                sum += seats * histogram[seats];
+            }
+            return iterations == 0 ? baselineSeats[party] : (double) sum / iterations;
+        }
+    }
+
+    private final long[][] votes;
+    private final long[] baseline;
+    private final int totalSeats;
+    private final Shift[] shifts;
+    private final Supplier<SeatAllocationEngine> engines;
+
+    /**
+     * @param votes      the votes per kieskring and party ordinal, <code>votes[kieskring][party]</code>.
+     * @param totalSeats the number of seats to divide.
+     * @param shifts     the shifts of every iteration, applied to the votes as they are, one after the other. The
+     *                   shares out of one party, with their spread, can't add up to more than 1, so no party ends up
+     *                   with fewer than 0 votes.
+     * @param engines    creates the engine of each task, an engine is not thread-safe.
+     * @throws IllegalArgumentException if a shift refers to an unknown party, or more than all the votes of a party
+     *                                  could move.
+     */
+    public SeatSimulation(long[][] votes, int totalSeats, List<Shift> shifts, Supplier<SeatAllocationEngine> engines) {
+        int parties = votes.length == 0 ? 0 : votes[0].length;
+        double[] moved = new double[parties];
+        for (Shift shift : shifts) {
+            if (shift.from() < 0 || shift.from() >= parties || shift.to() < 0 || shift.to() >= parties) {
+                throw new IllegalArgumentException("A shift refers to an unknown party.");
+            }
+            // The share of a shift is clamped to 1, a small tolerance for percentages like 33.3 + 33.3 + 33.4
+            moved[shift.from()] += Math.min(Math.max(shift.fraction() + shift.spread(), 0), 1);
+            if (moved[shift.from()] > 1 + 1e-9) {
+                throw new IllegalArgumentException("The shifts out of a party can't add up to more than 100%.");
+            }
+        }
+        this.votes = votes;
+        this.totalSeats = totalSeats;
+        this.shifts = shifts.toArray(new Shift[0]);
+        this.engines = engines;
+        baseline = new long[parties];
+        for (long[] kieskring : votes) {
+            for (int party = 0; party < parties; party++) {
+                baseline[party] += kieskring[party];
+            }
+        }
+    }
+
+    /**
+     * Runs the iterations on the pool, until they are done or the time budget is up.
+     *
+     * @param pool       the pool on which the tasks run.
+     * @param iterations the number of iterations.
+     * @param seed       the seed of the random generators.
+     * @param nanos      the time budget in nanoseconds.
+     * @return the histograms of the iterations that have run.
+     */
+    public Result run(ForkJoinPool pool, long iterations, long seed, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        Histograms histograms = pool.invoke(new Chunk(0, iterations, new SplittableRandom(seed), deadline));
+        return new Result(histograms.iterations, engines.get().allocate(baseline, totalSeats), histograms.counts);
+    }
+
+    // The seat counts of the iterations of a task.
+    private final class Histograms {
+        private final long[][] counts = new long[baseline.length][Math.max(totalSeats, 0) + 1];
+        private long iterations;
+
+        private Histograms add(Histograms other) {
+            for (int party = 0; party < counts.length; party++) {
+                for (int seats = 0; seats < counts[party].length; seats++) {
+                    counts[party][seats] += other.counts[party][seats];
+                }
+            }
+            iterations += other.iterations;
+            return this;
+        }
+    }
+
+    private final class Chunk extends RecursiveTask<Histograms> {
+        private final long start;
+        private final long end;
+        private final SplittableRandom random;
+        private final long deadline;
+
+        private Chunk(long start, long end, SplittableRandom random, long deadline) {
+            this.start = start;
+            this.end = end;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Histograms compute() {
+            if (end - start > CHUNK) {
+                long middle = (start + end) >>> 1;
+                // The split happens before the fork, so each half gets the same generator on every run
+                Chunk left = new Chunk(start, middle, random.split(), deadline);
+                Chunk right = new Chunk(middle, end, random, deadline);
+                left.fork();
+                Histograms histograms = right.compute();
+                return histograms.add(left.join());
+            }
+            return iterate();
+        }
+
+        private Histograms iterate() {
+            Histograms histograms = new Histograms();
+            SeatAllocationEngine engine = engines.get();
+            long[] national = new long[baseline.length];
+            int[] seats = new int[baseline.length];
+            for (long iteration = start; iteration < end; iteration++) {
+                if ((iteration - start) % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                    break;
+                }
+                System.arraycopy(baseline, 0, national, 0, national.length);
+                for (Shift shift : shifts) {
+                    for (long[] kieskring : votes) {
+                        double fraction = shift.fraction() + shift.spread() * (2 * random.nextDouble() - 1);
+                        long moved = (long) (kieskring[shift.from()] * Math.min(Math.max(fraction, 0), 1));
+                        national[shift.from()] -= moved;
+                        national[shift.to()] += moved;
+                    }
+                }
+                engine.allocate(national, totalSeats, seats);
+                for (int party = 0; party < seats.length; party++) {
+                    histograms.counts[party][seats[party]]++;
+                }
+                histograms.iterations++;
+            }
+            return histograms;
+        }
+    }
+}
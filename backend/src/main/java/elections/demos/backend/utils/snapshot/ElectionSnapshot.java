@@ -0,0 +1,804 @@
+package elections.demos.backend.utils.snapshot;
+
+import elections.demos.backend.model.Candidate;
+import elections.demos.backend.model.CandidateVotes;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.MunicipalityVotes;
+import elections.demos.backend.model.Party;
+import elections.demos.backend.model.PartyResult;
+import elections.demos.backend.model.PollingStationVotes;
+import elections.demos.backend.model.TurnoutVotes;
+import elections.demos.backend.model.Region;
+import elections.demos.backend.utils.SeatAllocationEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A compact, read-only copy of a parsed election that can be written to a single binary file and mapped into memory
+ * again, so the results can be served without parsing the XML files or querying the database.<br/>
+ * <br/>
+ * The file starts with the magic number <code>ELSN</code> and the version of the format, followed by these
+ * sections. All numbers are big-endian.
+ * <ol>
+ *     <li>The strings: their count, then the length in bytes and the UTF-8 bytes of each. All other sections refer
+ *     to a string by its index, or -1 for <code>null</code>, so every name is stored once.</li>
+ *     <li>The election: its id, name, category and sub category, and the number of seats.</li>
+ *     <li>The parties: their count, then the id, code, name, votes, seats and percentage of each. The seats and
+ *     percentages are computed from the votes when the snapshot is taken, like the Kieswet divides them for the
+ *     Tweede Kamer, see {@link SeatAllocationEngine#tweedeKamer()}.</li>
+ *     <li>The regions: their count, then the id, number, category, name and superior category of each.</li>
+ *     <li>The candidates: their count, then the id, party id, initials, first name, last name, gender and locality
+ *     of each.</li>
+ *     <li>The votes per kieskring and party: the number of kieskringen (rows) and parties (columns), the numbers of
+ *     the kieskringen, the names of the parties, padding up to a multiple of 8 bytes and then the votes, row by
+ *     row.</li>
+ *     <li>The votes per municipality and party: the number of municipalities (rows) and parties (columns), the code,
+ *     name and the votes cast, valid and rejected of each municipality, the names of the parties, padding up to a
+ *     multiple of 8 bytes and then the votes, row by row.</li>
+ *     <li>The votes per polling station: the number of polling stations, then the id, name, votes cast and votes
+ *     counted of each, the number of parties and their names, the number of rows, padding up to a multiple of 8
+ *     bytes and then the three columns of {@link PollingStationVotes}: the votes, the polling stations and the
+ *     parties.</li>
+ *     <li>The preference votes: the preference threshold, the number of candidates, then the party id and the
+ *     candidate id of each, the number of kieskringen and their numbers, padding up to a multiple of 8 bytes, the
+ *     national votes of each candidate and then the votes per kieskring, row by row.</li>
+ *     <li>The turnout: the number of reason codes, then the code of each and whether it is a code of the rejected
+ *     votes, and then for the kieskringen, the municipalities and the reporting units in turn: their number, the
+ *     id and name of each, padding up to a multiple of 8 bytes and then per unit the votes cast, the votes counted
+ *     and the votes of each reason code.</li>
+ * </ol>
+ * The votes matrices are not copied when the file is mapped, they are read straight from the mapped file. The
+ * polling stations, the preference votes and the turnout are copied into a {@link PollingStationVotes}, a
+ * {@link CandidateVotes} and a {@link TurnoutVotes} once, so they can be used like any other. A reader
+ * only accepts the version it has been written for, any other file is rejected and the election has to be loaded in
+ * another way.
+ */
+public final class ElectionSnapshot {
+    /**
+     * The first four bytes of every snapshot, <code>ELSN</code>.
+     */
+    public static final int MAGIC = 0x454C534E;
+    /**
+     * The version of the format, it changes whenever the layout changes.
+     */
+    public static final int VERSION = 6;
+
+    private static final int NO_STRING = -1;
+    private static final int NO_NUMBER = Integer.MIN_VALUE;
+
+    /**
+     * A party with its result.
+     */
+    public record PartyEntry(String id, String partyCode, String name, long votes, int seats, double percentage) {
+    }
+
+    /**
+     * A region, like a kieskring or a municipality.
+     */
+    public record RegionEntry(String id, Integer number, String category, String name, String superiorCategory) {
+    }
+
+    /**
+     * A candidate of a party.
+     */
+    public record CandidateEntry(String id, String partyId, String initials, String firstName, String lastName,
+                                 String gender, String localityName) {
+    }
+
+    /**
+     * A municipality with its votes cast, valid votes and rejected votes.
+     */
+    public record MunicipalityEntry(String code, String name, long cast, long valid, long rejected) {
+    }
+
+    private final String electionId;
+    private final String electionName;
+    private final String electionCategory;
+    private final String electionSubCategory;
+    private final int numberOfSeats;
+    private final List<PartyEntry> parties;
+    private final List<RegionEntry> regions;
+    private final List<CandidateEntry> candidates;
+    private final int[] kieskringen;
+    private final String[] kieskringParties;
+    private final LongBuffer kieskringVotes;
+    private final List<MunicipalityEntry> municipalities;
+    private final String[] municipalityParties;
+    private final LongBuffer municipalityVotes;
+    private final PollingStationVotes pollingStationVotes;
+    private final CandidateVotes candidateVotes;
+    private final TurnoutVotes turnoutVotes;
+
+    private ElectionSnapshot(String electionId, String electionName, String electionCategory,
+                             String electionSubCategory, int numberOfSeats, List<PartyEntry> parties,
+                             List<RegionEntry> regions, List<CandidateEntry> candidates, int[] kieskringen,
+                             String[] kieskringParties, LongBuffer kieskringVotes,
+                             List<MunicipalityEntry> municipalities, String[] municipalityParties,
+                             LongBuffer municipalityVotes, PollingStationVotes pollingStationVotes,
+                             CandidateVotes candidateVotes, TurnoutVotes turnoutVotes) {
+        this.electionId = electionId;
+        this.electionName = electionName;
+        this.electionCategory = electionCategory;
+        this.electionSubCategory = electionSubCategory;
+        this.numberOfSeats = numberOfSeats;
+        this.parties = Collections.unmodifiableList(parties);
+        this.regions = Collections.unmodifiableList(regions);
+        this.candidates = Collections.unmodifiableList(candidates);
+        this.kieskringen = kieskringen;
+        this.kieskringParties = kieskringParties;
+        this.kieskringVotes = kieskringVotes;
+        this.municipalities = Collections.unmodifiableList(municipalities);
+        this.municipalityParties = municipalityParties;
+        this.municipalityVotes = municipalityVotes;
+        this.pollingStationVotes = pollingStationVotes;
+        this.candidateVotes = candidateVotes;
+        this.turnoutVotes = turnoutVotes;
+    }
+
+    /**
+     * Takes a snapshot of an election that has been parsed or loaded from the database. The votes per municipality,
+     * per polling station and per candidate and the turnout are taken from {@link Election#getMunicipalityVotes()},
+     * {@link Election#getPollingStationVotes()}, {@link Election#getCandidateVotes()} and
+     * {@link Election#getTurnoutVotes()}, they are only there right after parsing. The seats and percentages of the
+     * parties are computed from their votes, the stored {@link PartyResult}s don't have them after an import.
+     *
+     * @param election            the election.
+     * @param kieskringPartyVotes the votes per kieskring and party name, as stored in the PartyKieskringResults.
+     * @return the snapshot.
+     */
+    public static ElectionSnapshot of(Election election, Map<Integer, Map<String, Long>> kieskringPartyVotes) {
+        List<Party> electionParties = election.getParties();
+        long[] votesPerParty = votesPerParty(election);
+        long totalVotes = 0;
+        for (long partyVotes : votesPerParty) {
+            totalVotes += partyVotes;
+        }
+        int[] seatsPerParty = SeatAllocationEngine.tweedeKamer().allocate(votesPerParty, election.getNumberOfSeats());
+
+        List<PartyEntry> parties = new ArrayList<>();
+        List<CandidateEntry> candidates = new ArrayList<>();
+        for (int index = 0; index < votesPerParty.length; index++) {
+            Party party = electionParties.get(index);
+            parties.add(new PartyEntry(party.getId(), party.getPartyCode(), party.getName(), votesPerParty[index],
+                    seatsPerParty[index], totalVotes == 0 ? 0.0 : votesPerParty[index] * 100.0 / totalVotes));
+            for (Candidate candidate : party.getCandidates()) {
+                candidates.add(new CandidateEntry(candidate.getId(), party.getId(), candidate.getInitials(),
+                        candidate.getFirstName(), candidate.getLastName(), candidate.getGender(),
+                        candidate.getLocalityName()));
+            }
+        }
+        List<RegionEntry> regions = new ArrayList<>();
+        for (Region region : election.getRegions()) {
+            regions.add(new RegionEntry(region.getId(), region.getRegionNumber(), region.getRegionCategory(),
+                    region.getRegionName(), region.getSuperiorRegionCategory()));
+        }
+
+        // Sorted, so the same election always gives the same file
+        Map<Integer, Map<String, Long>> rows = new TreeMap<>(kieskringPartyVotes);
+        TreeSet<String> columns = new TreeSet<>();
+        rows.values().forEach(perParty -> columns.addAll(perParty.keySet()));
+        int[] kieskringen = rows.keySet().stream().mapToInt(Integer::intValue).toArray();
+        String[] kieskringParties = columns.toArray(new String[0]);
+        long[] votes = new long[kieskringen.length * kieskringParties.length];
+        int row = 0;
+        for (Map<String, Long> perParty : rows.values()) {
+            for (int column = 0; column < kieskringParties.length; column++) {
+                votes[row * kieskringParties.length + column] = perParty.getOrDefault(kieskringParties[column], 0L);
+            }
+            row++;
+        }
+
+        MunicipalityVotes perMunicipality = election.getMunicipalityVotes();
+        List<Integer> municipalityRows = new ArrayList<>();
+        for (int municipality = 0; municipality < perMunicipality.size(); municipality++) {
+            municipalityRows.add(municipality);
+        }
+        municipalityRows.sort(Comparator.comparing(perMunicipality::code));
+        String[] municipalityParties = perMunicipality.getPartyNames().stream().sorted().toArray(String[]::new);
+        List<MunicipalityEntry> municipalities = new ArrayList<>();
+        long[] municipalityVotes = new long[municipalityRows.size() * municipalityParties.length];
+        row = 0;
+        for (int municipality : municipalityRows) {
+            municipalities.add(new MunicipalityEntry(perMunicipality.code(municipality),
+                    perMunicipality.name(municipality), perMunicipality.cast(municipality),
+                    perMunicipality.valid(municipality), perMunicipality.rejected(municipality)));
+            for (int column = 0; column < municipalityParties.length; column++) {
+                municipalityVotes[row * municipalityParties.length + column] =
+                        perMunicipality.votes(municipality, municipalityParties[column]);
+            }
+            row++;
+        }
+
+        return new ElectionSnapshot(election.getElectionId(), election.getElectionName(),
+                election.getElectionCategory(), election.getElectionSubCategory(), election.getNumberOfSeats(),
+                parties, regions, candidates, kieskringen, kieskringParties, LongBuffer.wrap(votes),
+                municipalities, municipalityParties, LongBuffer.wrap(municipalityVotes),
+                election.getPollingStationVotes(), election.getCandidateVotes(), election.getTurnoutVotes());
+    }
+
+    /**
+     * The votes the seats of a snapshot are divided by, the seats per kieskring are divided from the same ones.
+     *
+     * @param election the election.
+     * @return the votes of each party, in the order of {@link Election#getParties()}, taken from its
+     * {@link PartyResult}, 0 for a party without a result.
+     */
+    public static long[] votesPerParty(Election election) {
+        Map<String, PartyResult> results = new HashMap<>();
+        for (PartyResult result : election.getPartyResults()) {
+            if (result.getParty() != null) {
+                results.put(result.getParty().getId(), result);
+            }
+        }
+        List<Party> parties = election.getParties();
+        long[] votesPerParty = new long[parties.size()];
+        for (int index = 0; index < votesPerParty.length; index++) {
+            PartyResult result = results.get(parties.get(index).getId());
+            votesPerParty[index] = result == null ? 0 : result.getTotalVotes();
+        }
+        return votesPerParty;
+    }
+
+    /**
+     * Writes the snapshot to a file. It is written next to the file first and then moved in place, so a reader never
+     * sees half a file.
+     *
+     * @param file the file to write.
+     * @throws IOException in case the file can't be written.
+     */
+    public void write(Path file) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        collectStrings(strings);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary),
+                64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            writeString(out, strings, electionId);
+            writeString(out, strings, electionName);
+            writeString(out, strings, electionCategory);
+            writeString(out, strings, electionSubCategory);
+            out.writeInt(numberOfSeats);
+
+            out.writeInt(parties.size());
+            for (PartyEntry party : parties) {
+                writeString(out, strings, party.id());
+                writeString(out, strings, party.partyCode());
+                writeString(out, strings, party.name());
+                out.writeLong(party.votes());
+                out.writeInt(party.seats());
+                out.writeDouble(party.percentage());
+            }
+
+            out.writeInt(regions.size());
+            for (RegionEntry region : regions) {
+                writeString(out, strings, region.id());
+                out.writeInt(region.number() == null ? NO_NUMBER : region.number());
+                writeString(out, strings, region.category());
+                writeString(out, strings, region.name());
+                writeString(out, strings, region.superiorCategory());
+            }
+
+            out.writeInt(candidates.size());
+            for (CandidateEntry candidate : candidates) {
+                writeString(out, strings, candidate.id());
+                writeString(out, strings, candidate.partyId());
+                writeString(out, strings, candidate.initials());
+                writeString(out, strings, candidate.firstName());
+                writeString(out, strings, candidate.lastName());
+                writeString(out, strings, candidate.gender());
+                writeString(out, strings, candidate.localityName());
+            }
+
+            out.writeInt(kieskringen.length);
+            out.writeInt(kieskringParties.length);
+            for (int kieskring : kieskringen) {
+                out.writeInt(kieskring);
+            }
+            for (String party : kieskringParties) {
+                writeString(out, strings, party);
+            }
+            // The votes start at a multiple of 8 bytes, so they can be read as aligned longs
+            while (out.size() % Long.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int i = 0; i < kieskringVotes.limit(); i++) {
+                out.writeLong(kieskringVotes.get(i));
+            }
+
+            out.writeInt(municipalities.size());
+            out.writeInt(municipalityParties.length);
+            for (MunicipalityEntry municipality : municipalities) {
+                writeString(out, strings, municipality.code());
+                writeString(out, strings, municipality.name());
+                out.writeLong(municipality.cast());
+                out.writeLong(municipality.valid());
+                out.writeLong(municipality.rejected());
+            }
+            for (String party : municipalityParties) {
+                writeString(out, strings, party);
+            }
+            while (out.size() % Long.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int i = 0; i < municipalityVotes.limit(); i++) {
+                out.writeLong(municipalityVotes.get(i));
+            }
+
+            out.writeInt(pollingStationVotes.stationCount());
+            for (int station = 0; station < pollingStationVotes.stationCount(); station++) {
+                writeString(out, strings, pollingStationVotes.stationId(station));
+                writeString(out, strings, pollingStationVotes.stationName(station));
+                out.writeLong(pollingStationVotes.cast(station));
+                out.writeLong(pollingStationVotes.counted(station));
+            }
+            out.writeInt(pollingStationVotes.partyCount());
+            for (int party = 0; party < pollingStationVotes.partyCount(); party++) {
+                writeString(out, strings, pollingStationVotes.partyName(party));
+            }
+            out.writeInt(pollingStationVotes.rowCount());
+            while (out.size() % Long.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int row = 0; row < pollingStationVotes.rowCount(); row++) {
+                out.writeLong(pollingStationVotes.votesAt(row));
+            }
+            for (int row = 0; row < pollingStationVotes.rowCount(); row++) {
+                out.writeInt(pollingStationVotes.stationAt(row));
+            }
+            for (int row = 0; row < pollingStationVotes.rowCount(); row++) {
+                out.writeInt(pollingStationVotes.partyAt(row));
+            }
+
+            out.writeInt(candidateVotes.getPreferenceThreshold());
+            out.writeInt(candidateVotes.size());
+            for (int candidate = 0; candidate < candidateVotes.size(); candidate++) {
+                writeString(out, strings, candidateVotes.partyId(candidate));
+                writeString(out, strings, candidateVotes.candidateId(candidate));
+            }
+            out.writeInt(candidateVotes.kieskringCount());
+            for (int kieskring = 0; kieskring < candidateVotes.kieskringCount(); kieskring++) {
+                out.writeInt(candidateVotes.kieskringNumber(kieskring));
+            }
+            while (out.size() % Long.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int candidate = 0; candidate < candidateVotes.size(); candidate++) {
+                out.writeLong(candidateVotes.national(candidate));
+            }
+            for (int kieskring = 0; kieskring < candidateVotes.kieskringCount(); kieskring++) {
+                for (int candidate = 0; candidate < candidateVotes.size(); candidate++) {
+                    out.writeLong(candidateVotes.votes(kieskring, candidate));
+                }
+            }
+
+            out.writeInt(turnoutVotes.reasonCount());
+            for (int reason = 0; reason < turnoutVotes.reasonCount(); reason++) {
+                writeString(out, strings, turnoutVotes.reasonCode(reason));
+                out.writeBoolean(turnoutVotes.isRejected(reason));
+            }
+            for (TurnoutVotes.Level level : TurnoutVotes.Level.values()) {
+                out.writeInt(turnoutVotes.size(level));
+                for (int unit = 0; unit < turnoutVotes.size(level); unit++) {
+                    writeString(out, strings, turnoutVotes.id(level, unit));
+                    writeString(out, strings, turnoutVotes.name(level, unit));
+                }
+                while (out.size() % Long.BYTES != 0) {
+                    out.writeByte(0);
+                }
+                for (int unit = 0; unit < turnoutVotes.size(level); unit++) {
+                    out.writeLong(turnoutVotes.cast(level, unit));
+                    out.writeLong(turnoutVotes.counted(level, unit));
+                    for (int reason = 0; reason < turnoutVotes.reasonCount(); reason++) {
+                        out.writeLong(turnoutVotes.votes(level, unit, reason));
+                    }
+                }
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void collectStrings(Map<String, Integer> strings) {
+        addStrings(strings, electionId, electionName, electionCategory, electionSubCategory);
+        for (PartyEntry party : parties) {
+            addStrings(strings, party.id(), party.partyCode(), party.name());
+        }
+        for (RegionEntry region : regions) {
+            addStrings(strings, region.id(), region.category(), region.name(), region.superiorCategory());
+        }
+        for (CandidateEntry candidate : candidates) {
+            addStrings(strings, candidate.id(), candidate.partyId(), candidate.initials(), candidate.firstName(),
+                    candidate.lastName(), candidate.gender(), candidate.localityName());
+        }
+        addStrings(strings, kieskringParties);
+        for (MunicipalityEntry municipality : municipalities) {
+            addStrings(strings, municipality.code(), municipality.name());
+        }
+        addStrings(strings, municipalityParties);
+        for (int station = 0; station < pollingStationVotes.stationCount(); station++) {
+            addStrings(strings, pollingStationVotes.stationId(station), pollingStationVotes.stationName(station));
+        }
+        for (int party = 0; party < pollingStationVotes.partyCount(); party++) {
+            addStrings(strings, pollingStationVotes.partyName(party));
+        }
+        for (int candidate = 0; candidate < candidateVotes.size(); candidate++) {
+            addStrings(strings, candidateVotes.partyId(candidate), candidateVotes.candidateId(candidate));
+        }
+        for (int reason = 0; reason < turnoutVotes.reasonCount(); reason++) {
+            addStrings(strings, turnoutVotes.reasonCode(reason));
+        }
+        for (TurnoutVotes.Level level : TurnoutVotes.Level.values()) {
+            for (int unit = 0; unit < turnoutVotes.size(level); unit++) {
+                addStrings(strings, turnoutVotes.id(level, unit), turnoutVotes.name(level, unit));
+            }
+        }
+    }
+
+    private static void addStrings(Map<String, Integer> strings, String... values) {
+        for (String value : values) {
+            if (value != null) {
+                strings.putIfAbsent(value, strings.size());
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String string)
+            throws IOException {
+        out.writeInt(string == null ? NO_STRING : strings.get(string));
+    }
+
+    /**
+     * Maps a snapshot file into memory. The small sections are decoded right away, the votes are read from the
+     * mapped file whenever they are needed.
+     *
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IOException in case the file can't be read, is not a snapshot or has another version.
+     */
+    public static ElectionSnapshot map(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel has been closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not an election snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version %d in %s".formatted(version, file));
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            String electionId = readString(buffer, strings);
+            String electionName = readString(buffer, strings);
+            String electionCategory = readString(buffer, strings);
+            String electionSubCategory = readString(buffer, strings);
+            int numberOfSeats = buffer.getInt();
+
+            List<PartyEntry> parties = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                parties.add(new PartyEntry(readString(buffer, strings), readString(buffer, strings),
+                        readString(buffer, strings), buffer.getLong(), buffer.getInt(), buffer.getDouble()));
+            }
+
+            List<RegionEntry> regions = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                String id = readString(buffer, strings);
+                int number = buffer.getInt();
+                regions.add(new RegionEntry(id, number == NO_NUMBER ? null : number, readString(buffer, strings),
+                        readString(buffer, strings), readString(buffer, strings)));
+            }
+
+            List<CandidateEntry> candidates = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                candidates.add(new CandidateEntry(readString(buffer, strings), readString(buffer, strings),
+                        readString(buffer, strings), readString(buffer, strings), readString(buffer, strings),
+                        readString(buffer, strings), readString(buffer, strings)));
+            }
+
+            int[] kieskringen = new int[buffer.getInt()];
+            String[] kieskringParties = new String[buffer.getInt()];
+            for (int i = 0; i < kieskringen.length; i++) {
+                kieskringen[i] = buffer.getInt();
+            }
+            for (int i = 0; i < kieskringParties.length; i++) {
+                kieskringParties[i] = readString(buffer, strings);
+            }
+            LongBuffer kieskringVotes = sliceVotes(buffer, kieskringen.length * kieskringParties.length);
+
+            List<MunicipalityEntry> municipalities = new ArrayList<>();
+            int municipalityCount = buffer.getInt();
+            String[] municipalityParties = new String[buffer.getInt()];
+            for (int i = 0; i < municipalityCount; i++) {
+                municipalities.add(new MunicipalityEntry(readString(buffer, strings), readString(buffer, strings),
+                        buffer.getLong(), buffer.getLong(), buffer.getLong()));
+            }
+            for (int i = 0; i < municipalityParties.length; i++) {
+                municipalityParties[i] = readString(buffer, strings);
+            }
+            LongBuffer municipalityVotes = sliceVotes(buffer, municipalityCount * municipalityParties.length);
+
+            PollingStationVotes pollingStationVotes = new PollingStationVotes();
+            for (int station = buffer.getInt(), i = 0; i < station; i++) {
+                pollingStationVotes.station(readString(buffer, strings));
+                pollingStationVotes.setStationName(i, readString(buffer, strings));
+                pollingStationVotes.setMetadata(i, buffer.getLong(), buffer.getLong());
+            }
+            for (int party = buffer.getInt(); party > 0; party--) {
+                pollingStationVotes.party(readString(buffer, strings));
+            }
+            int rows = buffer.getInt();
+            LongBuffer votes = sliceVotes(buffer, rows);
+            IntBuffer stationColumn = buffer.slice(buffer.position(), rows * Integer.BYTES).asIntBuffer();
+            IntBuffer partyColumn = buffer.slice(buffer.position() + rows * Integer.BYTES, rows * Integer.BYTES)
+                    .asIntBuffer();
+            for (int row = 0; row < rows; row++) {
+                pollingStationVotes.addVotes(stationColumn.get(row), partyColumn.get(row), votes.get(row));
+            }
+            pollingStationVotes.trim();
+            buffer.position(buffer.position() + 2 * rows * Integer.BYTES);
+
+            CandidateVotes candidateVotes = new CandidateVotes();
+            candidateVotes.setPreferenceThreshold(buffer.getInt());
+            for (int candidate = buffer.getInt(); candidate > 0; candidate--) {
+                candidateVotes.candidate(readString(buffer, strings), readString(buffer, strings));
+            }
+            for (int kieskring = buffer.getInt(); kieskring > 0; kieskring--) {
+                candidateVotes.kieskring(buffer.getInt());
+            }
+            int candidateCount = candidateVotes.size();
+            LongBuffer preferenceVotes = sliceVotes(buffer, candidateCount * (1 + candidateVotes.kieskringCount()));
+            for (int candidate = 0; candidate < candidateCount; candidate++) {
+                candidateVotes.addNational(candidate, preferenceVotes.get(candidate));
+            }
+            for (int kieskring = 0; kieskring < candidateVotes.kieskringCount(); kieskring++) {
+                for (int candidate = 0; candidate < candidateCount; candidate++) {
+                    long preference = preferenceVotes.get((kieskring + 1) * candidateCount + candidate);
+                    if (preference != 0) {
+                        candidateVotes.addKieskring(kieskring, candidate, preference);
+                    }
+                }
+            }
+
+            TurnoutVotes turnoutVotes = new TurnoutVotes();
+            for (int reason = buffer.getInt(); reason > 0; reason--) {
+                turnoutVotes.reason(readString(buffer, strings), buffer.get() != 0);
+            }
+            int reasonCount = turnoutVotes.reasonCount();
+            for (TurnoutVotes.Level level : TurnoutVotes.Level.values()) {
+                for (int unit = buffer.getInt(), i = 0; i < unit; i++) {
+                    turnoutVotes.unit(level, readString(buffer, strings));
+                    turnoutVotes.setName(level, i, readString(buffer, strings));
+                }
+                int unitCount = turnoutVotes.size(level);
+                LongBuffer turnout = sliceVotes(buffer, unitCount * (2 + reasonCount));
+                for (int unit = 0; unit < unitCount; unit++) {
+                    int offset = unit * (2 + reasonCount);
+                    turnoutVotes.addMetadata(level, unit, turnout.get(offset), turnout.get(offset + 1));
+                    for (int reason = 0; reason < reasonCount; reason++) {
+                        long reasonVotes = turnout.get(offset + 2 + reason);
+                        if (reasonVotes != 0) {
+                            turnoutVotes.addReason(level, unit, reason, reasonVotes);
+                        }
+                    }
+                }
+            }
+
+            return new ElectionSnapshot(electionId, electionName, electionCategory, electionSubCategory,
+                    numberOfSeats, parties, regions, candidates, kieskringen, kieskringParties, kieskringVotes,
+                    municipalities, municipalityParties, municipalityVotes, pollingStationVotes, candidateVotes,
+                    turnoutVotes);
+        } catch (RuntimeException e) {
+            // Like a BufferUnderflowException of a truncated file
+            throw new IOException("Corrupt election snapshot: " + file, e);
+        }
+    }
+
+    // The votes of a matrix start at the next multiple of 8 bytes, the buffer is moved past them
+    private static LongBuffer sliceVotes(ByteBuffer buffer, int count) {
+        int votes = buffer.position() + (Long.BYTES - buffer.position() % Long.BYTES) % Long.BYTES;
+        LongBuffer slice = buffer.slice(votes, count * Long.BYTES).asLongBuffer();
+        buffer.position(votes + count * Long.BYTES);
+        return slice;
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index == NO_STRING ? null : strings[index];
+    }
+
+    public String getElectionId() {
+        return electionId;
+    }
+
+    public String getElectionName() {
+        return electionName;
+    }
+
+    public String getElectionCategory() {
+        return electionCategory;
+    }
+
+    public String getElectionSubCategory() {
+        return electionSubCategory;
+    }
+
+    public int getNumberOfSeats() {
+        return numberOfSeats;
+    }
+
+    public List<PartyEntry> getParties() {
+        return parties;
+    }
+
+    public List<RegionEntry> getRegions() {
+        return regions;
+    }
+
+    public List<CandidateEntry> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return the numbers of the kieskringen, the rows of the votes matrix.
+     */
+    public int[] getKieskringen() {
+        return kieskringen.clone();
+    }
+
+    /**
+     * @return the names of the parties, the columns of the votes matrix.
+     */
+    public String[] getKieskringParties() {
+        return kieskringParties.clone();
+    }
+
+    /**
+     * @param row    the index of the kieskring in {@link #getKieskringen()}.
+     * @param column the index of the party in {@link #getKieskringParties()}.
+     * @return the votes for the party in the kieskring.
+     */
+    public long getKieskringVotes(int row, int column) {
+        return kieskringVotes.get(row * kieskringParties.length + column);
+    }
+
+    /**
+     * @return the votes per kieskring and party name, in the same form as {@link Election#getKieskringPartyVotes()}.
+     */
+    public Map<Integer, Map<String, Long>> getKieskringPartyVotes() {
+        Map<Integer, Map<String, Long>> kieskringPartyVotes = new TreeMap<>();
+        for (int row = 0; row < kieskringen.length; row++) {
+            Map<String, Long> perParty = new HashMap<>();
+            for (int column = 0; column < kieskringParties.length; column++) {
+                long votes = getKieskringVotes(row, column);
+                if (votes != 0) {
+                    perParty.put(kieskringParties[column], votes);
+                }
+            }
+            kieskringPartyVotes.put(kieskringen[row], perParty);
+        }
+        return kieskringPartyVotes;
+    }
+
+    /**
+     * @return the municipalities, the rows of the votes matrix, ordered by their code.
+     */
+    public List<MunicipalityEntry> getMunicipalities() {
+        return municipalities;
+    }
+
+    /**
+     * @return the names of the parties, the columns of the votes matrix.
+     */
+    public String[] getMunicipalityParties() {
+        return municipalityParties.clone();
+    }
+
+    /**
+     * @param row    the index of the municipality in {@link #getMunicipalities()}.
+     * @param column the index of the party in {@link #getMunicipalityParties()}.
+     * @return the votes for the party in the municipality.
+     */
+    public long getMunicipalityVotes(int row, int column) {
+        return municipalityVotes.get(row * municipalityParties.length + column);
+    }
+
+    /**
+     * @return a copy of the votes per municipality, that can be added to by the next import.
+     */
+    public MunicipalityVotes toMunicipalityVotes() {
+        MunicipalityVotes copy = new MunicipalityVotes();
+        for (int row = 0; row < municipalities.size(); row++) {
+            MunicipalityEntry entry = municipalities.get(row);
+            int municipality = copy.municipality(entry.code(), entry.name());
+            copy.addMetadata(municipality, entry.cast(), entry.valid(), entry.rejected());
+            for (int column = 0; column < municipalityParties.length; column++) {
+                long votes = getMunicipalityVotes(row, column);
+                if (votes != 0) {
+                    copy.addPartyVotes(municipality, municipalityParties[column], votes);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @return the votes per polling station, shared by all readers of the snapshot, so it must not be changed.
+     */
+    public PollingStationVotes getPollingStationVotes() {
+        return pollingStationVotes;
+    }
+
+    /**
+     * @return a copy of the votes per polling station, that can be added to by the next import.
+     */
+    public PollingStationVotes toPollingStationVotes() {
+        return pollingStationVotes.copy();
+    }
+
+    /**
+     * @return the preference votes per candidate, shared by all readers of the snapshot, so they must not be changed.
+     */
+    public CandidateVotes getCandidateVotes() {
+        return candidateVotes;
+    }
+
+    /**
+     * @return a copy of the preference votes per candidate, that can be added to by the next import.
+     */
+    public CandidateVotes toCandidateVotes() {
+        return candidateVotes.copy();
+    }
+
+    /**
+     * @return the turnout per kieskring, municipality and reporting unit, shared by all readers of the snapshot, so
+     * it must not be changed.
+     */
+    public TurnoutVotes getTurnoutVotes() {
+        return turnoutVotes;
+    }
+
+    /**
+     * @return a copy of the turnout, that can be added to by the next import.
+     */
+    public TurnoutVotes toTurnoutVotes() {
+        return turnoutVotes.copy();
+    }
+}
@@ -9,7 +9,7 @@ public interface CandidateTransformer {
 
     /**
      * Called whenever a Candidate closing tag is parsed.
-     * @param electionData the tags and values.
+     * @param electionData the tags and values, a read-only view that is only valid during this call.
      */
     void registerCandidate(Map<String, String> electionData);
 }
@@ -8,13 +8,13 @@ import java.util.Map;
 public interface DefinitionTransformer {
     /**
      * Called whenever either a Committee opening tag or a Region closing tag is parsed.
-     * @param electionData the tags and values.
+     * @param electionData the tags and values, a read-only view that is only valid during this call.
      */
     void registerRegion(Map<String, String> electionData);
 
     /**
      * Called whenever a RegisteredParty closing tag is parsed.
-     * @param electionData the tags and values.
+     * @param electionData the tags and values, a read-only view that is only valid during this call.
      */
     void registerParty(Map<String, String> electionData);
 }
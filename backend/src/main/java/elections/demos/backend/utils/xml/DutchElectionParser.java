@@ -1,5 +1,6 @@
 package elections.demos.backend.utils.xml;
 
+import elections.demos.backend.utils.ElectionManifest;
 import elections.demos.backend.utils.PathUtils;
 import org.xml.sax.SAXException;
 
@@ -8,12 +9,21 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLStreamException;
 import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 /**
  * Processes the XML data files for the Dutch elections. It is completely model agnostic. This means that it
@@ -26,7 +36,33 @@ import java.util.Map;
  * The data in the XML files has a more or less hierarchy structure. When a method of the transformer is called, a
  * {@link Map} containing all the information on that level, including the information at the higher levels,
  * is provided. The {@link Map} is specified as: Map&lt;String, String>. It is up to the transformer to convert any
- * numerical information from its {@link String} representation into its appropriate datatype.<br>
+ * numerical information from its {@link String} representation into its appropriate datatype, unless it implements
+ * {@link TypedVotesTransformer}. Such a transformer gets the numbers already decoded, and the parties as ordinals of
+ * the {@link PartyDictionary} of this parser.<br>
+ * <br>
+ * The files can be read by two engines, see {@link Engine}. Both drive the same {@link EMLHandler}, so the
+ * transformers are called in exactly the same way by either of them.<br>
+ * <br>
+ * By default all files are processed one after the other on the calling thread. When a number of workers is set
+ * with {@link #withWorkers(int)}, files with the same prefix are parsed in parallel, each by its own
+ * {@link EMLHandler}. The calls such a handler makes are buffered and handed to the transformers on the calling
+ * thread, file by file and in the same order as the sequential run. The transformers therefore never have to be
+ * thread-safe and the resulting model is exactly the same.<br>
+ * <br>
+ * When several votes transformers need the same files, like the party and the national votes transformers that
+ * both read the <code>Totaaltelling</code> file, each of those files is parsed only once. A
+ * {@link FanOutVotesTransformer} hands every call to each of the transformers as it is made, so every transformer
+ * still sees the complete file, as if it was the only one.<br>
+ * <br>
+ * The election data can also be a zip archive as published by the Kiesraad. Its entries are read straight from the
+ * archive, without extracting them first, and are parsed in parallel just like files.<br>
+ * <br>
+ * With {@link #withFileSelection(Predicate)} only some of the files are parsed, for instance only the files that
+ * have been changed since the last import.<br>
+ * <br>
+ * The throughput of each file, the time spent in the votes transformers and the use of the {@link SymbolTable} are
+ * reported to the {@link ParserMetrics} set with {@link #withMetrics(ParserMetrics)}. Every group of files is also marked by an
+ * {@link ImportPhaseEvent} for the Java Flight Recorder.<br>
  * <br>
  * <em>It assumes that filenames have NOT been changed and that the content has not been altered!</em><br>
  * <em>Most likely you don't have to alter this class, but if you feel you need to, please feel free :-)</em><br/>
@@ -34,6 +70,16 @@ import java.util.Map;
  * <i><b>NOTE: </b>There are some TODO's present that need fixing!</i>
  */
 public class DutchElectionParser {
+    /**
+     * The XML parser that is used for reading the files.
+     */
+    public enum Engine {
+        /** The SAX parser of the JDK, which calls the {@link EMLHandler} back. */
+        SAX,
+        /** A StAX {@link javax.xml.stream.XMLStreamReader}, which pulls the events and skips unknown elements. */
+        STAX
+    }
+
     private DefinitionTransformer definitionTransformer;
     private CandidateTransformer candidateTransformer;
     private VotesTransformer resultTransformer;
@@ -41,6 +87,13 @@ public class DutchElectionParser {
     private VotesTransformer constituencyVotesTransformer;
     private VotesTransformer municipalityVotesTransformer;
     private VotesTransformer partyVotesTransformer;
+    private VotesTransformer pollingStationTransformer;
+    private int workers = 1;
+    private Engine engine = Engine.SAX;
+    private PartyDictionary partyDictionary = new PartyDictionary();
+    private SymbolTable symbolTable = new SymbolTable();
+    private Predicate<Path> fileSelection = electionFile -> true;
+    private ParserMetrics metrics = ParserMetrics.NONE;
 
     /**
      * Creates an empty parser with no transformers.
@@ -115,64 +168,301 @@ public class DutchElectionParser {
         return this;
     }
 
+    /**
+     * Sets a second transformer for the municipality votes files, next to the municipality votes transformer. Both
+     * get all the calls for those files, the files are only parsed once.
+     *
+     * @param transformer the transformer for the votes of the polling stations.
+     * @return this parser.
+     */
+    public DutchElectionParser withPollingStationTransformer(VotesTransformer transformer) {
+        this.pollingStationTransformer = transformer;
+        return this;
+    }
+
+    /**
+     * Sets the engine that is used for reading the XML files.
+     *
+     * @param engine the engine, {@link Engine#SAX} by default.
+     * @return this parser.
+     */
+    public DutchElectionParser withEngine(Engine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("The engine cannot be null.");
+        }
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Sets the dictionary that gives the parties their ordinals for the {@link TypedVotesTransformer}s. The
+     * transformers need the same dictionary to find out which party an ordinal stands for.
+     *
+     * @param partyDictionary the dictionary, by default each parser has its own.
+     * @return this parser.
+     */
+    public DutchElectionParser withPartyDictionary(PartyDictionary partyDictionary) {
+        if (partyDictionary == null) {
+            throw new IllegalArgumentException("The party dictionary cannot be null.");
+        }
+        this.partyDictionary = partyDictionary;
+        return this;
+    }
+
+    /**
+     * @return the dictionary that gives the parties their ordinals.
+     */
+    public PartyDictionary getPartyDictionary() {
+        return partyDictionary;
+    }
+
+    /**
+     * Sets the symbol table that keeps a single instance of the values that are repeated in the files, like the
+     * names of the parties and the regions.
+     *
+     * @param symbolTable the symbol table, by default each parser has its own.
+     * @return this parser.
+     */
+    public DutchElectionParser withSymbolTable(SymbolTable symbolTable) {
+        if (symbolTable == null) {
+            throw new IllegalArgumentException("The symbol table cannot be null.");
+        }
+        this.symbolTable = symbolTable;
+        return this;
+    }
+
+    /**
+     * @return the symbol table, with the hits and misses of the files parsed so far.
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Restricts the files that are parsed. Files that are not selected are skipped, as if they were not there.
+     *
+     * @param fileSelection tells which of the files should be parsed, by default all of them are.
+     * @return this parser.
+     */
+    public DutchElectionParser withFileSelection(Predicate<Path> fileSelection) {
+        if (fileSelection == null) {
+            throw new IllegalArgumentException("The file selection cannot be null.");
+        }
+        this.fileSelection = fileSelection;
+        return this;
+    }
+
+    /**
+     * Sets where the measurements of the parser are reported.
+     *
+     * @param metrics the receiver of the measurements, by default nothing is measured.
+     * @return this parser.
+     */
+    public DutchElectionParser withMetrics(ParserMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("The metrics cannot be null.");
+        }
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Sets the number of worker threads that parse files in parallel. With a single worker, the default, all
+     * files are parsed on the calling thread.
+     *
+     * @param workers the number of files that may be parsed at the same time, must be at least 1.
+     * @return this parser.
+     */
+    public DutchElectionParser withWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("The number of workers must be at least 1.");
+        }
+        this.workers = workers;
+        return this;
+    }
+
     /**
      * Traverses all the folders within the specified folder and calls the appropriate methods of the transformer.
      * While processing the files it will skip any file that has a different election-id than the one specified.
      * Currently, it only processes the files containing the 'kieslijsten' and the votes per reporting unit.
      *
      * @param electionId the identifier for the of the files that should be processed, for example <i>TK2023</i>.
-     * @param folderName The name of the folder that contains the files containing the election data.
+     * @param folderName The name of the folder, or zip archive, that contains the files containing the election data.
      * @throws IOException        in case something goes wrong while reading the file.
      * @throws XMLStreamException when a file has not the expected format.
      */
     public void parseResults(String electionId, String folderName) throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
         // TODO replace with proper usage of a logging framework
         System.out.printf("Loading election data from %s\n", folderName);
-//
-        if (definitionTransformer != null) {
-            parseFiles(folderName, "Verkiezingsdefinitie_%s".formatted(electionId), new EMLHandler(definitionTransformer));
-        }
+        long hits = symbolTable.hits();
+        long misses = symbolTable.misses();
+        long overflows = symbolTable.overflows();
+        // The folder is walked once, all the files are taken from the manifest.
+        try (ElectionManifest manifest = PathUtils.getManifest(folderName)) {
+            if (definitionTransformer != null) {
+                parseFiles(manifest, "Verkiezingsdefinitie_%s".formatted(electionId), definitionTransformer, null);
+            }
+
+            if (candidateTransformer != null) {
+                parseFiles(manifest, "Kandidatenlijsten_%s".formatted(electionId), null, candidateTransformer);
+            }
+
+            // Group the votes transformers by the files they need, so each file is parsed only once.
+            Map<String, List<VotesTransformer>> votesFiles = new LinkedHashMap<>();
+            addVotesTransformer(votesFiles, "Totaaltelling_%s".formatted(electionId), partyVotesTransformer);
+            addVotesTransformer(votesFiles, "Resultaat_%s".formatted(electionId), resultTransformer);
+            addVotesTransformer(votesFiles, "Totaaltelling_%s".formatted(electionId), nationalVotesTransformer);
+            addVotesTransformer(votesFiles, "Telling_%s_kieskring".formatted(electionId), constituencyVotesTransformer);
+            addVotesTransformer(votesFiles, "Telling_%s_gemeente".formatted(electionId), municipalityVotesTransformer);
+            addVotesTransformer(votesFiles, "Telling_%s_gemeente".formatted(electionId), pollingStationTransformer);
 
-        if (candidateTransformer != null) {
-            parseFiles(folderName, "Kandidatenlijsten_%s".formatted(electionId), new EMLHandler(candidateTransformer));
+            for (Map.Entry<String, List<VotesTransformer>> entry : votesFiles.entrySet()) {
+                parseFiles(manifest, entry.getKey(), null, null, entry.getValue().toArray(new VotesTransformer[0]));
+            }
         }
+        metrics.symbolsCounted(symbolTable.hits() - hits, symbolTable.misses() - misses,
+                symbolTable.overflows() - overflows);
+    }
 
-        if (partyVotesTransformer != null) {
-            parseFiles(folderName, "Totaaltelling_%s".formatted(electionId), new EMLHandler(partyVotesTransformer));
+    private static void addVotesTransformer(Map<String, List<VotesTransformer>> votesFiles, String fileFilter,
+                                            VotesTransformer votesTransformer) {
+        if (votesTransformer != null) {
+            votesFiles.computeIfAbsent(fileFilter, filter -> new ArrayList<>()).add(votesTransformer);
         }
+    }
 
-        if (resultTransformer != null) {
-            parseFiles(folderName, "Resultaat_%s".formatted(electionId), new EMLHandler(resultTransformer));
+    /**
+     * Parses all the files matching the filter, either sequentially or in parallel. When more than one votes
+     * transformer is given, each call is handed to every one of them.
+     */
+    private void parseFiles(ElectionManifest manifest, String fileFilter, DefinitionTransformer definitionTransformer,
+                            CandidateTransformer candidateTransformer, VotesTransformer... votesTransformers)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        List<Path> files = manifest.files(fileFilter);
+        files.removeIf(fileSelection.negate());
+        if (files.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < votesTransformers.length; i++) {
+            votesTransformers[i] = TimedVotesTransformer.wrap(votesTransformers[i], metrics);
+        }
+        VotesTransformer votesTransformer = FanOutVotesTransformer.of(votesTransformers);
+        ImportPhaseEvent event = ImportPhaseEvent.start(fileFilter);
+        if (workers > 1 && files.size() > 1) {
+            parseFilesInParallel(files, definitionTransformer, candidateTransformer, votesTransformer);
+        } else {
+            EMLHandler emlHandler = votesTransformer instanceof FanOutVotesTransformer fanOut
+                    ? votesHandler(fanOut, votesTransformer)
+                    : new EMLHandler(definitionTransformer, candidateTransformer, votesTransformer, partyDictionary,
+                    symbolTable);
+            for (Path electionFile : files) {
+                parseFile(electionFile, emlHandler);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.files = files.size();
+            for (Path electionFile : files) {
+                event.bytes += Files.size(electionFile);
+            }
+            event.commit();
         }
+    }
 
-        if (nationalVotesTransformer != null) {
-            parseFiles(folderName, "Totaaltelling_%s".formatted(electionId), new EMLHandler(nationalVotesTransformer));
+    /**
+     * Parses the files on a pool of worker threads. Each file gets its own {@link EMLHandler} which calls a
+     * {@link RecordingTransformer} instead of the actual transformer. The recordings are replayed on the calling
+     * thread in the order of the files. At most twice the number of workers files are in flight, so only a limited
+     * number of recordings is kept in memory.
+     */
+    private void parseFilesInParallel(List<Path> files, DefinitionTransformer definitionTransformer,
+                                      CandidateTransformer candidateTransformer, VotesTransformer votesTransformer)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, files.size()));
+        try {
+            Deque<Future<RecordingTransformer>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < files.size() || !inFlight.isEmpty()) {
+                while (next < files.size() && inFlight.size() < 2 * workers) {
+                    Path electionFile = files.get(next++);
+                    inFlight.add(executor.submit(() -> {
+                        RecordingTransformer recorder = new RecordingTransformer();
+                        parseFile(electionFile, recordingHandler(recorder, definitionTransformer,
+                                candidateTransformer, votesTransformer));
+                        return recorder;
+                    }));
+                }
+                awaitRecording(inFlight.poll()).replay(definitionTransformer, candidateTransformer, votesTransformer);
+            }
+        } finally {
+            executor.shutdownNow();
         }
-//
-        if (constituencyVotesTransformer != null) {
-            parseFiles(folderName, "Telling_%s_kieskring".formatted(electionId), new EMLHandler(constituencyVotesTransformer));
+    }
+
+    /**
+     * Creates a handler that calls the recorder instead of the given transformers. The recorder only gets the
+     * <code>electionData</code> maps when at least one votes transformer needs them, and only gets the decoded values
+     * when at least one of them is a {@link TypedVotesTransformer}.
+     */
+    private EMLHandler recordingHandler(RecordingTransformer recorder, DefinitionTransformer definitionTransformer,
+                                        CandidateTransformer candidateTransformer, VotesTransformer votesTransformer) {
+        if (votesTransformer == null) {
+            return new EMLHandler(definitionTransformer == null ? null : recorder,
+                    candidateTransformer == null ? null : recorder, null, partyDictionary, symbolTable);
         }
+        return votesHandler(recorder, votesTransformer);
+    }
 
-        if (municipalityVotesTransformer != null) {
-            parseFiles(folderName, "Telling_%s_gemeente".formatted(electionId), new EMLHandler(municipalityVotesTransformer));
+    /**
+     * Creates a handler for votes files that calls the receiver with the maps, the decoded values or both, depending
+     * on what the votes transformer behind it needs.
+     */
+    private EMLHandler votesHandler(TypedVotesTransformer receiver, VotesTransformer votesTransformer) {
+        return new EMLHandler(FanOutVotesTransformer.needsMaps(votesTransformer) ? receiver : null,
+                FanOutVotesTransformer.needsDecodedValues(votesTransformer) ? receiver : null, partyDictionary,
+                symbolTable);
+    }
+
+    private static RecordingTransformer awaitRecording(Future<RecordingTransformer> recording)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        try {
+            return recording.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a file to be parsed");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) throw ioException;
+            if (cause instanceof XMLStreamException streamException) throw streamException;
+            if (cause instanceof ParserConfigurationException configurationException) throw configurationException;
+            if (cause instanceof SAXException saxException) throw saxException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IOException(cause);
         }
     }
 
-    private void parseFiles(String folderName, String fileFilter, EMLHandler emlHandler) throws IOException, ParserConfigurationException, SAXException {
-        List<Path> files = PathUtils.findFilesToScan(folderName, fileFilter);
-        files.sort(Comparator.comparing(Path::getFileName));
-        for (Path electionFile : files) {
-            // TODO replace with proper usage of a logging framework
-            System.out.printf("Processing: %s\n", electionFile);
-            try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(electionFile.toString()), 64 * 1024)) {
+    private void parseFile(Path electionFile, EMLHandler emlHandler) throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        // TODO replace with proper usage of a logging framework
+        System.out.printf("Processing: %s\n", electionFile);
+        long start = System.nanoTime();
+        long elements = emlHandler.getElementCount();
+        // The file may also be an entry of a zip archive, which is inflated while it is being read.
+        try (BufferedInputStream bis = new BufferedInputStream(Files.newInputStream(electionFile), 64 * 1024)) {
+            emlHandler.setFileName(electionFile.getFileName().toString());
+            if (engine == Engine.STAX) {
+                new StaxEMLReader().parse(bis, emlHandler);
+            } else {
                 SAXParserFactory factory = SAXParserFactory.newInstance();
                 factory.setNamespaceAware(true);
                 SAXParser parser = factory.newSAXParser();
-                emlHandler.setFileName(electionFile.toString());
                 parser.parse(bis, emlHandler);
             }
-            // TODO replace with proper usage of a logging framework
-            System.out.printf("Processed: %s\n", electionFile);
         }
+        String fileName = electionFile.getFileName().toString();
+        metrics.fileParsed(ElectionManifest.FileType.of(fileName), Files.size(electionFile),
+                emlHandler.getElementCount() - elements, System.nanoTime() - start);
+        // TODO replace with proper usage of a logging framework
+        System.out.printf("Processed: %s\n", electionFile);
     }
 }
@@ -1,5 +1,8 @@
 package elections.demos.backend.utils.xml;
 
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
 /**
  * Builder for creating DutchElectionParser instances.
  * This builder allows step-by-step construction of parser instances
@@ -13,7 +16,13 @@ public class DutchElectionParserBuilder {
     private VotesTransformer constituencyVotesTransformer;
     private VotesTransformer municipalityVotesTransformer;
     private VotesTransformer partyVotesTransformer;
+    private VotesTransformer pollingStationTransformer;
     private VotesTransformer seatsAndShareTransformer;
+    private int workers = 1;
+    private DutchElectionParser.Engine engine = DutchElectionParser.Engine.SAX;
+    private PartyDictionary partyDictionary;
+    private Predicate<Path> fileSelection;
+    private ParserMetrics metrics;
 
     /**
      * Sets the transformer for election definitions.
@@ -81,6 +90,17 @@ public class DutchElectionParserBuilder {
         return this;
     }
 
+    /**
+     * Sets the transformer for the votes of the polling stations, it gets the municipality votes files as well.
+     *
+     * @param pollingStationTransformer The transformer to process the polling stations in the municipality votes files
+     * @return This builder instance for method chaining
+     */
+    public DutchElectionParserBuilder withPollingStationTransformer(VotesTransformer pollingStationTransformer) {
+        this.pollingStationTransformer = pollingStationTransformer;
+        return this;
+    }
+
     public DutchElectionParserBuilder withPartyVotesTransformer(VotesTransformer partyVotesTransformer) {
         this.partyVotesTransformer = partyVotesTransformer;
         return this;
@@ -92,6 +112,60 @@ public class DutchElectionParserBuilder {
         return this;
     }
 
+    /**
+     * Sets the number of files that may be parsed at the same time.
+     *
+     * @param workers The number of worker threads, 1 parses all files on the calling thread
+     * @return This builder instance for method chaining
+     */
+    public DutchElectionParserBuilder withWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * Sets the engine that is used for reading the XML files.
+     *
+     * @param engine The engine, SAX by default
+     * @return This builder instance for method chaining
+     */
+    public DutchElectionParserBuilder withEngine(DutchElectionParser.Engine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Sets the dictionary that gives the parties their ordinals, it must be the same one the typed transformers use.
+     *
+     * @param partyDictionary The dictionary, a new one is created when none is set
+     * @return This builder instance for method chaining
+     */
+    public DutchElectionParserBuilder withPartyDictionary(PartyDictionary partyDictionary) {
+        this.partyDictionary = partyDictionary;
+        return this;
+    }
+
+    /**
+     * Restricts the files that are parsed, for instance to the files that changed since the last import.
+     *
+     * @param fileSelection Tells which files should be parsed, all files are parsed when none is set
+     * @return This builder instance for method chaining
+     */
+    public DutchElectionParserBuilder withFileSelection(Predicate<Path> fileSelection) {
+        this.fileSelection = fileSelection;
+        return this;
+    }
+
+    /**
+     * Sets where the parser reports the throughput of the files and the time spent in the votes transformers.
+     *
+     * @param metrics The receiver of the measurements, nothing is measured when none is set
+     * @return This builder instance for method chaining
+     */
+    public DutchElectionParserBuilder withMetrics(ParserMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
 
     /**
      * Builds and returns a new DutchElectionParser instance with the configured transformers.
@@ -99,7 +173,19 @@ public class DutchElectionParserBuilder {
      * @return A new DutchElectionParser instance
      */
     public DutchElectionParser build() {
-        return new DutchElectionParser(definitionTransformer, candidateTransformer, resultTransformer, nationalVotesTransformer, constituencyVotesTransformer, municipalityVotesTransformer, partyVotesTransformer);
+        DutchElectionParser parser = new DutchElectionParser(definitionTransformer, candidateTransformer, resultTransformer, nationalVotesTransformer, constituencyVotesTransformer, municipalityVotesTransformer, partyVotesTransformer)
+                .withWorkers(workers)
+                .withEngine(engine);
+        if (fileSelection != null) {
+            parser.withFileSelection(fileSelection);
+        }
+        if (metrics != null) {
+            parser.withMetrics(metrics);
+        }
+        if (pollingStationTransformer != null) {
+            parser.withPollingStationTransformer(pollingStationTransformer);
+        }
+        return partyDictionary == null ? parser : parser.withPartyDictionary(partyDictionary);
     }
 
     /**
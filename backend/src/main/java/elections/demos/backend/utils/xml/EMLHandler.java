@@ -24,9 +24,18 @@ import java.util.*;
  * <br/>
  * Some tags need special processing. This can be done as soon as the start-tag is being parsed or when the closing-tag
  * is parsed. If and what exactly depends on the specific tag. Some tags are repeated in which case just as soon as the
- * open tag is parsed the current state of <code>electionData</code> is saved on a stack. And once the closing tag is
- * being parsed the state is popped off the stack. This ensures that each repeated tag has a clean sleight when it is
- * being processed.
+ * open tag is parsed a new frame is pushed on top of the current state of <code>electionData</code>. And once the
+ * closing tag is being parsed the frame is popped and the previous state is back. This ensures that each repeated tag
+ * has a clean sleight when it is being processed. The frames don't copy any data, see {@link ElectionDataFrames}.
+ * The map handed to the transformers is a read-only view on the current frame, it is only valid during the call.
+ * <br/>
+ * <br/>
+ * A votes transformer that implements {@link TypedVotesTransformer} doesn't get the map at all. For such a
+ * transformer the handler decodes the party, the number of votes, the reporting unit and the region number while
+ * the elements are being read and hands over just those values.<br/>
+ * <br/>
+ * The values that are repeated over and over again, like the names of the parties and regions and the categories,
+ * are kept once in the {@link SymbolTable} of the import. All other values are plain strings.<br/>
  * <br/>
  * Incase an unknown tag or attribute is being processed this will be reported through standard error
  * <a href="https://en.wikipedia.org/wiki/Standard_streams">stream</a>.<br/>
@@ -38,14 +47,41 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
     private static final Set<String> tagsWithoutAttributes = new HashSet<>();
     // The attributes will be combined with the tag-name and serve as the key for the map containing all the data.
     private static final Map<String, Set<String>> tagsWithAttributes = new HashMap<>();
+    // The values of these tags are always whole numbers, they are decoded straight from the text buffer.
+    private static final Set<String> numericTags = Set.of(CAST, TOTAL_COUNTED, VALID_VOTES, REJECTED_VOTES, UNCOUNTED_VOTES);
+    // The values of these tags are repeated over and over again, they are kept in the symbol table of the import.
+    private static final Set<String> symbolTags = Set.of(AUTHORITY_IDENTIFIER, CONTEST_NAME, COUNTRY_NAME_CODE, ELECTED,
+            ELECTION_CATEGORY, ELECTION_NAME, ELECTION_SUBCATEGORY, GENDER, LOCALITY_NAME, REGION_NAME,
+            REGISTERED_APPELLATION, REGISTERED_NAME, TYPE, VOTING_METHOD);
+    // The values of these attributes are (nearly) unique, all other attribute values are kept in the symbol table.
+    private static final Set<String> uniqueAttributes = Set.of(CANDIDATE_IDENTIFIER_SHORT_CODE, REPORTING_UNIT_IDENTIFIER_ID);
     // Temporary storage of characters like tag values and whitespace between tags.
     private final StringBuilder text = new StringBuilder();
-    // Holds the information found throughout the XML files as key-value pairs.
-    private Map<String, String> electionData = new HashMap<>();
-    // When processing repeating tags the current state of electionData is being preserved on this stack, and a copy is
-    // being made. Once the closing tag is processed the saved 'state' of electionData is popped of the stack in order
-    // to be able to start with a clean sleight when the next repeating tag is being processed.
-    private final Deque<Map<String, String>> savedElectionData = new LinkedList<>();
+    // The fixed slot of every known key of electionData.
+    private static final ElectionDataFrames.Layout layout = new ElectionDataFrames.Layout();
+    // The slots of the value and of the known attributes of each known tag.
+    private static final Map<String, TagSlots> tagSlots = new HashMap<>();
+    private static final int fileNameSlot;
+    // The slots of the keys that are decoded for the TypedVotesTransformer.
+    private static final int affiliationIdSlot;
+    private static final int registeredNameSlot;
+    private static final int candidateIdSlot;
+    private static final int candidateShortCodeSlot;
+    private static final int reportingUnitIdSlot;
+    private static final int reportingUnitNameSlot;
+    private static final int authorityIdSlot;
+    private static final int authorityNameSlot;
+    // The number of start tags that have been handled, for measuring the throughput of the parser.
+    private long elementCount;
+    // Holds the information found throughout the XML files as key-value pairs. When processing repeating tags a new
+    // frame is pushed, once the closing tag is processed the frame is popped in order to be able to start with a
+    // clean sleight when the next repeating tag is being processed.
+    private final ElectionDataFrames frames = new ElectionDataFrames(layout);
+    // The read-only view on the frames that is handed to the transformers.
+    private final Map<String, String> electionData = frames.view();
+    // The slots of the keys RejectedVotes-<reason code> and UncountedVotes-<reason code> per reason code.
+    private final Map<String, Integer> rejectedVotesSlots = new HashMap<>();
+    private final Map<String, Integer> uncountedVotesSlots = new HashMap<>();
     // The files containing the results start with the aggregated data and are followed by their respective parts.
     // When processing the results it is set to true by the constructor and once the closing tag of the
     // aggregated part is processed, it is set to false.
@@ -60,6 +96,21 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
     private CandidateTransformer candidateTransformer;
     // The transformer that will be called once for each party-, candidate result and the metadata.
     private VotesTransformer votesTransformer;
+    // The transformer that will be called with the decoded values of each party-, candidate result and the metadata.
+    private TypedVotesTransformer typedVotesTransformer;
+    // Gives each party its ordinal for the typedVotesTransformer.
+    private PartyDictionary partyDictionary;
+    // Keeps a single instance of the values that are repeated, instead of String.intern().
+    private SymbolTable symbolTable;
+    // The values decoded for the typedVotesTransformer. Each of them is decoded once, when its element is closed.
+    // The party is kept until the next affiliation, so the candidates that follow a party get its ordinal.
+    private int party = PartyDictionary.NO_PARTY;
+    private int regionNumber;
+    private long validVotes = -1;
+    private long cast = -1;
+    private long totalCounted = -1;
+    // The value of the last numeric tag that was closed, or -1.
+    private long number = -1;
 
     // Register all the known tags and known attributes.
     static {
@@ -134,6 +185,35 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
         tagsWithAttributes.put(REJECTED_VOTES, Set.of(REASON_CODE));
         tagsWithAttributes.put(REPORTING_UNIT_IDENTIFIER, Set.of(ID));
         tagsWithAttributes.put(UNCOUNTED_VOTES, Set.of(REASON_CODE));
+
+        // Give every key a fixed slot.
+        tagsWithoutAttributes.forEach(tag -> tagSlots.put(tag,
+                new TagSlots(layout.define(tag), new String[0], new int[0], new boolean[0])));
+        tagsWithAttributes.forEach((tag, attributes) -> {
+            String[] names = attributes.toArray(new String[0]);
+            int[] slots = new int[names.length];
+            boolean[] symbols = new boolean[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String key = String.format("%s-%s", tag, names[i]);
+                slots[i] = layout.define(key);
+                symbols[i] = !uniqueAttributes.contains(key);
+            }
+            tagSlots.put(tag, new TagSlots(layout.define(tag), names, slots, symbols));
+        });
+        fileNameSlot = layout.define("fileName");
+        affiliationIdSlot = layout.define(AFFILIATION_IDENTIFIER_ID);
+        registeredNameSlot = layout.define(REGISTERED_NAME);
+        candidateIdSlot = layout.define(CANDIDATE_IDENTIFIER_ID);
+        candidateShortCodeSlot = layout.define(CANDIDATE_IDENTIFIER_SHORT_CODE);
+        reportingUnitIdSlot = layout.define(REPORTING_UNIT_IDENTIFIER_ID);
+        reportingUnitNameSlot = layout.define(REPORTING_UNIT_IDENTIFIER);
+        authorityIdSlot = layout.define(AUTHORITY_IDENTIFIER_ID);
+        authorityNameSlot = layout.define(AUTHORITY_IDENTIFIER);
+    }
+
+    // The slot for the value of a tag and the slots for each of its known attributes, and whether the value of each
+    // attribute is kept in the symbol table.
+    private record TagSlots(int valueSlot, String[] attributes, int[] attributeSlots, boolean[] symbols) {
     }
 
     /**
@@ -144,6 +224,7 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
      */
     public EMLHandler(DefinitionTransformer definitionTransformer) {
         this.definitionTransformer = definitionTransformer;
+        symbolTable = new SymbolTable();
     }
 
     /**
@@ -155,6 +236,7 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
      */
     public EMLHandler(CandidateTransformer candidateTransformer) {
         this.candidateTransformer = candidateTransformer;
+        symbolTable = new SymbolTable();
     }
 
     /**
@@ -162,36 +244,115 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
      * calls the appropriate <code>registerXxxVotes</code> or the <code>registerMetadata</code>on the provided
      * <code>VotesTransformer</code>.
      *
+     * A {@link TypedVotesTransformer} can't be handled here, it needs the dictionary of its ordinals, see
+     * {@link #EMLHandler(VotesTransformer, PartyDictionary)}.
+     *
      * @param votesTransformer the <code>VotesTransformer</code> that handles the transformation of the
      *                         provided data into the data model.
+     * @throws IllegalArgumentException when the transformer is a <code>TypedVotesTransformer</code>.
      */
     public EMLHandler(VotesTransformer votesTransformer) {
+        this(checkUntyped(votesTransformer), new PartyDictionary());
+    }
+
+    /**
+     * Creates an EML Handler that can process votes files, giving the parties their ordinals in the provided
+     * dictionary. A {@link TypedVotesTransformer} gets those ordinals, so it must look them up in the same dictionary.
+     *
+     * @param votesTransformer the <code>VotesTransformer</code> that handles the transformation of the
+     *                         provided data into the data model.
+     * @param partyDictionary  the dictionary giving the parties their ordinals.
+     */
+    public EMLHandler(VotesTransformer votesTransformer, PartyDictionary partyDictionary) {
+        if (partyDictionary == null) {
+            throw new IllegalArgumentException("The party dictionary cannot be null.");
+        }
         aggregated = true;
+        setVotesTransformer(votesTransformer);
+        this.partyDictionary = partyDictionary;
+        symbolTable = new SymbolTable();
+    }
+
+    /**
+     * Creates an EML Handler for whichever of the transformers is set. It is used by the
+     * <code>DutchElectionParser</code> when it has to create a handler for each file, without knowing which kind of
+     * file is being processed. Just one of the transformers is expected to be set.
+     *
+     * @param definitionTransformer the <code>DefinitionTransformer</code> for the structure file, or <code>null</code>.
+     * @param candidateTransformer  the <code>CandidateTransformer</code> for candidate lists, or <code>null</code>.
+     * @param votesTransformer      the <code>VotesTransformer</code> for votes files, or <code>null</code>.
+     * @param partyDictionary       the dictionary giving the parties their ordinals.
+     * @param symbolTable           the symbol table of the import.
+     */
+    EMLHandler(DefinitionTransformer definitionTransformer, CandidateTransformer candidateTransformer,
+               VotesTransformer votesTransformer, PartyDictionary partyDictionary, SymbolTable symbolTable) {
+        this.definitionTransformer = definitionTransformer;
+        this.candidateTransformer = candidateTransformer;
+        setVotesTransformer(votesTransformer);
+        this.partyDictionary = partyDictionary;
+        this.symbolTable = symbolTable;
+        aggregated = votesTransformer != null;
+    }
+
+    /**
+     * Creates an EML Handler for votes files that calls both kinds of votes transformers, either of them may be
+     * <code>null</code>. It is used by the <code>DutchElectionParser</code> when the calls are recorded for
+     * transformers of both kinds.
+     *
+     * @param votesTransformer      the transformer that gets the <code>electionData</code> map.
+     * @param typedVotesTransformer the transformer that gets the decoded values.
+     * @param partyDictionary       the dictionary giving the parties their ordinals.
+     * @param symbolTable           the symbol table of the import.
+     */
+    EMLHandler(VotesTransformer votesTransformer, TypedVotesTransformer typedVotesTransformer,
+               PartyDictionary partyDictionary, SymbolTable symbolTable) {
         this.votesTransformer = votesTransformer;
+        this.typedVotesTransformer = typedVotesTransformer;
+        this.partyDictionary = partyDictionary;
+        this.symbolTable = symbolTable;
+        aggregated = true;
+    }
+
+    // The ordinals of a dictionary the caller never sees would point to the wrong parties.
+    private static VotesTransformer checkUntyped(VotesTransformer votesTransformer) {
+        if (votesTransformer instanceof TypedVotesTransformer) {
+            throw new IllegalArgumentException("A TypedVotesTransformer needs the PartyDictionary of its ordinals.");
+        }
+        return votesTransformer;
+    }
+
+    // A typed transformer gets the decoded values instead of the map.
+    private void setVotesTransformer(VotesTransformer votesTransformer) {
+        if (votesTransformer instanceof TypedVotesTransformer typed) {
+            typedVotesTransformer = typed;
+        } else {
+            this.votesTransformer = votesTransformer;
+        }
     }
 
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        elementCount++;
         // Pre-processing
         switch (localName) {
             case REGION:
             case COMMITTEE:
-                savedElectionData.push(electionData);
-                electionData = new HashMap<>(electionData);
+                frames.push();
                 registerRegion = REGION.equals(localName);
         }
 
         // Tag processing
         if (tagsWithAttributes.containsKey(localName)) {
             // Save all the attributes and their values.
-            Set<String> knownAttributes = tagsWithAttributes.get(localName);
-            validateAttributes(localName, attributes, knownAttributes);
-            knownAttributes.forEach(name -> {
-                String attributeValue = attributes.getValue(name);
+            validateAttributes(localName, attributes, tagsWithAttributes.get(localName));
+            TagSlots slots = tagSlots.get(localName);
+            for (int i = 0; i < slots.attributes().length; i++) {
+                String attributeValue = attributes.getValue(slots.attributes()[i]);
                 if (attributeValue != null) {
-                    electionData.put(String.format("%s-%s", localName, name).intern(), attributeValue.intern());
+                    frames.put(slots.attributeSlots()[i],
+                            slots.symbols()[i] ? symbolTable.symbol(attributeValue) : attributeValue);
                 }
-            });
+            }
         } else if (!tagsWithoutAttributes.contains(localName)) {
             // TODO replace with proper usage of a logging framework or exceptions
             System.err.println("Ignoring unknown start tag: " + localName);
@@ -202,27 +363,28 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
         switch (localName) {
             case COMMITTEE:
                 definitionTransformer.registerRegion(electionData);
-                electionData = savedElectionData.pop();
+                frames.pop();
                 break;
             case CANDIDATE:
                 // Ignore this when processing votes
                 if (candidateTransformer != null) {
-                    savedElectionData.push(electionData);
-                    electionData = new HashMap<>(electionData);
+                    frames.push();
                 }
                 break;
             // Fall-through is used on purpose!
             case TOTAL_VOTES:
                 aggregated = true;
+            case REPORTING_UNIT_VOTES:
+                cast = -1;
+                totalCounted = -1;
             case ELECTION_TREE:
             case REGISTERED_PARTY:
             case AFFILIATION: // Only appears in candidates lists
             case SELECTION: // Only appears in vote lists
-            case REPORTING_UNIT_VOTES:
-                // Save the current state of the information so far and create a copy that will be used
-                // until it's closing tag is found.
-                savedElectionData.push(electionData);
-                electionData = new HashMap<>(electionData);
+                validVotes = -1;
+                // Start a new frame on top of the information so far that will be used until it's closing tag
+                // is found.
+                frames.push();
                 break;
         }
     }
@@ -239,9 +401,9 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
         // Tag processing
         if (tagsWithoutAttributes.contains(localName)) {
             // Just register the value and the tag
-            String value = text.toString().trim();
-            if (!value.isBlank()) {
-                electionData.put(localName.intern(), value.intern());
+            String value = textValue(localName);
+            if (value != null) {
+                frames.put(tagSlots.get(localName).valueSlot(), value);
             }
         } else if (tagsWithAttributes.containsKey(localName)) {
             // Some tags need special processing
@@ -249,18 +411,21 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
                 case REJECTED_VOTES:
                 case UNCOUNTED_VOTES:
                     // We need the value of the attribute ReasonCode as part of the actual key
-                    String reasonCode = String.format("%s-%s", localName, REASON_CODE);
-                    String reasonCodeKey = electionData.remove(reasonCode);
-                    String count = text.toString().trim();
-                    if (!count.isBlank()) {
-                        electionData.put(String.format("%s-%s", localName, reasonCodeKey).intern(), count.intern());
+                    String reasonCodeKey = frames.remove(tagSlots.get(localName).attributeSlots()[0]);
+                    String count = textValue(localName);
+                    if (count != null) {
+                        frames.put(reasonCodeSlot(localName, reasonCodeKey), count);
+                        if (typedVotesTransformer != null && reasonCodeKey != null && number >= 0) {
+                            typedVotesTransformer.registerReasonVotes(aggregated, REJECTED_VOTES.equals(localName),
+                                    reasonCodeKey, number, frames.get(reportingUnitIdSlot), regionNumber);
+                        }
                     }
                     break;
                 default:
                     // Add the value using the tag name
-                    String value = text.toString().trim();
-                    if (!value.isBlank()) {
-                        electionData.put(localName.intern(), value.intern());
+                    String value = textValue(localName);
+                    if (value != null) {
+                        frames.put(tagSlots.get(localName).valueSlot(), value);
                     }
             }
         } else {
@@ -271,6 +436,9 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
         // Post-processing
         // Reset the text buffer. It has been saved into a String variable if needed by the time this line is executed.
         text.setLength(0);
+        if (typedVotesTransformer != null) {
+            decode(localName);
+        }
         // Depending on the exact tag different transformer methods will be called.and/or the previous state is being
         // restored.
         switch (localName) {
@@ -279,37 +447,144 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
                     definitionTransformer.registerRegion(electionData);
                     registerRegion = false;
                 }
-                electionData = savedElectionData.pop();
+                frames.pop();
                 break;
             case REGISTERED_PARTY:
                 definitionTransformer.registerParty(electionData);
-                electionData = savedElectionData.pop();
+                frames.pop();
                 break;
             case CANDIDATE:
                 // Ignore this when processing votes
                 if (candidateTransformer != null) {
                     candidateTransformer.registerCandidate(electionData);
-                    electionData = savedElectionData.pop();
+                    frames.pop();
                 }
                 break;
             case SELECTION:
                 // Only appears in votes lists
-                if (electionData.containsKey(CANDIDATE_IDENTIFIER_ID) || electionData.containsKey(CANDIDATE_IDENTIFIER_SHORT_CODE)) {
-                    votesTransformer.registerCandidateVotes(aggregated, electionData);
+                String candidate = frames.get(candidateIdSlot) != null ? frames.get(candidateIdSlot) : frames.get(candidateShortCodeSlot);
+                String reportingUnit = frames.get(reportingUnitIdSlot);
+                if (candidate != null) {
+                    if (votesTransformer != null) {
+                        votesTransformer.registerCandidateVotes(aggregated, electionData);
+                    }
+                    if (typedVotesTransformer != null) {
+                        typedVotesTransformer.registerCandidateVotes(aggregated, party, candidate, validVotes, reportingUnit, regionNumber);
+                    }
                 } else {
-                    votesTransformer.registerPartyVotes(aggregated, electionData);
+                    if (votesTransformer != null) {
+                        votesTransformer.registerPartyVotes(aggregated, electionData);
+                    }
+                    if (typedVotesTransformer != null) {
+                        typedVotesTransformer.registerPartyVotes(aggregated, party, validVotes, reportingUnit, regionNumber);
+                    }
                 }
-                electionData = savedElectionData.pop();
+                frames.pop();
                 break;
             case TOTAL_VOTES:
             case REPORTING_UNIT_VOTES:
-                votesTransformer.registerMetadata(aggregated, electionData);
+                if (votesTransformer != null) {
+                    votesTransformer.registerMetadata(aggregated, electionData);
+                }
+                if (typedVotesTransformer != null) {
+                    typedVotesTransformer.registerMetadata(aggregated, cast, totalCounted, frames.get(reportingUnitIdSlot), regionNumber);
+                }
                 if (TOTAL_VOTES.equals(localName)) {
                     aggregated = false;
                 }
-                electionData = savedElectionData.pop();
+                frames.pop();
+                break;
+        }
+    }
+
+    /**
+     * Keeps the values the <code>TypedVotesTransformer</code> needs, once the element containing them is closed.
+     */
+    private void decode(String localName) {
+        switch (localName) {
+            case AFFILIATION_IDENTIFIER:
+                party = partyDictionary.ordinalOf(frames.get(affiliationIdSlot), frames.get(registeredNameSlot));
                 break;
+            case REPORTING_UNIT_IDENTIFIER:
+                typedVotesTransformer.registerReportingUnit(frames.get(reportingUnitIdSlot),
+                        frames.get(reportingUnitNameSlot));
+                break;
+            case AUTHORITY_IDENTIFIER:
+                typedVotesTransformer.registerAuthority(frames.get(authorityIdSlot), frames.get(authorityNameSlot));
+                break;
+            case CONTEST_IDENTIFIER:
+                String contestId = electionData.get(CONTEST_IDENTIFIER_ID);
+                long contestNumber = contestId == null ? -1 : NumericText.parse(contestId, 0, contestId.length());
+                regionNumber = contestNumber < 0 || contestNumber > Integer.MAX_VALUE ? 0 : (int) contestNumber;
+                break;
+            case VALID_VOTES:
+                validVotes = number;
+                break;
+            case CAST:
+                cast = number;
+                break;
+            case TOTAL_COUNTED:
+                totalCounted = number;
+                break;
+        }
+    }
+
+    /**
+     * Returns the slot of the key that combines the tag with the reason code, like
+     * <code>RejectedVotes-blanco</code>. The slot is looked up by the reason code, so the key is only built once.
+     */
+    private int reasonCodeSlot(String localName, String reasonCode) {
+        Map<String, Integer> slots = REJECTED_VOTES.equals(localName) ? rejectedVotesSlots : uncountedVotesSlots;
+        Integer slot = slots.get(reasonCode);
+        if (slot == null) {
+            slot = frames.dynamicSlot(String.format("%s-%s", localName, reasonCode));
+            slots.put(reasonCode, slot);
         }
+        return slot;
+    }
+
+    /**
+     * Returns the trimmed text of the tag that is being closed. The text is taken directly from the buffer, numbers
+     * are decoded without creating any intermediate {@link String}. The values of the tags that repeat the same few
+     * values, like the names of the parties, come from the symbol table.
+     *
+     * @param localName the name of the tag that is being closed.
+     * @return the value of the tag, or <code>null</code> when it's blank.
+     */
+    private String textValue(String localName) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        number = -1;
+        if (start == end) {
+            return null;
+        }
+        if (numericTags.contains(localName)) {
+            number = NumericText.parse(text, start, end);
+            if (number >= 0) {
+                return NumericText.valueOf(number, text, start, end);
+            }
+        }
+        String value = text.substring(start, end);
+        if (value.isBlank()) {
+            return null;
+        }
+        return symbolTags.contains(localName) ? symbolTable.symbol(value) : value;
+    }
+
+    /**
+     * Tells whether a tag is processed by this handler. The content of any other tag is ignored.
+     *
+     * @param localName the name of the tag without its namespace prefix.
+     * @return <code>true</code> if the tag is known.
+     */
+    static boolean isKnownTag(String localName) {
+        return tagsWithoutAttributes.contains(localName) || tagsWithAttributes.containsKey(localName);
     }
 
     private void validateAttributes(String localName, Attributes attributes, Set<String> knownAttributes) {
@@ -322,6 +597,13 @@ public class EMLHandler extends DefaultHandler implements TagAndAttributeNames {
     }
 
     public void setFileName(String fileName) {
-        electionData.put("fileName", fileName.substring(fileName.lastIndexOf(File.separatorChar) + 1));
+        frames.put(fileNameSlot, fileName.substring(fileName.lastIndexOf(File.separatorChar) + 1));
+    }
+
+    /**
+     * @return the number of start tags this handler has processed so far, over all the files.
+     */
+    public long getElementCount() {
+        return elementCount;
     }
 }
@@ -0,0 +1,256 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Storage for the <code>electionData</code> of an {@link EMLHandler}. Instead of a map per level, every key gets a
+ * fixed slot in a single array of values. The slots of all the known tags and attributes are worked out once by the
+ * {@link Layout}. Keys that can only be known while parsing, like the reason codes of rejected votes, get a slot the
+ * first time they are seen.<br/>
+ * <br/>
+ * Repeating tags open a new frame on top of the current one with {@link #push()}. A frame doesn't copy anything, it
+ * just remembers the previous value of every slot it changes. When the frame is closed with {@link #pop()} those
+ * values are put back, so the parent frame is exactly as it was before. Opening and closing a frame therefore
+ * doesn't allocate anything once the internal arrays are large enough.<br/>
+ * <br/>
+ * The transformers get to see the values through the read-only {@link Map} returned by {@link #view()}. That map
+ * always reflects the current frame. It must not be kept after the transformer method returns, a copy has to be
+ * made if the data is needed later.
+ */
+final class ElectionDataFrames {
+    /**
+     * The fixed slots of all the keys that are known up front. It is built once and shared by all frames.
+     */
+    static final class Layout {
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+
+        /**
+         * Returns the slot of the key, giving it the next free slot if it hasn't got one yet.
+         *
+         * @param key the key as it is used in <code>electionData</code>.
+         * @return the slot of the key.
+         */
+        int define(String key) {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = keys.size();
+                slots.put(key, slot);
+                keys.add(key);
+            }
+            return slot;
+        }
+    }
+
+    private final Layout layout;
+    // Slots of the keys that were not known up front, numbered after the slots of the layout.
+    private final Map<String, Integer> dynamicSlots = new HashMap<>();
+    private final List<String> dynamicKeys = new ArrayList<>();
+    // The current value of every slot, null when there is no value.
+    private String[] values;
+    private int size;
+    // The slots changed by the open frames and their previous values.
+    private int[] trailSlots = new int[64];
+    private String[] trailValues = new String[64];
+    private int trailSize;
+    // The size of the trail at the moment each open frame was pushed.
+    private int[] frames = new int[16];
+    private int depth;
+    private final Map<String, String> view = new View();
+
+    ElectionDataFrames(Layout layout) {
+        this.layout = layout;
+        this.values = new String[layout.keys.size() + 8];
+    }
+
+    /**
+     * Returns the slot of a key that was not known up front, giving it a new slot the first time.
+     *
+     * @param key the key as it is used in <code>electionData</code>.
+     * @return the slot of the key.
+     */
+    int dynamicSlot(String key) {
+        Integer slot = layout.slots.get(key);
+        if (slot == null) {
+            slot = dynamicSlots.get(key);
+        }
+        if (slot == null) {
+            slot = layout.keys.size() + dynamicKeys.size();
+            dynamicSlots.put(key, slot);
+            dynamicKeys.add(key);
+            if (slot >= values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Sets the value of a slot in the current frame.
+     *
+     * @param slot  the slot of the key.
+     * @param value the new value.
+     */
+    void put(int slot, String value) {
+        set(slot, value);
+    }
+
+    /**
+     * Clears a slot in the current frame.
+     *
+     * @param slot the slot of the key.
+     * @return the value the slot had.
+     */
+    String remove(int slot) {
+        return set(slot, null);
+    }
+
+    /**
+     * Returns the current value of a slot.
+     *
+     * @param slot the slot of the key.
+     * @return the value or <code>null</code>.
+     */
+    String get(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Opens a new frame on top of the current one.
+     */
+    void push() {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        frames[depth++] = trailSize;
+    }
+
+    /**
+     * Closes the current frame, all the slots it changed get their previous values back.
+     */
+    void pop() {
+        int start = frames[--depth];
+        while (trailSize > start) {
+            trailSize--;
+            int slot = trailSlots[trailSize];
+            restore(slot, trailValues[trailSize]);
+            trailValues[trailSize] = null;
+        }
+    }
+
+    /**
+     * @return a read-only view on the values of the current frame.
+     */
+    Map<String, String> view() {
+        return view;
+    }
+
+    private String set(int slot, String value) {
+        String previous = values[slot];
+        if (previous == value) {
+            return previous;
+        }
+        // The values outside any frame never have to be restored.
+        if (depth > 0) {
+            if (trailSize == trailSlots.length) {
+                trailSlots = Arrays.copyOf(trailSlots, trailSize * 2);
+                trailValues = Arrays.copyOf(trailValues, trailSize * 2);
+            }
+            trailSlots[trailSize] = slot;
+            trailValues[trailSize] = previous;
+            trailSize++;
+        }
+        restore(slot, value);
+        return previous;
+    }
+
+    private void restore(int slot, String value) {
+        if (values[slot] == null && value != null) {
+            size++;
+        } else if (values[slot] != null && value == null) {
+            size--;
+        }
+        values[slot] = value;
+    }
+
+    private int slotOf(Object key) {
+        Integer slot = layout.slots.get(key);
+        if (slot == null) {
+            slot = dynamicSlots.get(key);
+        }
+        return slot == null ? -1 : slot;
+    }
+
+    private String keyOf(int slot) {
+        int fixed = layout.keys.size();
+        return slot < fixed ? layout.keys.get(slot) : dynamicKeys.get(slot - fixed);
+    }
+
+    private class View extends AbstractMap<String, String> {
+        private final Set<Entry<String, String>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int slot = nextSlot(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry = new SimpleImmutableEntry<>(keyOf(slot), values[slot]);
+                        slot = nextSlot(slot + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+
+        private int nextSlot(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public String get(Object key) {
+            int slot = slotOf(key);
+            return slot < 0 ? null : values[slot];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return entrySet;
+        }
+    }
+}
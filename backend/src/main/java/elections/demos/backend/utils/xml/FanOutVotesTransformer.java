@@ -0,0 +1,143 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands every call of an {@link EMLHandler} to several votes transformers at once, as soon as the call is made. This
+ * is what allows the {@link DutchElectionParser} to parse a file only once when more than one votes transformer
+ * needs it, like the party and the national votes transformers that both read the <code>Totaaltelling</code> file.
+ * <br/>
+ * <br/>
+ * The calls taking a map are only handed to the transformers that implement just {@link VotesTransformer}, the
+ * calls with the decoded values only to the {@link TypedVotesTransformer}s. The map is passed on as it is, so it is
+ * only valid during the call, just like it is for a single transformer.
+ */
+class FanOutVotesTransformer implements TypedVotesTransformer {
+    private final VotesTransformer[] votesTransformers;
+    private final TypedVotesTransformer[] typedVotesTransformers;
+
+    private FanOutVotesTransformer(List<VotesTransformer> votesTransformers,
+                                   List<TypedVotesTransformer> typedVotesTransformers) {
+        this.votesTransformers = votesTransformers.toArray(new VotesTransformer[0]);
+        this.typedVotesTransformers = typedVotesTransformers.toArray(new TypedVotesTransformer[0]);
+    }
+
+    /**
+     * @param votesTransformers the transformers that should all get the calls.
+     * @return <code>null</code> when there are no transformers, the transformer itself when there is just one,
+     * otherwise a transformer handing the calls to each of them.
+     */
+    static VotesTransformer of(VotesTransformer... votesTransformers) {
+        if (votesTransformers.length == 0) {
+            return null;
+        }
+        if (votesTransformers.length == 1) {
+            return votesTransformers[0];
+        }
+        List<VotesTransformer> untyped = new ArrayList<>();
+        List<TypedVotesTransformer> typed = new ArrayList<>();
+        for (VotesTransformer votesTransformer : votesTransformers) {
+            if (votesTransformer instanceof TypedVotesTransformer typedVotesTransformer) {
+                typed.add(typedVotesTransformer);
+            } else {
+                untyped.add(votesTransformer);
+            }
+        }
+        return new FanOutVotesTransformer(untyped, typed);
+    }
+
+    /**
+     * @param votesTransformer the transformer that gets the calls of a handler.
+     * @return <code>true</code> when the transformer, or one of those it hands the calls to, needs the
+     * <code>electionData</code> maps.
+     */
+    static boolean needsMaps(VotesTransformer votesTransformer) {
+        if (votesTransformer instanceof FanOutVotesTransformer fanOut) {
+            return fanOut.votesTransformers.length > 0;
+        }
+        return !(votesTransformer instanceof TypedVotesTransformer);
+    }
+
+    /**
+     * @param votesTransformer the transformer that gets the calls of a handler.
+     * @return <code>true</code> when the transformer, or one of those it hands the calls to, needs the decoded
+     * values.
+     */
+    static boolean needsDecodedValues(VotesTransformer votesTransformer) {
+        if (votesTransformer instanceof FanOutVotesTransformer fanOut) {
+            return fanOut.typedVotesTransformers.length > 0;
+        }
+        return votesTransformer instanceof TypedVotesTransformer;
+    }
+
+    @Override
+    public void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
+        for (VotesTransformer votesTransformer : votesTransformers) {
+            votesTransformer.registerPartyVotes(aggregated, electionData);
+        }
+    }
+
+    @Override
+    public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
+        for (VotesTransformer votesTransformer : votesTransformers) {
+            votesTransformer.registerCandidateVotes(aggregated, electionData);
+        }
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
+        for (VotesTransformer votesTransformer : votesTransformers) {
+            votesTransformer.registerMetadata(aggregated, electionData);
+        }
+    }
+
+    @Override
+    public void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit,
+                                   int regionNumber) {
+        for (TypedVotesTransformer typedVotesTransformer : typedVotesTransformers) {
+            typedVotesTransformer.registerPartyVotes(aggregated, party, validVotes, reportingUnit, regionNumber);
+        }
+    }
+
+    @Override
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
+        for (TypedVotesTransformer typedVotesTransformer : typedVotesTransformers) {
+            typedVotesTransformer.registerCandidateVotes(aggregated, party, candidate, validVotes, reportingUnit,
+                    regionNumber);
+        }
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
+        for (TypedVotesTransformer typedVotesTransformer : typedVotesTransformers) {
+            typedVotesTransformer.registerMetadata(aggregated, cast, totalCounted, reportingUnit, regionNumber);
+        }
+    }
+
+    @Override
+    public void registerReportingUnit(String reportingUnit, String name) {
+        for (TypedVotesTransformer typedVotesTransformer : typedVotesTransformers) {
+            typedVotesTransformer.registerReportingUnit(reportingUnit, name);
+        }
+    }
+
+    @Override
+    public void registerAuthority(String authority, String name) {
+        for (TypedVotesTransformer typedVotesTransformer : typedVotesTransformers) {
+            typedVotesTransformer.registerAuthority(authority, name);
+        }
+    }
+
+    @Override
+    public void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                    String reportingUnit, int regionNumber) {
+        for (TypedVotesTransformer typedVotesTransformer : typedVotesTransformers) {
+            typedVotesTransformer.registerReasonVotes(aggregated, rejected, reasonCode, votes, reportingUnit,
+                    regionNumber);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package elections.demos.backend.utils.xml;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event marking a phase of an import, like parsing the files with a certain prefix or saving
+ * the election. In a recording the phases show up on the timeline of the thread running the import, next to the
+ * allocations and garbage collections they caused. The event costs next to nothing when no recording is running.
+ */
+@Name("elections.ImportPhase")
+@Label("Import Phase")
+@Category({"Elections", "Import"})
+@Description("A phase of importing the EML files of an election")
+public class ImportPhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Files")
+    public int files;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Starts timing a phase, {@link #end()} and {@link #commit()} finish it.
+     *
+     * @param phase what is being done, like the prefix of the files that are parsed.
+     * @return the started event.
+     */
+    public static ImportPhaseEvent start(String phase) {
+        ImportPhaseEvent event = new ImportPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,72 @@
+package elections.demos.backend.utils.xml;
+
+/**
+ * Helper for the text of tags that always contain a whole number, like <code>ValidVotes</code> and
+ * <code>Cast</code>. Most of these numbers, certainly at the level of a polling station, are small. For those the
+ * same {@link String} instance is handed out every time, so no new String has to be created.
+ */
+final class NumericText {
+    // Numbers below this value are served from the cache.
+    private static final int CACHE_SIZE = 10_000;
+    private static final String[] cache = new String[CACHE_SIZE];
+
+    static {
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            cache[i] = Integer.toString(i);
+        }
+    }
+
+    private NumericText() {
+    }
+
+    /**
+     * Decodes the digits between <code>start</code> and <code>end</code>.
+     *
+     * @param text  the characters containing the number.
+     * @param start the index of the first digit.
+     * @param end   the index after the last digit.
+     * @return the value, or -1 when the characters are not a plain non-negative number without leading zeros.
+     */
+    static long parse(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length > 18 || (length > 1 && text.charAt(start) == '0')) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number between <code>start</code> and <code>end</code> as a String, without creating a new one
+     * when the number is small.
+     *
+     * @param text  the characters containing the number.
+     * @param start the index of the first digit.
+     * @param end   the index after the last digit.
+     * @return the number as a String, or <code>null</code> when the characters are not a plain number.
+     */
+    static String valueOf(CharSequence text, int start, int end) {
+        long value = parse(text, start, end);
+        return value < 0 ? null : valueOf(value, text, start, end);
+    }
+
+    /**
+     * Returns the number that has already been decoded by {@link #parse(CharSequence, int, int)} as a String.
+     *
+     * @param value the decoded value, not negative.
+     * @param text  the characters containing the number.
+     * @param start the index of the first digit.
+     * @param end   the index after the last digit.
+     * @return the number as a String.
+     */
+    static String valueOf(long value, CharSequence text, int start, int end) {
+        return value < CACHE_SIZE ? cache[(int) value] : text.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,70 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.ElectionManifest;
+
+/**
+ * Receives the measurements of the {@link DutchElectionParser}, so the throughput of an import can be monitored
+ * without the parser knowing about any metrics library. All methods have an empty default implementation, an
+ * implementation only overrides what it is interested in.<br/>
+ * <br/>
+ * When files are parsed in parallel, {@link #fileParsed} is called by the worker threads, so an implementation must
+ * be thread-safe. The callbacks of the transformers are always timed on the calling thread.
+ */
+public interface ParserMetrics {
+    /**
+     * Measures nothing, the default of the parser.
+     */
+    ParserMetrics NONE = new ParserMetrics() {
+    };
+
+    /**
+     * The methods of a {@link VotesTransformer} that are timed.
+     */
+    enum Callback {
+        PARTY_VOTES,
+        CANDIDATE_VOTES,
+        METADATA
+    }
+
+    /**
+     * Called once a file has been parsed completely.
+     *
+     * @param type     the kind of data in the file, <code>null</code> when the name is not recognized.
+     * @param bytes    the size of the file, for an entry of an archive the size after inflating it.
+     * @param elements the number of elements that have been processed.
+     * @param nanos    the time it took to parse the file. It includes the calls to the transformers, unless those
+     *                 are buffered and made afterward, like when files are parsed in parallel.
+     */
+    default void fileParsed(ElectionManifest.FileType type, long bytes, long elements, long nanos) {
+    }
+
+    /**
+     * Tells whether the calls to the votes transformers should be timed. Timing them costs two calls to
+     * {@link System#nanoTime()} for every call, so it is only done when asked for.
+     *
+     * @return <code>true</code> if {@link #callbackTimed} should be called.
+     */
+    default boolean timesCallbacks() {
+        return false;
+    }
+
+    /**
+     * Called after each call to a votes transformer, when {@link #timesCallbacks()} returns <code>true</code>.
+     *
+     * @param callback the method of the transformer that has been called.
+     * @param nanos    the time the transformer took.
+     */
+    default void callbackTimed(Callback callback, long nanos) {
+    }
+
+    /**
+     * Called once all the files of an import have been parsed, with what the {@link SymbolTable} did for them. The
+     * numbers only count the values of this import, also when the table is shared with earlier ones.
+     *
+     * @param hits      the number of values for which an instance of the table was used.
+     * @param misses    the number of values that were added to the table.
+     * @param overflows the number of values that weren't kept, because the table was full or the value too long.
+     */
+    default void symbolsCounted(long hits, long misses, long overflows) {
+    }
+}
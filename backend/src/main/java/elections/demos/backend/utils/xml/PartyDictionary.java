@@ -0,0 +1,132 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every party of an election a dense ordinal, starting at 0. The ordinals are handed out in the order the
+ * parties are first seen. That is the order of the registered parties in the election definition
+ * (Verkiezingsdefinitie), which is parsed before any other file, see {@link #register(String)}. Parties that are not
+ * in the definition get the next ordinals in the order of the affiliations in the votes files. The same dictionary
+ * has to be used for all the files of an import, otherwise the ordinals of the different files don't match.<br/>
+ * <br/>
+ * A party is identified by the <code>Id</code> of its <code>AffiliationIdentifier</code>, or by its registered name
+ * when there is no id. The definition only has the names, so a party registered from the definition keeps its
+ * ordinal when it shows up in a votes file with an id and the same name. The {@link EMLHandler} looks up each party once per affiliation and hands the ordinal to the
+ * {@link TypedVotesTransformer}, which can use it as an index into a plain array.<br/>
+ * <br/>
+ * The dictionary can be used by several worker threads at the same time.
+ */
+public class PartyDictionary {
+    /**
+     * The ordinal used when no party is known.
+     */
+    public static final int NO_PARTY = -1;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final List<String> partyIds = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    // The ordinals of the parties that are only known by their name, until their id is seen
+    private final BitSet withoutId = new BitSet();
+
+    /**
+     * Returns the ordinal of a party, giving it the next free ordinal when it is seen for the first time.
+     *
+     * @param partyId the id of the party, like <code>1</code>, may be <code>null</code> when there is a name.
+     * @param name    the registered name of the party, like <code>VVD</code>, may be <code>null</code>.
+     * @return the ordinal of the party, or {@link #NO_PARTY} when both the id and the name are missing.
+     */
+    public int ordinalOf(String partyId, String name) {
+        String key = partyId != null ? partyId : name;
+        if (key == null) {
+            return NO_PARTY;
+        }
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (this) {
+            ordinal = ordinals.get(key);
+            if (ordinal == null && partyId != null && name != null) {
+                // A party of the definition, now seen with its id
+                Integer registered = ordinals.get(name.trim());
+                if (registered != null && withoutId.get(registered)) {
+                    ordinal = registered;
+                    withoutId.clear(ordinal);
+                    partyIds.set(ordinal, partyId);
+                    ordinals.put(partyId, ordinal);
+                    return ordinal;
+                }
+            }
+            if (ordinal == null) {
+                ordinal = partyIds.size();
+                partyIds.add(key);
+                names.add(name);
+                ordinals.put(key, ordinal);
+            } else if (name != null && names.get(ordinal) == null) {
+                names.set(ordinal, name);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Registers a party of the election definition, which only has the registered name (RegisteredAppellation) of
+     * each party. The parties get their ordinals in the order of the definition, the id is added once a votes file
+     * names the party by its id, see {@link #ordinalOf(String, String)}.
+     *
+     * @param name the registered name of the party, like <code>VVD</code>.
+     * @return the ordinal of the party, or {@link #NO_PARTY} when the name is blank.
+     */
+    public int register(String name) {
+        if (name == null || name.isBlank()) {
+            return NO_PARTY;
+        }
+        String trimmed = name.trim();
+        synchronized (this) {
+            boolean known = ordinals.containsKey(trimmed);
+            int ordinal = ordinalOf(null, trimmed);
+            if (!known) {
+                withoutId.set(ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Returns the ordinal of a party that has been seen before.
+     *
+     * @param partyId the id, or the name when there is no id, of the party.
+     * @return the ordinal of the party, or {@link #NO_PARTY} when it is unknown.
+     */
+    public int find(String partyId) {
+        Integer ordinal = partyId == null ? null : ordinals.get(partyId);
+        return ordinal == null ? NO_PARTY : ordinal;
+    }
+
+    /**
+     * @param ordinal the ordinal of the party.
+     * @return the id of the party, or its name when it had no id.
+     */
+    public synchronized String partyId(int ordinal) {
+        return partyIds.get(ordinal);
+    }
+
+    /**
+     * @param ordinal the ordinal of the party.
+     * @return the registered name of the party, or <code>null</code> when no name has been seen.
+     */
+    public synchronized String name(int ordinal) {
+        return names.get(ordinal);
+    }
+
+    /**
+     * @return the number of parties, all the ordinals are lower than this number.
+     */
+    public synchronized int size() {
+        return partyIds.size();
+    }
+}
@@ -0,0 +1,159 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers all the calls an {@link EMLHandler} makes while processing a single file, so they can be replayed later
+ * on the real transformers. This is what allows the {@link DutchElectionParser} to parse several files at the same
+ * time on worker threads, while the transformers themselves are still called from one thread, file by file, in the
+ * same order as a sequential run would call them.<br/>
+ * <br/>
+ * Each call is stored together with a copy of <code>electionData</code>, the handler is free to change its own
+ * state once the call returns. The calls with the decoded values of a {@link TypedVotesTransformer} are stored as
+ * well. Those are only replayed on a typed transformer, like the {@link FanOutVotesTransformer} that hands them to
+ * several transformers.
+ */
+class RecordingTransformer implements DefinitionTransformer, CandidateTransformer, TypedVotesTransformer {
+    private enum Kind {
+        REGION, PARTY, CANDIDATE, PARTY_VOTES, CANDIDATE_VOTES, METADATA
+    }
+
+    // A recorded call, with the arguments of the method that was called.
+    private sealed interface Call {
+    }
+
+    private record MapCall(Kind kind, boolean aggregated, Map<String, String> electionData) implements Call {
+        MapCall {
+            electionData = Map.copyOf(electionData);
+        }
+    }
+
+    private record PartyVotesCall(boolean aggregated, int party, long validVotes, String reportingUnit,
+                                  int regionNumber) implements Call {
+    }
+
+    private record CandidateVotesCall(boolean aggregated, int party, String candidate, long validVotes,
+                                      String reportingUnit, int regionNumber) implements Call {
+    }
+
+    private record MetadataCall(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                int regionNumber) implements Call {
+    }
+
+    private record ReportingUnitCall(String reportingUnit, String name) implements Call {
+    }
+
+    private record AuthorityCall(String authority, String name) implements Call {
+    }
+
+    private record ReasonVotesCall(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                   String reportingUnit, int regionNumber) implements Call {
+    }
+
+    private final List<Call> calls = new ArrayList<>();
+
+    @Override
+    public void registerRegion(Map<String, String> electionData) {
+        calls.add(new MapCall(Kind.REGION, false, electionData));
+    }
+
+    @Override
+    public void registerParty(Map<String, String> electionData) {
+        calls.add(new MapCall(Kind.PARTY, false, electionData));
+    }
+
+    @Override
+    public void registerCandidate(Map<String, String> electionData) {
+        calls.add(new MapCall(Kind.CANDIDATE, false, electionData));
+    }
+
+    @Override
+    public void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
+        calls.add(new MapCall(Kind.PARTY_VOTES, aggregated, electionData));
+    }
+
+    @Override
+    public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
+        calls.add(new MapCall(Kind.CANDIDATE_VOTES, aggregated, electionData));
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
+        calls.add(new MapCall(Kind.METADATA, aggregated, electionData));
+    }
+
+    @Override
+    public void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit,
+                                   int regionNumber) {
+        calls.add(new PartyVotesCall(aggregated, party, validVotes, reportingUnit, regionNumber));
+    }
+
+    @Override
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
+        calls.add(new CandidateVotesCall(aggregated, party, candidate, validVotes, reportingUnit, regionNumber));
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
+        calls.add(new MetadataCall(aggregated, cast, totalCounted, reportingUnit, regionNumber));
+    }
+
+    @Override
+    public void registerReportingUnit(String reportingUnit, String name) {
+        calls.add(new ReportingUnitCall(reportingUnit, name));
+    }
+
+    @Override
+    public void registerAuthority(String authority, String name) {
+        calls.add(new AuthorityCall(authority, name));
+    }
+
+    @Override
+    public void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                    String reportingUnit, int regionNumber) {
+        calls.add(new ReasonVotesCall(aggregated, rejected, reasonCode, votes, reportingUnit, regionNumber));
+    }
+
+    /**
+     * Calls the given transformers in exactly the same order as the calls were recorded. Only one kind of
+     * transformer is expected to be set, just like an {@link EMLHandler} only ever calls one of them.
+     *
+     * @param definitionTransformer the transformer receiving the region and party calls.
+     * @param candidateTransformer  the transformer receiving the candidate calls.
+     * @param votesTransformer      the transformer receiving the votes and metadata calls.
+     */
+    void replay(DefinitionTransformer definitionTransformer, CandidateTransformer candidateTransformer,
+                VotesTransformer votesTransformer) {
+        // The calls with the decoded values are only recorded when the votes transformer is a typed one
+        TypedVotesTransformer typed = votesTransformer instanceof TypedVotesTransformer t ? t : null;
+        for (Call call : calls) {
+            switch (call) {
+                case MapCall c -> {
+                    switch (c.kind()) {
+                        case REGION -> definitionTransformer.registerRegion(c.electionData());
+                        case PARTY -> definitionTransformer.registerParty(c.electionData());
+                        case CANDIDATE -> candidateTransformer.registerCandidate(c.electionData());
+                        case PARTY_VOTES -> votesTransformer.registerPartyVotes(c.aggregated(), c.electionData());
+                        case CANDIDATE_VOTES -> votesTransformer.registerCandidateVotes(c.aggregated(), c.electionData());
+                        case METADATA -> votesTransformer.registerMetadata(c.aggregated(), c.electionData());
+                    }
+                }
+                case PartyVotesCall c -> typed.registerPartyVotes(c.aggregated(), c.party(), c.validVotes(),
+                        c.reportingUnit(), c.regionNumber());
+                case CandidateVotesCall c -> typed.registerCandidateVotes(c.aggregated(), c.party(), c.candidate(),
+                        c.validVotes(), c.reportingUnit(), c.regionNumber());
+                case MetadataCall c -> typed.registerMetadata(c.aggregated(), c.cast(), c.totalCounted(),
+                        c.reportingUnit(), c.regionNumber());
+                case ReportingUnitCall c -> typed.registerReportingUnit(c.reportingUnit(), c.name());
+                case AuthorityCall c -> typed.registerAuthority(c.authority(), c.name());
+                case ReasonVotesCall c -> typed.registerReasonVotes(c.aggregated(), c.rejected(), c.reasonCode(),
+                        c.votes(), c.reportingUnit(), c.regionNumber());
+            }
+        }
+        calls.clear();
+    }
+}
@@ -0,0 +1,176 @@
+package elections.demos.backend.utils.xml;
+
+import org.xml.sax.Attributes;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * Reads an EML-XML file with a StAX {@link XMLStreamReader} and feeds the events to an {@link EMLHandler}, as an
+ * alternative for the SAX parser. Both engines end up calling exactly the same transformer methods, which makes it
+ * possible to compare them on the same files.<br/>
+ * <br/>
+ * Instead of being called back, this reader pulls the events in a single loop. Text is handed to the handler
+ * straight from the internal buffer of the stream reader, so no {@link String} is created for it. Elements the
+ * <code>EMLHandler</code> doesn't know are skipped including everything inside them, without looking at their
+ * attributes or text. The SAX parser would still visit their children, but in the files of the Kiesraad unknown
+ * elements never contain known ones.
+ */
+class StaxEMLReader {
+    private final XMLInputFactory factory;
+
+    StaxEMLReader() {
+        factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads the whole stream and calls the handler for each element and each piece of text.
+     *
+     * @param inputStream the EML-XML content.
+     * @param emlHandler  the handler that processes the events.
+     * @throws XMLStreamException when the content is not well-formed XML.
+     */
+    void parse(InputStream inputStream, EMLHandler emlHandler) throws XMLStreamException {
+        XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+        try {
+            StaxAttributes attributes = new StaxAttributes(reader);
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String localName = reader.getLocalName();
+                        if (EMLHandler.isKnownTag(localName)) {
+                            emlHandler.startElement(reader.getNamespaceURI(), localName, localName, attributes);
+                        } else {
+                            skipElement(reader);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        emlHandler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        emlHandler.endElement(reader.getNamespaceURI(), reader.getLocalName(), reader.getLocalName());
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Moves the reader to the closing tag of the current element.
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+            }
+        }
+    }
+
+    /**
+     * Presents the attributes of the current element of the stream reader as SAX {@link Attributes}. It doesn't
+     * copy anything, so a single instance can be used for the whole file.
+     */
+    private static class StaxAttributes implements Attributes {
+        private final XMLStreamReader reader;
+
+        StaxAttributes(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int getLength() {
+            return reader.getAttributeCount();
+        }
+
+        @Override
+        public String getURI(int index) {
+            String namespace = reader.getAttributeNamespace(index);
+            return namespace == null ? "" : namespace;
+        }
+
+        @Override
+        public String getLocalName(int index) {
+            return reader.getAttributeLocalName(index);
+        }
+
+        @Override
+        public String getQName(int index) {
+            String prefix = reader.getAttributePrefix(index);
+            String localName = reader.getAttributeLocalName(index);
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+
+        @Override
+        public String getType(int index) {
+            return reader.getAttributeType(index);
+        }
+
+        @Override
+        public String getValue(int index) {
+            return reader.getAttributeValue(index);
+        }
+
+        @Override
+        public int getIndex(String uri, String localName) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (localName.equals(reader.getAttributeLocalName(i)) && uri.equals(getURI(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int getIndex(String qName) {
+            // Matches the same way SAX does, so an attribute with a prefix is only found by its prefixed name.
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String prefix = reader.getAttributePrefix(i);
+                String localName = reader.getAttributeLocalName(i);
+                if (prefix == null || prefix.isEmpty()) {
+                    if (qName.equals(localName)) {
+                        return i;
+                    }
+                } else if (qName.length() == prefix.length() + 1 + localName.length()
+                        && qName.startsWith(prefix) && qName.charAt(prefix.length()) == ':' && qName.endsWith(localName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String getType(String uri, String localName) {
+            int index = getIndex(uri, localName);
+            return index < 0 ? null : getType(index);
+        }
+
+        @Override
+        public String getType(String qName) {
+            int index = getIndex(qName);
+            return index < 0 ? null : getType(index);
+        }
+
+        @Override
+        public String getValue(String uri, String localName) {
+            int index = getIndex(uri, localName);
+            return index < 0 ? null : getValue(index);
+        }
+
+        @Override
+        public String getValue(String qName) {
+            int index = getIndex(qName);
+            return index < 0 ? null : getValue(index);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a single instance of the values that are repeated over and over again in the EML files of an import, like
+ * the names of the parties and the regions, the categories and the reason codes. The {@link EMLHandler} hands only
+ * those values to the table, the ids of the reporting units, the short codes of the candidates and the numbers are
+ * unique or nearly so and are never kept.<br/>
+ * <br/>
+ * Unlike {@link String#intern()} the table belongs to a single import: it is gone with the parser, it is bounded,
+ * and it doesn't touch the string table of the JVM. Once the table is full or when a value is too long the value is
+ * handed back as it is. The hits, misses and overflows are counted, so it can be checked that the table pays off.<br/>
+ * <br/>
+ * The table can be used by several worker threads at the same time.
+ */
+public class SymbolTable {
+    /**
+     * The number of symbols kept by default, far more than the parties, regions and codes of an election.
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    /**
+     * The longest value that is kept by default.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 128;
+
+    private final int maxSize;
+    private final int maxLength;
+    private final Map<String, String> symbols = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    public SymbolTable() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param maxSize   the maximum number of symbols that are kept.
+     * @param maxLength the length of the longest value that is kept.
+     */
+    public SymbolTable(int maxSize, int maxLength) {
+        if (maxSize < 0 || maxLength < 0) {
+            throw new IllegalArgumentException("The size and the length of a symbol table can't be negative.");
+        }
+        this.maxSize = maxSize;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the instance of the table that is equal to the value, the value becomes that instance when it is seen
+     * for the first time and there is room for it.
+     *
+     * @param value the value, may be <code>null</code>.
+     * @return the instance kept by the table, or the value itself when it isn't kept.
+     */
+    public String symbol(String value) {
+        if (value == null) {
+            return null;
+        }
+        String symbol = symbols.get(value);
+        if (symbol != null) {
+            hits.increment();
+            return symbol;
+        }
+        if (value.length() > maxLength || symbols.size() >= maxSize) {
+            overflows.increment();
+            return value;
+        }
+        symbol = symbols.putIfAbsent(value, value);
+        if (symbol != null) {
+            // Another thread was first
+            hits.increment();
+            return symbol;
+        }
+        misses.increment();
+        return value;
+    }
+
+    /**
+     * @return the number of values for which an instance of the table was returned.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of values that were added to the table.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of values that weren't kept, because the table was full or the value too long.
+     */
+    public long overflows() {
+        return overflows.sum();
+    }
+
+    /**
+     * @return the number of symbols in the table.
+     */
+    public int size() {
+        return symbols.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d symbols, %d hits, %d misses, %d overflows", size(), hits(), misses(), overflows());
+    }
+}
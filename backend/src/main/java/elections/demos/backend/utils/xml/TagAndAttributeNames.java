@@ -93,4 +93,8 @@ public interface TagAndAttributeNames {
     // These are the actual keys used for these specific tags
     String CANDIDATE_IDENTIFIER_ID = String.format("%s-%s", CANDIDATE_IDENTIFIER, "Id");
     String CANDIDATE_IDENTIFIER_SHORT_CODE = String.format("%s-%s", CANDIDATE_IDENTIFIER, "ShortCode");
+    String AFFILIATION_IDENTIFIER_ID = String.format("%s-%s", AFFILIATION_IDENTIFIER, "Id");
+    String CONTEST_IDENTIFIER_ID = String.format("%s-%s", CONTEST_IDENTIFIER, "Id");
+    String AUTHORITY_IDENTIFIER_ID = String.format("%s-%s", AUTHORITY_IDENTIFIER, "Id");
+    String REPORTING_UNIT_IDENTIFIER_ID = String.format("%s-%s", REPORTING_UNIT_IDENTIFIER, "Id");
 }
@@ -0,0 +1,113 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.Map;
+
+/**
+ * Times every call to a {@link VotesTransformer} and reports it to the {@link ParserMetrics}. A
+ * {@link TypedVotesTransformer} is wrapped by {@link Typed}, so the {@link EMLHandler} still recognizes it and hands
+ * it the decoded values.
+ */
+class TimedVotesTransformer implements VotesTransformer {
+    private final VotesTransformer votesTransformer;
+    protected final ParserMetrics metrics;
+
+    private TimedVotesTransformer(VotesTransformer votesTransformer, ParserMetrics metrics) {
+        this.votesTransformer = votesTransformer;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param votesTransformer the transformer to time, may be <code>null</code>.
+     * @param metrics          where the timings are reported.
+     * @return the transformer itself when the callbacks are not timed, otherwise a wrapper of the same kind.
+     */
+    static VotesTransformer wrap(VotesTransformer votesTransformer, ParserMetrics metrics) {
+        if (votesTransformer == null || !metrics.timesCallbacks()) {
+            return votesTransformer;
+        }
+        if (votesTransformer instanceof TypedVotesTransformer typed) {
+            return new Typed(typed, metrics);
+        }
+        return new TimedVotesTransformer(votesTransformer, metrics);
+    }
+
+    @Override
+    public void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
+        long start = System.nanoTime();
+        votesTransformer.registerPartyVotes(aggregated, electionData);
+        metrics.callbackTimed(ParserMetrics.Callback.PARTY_VOTES, System.nanoTime() - start);
+    }
+
+    @Override
+    public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
+        long start = System.nanoTime();
+        votesTransformer.registerCandidateVotes(aggregated, electionData);
+        metrics.callbackTimed(ParserMetrics.Callback.CANDIDATE_VOTES, System.nanoTime() - start);
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
+        long start = System.nanoTime();
+        votesTransformer.registerMetadata(aggregated, electionData);
+        metrics.callbackTimed(ParserMetrics.Callback.METADATA, System.nanoTime() - start);
+    }
+
+    /**
+     * Times the calls with the decoded values, the handler never calls the ones taking a map.
+     */
+    static class Typed extends TimedVotesTransformer implements TypedVotesTransformer {
+        private final TypedVotesTransformer typedVotesTransformer;
+
+        private Typed(TypedVotesTransformer typedVotesTransformer, ParserMetrics metrics) {
+            super(typedVotesTransformer, metrics);
+            this.typedVotesTransformer = typedVotesTransformer;
+        }
+
+        @Override
+        public void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit,
+                                       int regionNumber) {
+            long start = System.nanoTime();
+            typedVotesTransformer.registerPartyVotes(aggregated, party, validVotes, reportingUnit, regionNumber);
+            metrics.callbackTimed(ParserMetrics.Callback.PARTY_VOTES, System.nanoTime() - start);
+        }
+
+        @Override
+        public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                           String reportingUnit, int regionNumber) {
+            long start = System.nanoTime();
+            typedVotesTransformer.registerCandidateVotes(aggregated, party, candidate, validVotes, reportingUnit,
+                    regionNumber);
+            metrics.callbackTimed(ParserMetrics.Callback.CANDIDATE_VOTES, System.nanoTime() - start);
+        }
+
+        @Override
+        public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                     int regionNumber) {
+            long start = System.nanoTime();
+            typedVotesTransformer.registerMetadata(aggregated, cast, totalCounted, reportingUnit, regionNumber);
+            metrics.callbackTimed(ParserMetrics.Callback.METADATA, System.nanoTime() - start);
+        }
+
+        @Override
+        public void registerReportingUnit(String reportingUnit, String name) {
+            // Once per reporting unit, not worth timing
+            typedVotesTransformer.registerReportingUnit(reportingUnit, name);
+        }
+
+        @Override
+        public void registerAuthority(String authority, String name) {
+            // Once per file, not worth timing
+            typedVotesTransformer.registerAuthority(authority, name);
+        }
+
+        @Override
+        public void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                        String reportingUnit, int regionNumber) {
+            // Part of the metadata of the reporting unit
+            long start = System.nanoTime();
+            typedVotesTransformer.registerReasonVotes(aggregated, rejected, reasonCode, votes, reportingUnit,
+                    regionNumber);
+            metrics.callbackTimed(ParserMetrics.Callback.METADATA, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package elections.demos.backend.utils.xml;
+
+import java.util.Map;
+
+/**
+ * A <code>VotesTransformer</code> that receives the values it needs already decoded, instead of the
+ * <code>electionData</code> map. The {@link EMLHandler} decodes every value once, while the element is being read,
+ * no matter how many transformers receive it. A transformer implementing this interface doesn't have to look up
+ * keys or parse numbers itself.<br/>
+ * <br/>
+ * When the handler finds a transformer that implements this interface, it calls the methods below and never the
+ * ones taking a map. That is why those have an empty default implementation here. Transformers that still
+ * implement just {@link VotesTransformer} keep getting the map, the handler adapts to both.<br/>
+ * <br/>
+ * Parties are identified by their ordinal in the {@link PartyDictionary} of the {@link DutchElectionParser}.
+ */
+public interface TypedVotesTransformer extends VotesTransformer {
+
+    /**
+     * Called whenever a Selection closing tag is parsed and there is no candidate identifier.
+     *
+     * @param aggregated    <code>true</code> when the votes at the aggregation level are processed,
+     *                      <code>false</code> otherwise.
+     * @param party         the ordinal of the party, or {@link PartyDictionary#NO_PARTY}.
+     * @param validVotes    the number of valid votes, or -1 when it is missing.
+     * @param reportingUnit the id of the reporting unit, like <code>HSB10::0358</code>, or <code>null</code> for
+     *                      the aggregated votes.
+     * @param regionNumber  the number of the contest, which is the kieskring for the constituency files, or 0
+     *                      when it's not a number, like the <code>alle</code> of the national files.
+     */
+    void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit, int regionNumber);
+
+    /**
+     * Called whenever a Selection closing tag is parsed and there is a candidate identifier.
+     *
+     * @param aggregated    <code>true</code> when the votes at the aggregation level are processed,
+     *                      <code>false</code> otherwise.
+     * @param party         the ordinal of the party the candidate belongs to, or {@link PartyDictionary#NO_PARTY}.
+     * @param candidate     the Id, or when missing the ShortCode, of the CandidateIdentifier.
+     * @param validVotes    the number of valid votes, or -1 when it is missing.
+     * @param reportingUnit the id of the reporting unit, or <code>null</code> for the aggregated votes.
+     * @param regionNumber  the number of the contest, or 0 when it's not a number.
+     */
+    void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                String reportingUnit, int regionNumber);
+
+    /**
+     * Called whenever either a TotalVotes or ReportingUnitVotes closing tag is parsed.
+     *
+     * @param aggregated    <code>true</code> when the votes at the aggregation level are processed,
+     *                      <code>false</code> otherwise.
+     * @param cast          the number of votes cast, or -1 when it is missing.
+     * @param totalCounted  the number of votes counted, or -1 when it is missing.
+     * @param reportingUnit the id of the reporting unit, or <code>null</code> for the aggregated votes.
+     * @param regionNumber  the number of the contest, or 0 when it's not a number.
+     */
+    void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit, int regionNumber);
+
+    /**
+     * Called whenever a ReportingUnitIdentifier closing tag is parsed, before any of the votes of that reporting unit.
+     * The id comes with every call for the reporting unit, only the name is not passed anywhere else.
+     *
+     * @param reportingUnit the id of the reporting unit, like <code>0363::SB1</code>.
+     * @param name          the name of the reporting unit, like <code>Stembureau Stadhuis (postcode: 1011 PN)</code>,
+     *                      or <code>null</code> when it is missing.
+     */
+    default void registerReportingUnit(String reportingUnit, String name) {
+        // Most transformers only need the id.
+    }
+
+    /**
+     * Called whenever an AuthorityIdentifier closing tag is parsed. The managing authority is at the start of a file,
+     * before any of its votes, and tells whose votes the file holds, like the municipality of a municipality votes
+     * file. It is not passed with the votes themselves.
+     *
+     * @param authority the id of the managing authority, like <code>0363</code>, or <code>null</code> when it is
+     *                  missing.
+     * @param name      the name of the managing authority, like <code>Amsterdam</code>, or <code>null</code> when it
+     *                  is missing.
+     */
+    default void registerAuthority(String authority, String name) {
+        // Most transformers don't need to know whose votes they are.
+    }
+
+    /**
+     * Called whenever a RejectedVotes or UncountedVotes closing tag is parsed, before the
+     * {@link #registerMetadata(boolean, long, long, String, int)} of the same TotalVotes or ReportingUnitVotes.
+     *
+     * @param aggregated    <code>true</code> when the votes at the aggregation level are processed,
+     *                      <code>false</code> otherwise.
+     * @param rejected      <code>true</code> for RejectedVotes, like the blank and invalid votes, <code>false</code>
+     *                      for UncountedVotes.
+     * @param reasonCode    the ReasonCode attribute, like <code>blanco</code> or <code>geen verklaring</code>.
+     * @param votes         the number of votes.
+     * @param reportingUnit the id of the reporting unit, or <code>null</code> for the aggregated votes.
+     * @param regionNumber  the number of the contest, or 0 when it's not a number.
+     */
+    default void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                     String reportingUnit, int regionNumber) {
+        // Most transformers only need the totals.
+    }
+
+    @Override
+    default void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
+        // Never called by the EMLHandler, the decoded values are used instead.
+    }
+
+    @Override
+    default void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
+        // Never called by the EMLHandler, the decoded values are used instead.
+    }
+
+    @Override
+    default void registerMetadata(boolean aggregated, Map<String, String> electionData) {
+        // Never called by the EMLHandler, the decoded values are used instead.
+    }
+}
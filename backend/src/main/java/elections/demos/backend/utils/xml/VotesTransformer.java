@@ -12,7 +12,7 @@ public interface VotesTransformer {
      * CandidateIdentifier-ShortCode key is present.
      * @param aggregated <code>true</code> when the votes at the aggregation level are processed, <code>false</code>
      *                   otherwise.
-     * @param electionData the tags and values.
+     * @param electionData the tags and values, a read-only view that is only valid during this call.
      */
     void registerPartyVotes(boolean aggregated, Map<String, String> electionData);
 
@@ -21,7 +21,7 @@ public interface VotesTransformer {
      * CandidateIdentifier-ShortCode key is present.
      * @param aggregated <code>true</code> when the votes at the aggregation level are processed, <code>false</code>
      *                   otherwise.
-     * @param electionData the tags and values.
+     * @param electionData the tags and values, a read-only view that is only valid during this call.
      */
     void registerCandidateVotes(boolean aggregated, Map<String, String> electionData);
 
@@ -29,7 +29,7 @@ public interface VotesTransformer {
      * Called whenever either a TotalVotes or ReportingUnitVotes closing tag is parsed.
      * @param aggregated <code>true</code> when the votes at the aggregation level are processed, <code>false</code>
      *                   otherwise.
-     * @param electionData the tags and values.
+     * @param electionData the tags and values, a read-only view that is only valid during this call.
      */
     void registerMetadata(boolean aggregated, Map<String, String> electionData);
 }
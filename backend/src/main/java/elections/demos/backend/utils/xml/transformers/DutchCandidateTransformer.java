@@ -1,20 +1,27 @@
 package elections.demos.backend.utils.xml.transformers;
 
 import elections.demos.backend.model.Candidate;
+import elections.demos.backend.model.CandidateIndex;
 import elections.demos.backend.model.Election;
 import elections.demos.backend.model.Party;
 import elections.demos.backend.utils.xml.CandidateTransformer;
 
-import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Turns the candidates on the <code>Kandidatenlijsten_*</code> files into {@link Candidate}s of their {@link Party}.
+ * <br/>
+ * A candidate is on the list of every kieskring its party takes part in. The parties and candidates that already
+ * exist are looked up in the {@link CandidateIndex} of the election, by party code and candidate id, so a
+ * candidate is only created the first time it is seen, in whichever file that is.
+ */
 public class DutchCandidateTransformer implements CandidateTransformer {
     private final Election election;
-    private final Map<String, Party> partyCache = new HashMap<>();
-    private final Map<String, Candidate> candidateCache = new HashMap<>();
+    private final CandidateIndex candidateIndex;
 
     public DutchCandidateTransformer(Election election) {
         this.election = election;
+        this.candidateIndex = election.getCandidateIndex();
     }
 
     @Override
@@ -27,17 +34,8 @@ public class DutchCandidateTransformer implements CandidateTransformer {
             return;
         }
 
-        String uniqueKey = partyCode + "_" + candidateId;
-
-        if (candidateCache.containsKey(uniqueKey)) {
-            System.out.println("Candidate already exists in cache: " + uniqueKey);
-            return;
-        }
-
-        Candidate existingCandidate = findExistingCandidate(candidateId, partyCode);
-        if (existingCandidate != null) {
-            candidateCache.put(uniqueKey, existingCandidate);
-            System.out.println("Candidate already exists: " + uniqueKey);
+        if (candidateIndex.findCandidate(partyCode, candidateId) != null) {
+            // Already registered from the list of another kieskring
             return;
         }
 
@@ -51,45 +49,25 @@ public class DutchCandidateTransformer implements CandidateTransformer {
         Party party = findOrCreateParty(partyCode, partyName);
 
         Candidate candidate = new Candidate(candidateId, election, initials, firstName, lastName, gender, localityName, party);
+        // Adds the candidate to the index as well
         party.addCandidate(candidate);
-        candidateCache.put(uniqueKey, candidate);
 
-        System.out.println("Registered candidate: " + uniqueKey + " (" + firstName + " " + lastName + ")");
-    }
-
-    private Candidate findExistingCandidate(String candidateId, String partyCode) {
-        return election.getParties().stream()
-                .filter(party -> party.getPartyCode().equals(partyCode))
-                .flatMap(party -> party.getCandidates().stream())
-                .filter(candidate -> candidate.getId().equals(candidateId))
-                .findFirst()
-                .orElse(null);
+        System.out.println("Registered candidate: " + partyCode + "_" + candidateId + " (" + firstName + " " + lastName + ")");
     }
 
     private Party findOrCreateParty(String partyCode, String partyName) {
-        if (partyCache.containsKey(partyCode)) {
-            Party cachedParty = partyCache.get(partyCode);
-            if (!cachedParty.getName().equals(partyName)) {
+        Party existingParty = candidateIndex.findParty(partyCode);
+        if (existingParty != null) {
+            if (!existingParty.getName().equals(partyName)) {
                 System.out.println("Warning: Party name mismatch for code " + partyCode +
-                        ". Cached: " + cachedParty.getName() + ", XML: " + partyName);
-            }
-            return cachedParty;
-        }
-
-        for (Party existingParty : election.getParties()) {
-            if (existingParty.getPartyCode() != null && existingParty.getPartyCode().equals(partyCode)) {
-                if (!existingParty.getName().equals(partyName)) {
-                    System.out.println("Warning: Party name mismatch for code " + partyCode +
-                            ". Database: " + existingParty.getName() + ", XML: " + partyName);
-                }
-                partyCache.put(partyCode, existingParty);
-                return existingParty;
+                        ". Existing: " + existingParty.getName() + ", XML: " + partyName);
             }
+            return existingParty;
         }
 
         Party newParty = new Party(partyCode, partyName, election);
+        // Adds the party to the index as well
         election.addParty(newParty);
-        partyCache.put(partyCode, newParty);
 
         System.out.println("Created new party: " + newParty.getName() + " (" + partyCode + ")");
         return newParty;
@@ -1,24 +1,48 @@
 package elections.demos.backend.utils.xml.transformers;
 
+import elections.demos.backend.model.CandidateVotes;
 import elections.demos.backend.model.Election;
-import elections.demos.backend.utils.xml.VotesTransformer;
+import elections.demos.backend.model.TurnoutVotes;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TypedVotesTransformer;
 
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Just prints to content of electionData to the standard output.>br/>
  * <b>This class needs heavy modification!</b>
  */
-public class DutchConstituencyVotesTransformer implements VotesTransformer {
+public class DutchConstituencyVotesTransformer implements TypedVotesTransformer {
     private final Election election;
+    private final PartyDictionary partyDictionary;
+    private final CandidateVotes candidateVotes;
+    // The kieskringen whose candidate votes of an earlier import have been replaced
+    private final Set<Integer> parsedKieskringen = new HashSet<>();
+    private final TurnoutVotes turnoutVotes;
+    // The kieskringen and municipalities whose turnout of an earlier import has been replaced
+    private final Set<Integer> turnoutKieskringen = new HashSet<>();
+    private final Set<Integer> turnoutMunicipalities = new HashSet<>();
 
     /**
      * Creates a new transformer for handling the votes at the constituency level. It expects an instance of
      * Election that can be used for storing the results.
-     * @param election the election in which the votes wil be stored.
+     * @param election        the election in which the votes wil be stored.
+     * @param partyDictionary the dictionary of the parser, for looking up the parties.
      */
-    public DutchConstituencyVotesTransformer(Election election) {
+    public DutchConstituencyVotesTransformer(Election election, PartyDictionary partyDictionary) {
         this.election = election;
+        this.partyDictionary = partyDictionary;
+        this.candidateVotes = election.getCandidateVotes();
+        this.turnoutVotes = election.getTurnoutVotes();
+    }
+
+    @Override
+    public void registerReportingUnit(String reportingUnit, String name) {
+        // De rapportage-eenheden van een kieskring zijn de gemeenten, zoals HSB10::0358 Aalsmeer
+        if (reportingUnit != null && name != null) {
+            turnoutVotes.setName(TurnoutVotes.Level.MUNICIPALITY, turnoutUnit(false, reportingUnit, 0), name.trim());
+        }
     }
 
 //     @Override
@@ -27,47 +51,83 @@ public class DutchConstituencyVotesTransformer implements VotesTransformer {
 //     }
 
     @Override
-    public void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
+    public void registerPartyVotes(boolean aggregated, int party, long votes, String reportingUnit, int regionNumber) {
         if (!aggregated) {
             return; // alleen geaggregeerde (kieskring) resultaten
         }
 
-        // Kieskringnaam (bijv. "Amsterdam")
-        String contestName = electionData.get("ContestName");
-
         // Partijnaam – in jouw sample stond deze in RegisteredName
-        String partyName = firstNonNull(
-                electionData.get("RegisteredName"),
-                electionData.get("AffiliationIdentifier-RegisteredName")
-        );
+        String partyName = party == PartyDictionary.NO_PARTY ? null : firstNonNull(partyDictionary.name(party));
 
-        String votesStr = electionData.get("ValidVotes");
-        long votes = parseLong(votesStr);
-
-        if (partyName == null || votes <= 0L || contestName == null) {
+        // Het regionummer is het nummer van de kieskring (ContestIdentifier-Id)
+        if (partyName == null || votes <= 0L || regionNumber <= 0) {
             return;
         }
 
-        // Laat Election het mappen naar de juiste KIESKRING-regio/nummer en aggregeren
-        election.addKieskringPartyVotes(contestName, partyName, votes);
+        // Laat Election het aggregeren voor de juiste KIESKRING-regio
+        election.addKieskringPartyVotes(regionNumber, party, partyName, votes);
     }
 
     @Override
-    public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("%s candidate votes: %s\n", aggregated ? "Constituency" : "Municipality", electionData);
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
+        if (!aggregated || party == PartyDictionary.NO_PARTY || candidate == null || validVotes <= 0
+                || regionNumber <= 0) {
+            return; // alleen de totalen van de kieskring
+        }
+        int kieskring = candidateVotes.kieskring(regionNumber);
+        if (parsedKieskringen.add(kieskring)) {
+            candidateVotes.clearKieskring(kieskring);
+        }
+        candidateVotes.addKieskring(kieskring, candidateVotes.candidate(partyDictionary.partyId(party), candidate),
+                validVotes);
     }
 
     @Override
-    public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("%s meta data: %s\n", aggregated ? "Constituency" : "Municipality", electionData);
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
+        int unit = turnoutUnit(aggregated, reportingUnit, regionNumber);
+        if (unit != TurnoutVotes.NOT_FOUND) {
+            turnoutVotes.addMetadata(level(aggregated), unit, cast, totalCounted);
+        }
     }
 
-    private static long parseLong(String s) {
-        try {
-            return s == null ? 0L : Long.parseLong(s);
-        } catch (Exception e) {
-            return 0L;
+    @Override
+    public void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                    String reportingUnit, int regionNumber) {
+        int unit = turnoutUnit(aggregated, reportingUnit, regionNumber);
+        if (unit != TurnoutVotes.NOT_FOUND) {
+            turnoutVotes.addReason(level(aggregated), unit, turnoutVotes.reason(reasonCode, rejected), votes);
+        }
+    }
+
+    // De kieskring bij de totalen, anders de gemeente. Een eenheid begint bij 0 als die voor het eerst wordt gezien.
+    private int turnoutUnit(boolean aggregated, String reportingUnit, int regionNumber) {
+        if (aggregated) {
+            if (regionNumber <= 0) {
+                return TurnoutVotes.NOT_FOUND;
+            }
+            int kieskring = turnoutVotes.unit(TurnoutVotes.Level.KIESKRING, String.valueOf(regionNumber));
+            if (turnoutKieskringen.add(kieskring)) {
+                turnoutVotes.clear(TurnoutVotes.Level.KIESKRING, kieskring);
+            }
+            return kieskring;
         }
+        if (reportingUnit == null) {
+            return TurnoutVotes.NOT_FOUND;
+        }
+        // HSB10::0358 -> 0358
+        int separator = reportingUnit.lastIndexOf("::");
+        String code = separator < 0 ? reportingUnit : reportingUnit.substring(separator + 2);
+        int municipality = turnoutVotes.unit(TurnoutVotes.Level.MUNICIPALITY, code);
+        if (turnoutMunicipalities.add(municipality)) {
+            turnoutVotes.clear(TurnoutVotes.Level.MUNICIPALITY, municipality);
+        }
+        return municipality;
+    }
+
+    private static TurnoutVotes.Level level(boolean aggregated) {
+        return aggregated ? TurnoutVotes.Level.KIESKRING : TurnoutVotes.Level.MUNICIPALITY;
     }
 
     private static String firstNonNull(String... ss) {
@@ -4,16 +4,21 @@ import elections.demos.backend.model.Election;
 import elections.demos.backend.model.Party;
 import elections.demos.backend.model.Region;
 import elections.demos.backend.utils.xml.DefinitionTransformer;
+import elections.demos.backend.utils.xml.PartyDictionary;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static elections.demos.backend.utils.xml.TagAndAttributeNames.PREFERENCE_THRESHOLD;
+import static elections.demos.backend.utils.xml.TagAndAttributeNames.REGISTERED_APPELLATION;
+
 /**
  * Just prints to content of electionData to the standard output.>br/>
  * <b>This class needs heavy modification!</b>
  */
 public class DutchDefinitionTransformer implements DefinitionTransformer {
     private final Election election;
+    private final PartyDictionary partyDictionary;
     private final Map<String, Region> regionCache = new HashMap<>();
     private final Map<String, Party> partyCache = new HashMap<>();
 
@@ -24,7 +29,19 @@ public class DutchDefinitionTransformer implements DefinitionTransformer {
      * @param election the election in which the votes wil be stored.
      */
     public DutchDefinitionTransformer(Election election) {
+        this(election, null);
+    }
+
+    /**
+     * Creates a new transformer that also gives the registered parties of the definition their ordinals in the
+     * dictionary of the parser, in the order of the definition.
+     *
+     * @param election        the election in which the votes wil be stored.
+     * @param partyDictionary the dictionary of the parser, or <code>null</code>.
+     */
+    public DutchDefinitionTransformer(Election election, PartyDictionary partyDictionary) {
         this.election = election;
+        this.partyDictionary = partyDictionary;
     }
 
     /**
@@ -108,6 +125,10 @@ public class DutchDefinitionTransformer implements DefinitionTransformer {
         election.setElectionName(ElectionName);
         String superiorRegionCategory = electionData.get("Region-SuperiorRegionCategory");
         String committeeCategory = electionData.get("Committee-CommitteeCategory");
+        String preferenceThreshold = electionData.get(PREFERENCE_THRESHOLD);
+        if (preferenceThreshold != null && !preferenceThreshold.isBlank()) {
+            election.getCandidateVotes().setPreferenceThreshold(Integer.parseInt(preferenceThreshold.trim()));
+        }
 
         if (regionCategory != null && regionName != null) {
             Integer regionNum = null;
@@ -129,6 +150,11 @@ public class DutchDefinitionTransformer implements DefinitionTransformer {
 
     @Override
     public void registerParty(Map<String, String> electionData) {
+        if (partyDictionary != null) {
+            // De definitie noemt alleen de naam, zoals <kr:RegisteredAppellation>VVD</kr:RegisteredAppellation>
+            String appellation = electionData.get(REGISTERED_APPELLATION);
+            partyDictionary.register(appellation != null ? appellation : electionData.get("RegisteredName"));
+        }
         String partyCode = electionData.get("AffiliationIdentifier-Id");
         String partyName = electionData.get("RegisteredName");
 
@@ -1,39 +1,91 @@
 package elections.demos.backend.utils.xml.transformers;
 
 import elections.demos.backend.model.Election;
-import elections.demos.backend.utils.xml.VotesTransformer;
+import elections.demos.backend.model.MunicipalityVotes;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TypedVotesTransformer;
 
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
- * Just prints to content of electionData to the standard output.>br/>
- * <b>This class needs heavy modification!</b>
+ * Adds up the votes of every municipality into the {@link MunicipalityVotes} of the election. Only the totals of
+ * the municipality itself are used, the votes of the polling stations are skipped.<br/>
+ * <br/>
+ * The municipality is the managing authority of the file, like <code>0363</code> for Amsterdam, which is passed
+ * once at the start of the file. The parties come as their ordinals in the {@link PartyDictionary} of the parser, so
+ * the column of a party is found by its ordinal. The rejected votes, like the blank and the invalid votes, are added
+ * up from the votes with a reason that come before the totals of the municipality.<br/>
+ * <br/>
+ * A municipality that already has votes, like one of an earlier import, starts again from 0 the first time it is
+ * seen by this transformer.
  */
-public class DutchMunicipalityVotesTransformer implements VotesTransformer {
-    private final Election election;
+public class DutchMunicipalityVotesTransformer implements TypedVotesTransformer {
+    private final PartyDictionary partyDictionary;
+    private final MunicipalityVotes municipalityVotes;
+    // The municipalities that have been seen by this transformer
+    private final Set<Integer> parsed = new HashSet<>();
+    // The municipality of the file that is being parsed, or -1 when the file has no managing authority
+    private int current = -1;
+    // The rejected votes of the totals of the municipality, up to the registerMetadata of those totals
+    private long rejected;
 
     /**
      * Creates a new transformer for handling the votes at the municipality level. It expects an instance of
      * Election that can be used for storing the results.
-     * @param election the election in which the votes wil be stored.
+     * @param election        the election in which the votes wil be stored.
+     * @param partyDictionary the dictionary of the parser, for looking up the parties.
      */
-    public DutchMunicipalityVotesTransformer(Election election) {
-        this.election = election;
+    public DutchMunicipalityVotesTransformer(Election election, PartyDictionary partyDictionary) {
+        this.partyDictionary = partyDictionary;
+        this.municipalityVotes = election.getMunicipalityVotes();
     }
 
     @Override
-    public void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("%s party votes: %s\n", aggregated ? "Municipality" : "Polling station", electionData);
+    public void registerAuthority(String authority, String name) {
+        if (authority == null) {
+            current = -1;
+            return;
+        }
+        current = municipalityVotes.municipality(authority, name);
+        if (parsed.add(current)) {
+            municipalityVotes.clear(current);
+        }
+        rejected = 0;
     }
 
     @Override
-    public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("%s candidate votes: %s\n", aggregated ? "Municipality" : "Polling station", electionData);
+    public void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit,
+                                   int regionNumber) {
+        if (!aggregated || current < 0 || party == PartyDictionary.NO_PARTY || validVotes <= 0) {
+            return; // alleen de totalen van de gemeente
+        }
+        String registeredName = partyDictionary.name(party);
+        String partyName = registeredName != null ? registeredName.trim() : partyDictionary.partyId(party);
+        municipalityVotes.addPartyVotes(current, party, partyName, validVotes);
     }
 
     @Override
-    public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("%s meta data: %s\n", aggregated ? "Municipality" : "Polling station", electionData);
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
+        // Not implemented for now
     }
 
+    @Override
+    public void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                    String reportingUnit, int regionNumber) {
+        if (aggregated && rejected) {
+            this.rejected += Math.max(votes, 0);
+        }
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
+        if (!aggregated || current < 0) {
+            return; // alleen de totalen van de gemeente
+        }
+        municipalityVotes.addMetadata(current, cast, totalCounted, rejected);
+        rejected = 0;
+    }
 }
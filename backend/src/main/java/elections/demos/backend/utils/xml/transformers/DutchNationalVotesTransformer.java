@@ -1,66 +1,74 @@
 package elections.demos.backend.utils.xml.transformers;
 
+import elections.demos.backend.model.CandidateVotes;
 import elections.demos.backend.model.Election;
-import elections.demos.backend.utils.xml.VotesTransformer;
-
-import java.util.Map;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TypedVotesTransformer;
 
 /**
  * Just prints to content of electionData to the standard output.>br/>
  * <b>This class needs heavy modification!</b>
  */
-public class DutchNationalVotesTransformer implements VotesTransformer {
+public class DutchNationalVotesTransformer implements TypedVotesTransformer {
     private final Election election;
+    private final PartyDictionary partyDictionary;
+    private final CandidateVotes candidateVotes;
+    // The national candidate votes of an earlier import are replaced, not added to
+    private boolean candidateVotesCleared;
 
     /**
      * Creates a new transformer for handling the votes at the national level. It expects an instance of
      * Election that can be used for storing the results.
      *
-     * @param election the election in which the votes wil be stored.
+     * @param election        the election in which the votes wil be stored.
+     * @param partyDictionary the dictionary of the parser, for looking up the parties.
      */
-    public DutchNationalVotesTransformer(Election election) {
+    public DutchNationalVotesTransformer(Election election, PartyDictionary partyDictionary) {
         this.election = election;
+        this.partyDictionary = partyDictionary;
+        this.candidateVotes = election.getCandidateVotes();
     }
 
     @Override
-    public void registerPartyVotes(boolean aggregated, Map<String, String> ed) {
+    public void registerPartyVotes(boolean aggregated, int party, long votes, String reportingUnit, int regionNumber) {
 
-        String partyId = firstNonNull(ed.get("AffiliationIdentifier-Id"), ed.get("RegisteredPartyIdentifier-Id"), ed.get("AffiliationIdentifier-ShortCode"), ed.get("AffiliationIdentifier-RegisteredName"));
+        String partyId = party == PartyDictionary.NO_PARTY ? null : partyDictionary.partyId(party);
 
-        String partyName = firstNonNull(ed.get("RegisteredName"), ed.get("AffiliationIdentifier-RegisteredName"), ed.get("RegisteredPartyName"), ed.get("AffiliationIdentifier-ShortCode"), partyId);
+        String partyName = party == PartyDictionary.NO_PARTY ? null : firstNonNull(partyDictionary.name(party), partyId);
 
-        String votesString = firstNonNull(ed.get("ValidVotes"), ed.get("Selection/ValidVotes"));
-        if (partyId == null || votesString == null) {
-            System.out.println("Skipping party due to missing data: partyId=" + partyId + ", votes=" + votesString);
+        if (partyId == null || votes < 0) {
+            System.out.println("Skipping party due to missing data: partyId=" + partyId + ", votes=" + (votes < 0 ? null : votes));
             return;
         }
 
-        long votes = parseLong(votesString);
         if (votes == 0) {
             System.out.println("Skipping party with zero votes: " + partyName + " (" + partyId + ")");
             return;
         }
 
         System.out.println("Registering votes for party: " + partyName + " (" + partyId + ") = " + votes);
-        election.addPartyVotes(partyId, votes, partyName);
+        election.addPartyVotes(party, partyId, votes, partyName);
     }
 
     @Override
-    public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
-        System.out.printf("%s candidate votes: %s\n", aggregated ? "National" : "Constituency", electionData);
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
+        // The votes per kieskring are taken from the kieskring files, see DutchConstituencyVotesTransformer
+        if (!aggregated || party == PartyDictionary.NO_PARTY || candidate == null || validVotes <= 0) {
+            return;
+        }
+        if (!candidateVotesCleared) {
+            candidateVotes.clearNational();
+            candidateVotesCleared = true;
+        }
+        candidateVotes.addNational(candidateVotes.candidate(partyDictionary.partyId(party), candidate), validVotes);
     }
 
     @Override
-    public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
-        System.out.printf("%s meta data: %s\n", aggregated ? "National" : "Constituency", electionData);
-    }
-
-    private static long parseLong(String s) {
-        try {
-            return Long.parseLong(s);
-        } catch (Exception e) {
-            return 0;
-        }
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
+        System.out.printf("%s meta data: cast=%d, totalCounted=%d, reportingUnit=%s\n",
+                aggregated ? "National" : "Constituency", cast, totalCounted, reportingUnit);
     }
 
     private static String firstNonNull(String... ss) {
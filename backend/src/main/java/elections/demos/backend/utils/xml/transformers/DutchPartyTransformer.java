@@ -3,130 +3,110 @@ package elections.demos.backend.utils.xml.transformers;
 import elections.demos.backend.model.Election;
 import elections.demos.backend.model.Party;
 import elections.demos.backend.model.PartyResult;
-import elections.demos.backend.utils.xml.VotesTransformer;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TypedVotesTransformer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
-public class DutchPartyTransformer implements VotesTransformer {
+/**
+ * Adds up the votes per party while the files are parsed and turns them into {@link PartyResult}s afterward.<br/>
+ * <br/>
+ * The votes are kept in a <code>long[]</code> indexed by the ordinal of the party in the {@link PartyDictionary},
+ * so a call costs an array lookup and an addition, no matter how many parties or selections there are. The
+ * election-scoped party id, like <code>TK2023_1</code>, is only built once per party, by
+ * {@link #materializePartyResults()}, which must be called after parsing. That is also the only time the
+ * {@link Party} and {@link PartyResult} entities are touched.
+ */
+public class DutchPartyTransformer implements TypedVotesTransformer {
     private final Election election;
+    private final PartyDictionary partyDictionary;
+    // The votes by the ordinal of the party
+    private long[] votesByParty = new long[16];
 
-    public DutchPartyTransformer(Election election) {
+    public DutchPartyTransformer(Election election, PartyDictionary partyDictionary) {
         if (election == null) {
             throw new IllegalArgumentException("Election cannot be null");
         }
         this.election = election;
+        this.partyDictionary = partyDictionary;
     }
 
     @Override
-    public void registerPartyVotes(boolean aggregated, Map<String, String> ed) {
-        if (!aggregated) {
-            System.out.println("Skipping non-aggregated votes");
+    public void registerPartyVotes(boolean aggregated, int party, long votes, String reportingUnit, int regionNumber) {
+        if (!aggregated || party == PartyDictionary.NO_PARTY || votes <= 0) {
+            // Only the aggregated votes of known parties count, a party without votes gets no result
             return;
         }
-
-        String partyId = extractPartyId(ed);
-        if (partyId == null) {
-            System.out.println("No party ID found, skipping");
-            return;
+        if (party >= votesByParty.length) {
+            votesByParty = Arrays.copyOf(votesByParty, Math.max(party + 1, votesByParty.length * 2));
         }
-
-        String partyName = firstNonNull(
-                ed.get("RegisteredName"),
-                ed.get("AffiliationIdentifier-RegisteredName"),
-                ed.get("RegisteredPartyName"),
-                ed.get("AffiliationIdentifier-ShortCode"),
-                partyId
-        );
-
-        String votesString = firstNonNull(
-                ed.get("ValidVotes"),
-                ed.get("Selection/ValidVotes")
-        );
-        if (votesString == null) {
-            System.out.println("No votes found for party: " + partyId);
-            return;
-        }
-
-        long votes = parseLong(votesString);
-        if (votes == 0) {
-            System.out.println("Votes for party " + partyId + " are zero, skipping");
-            return;
-        }
-
-        System.out.println("Processing votes for party: " + partyId + " - " + partyName + " = " + votes);
-
-        createOrAccumulatePartyResult(partyId, partyName, votes);
+        votesByParty[party] += votes;
     }
 
     @Override
-    public void registerCandidateVotes(boolean aggregated, Map<String, String> ed) {
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
         // Not implemented for now
     }
 
     @Override
-    public void registerMetadata(boolean aggregated, Map<String, String> ed) {
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
         // Not implemented for now
     }
 
-    private String extractPartyId(Map<String, String> ed) {
-        String basePartyId = firstNonNull(
-                ed.get("AffiliationIdentifier-Id"),
-                ed.get("RegisteredPartyIdentifier-Id"),
-                ed.get("AffiliationIdentifier-ShortCode"),
-                ed.get("AffiliationIdentifier-RegisteredName")
-        );
-
-        if (basePartyId != null) {
-            String electionScopedId = election.getElectionId() + "_" + basePartyId;
-            System.out.println("Created election-scoped party ID: " + electionScopedId);
-            return electionScopedId;
+    /**
+     * Adds the votes to the {@link PartyResult}s of the election, in the order of the ordinals. Parties and results
+     * that don't exist yet are created, the votes of an existing result are added to it. The votes are cleared
+     * afterward, so calling it again adds nothing.
+     *
+     * @return the results that have been created or updated.
+     */
+    public List<PartyResult> materializePartyResults() {
+        Map<String, Party> parties = new HashMap<>();
+        for (Party party : election.getParties()) {
+            parties.put(party.getId(), party);
+        }
+        Map<String, PartyResult> results = new HashMap<>();
+        for (PartyResult result : election.getPartyResults()) {
+            if (result.getParty() != null) {
+                results.put(result.getParty().getId(), result);
+            }
         }
 
-        return null;
-    }
-
-    private void createOrAccumulatePartyResult(String partyId, String partyName, long votes) {
-        Optional<Party> partyOptional = election.getParties().stream()
-                .filter(p -> p.getId().equals(partyId))
-                .findFirst();
-
-        Party party = partyOptional.orElseGet(() -> {
-            Party newParty = new Party(partyId.split("_")[1], partyName, election);
-            election.addParty(newParty);
-            System.out.println("Created new party: " + partyName + " (" + partyId + ")");
-            return newParty;
-        });
-
-        Optional<PartyResult> existingResult = election.getPartyResults().stream()
-                .filter(pr -> pr.getParty() != null && partyId.equals(pr.getParty().getId()))
-                .findFirst();
-
-        if (existingResult.isPresent()) {
-            PartyResult result = existingResult.get();
-            long oldVotes = result.getTotalVotes();
-            result.setTotalVotes(oldVotes + votes);
-            System.out.println("Accumulated votes for " + partyName + ": " + oldVotes + " + " + votes + " = " + result.getTotalVotes());
-        } else {
-            PartyResult newResult = new PartyResult();
-            newResult.setElection(election);
-            newResult.setParty(party);
-            newResult.setTotalVotes(votes);
-            newResult.setAreas(1);
-
-            party.addPartyResult(newResult);
-            election.addPartyResult(newResult);
+        List<PartyResult> materialized = new ArrayList<>();
+        for (int ordinal = 0; ordinal < votesByParty.length; ordinal++) {
+            if (votesByParty[ordinal] == 0) {
+                continue;
+            }
+            String partyCode = partyDictionary.partyId(ordinal);
+            String partyId = election.getElectionId() + "_" + partyCode;
+            Party party = parties.get(partyId);
+            if (party == null) {
+                String partyName = firstNonNull(partyDictionary.name(ordinal), partyId);
+                party = new Party(partyCode, partyName, election);
+                election.addParty(party);
+                System.out.println("Created new party: " + partyName + " (" + partyId + ")");
+            }
 
-            System.out.println("Created PartyResult for " + partyName + " with " + votes + " votes.");
+            PartyResult result = results.get(partyId);
+            if (result == null) {
+                result = new PartyResult();
+                result.setElection(election);
+                result.setParty(party);
+                result.setAreas(1);
+            }
+            result.setTotalVotes(result.getTotalVotes() + votesByParty[ordinal]);
+            materialized.add(result);
         }
-    }
+        System.out.println("Materialized the results of " + materialized.size() + " parties");
 
-    private static long parseLong(String s) {
-        try {
-            return Long.parseLong(s);
-        } catch (Exception e) {
-            return 0;
-        }
+        Arrays.fill(votesByParty, 0);
+        return materialized;
     }
 
     private static String firstNonNull(String... ss) {
@@ -137,4 +117,4 @@ public class DutchPartyTransformer implements VotesTransformer {
         }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.PollingStationVotes;
+import elections.demos.backend.model.TurnoutVotes;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TypedVotesTransformer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stores the votes of every polling station (stembureau) of the municipality votes files in the
+ * {@link PollingStationVotes} of the election. Only the votes per party are stored, the totals of the municipality
+ * are left to the {@link DutchMunicipalityVotesTransformer}. The votes cast, counted, rejected and uncounted of every
+ * polling station also go to the {@link TurnoutVotes} of the election.<br/>
+ * <br/>
+ * A polling station that already has votes, like one of an earlier import, gets its new votes added as new rows.
+ * The old rows are removed in a single pass by {@link #removeReplacedRows()}, which must be called after parsing.
+ */
+public class DutchPollingStationTransformer implements TypedVotesTransformer {
+    private final PartyDictionary partyDictionary;
+    private final PollingStationVotes pollingStationVotes;
+    private final TurnoutVotes turnoutVotes;
+    // The polling stations whose turnout of an earlier import has been replaced
+    private final BitSet turnoutSeen = new BitSet();
+    // The stations and rows that were there before this transformer started
+    private final int stationsBefore;
+    private final int rowsBefore;
+    private final BitSet seen = new BitSet();
+    private final BitSet replaced = new BitSet();
+    // The station of the previous call, all calls for a station come one after the other
+    private String currentId;
+    private int current = PollingStationVotes.NOT_FOUND;
+    // party ordinal in the dictionary -> party ordinal in the store + 1, 0 when not known yet
+    private int[] partyByOrdinal = new int[0];
+
+    /**
+     * Creates a new transformer for the votes of the polling stations.
+     * @param election        the election in which the votes wil be stored.
+     * @param partyDictionary the dictionary of the parser, for looking up the parties.
+     */
+    public DutchPollingStationTransformer(Election election, PartyDictionary partyDictionary) {
+        this.partyDictionary = partyDictionary;
+        this.pollingStationVotes = election.getPollingStationVotes();
+        this.turnoutVotes = election.getTurnoutVotes();
+        this.stationsBefore = pollingStationVotes.stationCount();
+        this.rowsBefore = pollingStationVotes.rowCount();
+    }
+
+    @Override
+    public void registerReportingUnit(String reportingUnit, String name) {
+        if (reportingUnit != null) {
+            pollingStationVotes.setStationName(station(reportingUnit), name == null ? null : name.trim());
+            turnoutVotes.setName(TurnoutVotes.Level.REPORTING_UNIT, turnoutUnit(reportingUnit),
+                    name == null ? null : name.trim());
+        }
+    }
+
+    @Override
+    public void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit,
+                                   int regionNumber) {
+        if (aggregated || reportingUnit == null || party == PartyDictionary.NO_PARTY || validVotes <= 0) {
+            // A party without votes gets no row, it adds nothing to any total
+            return;
+        }
+        pollingStationVotes.addVotes(station(reportingUnit), party(party), validVotes);
+    }
+
+    @Override
+    public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes,
+                                       String reportingUnit, int regionNumber) {
+        // Not implemented for now
+    }
+
+    @Override
+    public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit,
+                                 int regionNumber) {
+        if (!aggregated && reportingUnit != null) {
+            pollingStationVotes.setMetadata(station(reportingUnit), cast, totalCounted);
+            turnoutVotes.addMetadata(TurnoutVotes.Level.REPORTING_UNIT, turnoutUnit(reportingUnit), cast,
+                    totalCounted);
+        }
+    }
+
+    @Override
+    public void registerReasonVotes(boolean aggregated, boolean rejected, String reasonCode, long votes,
+                                    String reportingUnit, int regionNumber) {
+        if (!aggregated && reportingUnit != null) {
+            turnoutVotes.addReason(TurnoutVotes.Level.REPORTING_UNIT, turnoutUnit(reportingUnit),
+                    turnoutVotes.reason(reasonCode, rejected), votes);
+        }
+    }
+
+    /**
+     * Removes the rows the polling stations had before they were parsed again. Must be called after parsing.
+     *
+     * @return the number of rows that have been removed.
+     */
+    public int removeReplacedRows() {
+        int removed = replaced.isEmpty() ? 0 : pollingStationVotes.removeRows(replaced, rowsBefore);
+        pollingStationVotes.trim();
+        System.out.println("Stored " + pollingStationVotes.rowCount() + " votes of "
+                + pollingStationVotes.stationCount() + " polling stations, replaced " + removed);
+        return removed;
+    }
+
+    private int station(String reportingUnit) {
+        if (!reportingUnit.equals(currentId)) {
+            current = pollingStationVotes.station(reportingUnit);
+            currentId = reportingUnit;
+            if (!seen.get(current)) {
+                seen.set(current);
+                if (current < stationsBefore) {
+                    replaced.set(current);
+                }
+            }
+        }
+        return current;
+    }
+
+    // A polling station starts again from 0 the first time it is seen
+    private int turnoutUnit(String reportingUnit) {
+        int unit = turnoutVotes.unit(TurnoutVotes.Level.REPORTING_UNIT, reportingUnit);
+        if (!turnoutSeen.get(unit)) {
+            turnoutSeen.set(unit);
+            turnoutVotes.clear(TurnoutVotes.Level.REPORTING_UNIT, unit);
+        }
+        return unit;
+    }
+
+    private int party(int party) {
+        if (party >= partyByOrdinal.length) {
+            partyByOrdinal = Arrays.copyOf(partyByOrdinal, Math.max(party + 1, partyByOrdinal.length * 2));
+        }
+        if (partyByOrdinal[party] == 0) {
+            String name = partyDictionary.name(party);
+            name = name != null ? name.trim() : partyDictionary.partyId(party);
+            partyByOrdinal[party] = pollingStationVotes.party(name) + 1;
+        }
+        return partyByOrdinal[party] - 1;
+    }
+}
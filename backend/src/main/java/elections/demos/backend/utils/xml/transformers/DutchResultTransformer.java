@@ -1,16 +1,30 @@
 package elections.demos.backend.utils.xml.transformers;
 
+import elections.demos.backend.model.CandidateIndex;
+import elections.demos.backend.model.ElectedCandidate;
+import elections.demos.backend.model.ElectedCandidates;
 import elections.demos.backend.model.Election;
 import elections.demos.backend.utils.xml.VotesTransformer;
 
 import java.util.Map;
 
+import static elections.demos.backend.utils.xml.TagAndAttributeNames.*;
+
 /**
- * Just prints to content of electionData to the standard output.>br/>
- * <b>This class needs heavy modification!</b>
+ * Fills the {@link ElectedCandidates} of the election from the <code>Resultaat</code> file of the Kiesraad. Every
+ * party with seats is followed by its elected candidates, those don't carry the id of their party, which is why the
+ * party of the last party call is used. The parties and candidates are looked up in the {@link CandidateIndex} of
+ * the election, so the candidate lists have to be parsed first.<br/>
+ * <br/>
+ * The elected candidates of an earlier import are replaced the first time this transformer is called.
  */
 public class DutchResultTransformer implements VotesTransformer {
+    private static final String YES = "yes";
+
     private final Election election;
+    private final ElectedCandidates electedCandidates;
+    private String partyCode;
+    private boolean cleared;
 
     /**
      * Creates a new transformer for handling the votes at the results. It expects an instance of
@@ -20,20 +34,40 @@ public class DutchResultTransformer implements VotesTransformer {
      */
     public DutchResultTransformer(Election election) {
         this.election = election;
+        this.electedCandidates = election.getElectedCandidates();
     }
 
     @Override
     public void registerPartyVotes(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("National party result: %s\n", electionData);
+        partyCode = electionData.get(AFFILIATION_IDENTIFIER_ID);
     }
 
     @Override
     public void registerCandidateVotes(boolean aggregated, Map<String, String> electionData) {
-//        System.out.printf("National candidate result: %s\n", electionData);
+        String candidateNumber = electionData.get(CANDIDATE_IDENTIFIER_ID);
+        if (partyCode == null || candidateNumber == null || !YES.equalsIgnoreCase(electionData.get(ELECTED))) {
+            return;
+        }
+        if (!cleared) {
+            electedCandidates.clear();
+            cleared = true;
+        }
+        ElectedCandidate candidate = new ElectedCandidate(election.getElectionId(), partyCode, candidateNumber,
+                ranking(electionData.get(RANKING)));
+        candidate.linkTo(election.getCandidateIndex());
+        electedCandidates.add(candidate);
     }
 
     @Override
     public void registerMetadata(boolean aggregated, Map<String, String> electionData) {
 //        throw new IllegalStateException("There is no implementation on purpose.");
     }
+
+    private static int ranking(String value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
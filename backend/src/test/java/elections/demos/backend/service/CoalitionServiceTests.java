@@ -0,0 +1,29 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.CoalitionDTO;
+import elections.demos.backend.dto.CoalitionPageDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoalitionServiceTests {
+
+    @Test
+    void testCoalitionsFromAnUnseatedImport(@TempDir Path folder) {
+        // The results of a full import have votes but no seats, 60, 45, 30 and 15 seats follow from the votes
+        ElectionSnapshotService snapshotService = ElectionSnapshotServiceTests.snapshotService(folder);
+        snapshotService.write(ElectionSnapshotServiceTests.election(4000000, 3000000, 2000000, 1000000));
+        CoalitionService service = new CoalitionService(snapshotService);
+
+        CoalitionPageDTO page = service.getCoalitions("TK2023", 0, 10, "parties", null).orElseThrow();
+        assertEquals(76, page.getMajority());
+        assertEquals(List.of(List.of("Partij 1", "Partij 2"), List.of("Partij 1", "Partij 3"),
+                        List.of("Partij 2", "Partij 3", "Partij 4")),
+                page.getCoalitions().stream().map(CoalitionDTO::getPartyNames).toList());
+        assertEquals(List.of(105, 90, 90), page.getCoalitions().stream().map(CoalitionDTO::getSeats).toList());
+    }
+}
@@ -0,0 +1,102 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.Party;
+import elections.demos.backend.model.PartyKieskringResult;
+import elections.demos.backend.model.PartyResult;
+import elections.demos.backend.model.Region;
+import elections.demos.backend.repository.ElectionRepository;
+import elections.demos.backend.repository.PartyKieskringResultRepository;
+import elections.demos.backend.repository.PartyResultRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DutchPartyServiceTests {
+
+    @Test
+    void testStoreResultsWithTheirParties(@TempDir Path folder) {
+        Election election = ElectionSnapshotServiceTests.election(1589519, 656292);
+        List<PartyResult> saved = new ArrayList<>();
+        PartyResultRepository partyResultRepository = RepositoryStub.of(PartyResultRepository.class, Map.of(
+                "deleteByElectionId", args -> null,
+                "saveAll", args -> {
+                    ((Iterable<?>) args[0]).forEach(result -> saved.add((PartyResult) result));
+                    return saved;
+                }));
+        DutchPartyService service = new DutchPartyService(RepositoryStub.of(ElectionRepository.class, Map.of()),
+                partyResultRepository, RepositoryStub.of(PartyKieskringResultRepository.class, Map.of()),
+                ElectionSnapshotServiceTests.snapshotService(folder));
+
+        service.calculateAndStoreResults(election);
+
+        // The parties come from the results, in the order of the results
+        assertEquals(2, saved.size());
+        assertSame(election.getParties().get(0), saved.get(0).getParty());
+        assertSame(election.getParties().get(1), saved.get(1).getParty());
+        assertEquals(106, saved.get(0).getSeats());
+        assertEquals(44, saved.get(1).getSeats());
+        assertEquals(656292, saved.get(1).getTotalVotes());
+    }
+
+    @Test
+    void testRecalculateSeatsInStoredOrder() {
+        // Four parties with the same votes, the first two that were stored get the two seats that are left
+        Election election = new Election("TK2023", "Tweede Kamer der Staten-Generaal 2023");
+        List<PartyResult> results = new ArrayList<>();
+        for (long id = 4; id >= 1; id--) {
+            PartyResult result = new PartyResult();
+            result.setId(id);
+            result.setParty(new Party(String.valueOf(id), "Partij " + id, election));
+            result.setTotalVotes(1000);
+            results.add(result);
+        }
+        election.setPartyResults(results);
+        DutchPartyService service = new DutchPartyService(RepositoryStub.of(ElectionRepository.class, Map.of()),
+                RepositoryStub.of(PartyResultRepository.class, Map.of()),
+                RepositoryStub.of(PartyKieskringResultRepository.class, Map.of()), null);
+
+        service.recalculateSeats(election);
+
+        assertEquals(List.of(37, 37, 38, 38), results.stream().map(PartyResult::getSeats).toList());
+    }
+
+    @Test
+    void testReplaceKieskringResultsFromTheMatrix() {
+        Election election = new Election("TK2023", "Tweede Kamer der Staten-Generaal 2023");
+        election.addRegion(new Region("TK2023", 1, "KIESKRING", "Groningen"));
+        election.addRegion(new Region("TK2023", 2, "KIESKRING", "Leeuwarden"));
+        election.addKieskringPartyVotes(1, 0, "Partij 1", 100);
+        election.addKieskringPartyVotes(2, 1, "Partij 2", 50);
+        election.addKieskringPartyVotes(2, 0, "Partij 1", 25);
+
+        List<Collection<?>> deleted = new ArrayList<>();
+        List<PartyKieskringResult> saved = new ArrayList<>();
+        PartyKieskringResultRepository partyKieskringResultRepository = RepositoryStub.of(
+                PartyKieskringResultRepository.class, Map.of(
+                        "deleteByElectionIdAndKieskringIn", args -> deleted.add((Collection<?>) args[1]),
+                        "saveAll", args -> {
+                            ((Iterable<?>) args[0]).forEach(result -> saved.add((PartyKieskringResult) result));
+                            return saved;
+                        }));
+        DutchPartyService service = new DutchPartyService(RepositoryStub.of(ElectionRepository.class, Map.of()),
+                RepositoryStub.of(PartyResultRepository.class, Map.of()), partyKieskringResultRepository, null);
+
+        // Kieskring 3 has been parsed again without votes, it is only removed
+        service.replaceKieskringResults("TK2023", List.of(3), election.getKieskringVotes());
+
+        assertEquals(List.of(Set.of(1, 2, 3)), deleted.stream().map(Set::copyOf).toList());
+        assertEquals(List.of("1 Partij 1 100", "2 Partij 1 25", "2 Partij 2 50"), saved.stream()
+                .map(result -> result.getKieskring() + " " + result.getParty() + " " + result.getVotes())
+                .sorted().toList());
+    }
+}
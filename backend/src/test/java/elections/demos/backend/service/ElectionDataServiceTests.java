@@ -0,0 +1,79 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.PartyDataDTO;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.Party;
+import elections.demos.backend.model.PartyResult;
+import elections.demos.backend.repository.ElectionRepository;
+import elections.demos.backend.repository.PartyRepository;
+import elections.demos.backend.repository.PartyResultRepository;
+import elections.demos.backend.utils.SeatAllocationEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ElectionDataServiceTests {
+    // Partij 2 and 3 have the same votes, the lowest ordinal gets the ninth seat
+    private static final long[] VOTES = {400, 300, 300};
+
+    @Test
+    void testMarginsOfTheStoredSeats(@TempDir Path folder) {
+        int[] seats = SeatAllocationEngine.tweedeKamer().allocate(VOTES, 9);
+        assertEquals(3, seats[1]);
+        assertEquals(2, seats[2]);
+        long[] gain = new long[VOTES.length];
+        long[] loss = new long[VOTES.length];
+        SeatAllocationEngine.tweedeKamer().margins(VOTES, 9, seats, gain, loss);
+
+        List<PartyDataDTO> dtos = service(folder, results(seats)).getResults("TK2023", null, 9);
+        assertEquals(List.of("TK2023_1", "TK2023_2", "TK2023_3"),
+                dtos.stream().map(PartyDataDTO::getPartyId).toList());
+        for (int party = 0; party < VOTES.length; party++) {
+            assertEquals(margin(gain[party]), dtos.get(party).getVotesForNextSeat());
+            assertEquals(margin(loss[party]), dtos.get(party).getVotesToLoseSeat());
+        }
+    }
+
+    @Test
+    void testNoMarginsForSeatsOfAnotherDivision(@TempDir Path folder) {
+        List<PartyDataDTO> dtos = service(folder, results(new int[]{3, 3, 3})).getResults("TK2023", null, 9);
+        for (PartyDataDTO dto : dtos) {
+            assertEquals(3, dto.getSeats());
+            assertNull(dto.getVotesForNextSeat());
+            assertNull(dto.getVotesToLoseSeat());
+        }
+    }
+
+    private static Long margin(long votes) {
+        return votes == SeatAllocationEngine.NO_MARGIN ? null : votes;
+    }
+
+    // The results as the database returns them, last stored first
+    private static List<PartyResult> results(int[] seats) {
+        Election election = new Election("TK2023", "Tweede Kamer der Staten-Generaal 2023");
+        List<PartyResult> results = new ArrayList<>();
+        for (int party = 0; party < VOTES.length; party++) {
+            PartyResult result = new PartyResult();
+            result.setId(party + 1L);
+            result.setParty(new Party(String.valueOf(party + 1), "Partij " + (party + 1), election));
+            result.setTotalVotes(VOTES[party]);
+            result.setSeats(seats[party]);
+            results.add(0, result);
+        }
+        return results;
+    }
+
+    private static ElectionDataService service(Path folder, List<PartyResult> results) {
+        return new ElectionDataService(null, RepositoryStub.of(ElectionRepository.class, Map.of()),
+                RepositoryStub.of(PartyRepository.class, Map.of()),
+                RepositoryStub.of(PartyResultRepository.class, Map.of("findByElection_ElectionId", args -> results)),
+                ElectionSnapshotServiceTests.snapshotService(folder));
+    }
+}
@@ -0,0 +1,117 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.MunicipalityVotes;
+import elections.demos.backend.model.Party;
+import elections.demos.backend.model.PartyResult;
+import elections.demos.backend.repository.PartyKieskringResultRepository;
+import elections.demos.backend.utils.snapshot.ElectionSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElectionSnapshotServiceTests {
+
+    // An election as it is stored after an import, the results have votes but no seats
+    static Election election(long... votes) {
+        Election election = new Election("TK2023", "Tweede Kamer der Staten-Generaal 2023");
+        for (int index = 0; index < votes.length; index++) {
+            Party party = new Party(String.valueOf(index + 1), "Partij " + (index + 1), election);
+            election.addParty(party);
+            PartyResult result = new PartyResult();
+            result.setParty(party);
+            result.setTotalVotes(votes[index]);
+            election.addPartyResult(result);
+        }
+        return election;
+    }
+
+    static ElectionSnapshotService snapshotService(Path folder) {
+        return new ElectionSnapshotService(RepositoryStub.of(PartyKieskringResultRepository.class,
+                Map.of("findVotesPerPartyPerKieskring", args -> List.of())), folder.toString());
+    }
+
+    @Test
+    void testRefreshKeepsTheVotesInMemory(@TempDir Path folder) {
+        ElectionSnapshotService snapshotService = snapshotService(folder);
+        Election imported = election(1589519, 656292);
+        MunicipalityVotes municipalityVotes = imported.getMunicipalityVotes();
+        municipalityVotes.addPartyVotes(municipalityVotes.municipality("0392", "Haarlem"), 0, "Partij 1", 20000L);
+        snapshotService.write(imported);
+        assertEquals(106, snapshotService.find("TK2023").orElseThrow().getParties().get(0).seats());
+
+        // The results are written again from an election loaded from the database, with other votes
+        Election stored = election(656292, 1589519);
+        snapshotService.refresh(stored);
+
+        ElectionSnapshot snapshot = snapshotService.find("TK2023").orElseThrow();
+        assertEquals(44, snapshot.getParties().get(0).seats());
+        assertEquals(106, snapshot.getParties().get(1).seats());
+        assertEquals(1, snapshot.getMunicipalities().size(), "The votes per municipality must be kept!");
+
+        // The next start serves the new snapshot
+        ElectionSnapshotService restarted = snapshotService(folder);
+        restarted.loadSnapshots();
+        assertEquals(44, restarted.find("TK2023").orElseThrow().getParties().get(0).seats());
+    }
+
+    @Test
+    void testEveryWriteGoesToANewFile(@TempDir Path folder) throws IOException {
+        ElectionSnapshotService snapshotService = snapshotService(folder);
+        snapshotService.write(election(1589519, 656292));
+        snapshotService.write(election(656292, 1589519));
+        assertEquals(List.of("TK2023.2.snapshot"), fileNames(folder));
+
+        // The mapped snapshot is not overwritten, the next one gets a file of its own
+        ElectionSnapshotService restarted = snapshotService(folder);
+        restarted.loadSnapshots();
+        assertEquals(44, restarted.find("TK2023").orElseThrow().getParties().get(0).seats());
+        restarted.write(election(1589519, 656292));
+        assertEquals(106, restarted.find("TK2023").orElseThrow().getParties().get(0).seats());
+        assertEquals(List.of("TK2023.3.snapshot"), fileNames(folder));
+    }
+
+    @Test
+    void testLoadTheNewestSnapshot(@TempDir Path folder) throws IOException {
+        // A snapshot from before there were generations, and a newer one
+        snapshotService(folder).write(election(1589519, 656292));
+        Files.move(folder.resolve("TK2023.1.snapshot"), folder.resolve("TK2023.snapshot"));
+        snapshotService(folder).write(election(656292, 1589519));
+
+        ElectionSnapshotService restarted = snapshotService(folder);
+        restarted.loadSnapshots();
+        assertEquals(44, restarted.find("TK2023").orElseThrow().getParties().get(0).seats());
+        assertEquals(List.of("TK2023.1.snapshot"), fileNames(folder), "The older snapshot must be removed!");
+    }
+
+    @Test
+    void testFailedWriteIsNotServed(@TempDir Path folder) throws IOException {
+        ElectionSnapshotService snapshotService = snapshotService(folder);
+        snapshotService.write(election(1589519, 656292));
+        assertTrue(snapshotService.find("TK2023").isPresent());
+
+        // The next snapshot can't be moved in place
+        Files.createDirectories(folder.resolve("TK2023.2.snapshot").resolve("in the way"));
+        snapshotService.write(election(656292, 1589519));
+        assertTrue(snapshotService.find("TK2023").isEmpty(), "The old results must not be served!");
+
+        ElectionSnapshotService restarted = snapshotService(folder);
+        restarted.loadSnapshots();
+        assertTrue(restarted.find("TK2023").isEmpty(), "The old results must not be served after a restart!");
+    }
+
+    private static List<String> fileNames(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(Files::isRegularFile).map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
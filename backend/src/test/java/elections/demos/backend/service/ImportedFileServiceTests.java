@@ -0,0 +1,154 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.ImportedFile;
+import elections.demos.backend.model.Region;
+import elections.demos.backend.repository.ImportedFileRepository;
+import elections.demos.backend.utils.ElectionManifest;
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportedFileServiceTests {
+    private static final String DEFINITION = "Verkiezingsdefinitie_TK2023.eml.xml";
+    private static final String CANDIDATE_LISTS = "Kandidatenlijsten_TK2023_Haarlem.eml.xml";
+    private static final String TOTAL_VOTES = "Totaaltelling_TK2023.eml.xml";
+    private static final String KIESKRING_VOTES = "Telling_TK2023_kieskring_Haarlem.eml.xml";
+
+    private final List<ImportedFile> rows = new ArrayList<>();
+    private final ImportedFileService importedFileService = new ImportedFileService(repository(rows));
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void createElection() throws IOException {
+        Files.writeString(folder.resolve(DEFINITION), "<definition/>");
+        Files.writeString(folder.resolve(CANDIDATE_LISTS), "<candidate lists/>");
+        Files.writeString(folder.resolve(TOTAL_VOTES), "<total votes 1/>");
+        Files.writeString(folder.resolve(KIESKRING_VOTES), "<votes/>");
+    }
+
+    // The manifest of the folder is cached, it must not outlive the folder
+    @AfterEach
+    void closeManifest() throws IOException {
+        PathUtils.closeManifest(folder.toString());
+    }
+
+    @Test
+    void testFileOverwrittenInPlace() throws IOException {
+        List<ElectionManifest.Entry> files = recordElection();
+        ElectionManifest manifest = PathUtils.getManifest(folder.toString());
+
+        // A corrected file is written over the old one, the folder keeps its modification time
+        FileTime folderTime = Files.getLastModifiedTime(folder);
+        Files.writeString(folder.resolve(KIESKRING_VOTES), "<corrected votes/>");
+        Files.setLastModifiedTime(folder, folderTime);
+        try (ElectionManifest cached = PathUtils.getManifest(folder.toString())) {
+            assertSame(manifest, cached, "The folder didn't change, the manifest is not scanned again!");
+        }
+
+        ImportedFileService.Changes changes = importedFileService.findChanges("TK2023", files);
+        assertEquals(List.of(KIESKRING_VOTES), changes.changed().stream().map(ElectionManifest.Entry::fileName).toList());
+        assertTrue(changes.isIncremental());
+        assertTrue(changes.contains(ElectionManifest.FileType.VOTES));
+        assertFalse(changes.contains(ElectionManifest.FileType.TOTAL_VOTES));
+
+        Election election = new Election("TK2023");
+        election.addRegion(new Region("TK2023", 9, "KIESKRING", "Haarlem"));
+        election.addRegion(new Region("TK2023", 10, "KIESKRING", "Amsterdam"));
+        assertEquals(Set.of(9), DutchElectionServiceImpl.changedKieskringen(election, changes));
+
+        // Once recorded, the corrected file is the imported one
+        importedFileService.record("TK2023", files);
+        assertTrue(importedFileService.findChanges("TK2023", files).isEmpty());
+        manifest.close();
+    }
+
+    @Test
+    void testTouchedWithSameContent() throws IOException {
+        List<ElectionManifest.Entry> files = recordElection();
+
+        // Downloaded again, a new modification time but the same content
+        Path totals = folder.resolve(TOTAL_VOTES);
+        Files.setLastModifiedTime(totals, FileTime.fromMillis(Files.getLastModifiedTime(totals).toMillis() + 60_000));
+        assertTrue(importedFileService.findChanges("TK2023", files).isEmpty());
+
+        // The same size, but not the same content
+        Files.writeString(totals, "<total votes 2/>");
+        Files.setLastModifiedTime(totals, FileTime.fromMillis(Files.getLastModifiedTime(totals).toMillis() + 120_000));
+        ImportedFileService.Changes changes = importedFileService.findChanges("TK2023", files);
+        assertEquals(1, changes.changed().size());
+        assertTrue(changes.isIncremental());
+        assertTrue(changes.contains(ElectionManifest.FileType.TOTAL_VOTES));
+    }
+
+    @Test
+    void testNotIncremental() throws IOException {
+        List<ElectionManifest.Entry> files = recordElection();
+
+        // The candidate lists changed, everything depends on them
+        Files.writeString(folder.resolve(CANDIDATE_LISTS), "<other candidate lists/>");
+        ImportedFileService.Changes changes = importedFileService.findChanges("TK2023", files);
+        assertFalse(changes.isEmpty());
+        assertFalse(changes.isIncremental());
+
+        // A file that is no longer there
+        List<ElectionManifest.Entry> withoutTotals = files.stream()
+                .filter(entry -> !entry.fileName().equals(TOTAL_VOTES) && !entry.fileName().equals(CANDIDATE_LISTS))
+                .toList();
+        changes = importedFileService.findChanges("TK2023", withoutTotals);
+        assertEquals(Set.of(TOTAL_VOTES, CANDIDATE_LISTS), changes.removed());
+        assertFalse(changes.isIncremental());
+    }
+
+    // Records the files of the folder as they would be after a full import.
+    private List<ElectionManifest.Entry> recordElection() throws IOException {
+        List<ElectionManifest.Entry> files;
+        try (ElectionManifest manifest = PathUtils.getManifest(folder.toString())) {
+            files = importedFileService.electionFiles("TK2023", manifest);
+        }
+        assertEquals(4, files.size());
+        importedFileService.record("TK2023", files);
+        assertEquals(4, rows.size());
+        assertTrue(importedFileService.findChanges("TK2023", files).isEmpty());
+        return files;
+    }
+
+    // The recorded files are kept in the list, only the methods of the repository the service uses are supported.
+    @SuppressWarnings("unchecked")
+    private static ImportedFileRepository repository(List<ImportedFile> rows) {
+        return RepositoryStub.of(ImportedFileRepository.class, Map.of(
+                "findByElectionId", args -> rows.stream()
+                        .filter(row -> row.getElectionId().equals(args[0]))
+                        .toList(),
+                "saveAll", args -> {
+                    for (ImportedFile row : (Iterable<ImportedFile>) args[0]) {
+                        if (!rows.contains(row)) {
+                            rows.add(row);
+                        }
+                    }
+                    return args[0];
+                },
+                "deleteAll", args -> {
+                    ((Iterable<ImportedFile>) args[0]).forEach(rows::remove);
+                    return null;
+                },
+                "deleteByElectionId", args -> rows.removeIf(row -> row.getElectionId().equals(args[0]))));
+    }
+}
@@ -0,0 +1,93 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.KieskringSeatsDTO;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.PartyKieskringSeats;
+import elections.demos.backend.model.Region;
+import elections.demos.backend.repository.PartyKieskringResultRepository;
+import elections.demos.backend.repository.PartyKieskringSeatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KieskringSeatServiceTests {
+    private final List<PartyKieskringSeats> rows = new ArrayList<>();
+    // The rows that have been committed, the cache may only give those
+    private final List<PartyKieskringSeats> committed = new ArrayList<>();
+    private final KieskringSeatService service = new KieskringSeatService(
+            RepositoryStub.of(PartyKieskringSeatsRepository.class, Map.of(
+                    "deleteByElectionId", args -> {
+                        rows.clear();
+                        return null;
+                    },
+                    "saveAll", args -> {
+                        ((Iterable<?>) args[0]).forEach(row -> rows.add((PartyKieskringSeats) row));
+                        return rows;
+                    },
+                    "findByElectionId", args -> List.copyOf(committed))),
+            RepositoryStub.of(PartyKieskringResultRepository.class, Map.of(
+                    "findVotesPerPartyPerKieskring", args -> List.of(
+                            new Object[]{1, "Partij 1", 1000000L}, new Object[]{2, "Partij 1", 589519L},
+                            new Object[]{1, "Partij 2", 300000L}, new Object[]{2, "Partij 2", 356292L}))));
+
+    // An election right after parsing, the results have votes but no seats
+    private static Election election() {
+        Election election = ElectionSnapshotServiceTests.election(1589519, 656292);
+        election.addRegion(new Region("TK2023", 1, "KIESKRING", "Groningen"));
+        election.addRegion(new Region("TK2023", 2, "KIESKRING", "Leeuwarden"));
+        return election;
+    }
+
+    @Test
+    void testSeatsOfTheResults() {
+        Election election = election();
+        election.addKieskringPartyVotes(1, 0, "Partij 1", 1000000);
+        election.addKieskringPartyVotes(2, 0, "Partij 1", 589519);
+        election.addKieskringPartyVotes(1, 1, "Partij 2", 300000);
+        election.addKieskringPartyVotes(2, 1, "Partij 2", 356292);
+
+        service.apportion(election, election.getKieskringVotes());
+
+        List<KieskringSeatsDTO> parties = service.getKieskringSeats("TK2023").orElseThrow();
+        assertEquals(List.of("Partij 1", "Partij 2"), parties.stream().map(KieskringSeatsDTO::getParty).toList());
+        assertEquals(106, parties.get(0).getSeats());
+        assertEquals(44, parties.get(1).getSeats());
+        assertEquals(Map.of(1, 67, 2, 39), parties.get(0).getSeatsPerKieskring());
+        assertEquals(Map.of(1, 20, 2, 24), parties.get(1).getSeatsPerKieskring());
+    }
+
+    @Test
+    void testReapportionTheStoredVotes() {
+        service.reapportion(election());
+
+        List<KieskringSeatsDTO> parties = service.getKieskringSeats("TK2023").orElseThrow();
+        assertEquals(Map.of(1, 67, 2, 39), parties.get(0).getSeatsPerKieskring());
+        assertEquals(Map.of(1, 20, 2, 24), parties.get(1).getSeatsPerKieskring());
+    }
+
+    @Test
+    void testCachedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.reapportion(election());
+            assertEquals(4, rows.size());
+            assertTrue(service.getKieskringSeats("TK2023").isEmpty(), "Not committed yet");
+
+            committed.addAll(rows);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        committed.clear();
+        assertEquals(106, service.getKieskringSeats("TK2023").orElseThrow().get(0).getSeats());
+    }
+}
@@ -0,0 +1,40 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.PreferenceVotesDTO;
+import elections.demos.backend.model.CandidateVotes;
+import elections.demos.backend.model.Election;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreferenceVotesServiceTests {
+
+    @Test
+    void testElectedFromAnUnseatedImport(@TempDir Path folder) {
+        // The results of a full import have votes but no seats, 106 and 44 seats follow from the votes
+        Election election = ElectionSnapshotServiceTests.election(1589519, 656292);
+        CandidateVotes candidateVotes = election.getCandidateVotes();
+        candidateVotes.addNational(candidateVotes.candidate("1", "1"), 1200000);
+        candidateVotes.addNational(candidateVotes.candidate("1", "2"), 1000);
+        candidateVotes.addNational(candidateVotes.candidate("2", "1"), 500000);
+        ElectionSnapshotService snapshotService = ElectionSnapshotServiceTests.snapshotService(folder);
+        snapshotService.write(election);
+        PreferenceVotesService service = new PreferenceVotesService(snapshotService);
+
+        List<PreferenceVotesDTO> elected = service.getElectedByPreference("TK2023").orElseThrow();
+        assertEquals(List.of("TK2023_1_1", "TK2023_2_1"),
+                elected.stream().map(PreferenceVotesDTO::getCandidateId).toList());
+
+        List<PreferenceVotesDTO> candidates = service.getCandidateVotes("TK2023", null).orElseThrow();
+        assertEquals(3, candidates.size());
+        assertTrue(candidates.get(0).isElectedByPreference());
+        assertTrue(candidates.get(1).isElectedByPreference());
+        assertFalse(candidates.get(2).isElectedByPreference(), "1000 votes are below the threshold");
+    }
+}
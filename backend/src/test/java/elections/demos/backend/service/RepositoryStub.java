@@ -0,0 +1,30 @@
+package elections.demos.backend.service;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Builds a repository for the tests of a service without a database. It only answers the methods it has been given,
+ * by their name, any other call fails.
+ */
+final class RepositoryStub {
+    /**
+     * The answer to a call of a repository method.
+     */
+    interface Answer {
+        Object answer(Object[] args);
+    }
+
+    private RepositoryStub() {
+    }
+
+    static <R> R of(Class<R> type, Map<String, Answer> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Answer answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.answer(args);
+        }));
+    }
+}
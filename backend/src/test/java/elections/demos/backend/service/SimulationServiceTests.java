@@ -0,0 +1,42 @@
+package elections.demos.backend.service;
+
+import elections.demos.backend.dto.SimulationRequestDTO;
+import elections.demos.backend.dto.SimulationResultDTO;
+import elections.demos.backend.dto.VoteShiftDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimulationServiceTests {
+
+    @Test
+    void testShiftsOnTheSimulationPool(@TempDir Path folder) {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ElectionSnapshotService snapshotService = ElectionSnapshotServiceTests.snapshotService(folder);
+            snapshotService.write(ElectionSnapshotServiceTests.election(1589519, 656292));
+            SimulationService service = new SimulationService(snapshotService, pool, 1000, 10000, 2000, 10000);
+
+            // The percentages out of Partij 1 add up to 110
+            SimulationRequestDTO tooMuch = new SimulationRequestDTO(List.of(
+                    new VoteShiftDTO("Partij 1", "Partij 2", 60, 0), new VoteShiftDTO("1", "Partij 2", 50, 0)),
+                    null, null, 1L);
+            assertThrows(IllegalArgumentException.class, () -> service.simulate("TK2023", tooMuch));
+
+            SimulationRequestDTO all = new SimulationRequestDTO(List.of(
+                    new VoteShiftDTO("Partij 1", "Partij 2", 100, 0)), 500L, null, 1L);
+            SimulationResultDTO result = service.simulate("TK2023", all).orElseThrow();
+            assertEquals(500, result.getIterations());
+            assertEquals("Partij 2", result.getParties().get(0).getPartyName());
+            assertEquals(150, result.getParties().get(0).getMeanSeats(), 1e-9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package elections.demos.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalitionEnumeratorTests {
+    // The seats of the Tweede Kamer 2023, in a different order than the size, and a party without seats
+    private static final int[] SEATS = {24, 25, 37, 20, 9, 0, 7, 5, 5, 3, 3, 3, 3, 3, 2, 1};
+
+    @Test
+    void testMatchesBruteForce() {
+        int majority = CoalitionEnumerator.majority(150);
+        assertEquals(76, majority);
+        long[] found = CoalitionEnumerator.minimalWinning(SEATS, majority);
+
+        long[] expected = bruteForce(SEATS, majority);
+        long[] sorted = found.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(expected, sorted);
+        assertTrue(found.length > 0);
+
+        // PVV, GL/PvdA and VVD
+        assertTrue(Arrays.stream(found).anyMatch(coalition -> coalition == 0b111));
+        assertEquals(86, CoalitionEnumerator.seats(0b111, SEATS));
+    }
+
+    @Test
+    void testEdgeCases() {
+        assertArrayEquals(new long[]{0b1}, CoalitionEnumerator.minimalWinning(new int[]{76, 74}, 76));
+        assertArrayEquals(new long[0], CoalitionEnumerator.minimalWinning(new int[]{10, 10}, 76));
+        assertArrayEquals(new long[0], CoalitionEnumerator.minimalWinning(new int[0], 76));
+        int[] tooMany = new int[65];
+        tooMany[64] = 1;
+        assertThrows(IllegalArgumentException.class, () -> CoalitionEnumerator.minimalWinning(tooMany, 1));
+    }
+
+    // Every subset that has the majority and loses it without any one of its members.
+    private static long[] bruteForce(int[] seats, int majority) {
+        return LongStream.range(1, 1L << seats.length)
+                .filter(coalition -> {
+                    int total = CoalitionEnumerator.seats(coalition, seats);
+                    if (total < majority) {
+                        return false;
+                    }
+                    for (int party = 0; party < seats.length; party++) {
+                        if ((coalition & 1L << party) != 0 && (seats[party] == 0 || total - seats[party] >= majority)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .toArray();
+    }
+}
@@ -0,0 +1,98 @@
+package elections.demos.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElectionManifestTests {
+
+    @Test
+    void testClassification() throws IOException {
+        ElectionManifest manifest = PathUtils.getManifest(PathUtils.getResourcePath("/TK2023-Partial/Constituency"));
+
+        List<ElectionManifest.Entry> entries = manifest.getEntries();
+        assertEquals(2, entries.size());
+        for (ElectionManifest.Entry entry : entries) {
+            assertEquals(ElectionManifest.FileType.VOTES, entry.type());
+            assertEquals("TK2023", entry.electionId());
+            assertTrue(entry.kieskring().startsWith("Haarlem-Partial"), "The kieskring is part of the name!");
+            assertEquals(null, entry.municipality());
+            assertTrue(entry.size() > 0);
+        }
+        assertEquals(2, manifest.files("Telling_TK2023_kieskring").size());
+        assertEquals(0, manifest.files("Telling_TK2023_gemeente").size());
+    }
+
+    @Test
+    void testManifestIsReused() throws IOException {
+        String folderName = PathUtils.getResourcePath("/TK2023-Partial/Constituency");
+        ElectionManifest manifest = PathUtils.getManifest(folderName);
+
+        assertTrue(manifest.isCurrent());
+        assertTrue(manifest == PathUtils.getManifest(folderName), "An unchanged folder must not be walked again!");
+        List<Path> files = PathUtils.findFilesToScan(folderName, "Telling_TK2023");
+        assertEquals(manifest.files("Telling_TK2023"), files);
+    }
+
+    @Test
+    void testContentHash() throws IOException, NoSuchAlgorithmException {
+        ElectionManifest manifest = PathUtils.getManifest(PathUtils.getResourcePath("/TK2023-Partial/Constituency"));
+
+        for (ElectionManifest.Entry entry : manifest.getEntries()) {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(entry.path()));
+            assertEquals(HexFormat.of().formatHex(digest), entry.contentHash());
+        }
+    }
+
+    @Test
+    void testReplacedArchiveStaysOpen() throws IOException {
+        Path zipFile = Files.createTempFile("TK2023-Manifest", ".zip");
+        try {
+            writeZip(zipFile, "first");
+            ElectionManifest reading = PathUtils.getManifest(zipFile.toString());
+            Path entry = reading.getEntries().get(0).path();
+
+            // The archive is replaced while an import is still reading the old one
+            Path download = Files.createTempFile("TK2023-Manifest", ".zip");
+            writeZip(download, "second");
+            Files.move(download, zipFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(zipFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            try (ElectionManifest replaced = PathUtils.getManifest(zipFile.toString())) {
+                assertNotSame(reading, replaced);
+                assertEquals("first", Files.readString(entry), "The old archive must stay open while it is read!");
+                assertEquals("second", Files.readString(replaced.getEntries().get(0).path()));
+            }
+
+            reading.close();
+            assertThrows(ClosedFileSystemException.class, () -> Files.readString(entry));
+        } finally {
+            PathUtils.closeManifest(zipFile.toString());
+            Files.delete(zipFile);
+        }
+    }
+
+    private static void writeZip(Path zipFile, String content) throws IOException {
+        try (OutputStream out = Files.newOutputStream(zipFile); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("Telling_TK2023_kieskring_Haarlem.eml.xml"));
+            zip.write(content.getBytes());
+            zip.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package elections.demos.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KieskringApportionmentTests {
+    // Two kieskringen, three parties
+    private static final long[][] VOTES = {{600, 300, 100}, {400, 500, 100}};
+
+    @Test
+    void testApportion() {
+        int[][] seats = KieskringApportionment.apportion(VOTES, 10);
+
+        // 5, 4 and 1 seats, the full quotas of the party first and then the largest remainders, a tie goes to the
+        // first kieskring
+        assertArrayEquals(new int[]{3, 2, 1}, seats[0]);
+        assertArrayEquals(new int[]{2, 2, 0}, seats[1]);
+    }
+
+    @Test
+    void testSeatsPerPartyAreKept() {
+        long[][] votes = {{12345, 678, 0}, {2345, 9876, 50}, {345, 4321, 7}};
+        int[] seatsPerParty = {7, 6, 0};
+        int[][] seats = KieskringApportionment.apportion(votes, seatsPerParty);
+
+        for (int party = 0; party < seatsPerParty.length; party++) {
+            int total = 0;
+            for (int[] kieskring : seats) {
+                total += kieskring[party];
+            }
+            assertEquals(seatsPerParty[party], total);
+        }
+        assertEquals(0, seats[1][2]);
+    }
+
+    @Test
+    void testNationalVotes() {
+        assertArrayEquals(new long[]{1000, 800, 200}, KieskringApportionment.nationalVotes(VOTES));
+        assertArrayEquals(new long[0], KieskringApportionment.nationalVotes(new long[0][]));
+        assertEquals(0, KieskringApportionment.apportion(new long[0][], 150).length);
+    }
+}
@@ -0,0 +1,164 @@
+package elections.demos.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatAllocationEngineTests {
+    private static final long[] VOTES = {100000, 80000, 30000, 20000};
+
+    @Test
+    void testMethods() {
+        assertArrayEquals(new int[]{4, 3, 1, 0},
+                new SeatAllocationEngine(SeatAllocationEngine.Method.D_HONDT, false).allocate(VOTES, 8));
+        assertArrayEquals(new int[]{3, 3, 1, 1},
+                new SeatAllocationEngine(SeatAllocationEngine.Method.SAINTE_LAGUE, false).allocate(VOTES, 8));
+        assertArrayEquals(new int[]{3, 3, 1, 1},
+                new SeatAllocationEngine(SeatAllocationEngine.Method.HARE, false).allocate(VOTES, 8));
+    }
+
+    @Test
+    void testFullQuotaThreshold() {
+        long[] votes = {500, 300, 200};
+        assertArrayEquals(new int[]{2, 1, 0},
+                new SeatAllocationEngine(SeatAllocationEngine.Method.D_HONDT, false).allocate(votes, 3));
+        assertArrayEquals(new int[]{3, 0, 0}, SeatAllocationEngine.tweedeKamer().allocate(votes, 3));
+        assertArrayEquals(new int[]{3, 0, 0},
+                new SeatAllocationEngine(SeatAllocationEngine.Method.HARE, true).allocate(votes, 3));
+        assertTrue(SeatAllocationEngine.reachesQuota(334, 1000, 3));
+        assertTrue(!SeatAllocationEngine.reachesQuota(333, 1000, 3));
+    }
+
+    @Test
+    void testTweedeKamer2023() {
+        // PVV, GL/PvdA, VVD, NSC, D66, BBB, CDA, SP, DENK, PvdD, FvD, SGP, CU, Volt, JA21, 50PLUS
+        long[] votes = {2450878, 1643073, 1589519, 1343287, 656292, 485551, 345822, 328225, 246765, 235148, 232963,
+                217270, 212532, 178802, 71345, 51043};
+        int[] seats = SeatAllocationEngine.tweedeKamer().allocate(votes, 150);
+        assertArrayEquals(new int[]{37, 25, 24, 20, 9, 7, 5, 5, 3, 3, 3, 3, 3, 2, 1, 0}, seats);
+    }
+
+    @Test
+    void testRepeatedCallsReuseTheEngine() {
+        SeatAllocationEngine engine = new SeatAllocationEngine(SeatAllocationEngine.Method.SAINTE_LAGUE, false);
+        int[] seats = new int[5];
+        assertEquals(8, engine.allocate(VOTES, 8, seats));
+        assertArrayEquals(new int[]{3, 3, 1, 1, 0}, seats);
+        assertEquals(2, engine.allocate(new long[]{0, 10}, 2, seats));
+        assertArrayEquals(new int[]{0, 2, 1, 1, 0}, seats);
+        assertEquals(0, engine.allocate(new long[]{0, -5}, 2, seats));
+    }
+
+    @Test
+    void testExactComparison() {
+        // Both products overflow a long, the first is larger
+        assertTrue(SeatAllocationEngine.compare(Long.MAX_VALUE, 3, Long.MAX_VALUE, 2) > 0);
+        assertEquals(0, SeatAllocationEngine.compare(6, 7, 21, 2));
+        // Equal averages go to the lowest ordinal
+        assertArrayEquals(new int[]{1, 0},
+                new SeatAllocationEngine(SeatAllocationEngine.Method.D_HONDT, false).allocate(new long[]{5, 5}, 1));
+        // Neither reaches the full quota of 10 votes
+        assertArrayEquals(new int[]{0, 0}, SeatAllocationEngine.tweedeKamer().allocate(new long[]{5, 5}, 1));
+    }
+
+    @Test
+    void testMarginsMatchANewDivision() {
+        SplittableRandom random = new SplittableRandom(2023);
+        for (SeatAllocationEngine.Method method : new SeatAllocationEngine.Method[]{
+                SeatAllocationEngine.Method.D_HONDT, SeatAllocationEngine.Method.SAINTE_LAGUE}) {
+            SeatAllocationEngine engine = new SeatAllocationEngine(method, false);
+            for (int round = 0; round < 200; round++) {
+                long[] votes = random.longs(1 + random.nextInt(8), 0, 5000).toArray();
+                assertMargins(engine, votes, 1 + random.nextInt(20));
+            }
+        }
+    }
+
+    @Test
+    void testMarginsOfTheTweedeKamer() {
+        long[] votes = {2450878, 1643073, 1589519, 1343287, 656292, 485551, 345822, 328225, 246765, 235148, 232963,
+                217270, 212532, 178802, 71345, 51043};
+        assertMargins(SeatAllocationEngine.tweedeKamer(), votes, 150);
+
+        // 50PLUS first has to reach the full quota
+        long[] gain = new long[votes.length];
+        long[] loss = new long[votes.length];
+        SeatAllocationEngine engine = SeatAllocationEngine.tweedeKamer();
+        engine.margins(votes, 150, engine.allocate(votes, 150), gain, loss);
+        long total = Arrays.stream(votes).sum();
+        assertTrue(SeatAllocationEngine.reachesQuota(votes[15] + gain[15], total + gain[15], 150));
+        assertTrue(!SeatAllocationEngine.reachesQuota(votes[15] + gain[15] - 1, total + gain[15] - 1, 150));
+        assertEquals(SeatAllocationEngine.NO_MARGIN, loss[15]);
+        assertThrows(IllegalStateException.class, () -> new SeatAllocationEngine(SeatAllocationEngine.Method.HARE,
+                false).margins(votes, 150, new int[votes.length], gain, loss));
+    }
+
+    @Test
+    void testMarginsWhenAnotherPartyCrossesTheQuota() {
+        // The third list has the quota exactly, a single vote more for another list pushes it out
+        long[] votes = {500, 390, 100, 10};
+        SeatAllocationEngine engine = SeatAllocationEngine.tweedeKamer();
+        assertEquals(1, engine.allocate(votes, 10)[2]);
+        assertCrossingMargins(engine, votes, 10);
+
+        // Small elections, where the quota moves past other lists all the time
+        SplittableRandom random = new SplittableRandom(3);
+        for (int election = 0; election < 500; election++) {
+            long[] small = new long[2 + random.nextInt(5)];
+            for (int party = 0; party < small.length; party++) {
+                small[party] = random.nextInt(400);
+            }
+            assertCrossingMargins(engine, small, 1 + random.nextInt(12));
+        }
+    }
+
+    // Like assertMargins, but a margin may win or lose more than one seat when it pushes another list out or lets it in.
+    private static void assertCrossingMargins(SeatAllocationEngine engine, long[] votes, int totalSeats) {
+        int[] seats = engine.allocate(votes, totalSeats);
+        long[] gain = new long[votes.length];
+        long[] loss = new long[votes.length];
+        engine.margins(votes, totalSeats, seats, gain, loss);
+        for (int party = 0; party < votes.length; party++) {
+            if (gain[party] != SeatAllocationEngine.NO_MARGIN) {
+                assertTrue(seatsWith(engine, votes, totalSeats, party, gain[party]) > seats[party]);
+                assertEquals(seats[party], seatsWith(engine, votes, totalSeats, party, gain[party] - 1));
+            }
+            if (loss[party] != SeatAllocationEngine.NO_MARGIN) {
+                assertTrue(seatsWith(engine, votes, totalSeats, party, -loss[party]) < seats[party]);
+                assertEquals(seats[party], seatsWith(engine, votes, totalSeats, party, 1 - loss[party]));
+            }
+        }
+    }
+
+    // Divides the seats again with the margins added or taken away, one vote less changes nothing.
+    private static void assertMargins(SeatAllocationEngine engine, long[] votes, int totalSeats) {
+        int[] seats = engine.allocate(votes, totalSeats);
+        long[] gain = new long[votes.length];
+        long[] loss = new long[votes.length];
+        engine.margins(votes, totalSeats, seats, gain, loss);
+        for (int party = 0; party < votes.length; party++) {
+            if (gain[party] != SeatAllocationEngine.NO_MARGIN) {
+                assertEquals(seats[party] + 1, seatsWith(engine, votes, totalSeats, party, gain[party]));
+                assertEquals(seats[party], seatsWith(engine, votes, totalSeats, party, gain[party] - 1));
+            }
+            if (loss[party] != SeatAllocationEngine.NO_MARGIN) {
+                assertTrue(seatsWith(engine, votes, totalSeats, party, -loss[party]) < seats[party]);
+                assertEquals(seats[party], seatsWith(engine, votes, totalSeats, party, 1 - loss[party]));
+            } else {
+                assertEquals(0, seats[party]);
+            }
+        }
+    }
+
+    private static int seatsWith(SeatAllocationEngine engine, long[] votes, int totalSeats, int party, long delta) {
+        long[] changed = votes.clone();
+        changed[party] += delta;
+        return engine.allocate(changed, totalSeats)[party];
+    }
+}
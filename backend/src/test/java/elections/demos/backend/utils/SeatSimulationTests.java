@@ -0,0 +1,83 @@
+package elections.demos.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatSimulationTests {
+    // Two kieskringen, three parties
+    private static final long[][] VOTES = {{60000, 30000, 10000}, {40000, 50000, 10000}};
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(30);
+
+    @Test
+    void testWithoutShifts() {
+        SeatSimulation simulation = new SeatSimulation(VOTES, 10, List.of(), SeatAllocationEngine::tweedeKamer);
+        SeatSimulation.Result result = simulation.run(ForkJoinPool.commonPool(), 10000, 1, BUDGET);
+
+        assertEquals(10000, result.iterations());
+        assertArrayEquals(new int[]{5, 4, 1}, result.baselineSeats());
+        for (int party = 0; party < 3; party++) {
+            assertEquals(10000, result.histograms()[party][result.baselineSeats()[party]]);
+            assertEquals(result.baselineSeats()[party], result.meanSeats(party), 1e-9);
+        }
+    }
+
+    @Test
+    void testShiftsAreReproducible() {
+        List<SeatSimulation.Shift> shifts = List.of(new SeatSimulation.Shift(0, 1, 0.1, 0.1));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SeatSimulation simulation = new SeatSimulation(VOTES, 10, shifts, SeatAllocationEngine::tweedeKamer);
+            SeatSimulation.Result first = simulation.run(pool, 50000, 42, BUDGET);
+            SeatSimulation.Result second = simulation.run(pool, 50000, 42, BUDGET);
+
+            assertEquals(50000, first.iterations());
+            for (int party = 0; party < 3; party++) {
+                assertArrayEquals(first.histograms()[party], second.histograms()[party]);
+            }
+            // Up to 20% of the votes of the first party go to the second one
+            assertTrue(first.meanSeats(0) < 5 && first.meanSeats(1) > 4);
+            assertTrue(first.histograms()[0][5] > 0 && first.histograms()[0][4] > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testWholeShift() {
+        List<SeatSimulation.Shift> shifts = List.of(new SeatSimulation.Shift(0, 2, 1.0, 0));
+        SeatSimulation.Result result = new SeatSimulation(VOTES, 10, shifts, SeatAllocationEngine::tweedeKamer)
+                .run(ForkJoinPool.commonPool(), 100, 7, BUDGET);
+        assertEquals(100, result.histograms()[0][0]);
+        assertEquals(100, result.histograms()[2][6]);
+    }
+
+    @Test
+    void testShiftsOutOfAPartyAboveAllItsVotes() {
+        // 60% and 50% of the first party, more than it has
+        List<SeatSimulation.Shift> shifts = List.of(new SeatSimulation.Shift(0, 1, 0.6, 0),
+                new SeatSimulation.Shift(0, 2, 0.5, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SeatSimulation(VOTES, 10, shifts, SeatAllocationEngine::tweedeKamer));
+
+        // With its spread a shift can move up to 70%
+        List<SeatSimulation.Shift> spread = List.of(new SeatSimulation.Shift(0, 1, 0.5, 0.2),
+                new SeatSimulation.Shift(0, 2, 0.4, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SeatSimulation(VOTES, 10, spread, SeatAllocationEngine::tweedeKamer));
+
+        // All the votes, split over two parties
+        List<SeatSimulation.Shift> all = List.of(new SeatSimulation.Shift(0, 1, 0.5, 0),
+                new SeatSimulation.Shift(0, 2, 0.5, 0));
+        SeatSimulation.Result result = new SeatSimulation(VOTES, 10, all, SeatAllocationEngine::tweedeKamer)
+                .run(ForkJoinPool.commonPool(), 100, 7, BUDGET);
+        assertEquals(100, result.histograms()[0][0]);
+    }
+}
@@ -0,0 +1,236 @@
+package elections.demos.backend.utils.snapshot;
+
+import elections.demos.backend.model.Candidate;
+import elections.demos.backend.model.CandidateVotes;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.MunicipalityVotes;
+import elections.demos.backend.model.Party;
+import elections.demos.backend.model.PartyResult;
+import elections.demos.backend.model.PollingStationVotes;
+import elections.demos.backend.model.Region;
+import elections.demos.backend.model.TurnoutVotes;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ElectionSnapshotTests {
+
+    private static Election election() {
+        Election election = new Election("TK2023", "Tweede Kamer der Staten-Generaal 2023");
+        election.setElectionCategory("TK");
+        election.addRegion(new Region("TK2023", 9, "KIESKRING", "Haarlem"));
+        election.addRegion(new Region("TK2023", 10, "KIESKRING", "Den Helder"));
+        for (String[] data : new String[][]{{"1", "VVD", "1589519"}, {"2", "D66", "656292"}, {"3", "Ĳsselmonde", "0"}}) {
+            Party party = new Party(data[0], data[1], election);
+            election.addParty(party);
+            party.getCandidates().add(new Candidate("1", election, "A.", "Anna", "Jansen", "female", "Haarlem", party));
+            PartyResult result = new PartyResult();
+            result.setParty(party);
+            // Like after an import, the seats and percentage are not set
+            result.setTotalVotes(Long.parseLong(data[2]));
+            election.addPartyResult(result);
+        }
+        return election;
+    }
+
+    @Test
+    void testWriteAndMap() throws IOException {
+        Election election = election();
+        Map<Integer, Map<String, Long>> kieskringVotes = Map.of(
+                10, Map.of("VVD", 40000L),
+                9, Map.of("VVD", 70000L, "D66", 30000L));
+        ElectionSnapshot snapshot = ElectionSnapshot.of(election, kieskringVotes);
+
+        Path file = Files.createTempFile("TK2023", ".snapshot");
+        try {
+            snapshot.write(file);
+            ElectionSnapshot mapped = ElectionSnapshot.map(file);
+
+            assertEquals("TK2023", mapped.getElectionId());
+            assertEquals("Tweede Kamer der Staten-Generaal 2023", mapped.getElectionName());
+            assertEquals("TK", mapped.getElectionCategory());
+            assertEquals(null, mapped.getElectionSubCategory());
+            assertEquals(150, mapped.getNumberOfSeats());
+            assertEquals(snapshot.getParties(), mapped.getParties());
+            assertEquals(snapshot.getRegions(), mapped.getRegions());
+            assertEquals(snapshot.getCandidates(), mapped.getCandidates());
+            assertEquals(3, mapped.getCandidates().size());
+            assertEquals(1589519L, mapped.getParties().get(0).votes());
+            // Computed from the votes: D'Hondt over 150 seats
+            assertEquals(106, mapped.getParties().get(0).seats());
+            assertEquals(44, mapped.getParties().get(1).seats());
+            assertEquals(0, mapped.getParties().get(2).seats());
+            assertEquals(70.777, mapped.getParties().get(0).percentage(), 0.001);
+            assertEquals(0.0, mapped.getParties().get(2).percentage());
+
+            assertArrayEquals(new int[]{9, 10}, mapped.getKieskringen());
+            assertEquals(30000L, mapped.getKieskringVotes(0, 0));
+            assertEquals(0L, mapped.getKieskringVotes(1, 0));
+            assertEquals(Map.of(9, Map.of("VVD", 70000L, "D66", 30000L), 10, Map.of("VVD", 40000L)),
+                    mapped.getKieskringPartyVotes());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testMunicipalities() throws IOException {
+        Election election = election();
+        MunicipalityVotes municipalityVotes = election.getMunicipalityVotes();
+        int haarlem = municipalityVotes.municipality("0392", "Haarlem");
+        int amsterdam = municipalityVotes.municipality("0363", "Amsterdam");
+        municipalityVotes.addPartyVotes(haarlem, 0, "VVD", 20000L);
+        municipalityVotes.addPartyVotes(amsterdam, 1, "D66", 90000L);
+        municipalityVotes.addPartyVotes(amsterdam, 0, "VVD", 60000L);
+        municipalityVotes.addMetadata(amsterdam, 160000L, 150000L, 1200L);
+
+        Path file = Files.createTempFile("TK2023", ".snapshot");
+        try {
+            ElectionSnapshot.of(election, Map.of(9, Map.of("VVD", 70000L))).write(file);
+            ElectionSnapshot mapped = ElectionSnapshot.map(file);
+
+            // Ordered by code and by party name
+            assertEquals(new ElectionSnapshot.MunicipalityEntry("0363", "Amsterdam", 160000L, 150000L, 1200L),
+                    mapped.getMunicipalities().get(0));
+            assertEquals("0392", mapped.getMunicipalities().get(1).code());
+            assertArrayEquals(new String[]{"D66", "VVD"}, mapped.getMunicipalityParties());
+            assertEquals(90000L, mapped.getMunicipalityVotes(0, 0));
+            assertEquals(60000L, mapped.getMunicipalityVotes(0, 1));
+            assertEquals(0L, mapped.getMunicipalityVotes(1, 0));
+            assertEquals(20000L, mapped.getMunicipalityVotes(1, 1));
+            assertEquals(70000L, mapped.getKieskringVotes(0, 0));
+
+            MunicipalityVotes copy = mapped.toMunicipalityVotes();
+            assertEquals(2, copy.size());
+            assertEquals(60000L, copy.votes(copy.find("0363"), "VVD"));
+            assertEquals(1200L, copy.rejected(copy.find("0363")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testPollingStations() throws IOException {
+        Election election = election();
+        PollingStationVotes pollingStationVotes = election.getPollingStationVotes();
+        int stadhuis = pollingStationVotes.station("0363::SB1");
+        pollingStationVotes.setStationName(stadhuis, "Stadhuis");
+        pollingStationVotes.setMetadata(stadhuis, 1200, 1190);
+        int haarlem = pollingStationVotes.station("0392::SB1");
+        pollingStationVotes.addVotes(stadhuis, pollingStationVotes.party("VVD"), 700);
+        pollingStationVotes.addVotes(stadhuis, pollingStationVotes.party("D66"), 490);
+        pollingStationVotes.addVotes(haarlem, pollingStationVotes.party("VVD"), 300);
+
+        Path file = Files.createTempFile("TK2023", ".snapshot");
+        try {
+            ElectionSnapshot.of(election, Map.of()).write(file);
+            PollingStationVotes mapped = ElectionSnapshot.map(file).getPollingStationVotes();
+
+            assertEquals(2, mapped.stationCount());
+            assertEquals(3, mapped.rowCount());
+            assertEquals("Stadhuis", mapped.stationName(mapped.findStation("0363::SB1")));
+            assertEquals(null, mapped.stationName(mapped.findStation("0392::SB1")));
+            assertEquals(1200L, mapped.cast(stadhuis));
+            assertEquals(1190L, mapped.counted(stadhuis));
+            for (int row = 0; row < 3; row++) {
+                assertEquals(pollingStationVotes.stationAt(row), mapped.stationAt(row));
+                assertEquals(pollingStationVotes.partyAt(row), mapped.partyAt(row));
+                assertEquals(pollingStationVotes.votesAt(row), mapped.votesAt(row));
+            }
+            assertEquals(1000L, mapped.votesPerParty(station -> true)[mapped.findParty("VVD")]);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testCandidateVotes() throws IOException {
+        Election election = election();
+        CandidateVotes candidateVotes = election.getCandidateVotes();
+        candidateVotes.setPreferenceThreshold(50);
+        int jansen = candidateVotes.candidate("1", "1");
+        int deVries = candidateVotes.candidate("2", "1");
+        candidateVotes.addNational(jansen, 120000);
+        candidateVotes.addNational(deVries, 4000);
+        candidateVotes.addKieskring(candidateVotes.kieskring(10), jansen, 9000);
+        candidateVotes.addKieskring(candidateVotes.kieskring(9), deVries, 1500);
+
+        Path file = Files.createTempFile("TK2023", ".snapshot");
+        try {
+            ElectionSnapshot.of(election, Map.of()).write(file);
+            CandidateVotes mapped = ElectionSnapshot.map(file).toCandidateVotes();
+
+            assertEquals(50, mapped.getPreferenceThreshold());
+            assertEquals(2, mapped.size());
+            assertEquals(120000L, mapped.national(mapped.find("1", "1")));
+            assertEquals(4000L, mapped.national(mapped.find("2", "1")));
+            assertEquals(9000L, mapped.votes(mapped.findKieskring(10), jansen));
+            assertEquals(0L, mapped.votes(mapped.findKieskring(10), deVries));
+            assertEquals(1500L, mapped.votes(mapped.findKieskring(9), deVries));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testTurnoutVotes() throws IOException {
+        Election election = election();
+        TurnoutVotes turnoutVotes = election.getTurnoutVotes();
+        int blanco = turnoutVotes.reason("blanco", true);
+        int noExplanation = turnoutVotes.reason("geen verklaring", false);
+        int haarlem = turnoutVotes.unit(TurnoutVotes.Level.KIESKRING, "10");
+        turnoutVotes.addMetadata(TurnoutVotes.Level.KIESKRING, haarlem, 714664, 563110);
+        turnoutVotes.addReason(TurnoutVotes.Level.KIESKRING, haarlem, blanco, 967);
+        turnoutVotes.addReason(TurnoutVotes.Level.KIESKRING, haarlem, noExplanation, 475);
+        int aalsmeer = turnoutVotes.unit(TurnoutVotes.Level.MUNICIPALITY, "0358");
+        turnoutVotes.setName(TurnoutVotes.Level.MUNICIPALITY, aalsmeer, "Aalsmeer");
+        turnoutVotes.addReason(TurnoutVotes.Level.MUNICIPALITY, aalsmeer, noExplanation, 15);
+
+        Path file = Files.createTempFile("TK2023", ".snapshot");
+        try {
+            ElectionSnapshot.of(election, Map.of()).write(file);
+            TurnoutVotes mapped = ElectionSnapshot.map(file).toTurnoutVotes();
+
+            assertEquals(2, mapped.reasonCount());
+            assertEquals("blanco", mapped.reasonCode(blanco));
+            assertEquals(true, mapped.isRejected(blanco));
+            assertEquals(false, mapped.isRejected(noExplanation));
+            assertEquals(714664L, mapped.cast(TurnoutVotes.Level.KIESKRING, haarlem));
+            assertEquals(563110L, mapped.counted(TurnoutVotes.Level.KIESKRING, haarlem));
+            assertEquals(967L, mapped.rejected(TurnoutVotes.Level.KIESKRING, haarlem));
+            assertEquals(475L, mapped.uncounted(TurnoutVotes.Level.KIESKRING, haarlem));
+            assertEquals("Aalsmeer", mapped.name(TurnoutVotes.Level.MUNICIPALITY,
+                    mapped.find(TurnoutVotes.Level.MUNICIPALITY, "0358")));
+            assertEquals(0L, mapped.votes(TurnoutVotes.Level.MUNICIPALITY, aalsmeer, blanco));
+            assertEquals(15L, mapped.votes(TurnoutVotes.Level.MUNICIPALITY, aalsmeer, noExplanation));
+            assertEquals(0, mapped.size(TurnoutVotes.Level.REPORTING_UNIT));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testOtherVersionIsRejected() throws IOException {
+        Path file = Files.createTempFile("TK2023", ".snapshot");
+        try {
+            ElectionSnapshot.of(election(), Map.of()).write(file);
+            byte[] bytes = Files.readAllBytes(file);
+            ByteBuffer.wrap(bytes).putInt(Integer.BYTES, ElectionSnapshot.VERSION + 1);
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> ElectionSnapshot.map(file));
+
+            Files.write(file, new byte[]{'E', 'L', 'S', 'N', 0, 0, 0, (byte) ElectionSnapshot.VERSION, 0});
+            assertThrows(IOException.class, () -> ElectionSnapshot.map(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package elections.demos.backend.utils.xml;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.xml.sax.SAXException;
 
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-abstract class AbstractParserTests {
+public abstract class AbstractParserTests {
     protected TestTransformer transformer;
 
     protected DutchElectionParser electionProcessor;
@@ -82,6 +87,37 @@ abstract class AbstractParserTests {
         );
     }
 
+    /**
+     * Parses the files with a new {@link TestTransformer} as the votes transformer that {@code withTransformer} sets.
+     * The tests of the transformers compute what they expect from this recording.
+     *
+     * @return the data of every call, in the order of the calls, the votes with their "aggregated" flag.
+     */
+    protected static List<Map<String, String>> recordVotes(String folderName,
+            BiFunction<DutchElectionParser, VotesTransformer, DutchElectionParser> withTransformer)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        TestTransformer recorder = new TestTransformer();
+        withTransformer.apply(new DutchElectionParser(), recorder).parseResults("TK2023", folderName);
+        return recorder.data;
+    }
+
+    // The calls of a votes transformer are told apart by their keys, a candidate follows the votes of its party.
+    protected static boolean isPartyVotes(Map<String, String> data) {
+        return data.containsKey(TagAndAttributeNames.AFFILIATION_IDENTIFIER_ID);
+    }
+
+    protected static boolean isCandidateVotes(Map<String, String> data) {
+        return !isPartyVotes(data) && data.containsKey(TagAndAttributeNames.CANDIDATE_IDENTIFIER_ID);
+    }
+
+    protected static boolean isMetadata(Map<String, String> data) {
+        return !isPartyVotes(data) && !isCandidateVotes(data);
+    }
+
+    protected static boolean isAggregated(Map<String, String> data) {
+        return Boolean.parseBoolean(data.get("aggregated"));
+    }
+
     // Helper for debugging.
     protected void compareMaps(List<Map<String, String>> expectedList, List<Map<String, String>> actualList) {
         for (int i = 0; i < Math.min(expectedList.size(), actualList.size()); i++) {
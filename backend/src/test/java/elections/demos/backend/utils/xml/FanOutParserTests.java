@@ -0,0 +1,59 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.ElectionManifest;
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FanOutParserTests extends AbstractParserTests {
+
+    // Counts the files that are read.
+    private static class TestMetrics implements ParserMetrics {
+        private int files;
+        private long bytes;
+
+        @Override
+        public synchronized void fileParsed(ElectionManifest.FileType type, long bytes, long elements, long nanos) {
+            files++;
+            this.bytes += bytes;
+        }
+    }
+
+    @Test
+    void testSharedFilesReachEveryTransformer() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/National"));
+        new DutchElectionParser()
+                .withNationalVotesTransformer(transformer)
+                .parseResults("TK2023", folderName);
+
+        TestTransformer partyTransformer = new TestTransformer();
+        TestTransformer nationalTransformer = new TestTransformer();
+        TestMetrics metrics = new TestMetrics();
+        new DutchElectionParser()
+                .withPartyVotesTransformer(partyTransformer)
+                .withNationalVotesTransformer(nationalTransformer)
+                .withMetrics(metrics)
+                .parseResults("TK2023", folderName);
+
+        long size = 0;
+        for (Path file : PathUtils.findFilesToScan(folderName, "Totaaltelling_TK2023")) {
+            size += Files.size(file);
+        }
+        assertEquals(1, metrics.files, "The file must be parsed only once!");
+        assertEquals(size, metrics.bytes, "The file must be parsed only once!");
+
+        compareMaps(transformer.data, partyTransformer.data);
+        assertEquals(transformer.data, partyTransformer.data, "The party votes transformer must see the whole file!");
+        assertEquals(transformer.data, nationalTransformer.data, "The national votes transformer must see the whole file!");
+        assertEquals(6, partyTransformer.partyVoteCalls, "The calls to VotesTransformer.registerPartyVote don't match!");
+        assertEquals(6, nationalTransformer.partyVoteCalls, "The calls to VotesTransformer.registerPartyVote don't match!");
+    }
+}
@@ -0,0 +1,39 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSelectionParserTests extends AbstractParserTests {
+
+    @Test
+    void testOnlySelectedFilesAreParsed() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        electionProcessor.parseResults("TK2023", folderName);
+
+        List<Path> files = PathUtils.findFilesToScan(folderName, "Telling_TK2023_kieskring");
+        assertEquals(2, files.size());
+        for (int workers : new int[]{1, 4}) {
+            TestTransformer selectedTransformer = new TestTransformer();
+            new DutchElectionParser()
+                    .withConstituencyVotesTransformer(selectedTransformer)
+                    .withFileSelection(files.get(0)::equals)
+                    .withWorkers(workers)
+                    .parseResults("TK2023", folderName);
+
+            // The files are parsed in the order of their names, so the first file gives the start of the data
+            int size = selectedTransformer.data.size();
+            assertTrue(size > 0 && size < transformer.data.size(), "Only the selected file must be parsed!");
+            assertEquals(transformer.data.subList(0, size), selectedTransformer.data);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.ElectionManifest;
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsParserTests extends AbstractParserTests {
+
+    // Adds up everything the parser reports.
+    private static class TestMetrics implements ParserMetrics {
+        private int files;
+        private long bytes;
+        private long elements;
+        private final int[] callbacks = new int[Callback.values().length];
+        private long symbolHits;
+        private long symbolMisses;
+        private long symbolOverflows;
+
+        @Override
+        public synchronized void fileParsed(ElectionManifest.FileType type, long bytes, long elements, long nanos) {
+            assertEquals(ElectionManifest.FileType.VOTES, type);
+            files++;
+            this.bytes += bytes;
+            this.elements += elements;
+        }
+
+        @Override
+        public boolean timesCallbacks() {
+            return true;
+        }
+
+        @Override
+        public void callbackTimed(Callback callback, long nanos) {
+            callbacks[callback.ordinal()]++;
+        }
+
+        @Override
+        public void symbolsCounted(long hits, long misses, long overflows) {
+            symbolHits += hits;
+            symbolMisses += misses;
+            symbolOverflows += overflows;
+        }
+    }
+
+    @Test
+    void testMeasurements() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        electionProcessor.parseResults("TK2023", folderName);
+
+        long size = 0;
+        for (Path file : PathUtils.findFilesToScan(folderName, "Telling_TK2023_kieskring")) {
+            size += Files.size(file);
+        }
+        for (int workers : new int[]{1, 4}) {
+            TestTransformer timedTransformer = new TestTransformer();
+            TestMetrics metrics = new TestMetrics();
+            DutchElectionParser parser = new DutchElectionParser()
+                    .withConstituencyVotesTransformer(timedTransformer)
+                    .withMetrics(metrics)
+                    .withWorkers(workers);
+            parser.parseResults("TK2023", folderName);
+
+            assertEquals(transformer.data, timedTransformer.data, "Timing the transformer must not change the data!");
+            assertEquals(2, metrics.files);
+            assertEquals(size, metrics.bytes);
+            assertTrue(metrics.elements > 0, "The elements must be counted!");
+            assertEquals(timedTransformer.partyVoteCalls, metrics.callbacks[ParserMetrics.Callback.PARTY_VOTES.ordinal()]);
+            assertEquals(timedTransformer.candidateVoteCalls, metrics.callbacks[ParserMetrics.Callback.CANDIDATE_VOTES.ordinal()]);
+            assertEquals(timedTransformer.metadataCalls, metrics.callbacks[ParserMetrics.Callback.METADATA.ordinal()]);
+            assertTrue(metrics.symbolHits > 0, "The repeated values must be found in the symbol table!");
+            assertEquals(parser.getSymbolTable().hits(), metrics.symbolHits);
+            assertEquals(parser.getSymbolTable().misses(), metrics.symbolMisses);
+            assertEquals(parser.getSymbolTable().overflows(), metrics.symbolOverflows);
+
+            // A second import with the same table only reports its own values
+            TestMetrics again = new TestMetrics();
+            parser.withMetrics(again).parseResults("TK2023", folderName);
+            assertEquals(0, again.symbolMisses, "The values of the first import are in the table already!");
+            assertEquals(parser.getSymbolTable().hits() - metrics.symbolHits, again.symbolHits);
+        }
+    }
+}
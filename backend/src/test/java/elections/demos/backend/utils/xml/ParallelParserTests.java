@@ -0,0 +1,32 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelParserTests extends AbstractParserTests {
+
+    @Test
+    void testParallelMatchesSequential() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        electionProcessor.parseResults("TK2023", folderName);
+
+        TestTransformer parallelTransformer = new TestTransformer();
+        new DutchElectionParser(parallelTransformer, parallelTransformer, parallelTransformer, parallelTransformer,
+                parallelTransformer, parallelTransformer, parallelTransformer)
+                .withWorkers(4)
+                .parseResults("TK2023", folderName);
+
+        compareMaps(transformer.data, parallelTransformer.data);
+        assertEquals(transformer.data, parallelTransformer.data, "The parallel run must call the transformers in the same order!");
+        assertEquals(transformer.partyVoteCalls, parallelTransformer.partyVoteCalls);
+        assertEquals(transformer.candidateVoteCalls, parallelTransformer.candidateVoteCalls);
+        assertEquals(transformer.metadataCalls, parallelTransformer.metadataCalls);
+    }
+}
@@ -0,0 +1,37 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StaxParserTests extends AbstractParserTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Structure", "CandidateLists", "National", "Constituency", "Municipality", "Result"})
+    void testStaxMatchesSax(String folder) throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/" + folder));
+        electionProcessor.parseResults("TK2023", folderName);
+
+        TestTransformer staxTransformer = new TestTransformer();
+        new DutchElectionParser(staxTransformer, staxTransformer, staxTransformer, staxTransformer,
+                staxTransformer, staxTransformer, staxTransformer)
+                .withEngine(DutchElectionParser.Engine.STAX)
+                .parseResults("TK2023", folderName);
+
+        compareMaps(transformer.data, staxTransformer.data);
+        assertEquals(transformer.data, staxTransformer.data, "Both engines must call the transformers in the same way!");
+        assertEquals(transformer.regionCalls, staxTransformer.regionCalls);
+        assertEquals(transformer.partyCalls, staxTransformer.partyCalls);
+        assertEquals(transformer.candidateCalls, staxTransformer.candidateCalls);
+        assertEquals(transformer.partyVoteCalls, staxTransformer.partyVoteCalls);
+        assertEquals(transformer.candidateVoteCalls, staxTransformer.candidateVoteCalls);
+        assertEquals(transformer.metadataCalls, staxTransformer.metadataCalls);
+    }
+}
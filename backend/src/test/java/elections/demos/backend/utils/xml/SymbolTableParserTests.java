@@ -0,0 +1,67 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymbolTableParserTests extends AbstractParserTests {
+
+    @Test
+    void testRepeatedValuesAreShared() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        electionProcessor.parseResults("TK2023", folderName);
+
+        SymbolTable symbolTable = electionProcessor.getSymbolTable();
+        assertTrue(symbolTable.hits() > 0, "The party names are repeated in every reporting unit!");
+        assertEquals(symbolTable.size(), symbolTable.misses());
+        assertEquals(0, symbolTable.overflows());
+
+        // Every party name is a single instance, the ids of the reporting units are not kept
+        Map<String, String> names = new HashMap<>();
+        for (Map<String, String> data : transformer.data) {
+            String name = data.get(TagAndAttributeNames.REGISTERED_NAME);
+            if (name != null) {
+                assertSame(names.computeIfAbsent(name, key -> name), name);
+            }
+            String reportingUnitId = data.get(TagAndAttributeNames.REPORTING_UNIT_IDENTIFIER_ID);
+            if (reportingUnitId != null) {
+                assertNotSame(symbolTable.symbol(new String(reportingUnitId)), reportingUnitId);
+            }
+        }
+        assertTrue(!names.isEmpty());
+    }
+
+    @Test
+    void testTableIsBounded() {
+        SymbolTable symbolTable = new SymbolTable(1, 3);
+        String vvd = new String("VVD");
+        assertSame(vvd, symbolTable.symbol(vvd));
+        assertSame(vvd, symbolTable.symbol(new String("VVD")));
+        String d66 = new String("D66");
+        assertSame(d66, symbolTable.symbol(d66));
+        assertNotSame(d66, symbolTable.symbol(new String("D66")));
+        assertEquals(null, symbolTable.symbol(null));
+
+        assertEquals(1, symbolTable.size());
+        assertEquals(1, symbolTable.hits());
+        assertEquals(1, symbolTable.misses());
+        assertEquals(2, symbolTable.overflows());
+
+        // Too long
+        SymbolTable shortValues = new SymbolTable(10, 3);
+        shortValues.symbol("GroenLinks-PvdA");
+        assertEquals(0, shortValues.size());
+        assertEquals(1, shortValues.overflows());
+    }
+}
@@ -0,0 +1,174 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TypedVotesParserTests extends AbstractParserTests {
+
+    /**
+     * This transformer adds the decoded values on each method invocation to a list, in the same format as
+     * {@link #decode(Map)} does for the election data.
+     */
+    private static class TestTypedTransformer implements TypedVotesTransformer {
+        private final List<String> data = new LinkedList<>();
+        private final PartyDictionary partyDictionary;
+
+        TestTypedTransformer(PartyDictionary partyDictionary) {
+            this.partyDictionary = partyDictionary;
+        }
+
+        @Override
+        public void registerPartyVotes(boolean aggregated, int party, long validVotes, String reportingUnit, int regionNumber) {
+            data.add("%s %s %s %d %s %d".formatted(aggregated, partyDictionary.partyId(party), partyDictionary.name(party), validVotes, reportingUnit, regionNumber));
+        }
+
+        @Override
+        public void registerCandidateVotes(boolean aggregated, int party, String candidate, long validVotes, String reportingUnit, int regionNumber) {
+            data.add("%s %s %s %d %s %d".formatted(aggregated, partyDictionary.partyId(party), candidate, validVotes, reportingUnit, regionNumber));
+        }
+
+        @Override
+        public void registerMetadata(boolean aggregated, long cast, long totalCounted, String reportingUnit, int regionNumber) {
+            data.add("%s %d %d %s %d".formatted(aggregated, cast, totalCounted, reportingUnit, regionNumber));
+        }
+    }
+
+    @Test
+    void testTypedMatchesElectionData() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        new DutchElectionParser()
+                .withConstituencyVotesTransformer(transformer)
+                .parseResults("TK2023", folderName);
+
+        PartyDictionary partyDictionary = new PartyDictionary();
+        TestTypedTransformer typedTransformer = new TestTypedTransformer(partyDictionary);
+        new DutchElectionParser()
+                .withPartyDictionary(partyDictionary)
+                .withConstituencyVotesTransformer(typedTransformer)
+                .parseResults("TK2023", folderName);
+
+        assertEquals(decode(transformer.data), typedTransformer.data, "The decoded values must match the election data!");
+    }
+
+    @Test
+    void testHandlerWithDictionary() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        Path file;
+        try (Stream<Path> files = Files.list(Path.of(folderName))) {
+            file = files.filter(path -> path.toString().endsWith(".eml.xml")).sorted().findFirst().orElseThrow();
+        }
+        PartyDictionary expectedDictionary = new PartyDictionary();
+        TestTypedTransformer expected = new TestTypedTransformer(expectedDictionary);
+        new DutchElectionParser()
+                .withPartyDictionary(expectedDictionary)
+                .withConstituencyVotesTransformer(expected)
+                .withFileSelection(path -> path.getFileName().toString().equals(file.getFileName().toString()))
+                .parseResults("TK2023", folderName);
+
+        PartyDictionary partyDictionary = new PartyDictionary();
+        TestTypedTransformer typedTransformer = new TestTypedTransformer(partyDictionary);
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.newSAXParser().parse(file.toFile(), new EMLHandler(typedTransformer, partyDictionary));
+        assertEquals(expected.data, typedTransformer.data, "The ordinals must be looked up in the given dictionary!");
+
+        assertThrows(IllegalArgumentException.class, () -> new EMLHandler(new TestTypedTransformer(new PartyDictionary())));
+    }
+
+    @Test
+    void testReportingUnits() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        new DutchElectionParser()
+                .withConstituencyVotesTransformer(transformer)
+                .parseResults("TK2023", folderName);
+        Map<String, String> expected = new LinkedHashMap<>();
+        for (Map<String, String> data : transformer.data) {
+            if (data.get("ReportingUnitIdentifier-Id") != null) {
+                expected.put(data.get("ReportingUnitIdentifier-Id"), data.get("ReportingUnitIdentifier"));
+            }
+        }
+
+        for (int workers : new int[]{1, 2}) {
+            PartyDictionary partyDictionary = new PartyDictionary();
+            Map<String, String> reportingUnits = new LinkedHashMap<>();
+            new DutchElectionParser()
+                    .withPartyDictionary(partyDictionary)
+                    .withWorkers(workers)
+                    .withConstituencyVotesTransformer(new TestTypedTransformer(partyDictionary) {
+                        @Override
+                        public void registerReportingUnit(String reportingUnit, String name) {
+                            reportingUnits.put(reportingUnit, name);
+                        }
+                    })
+                    .parseResults("TK2023", folderName);
+            assertEquals(expected, reportingUnits, "Every reporting unit must be registered with its name!");
+        }
+    }
+
+    @Test
+    void testAuthorities() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        new DutchElectionParser()
+                .withConstituencyVotesTransformer(transformer)
+                .parseResults("TK2023", folderName);
+        Map<String, String> authorityPerFile = new LinkedHashMap<>();
+        for (Map<String, String> data : transformer.data) {
+            authorityPerFile.putIfAbsent(data.get("fileName"),
+                    data.get("AuthorityIdentifier-Id") + " " + data.get("AuthorityIdentifier"));
+        }
+        List<String> expected = List.copyOf(authorityPerFile.values());
+
+        for (int workers : new int[]{1, 2}) {
+            PartyDictionary partyDictionary = new PartyDictionary();
+            List<String> authorities = new LinkedList<>();
+            new DutchElectionParser()
+                    .withPartyDictionary(partyDictionary)
+                    .withWorkers(workers)
+                    .withConstituencyVotesTransformer(new TestTypedTransformer(partyDictionary) {
+                        @Override
+                        public void registerAuthority(String authority, String name) {
+                            authorities.add(authority + " " + name);
+                        }
+                    })
+                    .parseResults("TK2023", folderName);
+            assertEquals(expected, authorities, "The managing authority of every file must be registered once!");
+        }
+    }
+
+    // Decodes the election data the way the EMLHandler does for a TypedVotesTransformer.
+    private static List<String> decode(List<Map<String, String>> dataList) {
+        List<String> decoded = new LinkedList<>();
+        String partyId = null;
+        for (Map<String, String> data : dataList) {
+            String contestId = data.get("ContestIdentifier-Id");
+            int regionNumber = contestId != null && contestId.matches("[1-9][0-9]*") ? Integer.parseInt(contestId) : 0;
+            String reportingUnit = data.get("ReportingUnitIdentifier-Id");
+            long validVotes = Long.parseLong(data.getOrDefault("ValidVotes", "-1"));
+            if (data.containsKey("AffiliationIdentifier-Id")) {
+                partyId = data.get("AffiliationIdentifier-Id");
+                decoded.add("%s %s %s %d %s %d".formatted(data.get("aggregated"), partyId, data.get("RegisteredName"), validVotes, reportingUnit, regionNumber));
+            } else if (data.containsKey("CandidateIdentifier-Id")) {
+                decoded.add("%s %s %s %d %s %d".formatted(data.get("aggregated"), partyId, data.get("CandidateIdentifier-Id"), validVotes, reportingUnit, regionNumber));
+            } else {
+                decoded.add("%s %s %s %s %d".formatted(data.get("aggregated"), data.getOrDefault("Cast", "-1"), data.getOrDefault("TotalCounted", "-1"), reportingUnit, regionNumber));
+            }
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,60 @@
+package elections.demos.backend.utils.xml;
+
+import elections.demos.backend.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZipParserTests extends AbstractParserTests {
+
+    @Test
+    void testZipMatchesFolder() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        electionProcessor.parseResults("TK2023", folderName);
+
+        Path zipFile = Files.createTempFile("TK2023-Partial", ".zip");
+        try {
+            zipFolder(Path.of(folderName), zipFile);
+            for (int workers : new int[]{1, 4}) {
+                TestTransformer zipTransformer = new TestTransformer();
+                new DutchElectionParser(zipTransformer, zipTransformer, zipTransformer, zipTransformer,
+                        zipTransformer, zipTransformer, zipTransformer)
+                        .withWorkers(workers)
+                        .parseResults("TK2023", zipFile.toString());
+
+                compareMaps(transformer.data, zipTransformer.data);
+                assertEquals(transformer.data, zipTransformer.data, "The zip archive must give the same data as the folder!");
+            }
+        } finally {
+            PathUtils.closeManifest(zipFile.toString());
+            Files.delete(zipFile);
+        }
+    }
+
+    // Puts all the files of the folder in a sub folder of the archive, like the archives of the Kiesraad.
+    private static void zipFolder(Path folder, Path zipFile) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(folder)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        try (OutputStream out = Files.newOutputStream(zipFile); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Path file : files) {
+                zip.putNextEntry(new ZipEntry("Constituency/" + file.getFileName()));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Candidate;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.Party;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CandidateTransformerTests {
+
+    private static Map<String, String> candidate(String partyCode, String partyName, String candidateId,
+                                                 String lastName) {
+        Map<String, String> electionData = new HashMap<>();
+        electionData.put("AffiliationIdentifier-Id", partyCode);
+        electionData.put("RegisteredName", partyName);
+        electionData.put("CandidateIdentifier-Id", candidateId);
+        electionData.put("LastName", lastName);
+        return electionData;
+    }
+
+    @Test
+    void testCandidateOnEveryList() {
+        Election election = new Election("TK2023");
+        // Every Kandidatenlijsten_* file has its own transformer call, but the same election
+        for (int kieskring = 1; kieskring <= 20; kieskring++) {
+            DutchCandidateTransformer candidateTransformer = new DutchCandidateTransformer(election);
+            candidateTransformer.registerCandidate(candidate("1", "VVD", "1", "Yeşilgöz-Zegerius"));
+            candidateTransformer.registerCandidate(candidate("1", "VVD", "2", "Van Weel"));
+            candidateTransformer.registerCandidate(candidate("2", "D66", "1", "Jetten"));
+        }
+
+        assertEquals(2, election.getParties().size());
+        assertEquals(2, election.getParties().get(0).getCandidates().size());
+        assertEquals(1, election.getParties().get(1).getCandidates().size());
+        assertEquals(3, election.getCandidateIndex().size());
+        assertEquals("TK2023_2_1", election.getCandidateIndex().findCandidate("2", "1").getId());
+        assertNull(election.getCandidateIndex().findCandidate("2", "2"));
+    }
+
+    @Test
+    void testExistingCandidates() {
+        Election election = new Election("TK2023");
+        Party party = new Party("1", "VVD", election);
+        election.addParty(party);
+        Candidate existing = new Candidate("1", election, null, null, "Yeşilgöz-Zegerius", null, null, party);
+        party.addCandidate(existing);
+
+        DutchCandidateTransformer candidateTransformer = new DutchCandidateTransformer(election);
+        candidateTransformer.registerCandidate(candidate("1", "VVD", "1", "Yeşilgöz-Zegerius"));
+        candidateTransformer.registerCandidate(candidate("1", "VVD", "2", "Van Weel"));
+
+        assertEquals(1, election.getParties().size());
+        assertEquals(2, party.getCandidates().size());
+        assertSame(existing, election.getCandidateIndex().findCandidate("1", "1"));
+        assertSame(party, election.getCandidateIndex().findCandidate("1", "2").getParty());
+    }
+}
@@ -0,0 +1,87 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.KieskringIndex;
+import elections.demos.backend.model.Region;
+import elections.demos.backend.utils.PathUtils;
+import elections.demos.backend.utils.xml.AbstractParserTests;
+import elections.demos.backend.utils.xml.DutchElectionParser;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TagAndAttributeNames;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ConstituencyTransformerTests extends AbstractParserTests {
+
+    // Adds up the aggregated votes per kieskring and party name from the recorded electionData maps.
+    private static Map<Integer, Map<String, Long>> kieskringPartyVotes(List<Map<String, String>> recorded) {
+        Map<Integer, Map<String, Long>> kieskringPartyVotes = new HashMap<>();
+        for (Map<String, String> data : recorded) {
+            String partyName = data.get(TagAndAttributeNames.REGISTERED_NAME);
+            if (!isPartyVotes(data) || !isAggregated(data) || partyName == null) {
+                continue;
+            }
+            long votes = Long.parseLong(data.get(TagAndAttributeNames.VALID_VOTES));
+            if (votes > 0) {
+                int kieskring = Integer.parseInt(data.get(TagAndAttributeNames.CONTEST_IDENTIFIER_ID));
+                kieskringPartyVotes.computeIfAbsent(kieskring, k -> new HashMap<>())
+                        .merge(partyName.trim(), votes, Long::sum);
+            }
+        }
+        return kieskringPartyVotes;
+    }
+
+    @Test
+    void testKieskringVotes() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        Map<Integer, Map<String, Long>> expected = kieskringPartyVotes(
+                recordVotes(folderName, DutchElectionParser::withConstituencyVotesTransformer));
+        assertFalse(expected.isEmpty());
+
+        Election election = new Election("TK2023");
+        election.addRegion(new Region("TK2023", null, "STAAT", "Nederland"));
+        for (int kieskring : expected.keySet()) {
+            election.addRegion(new Region("TK2023", kieskring, "KIESKRING", "Kieskring " + kieskring));
+        }
+        PartyDictionary partyDictionary = new PartyDictionary();
+        new DutchElectionParser()
+                .withConstituencyVotesTransformer(new DutchConstituencyVotesTransformer(election, partyDictionary))
+                .withPartyDictionary(partyDictionary)
+                .parseResults("TK2023", folderName);
+
+        assertEquals(expected, election.getKieskringPartyVotes());
+    }
+
+    @Test
+    void testKieskringIndex() {
+        Election election = new Election("TK2023");
+        election.addRegion(new Region("TK2023", null, "STAAT", "Nederland"));
+        election.addRegion(new Region("TK2023", 10, "KIESKRING", "Haarlem"));
+        KieskringIndex index = election.getKieskringIndex();
+        // Added after the index has been built
+        election.addRegion(new Region("TK2023", 11, "KIESKRING", "Den Helder"));
+        election.addRegion(new Region("TK2023", 363, "GEMEENTE", "Amsterdam"));
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.ordinalOf(10));
+        assertEquals(1, index.ordinalOf(" den helder"));
+        assertEquals(KieskringIndex.NOT_FOUND, index.ordinalOf("Amsterdam"));
+        assertEquals(KieskringIndex.NOT_FOUND, index.ordinalOf(363));
+
+        election.addKieskringPartyVotes("HAARLEM", "VVD", 100);
+        election.addKieskringPartyVotes(10, "VVD", 20);
+        election.addKieskringPartyVotes(11, 0, "VVD", 5);
+        election.addKieskringPartyVotes(12, 0, "VVD", 5);
+        assertEquals(Map.of(10, Map.of("VVD", 120L), 11, Map.of("VVD", 5L)), election.getKieskringPartyVotes());
+    }
+}
@@ -0,0 +1,81 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.MunicipalityVotes;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MunicipalityTransformerTests {
+    private final PartyDictionary partyDictionary = new PartyDictionary();
+
+    private void partyVotes(DutchMunicipalityVotesTransformer transformer, boolean aggregated, String partyId,
+                            String partyName, long votes) {
+        transformer.registerPartyVotes(aggregated, partyDictionary.ordinalOf(partyId, partyName), votes,
+                aggregated ? null : "0363::SB1", 0);
+    }
+
+    // The rejected votes come with a reason, before the totals they are part of
+    private static void metadata(DutchMunicipalityVotesTransformer transformer, boolean aggregated, long cast,
+                                 long totalCounted, long invalid, long blank) {
+        String reportingUnit = aggregated ? null : "0363::SB1";
+        transformer.registerReasonVotes(aggregated, true, "ongeldig", invalid, reportingUnit, 0);
+        transformer.registerReasonVotes(aggregated, true, "blanco", blank, reportingUnit, 0);
+        transformer.registerReasonVotes(aggregated, false, "geen verklaring", 3, reportingUnit, 0);
+        transformer.registerMetadata(aggregated, cast, totalCounted, reportingUnit, 0);
+    }
+
+    @Test
+    void testMunicipalityTotals() {
+        Election election = new Election("TK2023");
+        DutchMunicipalityVotesTransformer transformer =
+                new DutchMunicipalityVotesTransformer(election, partyDictionary);
+
+        transformer.registerAuthority("0363", "Amsterdam");
+        partyVotes(transformer, true, "1", "VVD", 300);
+        partyVotes(transformer, true, "2", "D66", 190);
+        metadata(transformer, true, 500, 490, 4, 6);
+        // The polling stations are already part of the totals of the municipality
+        partyVotes(transformer, false, "1", "VVD", 60);
+        metadata(transformer, false, 100, 98, 1, 1);
+
+        transformer.registerAuthority("0392", "Haarlem");
+        partyVotes(transformer, true, "2", "D66", 199);
+        metadata(transformer, true, 200, 199, 1, 0);
+
+        MunicipalityVotes municipalityVotes = election.getMunicipalityVotes();
+        assertEquals(2, municipalityVotes.size());
+        int first = municipalityVotes.find("0363");
+        assertEquals("Amsterdam", municipalityVotes.name(first));
+        assertEquals(500L, municipalityVotes.cast(first));
+        assertEquals(490L, municipalityVotes.valid(first));
+        assertEquals(10L, municipalityVotes.rejected(first));
+        assertEquals(300L, municipalityVotes.votes(first, "VVD"));
+        assertEquals(190L, municipalityVotes.votes(first, "D66"));
+        int second = municipalityVotes.find("0392");
+        assertEquals(0L, municipalityVotes.votes(second, "VVD"));
+        assertEquals(199L, municipalityVotes.votes(second, "D66"));
+    }
+
+    @Test
+    void testMunicipalityParsedAgain() {
+        Election election = new Election("TK2023");
+        DutchMunicipalityVotesTransformer transformer =
+                new DutchMunicipalityVotesTransformer(election, partyDictionary);
+        transformer.registerAuthority("0363", "Amsterdam");
+        partyVotes(transformer, true, "1", "VVD", 300);
+        metadata(transformer, true, 500, 490, 4, 6);
+
+        // A later import of the same file starts over instead of adding up
+        transformer = new DutchMunicipalityVotesTransformer(election, partyDictionary);
+        transformer.registerAuthority("0363", "Amsterdam");
+        partyVotes(transformer, true, "1", "VVD", 310);
+        metadata(transformer, true, 510, 500, 4, 6);
+
+        MunicipalityVotes municipalityVotes = election.getMunicipalityVotes();
+        assertEquals(1, municipalityVotes.size());
+        assertEquals(510L, municipalityVotes.cast(0));
+        assertEquals(310L, municipalityVotes.votes(0, "VVD"));
+    }
+}
@@ -0,0 +1,108 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.PartyResult;
+import elections.demos.backend.utils.PathUtils;
+import elections.demos.backend.utils.xml.AbstractParserTests;
+import elections.demos.backend.utils.xml.DutchElectionParser;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TagAndAttributeNames;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartyTransformerTests extends AbstractParserTests {
+
+    // Adds up the aggregated votes per election-scoped party id from the recorded electionData maps.
+    private static Map<String, Long> votesPerParty(List<Map<String, String>> recorded) {
+        Map<String, Long> votesPerParty = new HashMap<>();
+        for (Map<String, String> data : recorded) {
+            if (isPartyVotes(data) && isAggregated(data)) {
+                long votes = Long.parseLong(data.get(TagAndAttributeNames.VALID_VOTES));
+                if (votes > 0) {
+                    votesPerParty.merge("TK2023_" + data.get(TagAndAttributeNames.AFFILIATION_IDENTIFIER_ID), votes,
+                            Long::sum);
+                }
+            }
+        }
+        return votesPerParty;
+    }
+
+    private static Map<String, Long> totalVotes(Election election) {
+        Map<String, Long> votesPerParty = new HashMap<>();
+        for (PartyResult result : election.getPartyResults()) {
+            votesPerParty.merge(result.getParty().getId(), result.getTotalVotes(), Long::sum);
+        }
+        return votesPerParty;
+    }
+
+    @Test
+    void testResultsAreMaterializedOnce() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/National"));
+        Map<String, Long> expected = votesPerParty(
+                recordVotes(folderName, DutchElectionParser::withNationalVotesTransformer));
+        assertFalse(expected.isEmpty());
+
+        Election election = new Election("TK2023");
+        PartyDictionary partyDictionary = new PartyDictionary();
+        DutchPartyTransformer partyTransformer = new DutchPartyTransformer(election, partyDictionary);
+        new DutchElectionParser()
+                .withPartyVotesTransformer(partyTransformer)
+                .withPartyDictionary(partyDictionary)
+                .parseResults("TK2023", folderName);
+        assertTrue(election.getPartyResults().isEmpty(), "The results must only be created after parsing!");
+
+        partyTransformer.materializePartyResults();
+        assertEquals(expected, totalVotes(election));
+        assertEquals(expected.size(), election.getPartyResults().size(),
+                "Every party must have a single result!");
+        assertEquals(expected.size(), election.getParties().size());
+
+        partyTransformer.materializePartyResults();
+        assertEquals(expected, totalVotes(election), "The votes must only be added once!");
+    }
+
+    @Test
+    void testDefinitionGivesTheOrdinals() throws IOException, XMLStreamException, ParserConfigurationException,
+            SAXException {
+        // The definition only names the parties, the votes files add the ids
+        PartyDictionary reversed = new PartyDictionary();
+        assertEquals(0, reversed.register("D66"));
+        assertEquals(1, reversed.register(" VVD "));
+        assertEquals(1, reversed.ordinalOf("1", "VVD"));
+        assertEquals(0, reversed.ordinalOf("2", "D66"));
+        assertEquals(1, reversed.find("1"));
+        assertEquals("1", reversed.partyId(1));
+        assertEquals(2, reversed.size());
+
+        Election election = new Election("TK2023");
+        PartyDictionary partyDictionary = new PartyDictionary();
+        new DutchElectionParser()
+                .withDefinitionTransformer(new DutchDefinitionTransformer(election, partyDictionary))
+                .parseResults("TK2023", PathUtils.getResourcePath("/TK2023-Partial/Structure"));
+        assertEquals(2, partyDictionary.size());
+        assertEquals("VVD", partyDictionary.name(0));
+        assertEquals("D66", partyDictionary.name(1));
+
+        DutchPartyTransformer partyTransformer = new DutchPartyTransformer(election, partyDictionary);
+        new DutchElectionParser()
+                .withPartyVotesTransformer(partyTransformer)
+                .withPartyDictionary(partyDictionary)
+                .parseResults("TK2023", PathUtils.getResourcePath("/TK2023-Partial/National"));
+        partyTransformer.materializePartyResults();
+        assertEquals(2, partyDictionary.size(), "The parties of the definition must keep their ordinals!");
+        assertEquals("1", partyDictionary.partyId(0));
+        assertEquals("2", partyDictionary.partyId(1));
+        assertEquals("TK2023_1", election.getPartyResults().get(0).getParty().getId());
+    }
+}
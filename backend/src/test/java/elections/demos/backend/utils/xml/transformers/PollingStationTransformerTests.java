@@ -0,0 +1,129 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.PollingStationVotes;
+import elections.demos.backend.utils.PathUtils;
+import elections.demos.backend.utils.xml.AbstractParserTests;
+import elections.demos.backend.utils.xml.DutchElectionParser;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TagAndAttributeNames;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class PollingStationTransformerTests extends AbstractParserTests {
+
+    // Adds up the votes per party name of the reporting units, not the aggregated ones, from the recorded
+    // electionData maps.
+    private static Map<String, Long> reportingUnitVotes(List<Map<String, String>> recorded) {
+        Map<String, Long> votesPerParty = new HashMap<>();
+        for (Map<String, String> data : recorded) {
+            String partyName = data.get(TagAndAttributeNames.REGISTERED_NAME);
+            if (!isPartyVotes(data) || isAggregated(data) || partyName == null) {
+                continue;
+            }
+            long votes = Long.parseLong(data.get(TagAndAttributeNames.VALID_VOTES));
+            if (votes > 0) {
+                votesPerParty.merge(partyName.trim(), votes, Long::sum);
+            }
+        }
+        return votesPerParty;
+    }
+
+    private static Map<String, Long> votesPerParty(PollingStationVotes pollingStationVotes, BitSet stations) {
+        long[] votes = pollingStationVotes.votesPerParty(stations::get);
+        Map<String, Long> votesPerParty = new HashMap<>();
+        for (int party = 0; party < votes.length; party++) {
+            if (votes[party] > 0) {
+                votesPerParty.put(pollingStationVotes.partyName(party), votes[party]);
+            }
+        }
+        return votesPerParty;
+    }
+
+    // The kieskring files have the municipalities as their reporting units, which is enough to fill the store
+    private static void parse(Election election, String folderName)
+            throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        PartyDictionary partyDictionary = new PartyDictionary();
+        DutchPollingStationTransformer pollingStationTransformer =
+                new DutchPollingStationTransformer(election, partyDictionary);
+        new DutchElectionParser()
+                .withConstituencyVotesTransformer(pollingStationTransformer)
+                .withPartyDictionary(partyDictionary)
+                .parseResults("TK2023", folderName);
+        pollingStationTransformer.removeReplacedRows();
+    }
+
+    @Test
+    void testReportingUnitVotes() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        Map<String, Long> expectedVotes = reportingUnitVotes(
+                recordVotes(folderName, DutchElectionParser::withConstituencyVotesTransformer));
+        assertFalse(expectedVotes.isEmpty());
+
+        Election election = new Election("TK2023");
+        parse(election, folderName);
+        PollingStationVotes pollingStationVotes = election.getPollingStationVotes();
+        BitSet all = pollingStationVotes.stations(id -> true);
+        assertEquals(expectedVotes, votesPerParty(pollingStationVotes, all));
+        for (int station = 0; station < pollingStationVotes.stationCount(); station++) {
+            assertNotNull(pollingStationVotes.stationName(station), "Every reporting unit must have its name!");
+        }
+
+        long[] perStation = pollingStationVotes.votesPerStation(PollingStationVotes.NOT_FOUND);
+        long total = 0;
+        for (long votes : perStation) {
+            total += votes;
+        }
+        long expected = expectedVotes.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(expected, total);
+
+        // Parsing the same files again replaces the votes instead of adding them up
+        int rows = pollingStationVotes.rowCount();
+        parse(election, folderName);
+        assertEquals(rows, pollingStationVotes.rowCount());
+        assertEquals(expectedVotes, votesPerParty(pollingStationVotes, all));
+    }
+
+    @Test
+    void testFilterAndGroup() {
+        PollingStationVotes pollingStationVotes = new PollingStationVotes();
+        int vvd = pollingStationVotes.party("VVD");
+        int d66 = pollingStationVotes.party("D66");
+        int stadhuis = pollingStationVotes.station("0363::SB1");
+        int centraal = pollingStationVotes.station("0363::SB2");
+        int haarlem = pollingStationVotes.station("0392::SB1");
+        pollingStationVotes.addVotes(stadhuis, vvd, 100);
+        pollingStationVotes.addVotes(stadhuis, d66, 50);
+        pollingStationVotes.addVotes(centraal, vvd, 30);
+        pollingStationVotes.addVotes(haarlem, d66, 70);
+
+        BitSet amsterdam = pollingStationVotes.stationsOfMunicipality("0363");
+        assertEquals(2, amsterdam.cardinality());
+        assertEquals(Map.of("VVD", 130L, "D66", 50L), votesPerParty(pollingStationVotes, amsterdam));
+        long[] perStation = pollingStationVotes.votesPerStation(d66);
+        assertEquals(50L, perStation[stadhuis]);
+        assertEquals(0L, perStation[centraal]);
+        assertEquals(70L, perStation[haarlem]);
+
+        long[] scanned = new long[1];
+        pollingStationVotes.scan(station -> station == haarlem, (station, party, votes) -> scanned[0] += votes);
+        assertEquals(70L, scanned[0]);
+
+        BitSet removed = new BitSet();
+        removed.set(stadhuis);
+        assertEquals(2, pollingStationVotes.removeRows(removed, pollingStationVotes.rowCount()));
+        assertEquals(Map.of("VVD", 30L), votesPerParty(pollingStationVotes, amsterdam));
+    }
+}
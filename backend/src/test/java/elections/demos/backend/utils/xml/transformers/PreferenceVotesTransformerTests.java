@@ -0,0 +1,132 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.CandidateVotes;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.utils.PathUtils;
+import elections.demos.backend.utils.xml.AbstractParserTests;
+import elections.demos.backend.utils.xml.DutchElectionParser;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TagAndAttributeNames;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PreferenceVotesTransformerTests extends AbstractParserTests {
+
+    // Adds up the aggregated votes per contest and candidate, partyId::candidateId, from the recorded electionData
+    // maps. The candidates follow the votes of their party.
+    private static Map<String, Map<String, Long>> candidateVotes(List<Map<String, String>> recorded) {
+        Map<String, Map<String, Long>> candidateVotes = new HashMap<>();
+        String partyId = null;
+        for (Map<String, String> data : recorded) {
+            if (isPartyVotes(data)) {
+                partyId = data.get(TagAndAttributeNames.AFFILIATION_IDENTIFIER_ID);
+            } else if (isCandidateVotes(data) && isAggregated(data)) {
+                long votes = Long.parseLong(data.get(TagAndAttributeNames.VALID_VOTES));
+                if (votes > 0) {
+                    String candidate = "%s::%s".formatted(partyId,
+                            data.get(TagAndAttributeNames.CANDIDATE_IDENTIFIER_ID));
+                    candidateVotes.computeIfAbsent(data.get(TagAndAttributeNames.CONTEST_IDENTIFIER_ID),
+                            contest -> new HashMap<>()).merge(candidate, votes, Long::sum);
+                }
+            }
+        }
+        return candidateVotes;
+    }
+
+    private static Map<String, Long> toMap(CandidateVotes candidateVotes, int kieskring) {
+        Map<String, Long> votes = new HashMap<>();
+        for (int candidate = 0; candidate < candidateVotes.size(); candidate++) {
+            long candidateTotal = kieskring == CandidateVotes.NOT_FOUND ? candidateVotes.national(candidate)
+                    : candidateVotes.votes(kieskring, candidate);
+            if (candidateTotal > 0) {
+                votes.put(candidateVotes.partyId(candidate) + "::" + candidateVotes.candidateId(candidate),
+                        candidateTotal);
+            }
+        }
+        return votes;
+    }
+
+    @Test
+    void testNationalVotes() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/National"));
+        Map<String, Map<String, Long>> recorded = candidateVotes(
+                recordVotes(folderName, DutchElectionParser::withNationalVotesTransformer));
+        assertEquals(1, recorded.size());
+
+        Election election = new Election("TK2023");
+        PartyDictionary partyDictionary = new PartyDictionary();
+        for (int i = 0; i < 2; i++) {
+            // The second import replaces the votes of the first
+            new DutchElectionParser()
+                    .withNationalVotesTransformer(new DutchNationalVotesTransformer(election, partyDictionary))
+                    .withPartyDictionary(partyDictionary)
+                    .parseResults("TK2023", folderName);
+        }
+
+        Map<String, Long> expected = recorded.values().iterator().next();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, toMap(election.getCandidateVotes(), CandidateVotes.NOT_FOUND));
+        assertEquals(0, election.getCandidateVotes().kieskringCount());
+    }
+
+    @Test
+    void testKieskringVotes() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        Map<String, Map<String, Long>> recorded = candidateVotes(
+                recordVotes(folderName, DutchElectionParser::withConstituencyVotesTransformer));
+        assertFalse(recorded.isEmpty());
+
+        Election election = new Election("TK2023");
+        PartyDictionary partyDictionary = new PartyDictionary();
+        new DutchElectionParser()
+                .withConstituencyVotesTransformer(new DutchConstituencyVotesTransformer(election, partyDictionary))
+                .withPartyDictionary(partyDictionary)
+                .parseResults("TK2023", folderName);
+
+        CandidateVotes candidateVotes = election.getCandidateVotes();
+        assertEquals(recorded.size(), candidateVotes.kieskringCount());
+        recorded.forEach((contest, expected) -> assertEquals(expected,
+                toMap(candidateVotes, candidateVotes.findKieskring(Integer.parseInt(contest)))));
+    }
+
+    @Test
+    void testPreferenceThreshold() throws IOException, XMLStreamException, ParserConfigurationException,
+            SAXException {
+        Election election = new Election("TK2023");
+        new DutchElectionParser()
+                .withDefinitionTransformer(new DutchDefinitionTransformer(election))
+                .parseResults("TK2023", PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Structure")));
+        CandidateVotes candidateVotes = election.getCandidateVotes();
+        assertEquals(25, candidateVotes.getPreferenceThreshold());
+
+        // 15.000 geldige stemmen over 150 zetels geeft een kiesdeler van 100, de drempel is dan 25 stemmen
+        int lijsttrekker = candidateVotes.candidate("1", "1");
+        int tweede = candidateVotes.candidate("1", "2");
+        int derde = candidateVotes.candidate("1", "3");
+        int vierde = candidateVotes.candidate("1", "4");
+        int ander = candidateVotes.candidate("2", "1");
+        candidateVotes.addNational(lijsttrekker, 900);
+        candidateVotes.addNational(tweede, 24);
+        candidateVotes.addNational(derde, 25);
+        candidateVotes.addNational(vierde, 30);
+        candidateVotes.addNational(ander, 100);
+
+        assertArrayEquals(new int[]{lijsttrekker, vierde, derde},
+                candidateVotes.electedByPreference("1", 5, 15000, 150));
+        assertArrayEquals(new int[]{lijsttrekker, vierde}, candidateVotes.electedByPreference("1", 2, 15000, 150));
+        // De kiesdeler van 100,01 maakt 25 stemmen net te weinig
+        assertArrayEquals(new int[]{lijsttrekker, vierde}, candidateVotes.electedByPreference("1", 5, 15001, 150));
+        assertArrayEquals(new int[0], candidateVotes.electedByPreference("3", 5, 15000, 150));
+    }
+}
@@ -0,0 +1,97 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Candidate;
+import elections.demos.backend.model.ElectedCandidate;
+import elections.demos.backend.model.ElectedCandidates;
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.Party;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultTransformerTests {
+
+    private static Map<String, String> party(String partyCode, String partyName) {
+        Map<String, String> electionData = new HashMap<>();
+        electionData.put("AffiliationIdentifier-Id", partyCode);
+        electionData.put("RegisteredName", partyName);
+        electionData.put("Elected", "yes");
+        return electionData;
+    }
+
+    // Like in the Resultaat file, the candidates don't carry the id of their party
+    private static Map<String, String> candidate(String candidateId, String ranking, String elected) {
+        Map<String, String> electionData = new HashMap<>();
+        electionData.put("CandidateIdentifier-Id", candidateId);
+        electionData.put("Ranking", ranking);
+        electionData.put("Elected", elected);
+        return electionData;
+    }
+
+    private static Election election() {
+        Election election = new Election("TK2023");
+        for (String[] data : new String[][]{{"1", "VVD"}, {"2", "D66"}}) {
+            Party party = new Party(data[0], data[1], election);
+            election.addParty(party);
+            for (int i = 1; i <= 3; i++) {
+                party.addCandidate(new Candidate(String.valueOf(i), election, null, null, "Kandidaat " + i, null,
+                        null, party));
+            }
+        }
+        return election;
+    }
+
+    @Test
+    void testElectedCandidates() {
+        Election election = election();
+        DutchResultTransformer resultTransformer = new DutchResultTransformer(election);
+        resultTransformer.registerPartyVotes(true, party("1", "VVD"));
+        resultTransformer.registerCandidateVotes(true, candidate("1", "1", "yes"));
+        resultTransformer.registerCandidateVotes(true, candidate("3", "2", "yes"));
+        resultTransformer.registerCandidateVotes(true, candidate("2", "3", "no"));
+        resultTransformer.registerPartyVotes(true, party("2", "D66"));
+        resultTransformer.registerCandidateVotes(true, candidate("2", "1", "yes"));
+        // Not on the candidate list, kept without a candidate
+        resultTransformer.registerCandidateVotes(true, candidate("9", "2", "yes"));
+
+        ElectedCandidates electedCandidates = election.getElectedCandidates();
+        assertEquals(4, electedCandidates.size());
+        assertEquals(Map.of("1", 2, "2", 2), electedCandidates.getSeatsPerParty());
+        assertEquals(0, electedCandidates.seats("3"));
+
+        List<ElectedCandidate> candidates = electedCandidates.getCandidates();
+        assertEquals("TK2023_1_3", candidates.get(1).getId());
+        assertEquals(2, candidates.get(1).getRanking());
+        assertSame(election.getCandidateIndex().findCandidate("1", "3"), candidates.get(1).getCandidate());
+        assertSame(election.getParties().get(1), candidates.get(2).getParty());
+        assertNull(candidates.get(3).getCandidate());
+        assertTrue(candidates.get(3).isNew());
+    }
+
+    @Test
+    void testReplacedByNextImport() {
+        Election election = election();
+        DutchResultTransformer resultTransformer = new DutchResultTransformer(election);
+        resultTransformer.registerPartyVotes(true, party("1", "VVD"));
+        resultTransformer.registerCandidateVotes(true, candidate("1", "1", "yes"));
+
+        resultTransformer = new DutchResultTransformer(election);
+        resultTransformer.registerPartyVotes(true, party("2", "D66"));
+        resultTransformer.registerCandidateVotes(true, candidate("1", "1", "yes"));
+
+        assertEquals(Map.of("2", 1), election.getElectedCandidates().getSeatsPerParty());
+
+        // Linked to the parties and candidates of the election that has been saved
+        Election saved = election();
+        election.getElectedCandidates().linkTo(saved);
+        assertSame(saved.getCandidateIndex().findCandidate("2", "1"),
+                election.getElectedCandidates().getCandidates().get(0).getCandidate());
+    }
+}
@@ -0,0 +1,93 @@
+package elections.demos.backend.utils.xml.transformers;
+
+import elections.demos.backend.model.Election;
+import elections.demos.backend.model.TurnoutVotes;
+import elections.demos.backend.utils.PathUtils;
+import elections.demos.backend.utils.xml.AbstractParserTests;
+import elections.demos.backend.utils.xml.DutchElectionParser;
+import elections.demos.backend.utils.xml.PartyDictionary;
+import elections.demos.backend.utils.xml.TagAndAttributeNames;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TurnoutTransformerTests extends AbstractParserTests {
+
+    // Adds up the metadata per kieskring (K10) and municipality (M0358) from the recorded electionData maps.
+    private static Map<String, Map<String, Long>> turnout(List<Map<String, String>> recorded) {
+        Map<String, Map<String, Long>> turnout = new HashMap<>();
+        for (Map<String, String> data : recorded) {
+            if (!isMetadata(data)) {
+                continue;
+            }
+            String unit = isAggregated(data) ? "K" + data.get(TagAndAttributeNames.CONTEST_IDENTIFIER_ID)
+                    : "M" + data.get(TagAndAttributeNames.REPORTING_UNIT_IDENTIFIER_ID).split("::")[1];
+            Map<String, Long> values = turnout.computeIfAbsent(unit, u -> new HashMap<>());
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                String key = entry.getKey();
+                if (key.equals(TagAndAttributeNames.CAST) || key.equals(TagAndAttributeNames.TOTAL_COUNTED)
+                        || key.startsWith(TagAndAttributeNames.REJECTED_VOTES + "-")
+                        || key.startsWith(TagAndAttributeNames.UNCOUNTED_VOTES + "-")) {
+                    values.merge(key, Long.parseLong(entry.getValue()), Long::sum);
+                }
+            }
+        }
+        return turnout;
+    }
+
+    private static Map<String, Map<String, Long>> toMap(TurnoutVotes turnoutVotes) {
+        Map<String, Map<String, Long>> turnout = new HashMap<>();
+        for (TurnoutVotes.Level level : new TurnoutVotes.Level[]{TurnoutVotes.Level.KIESKRING,
+                TurnoutVotes.Level.MUNICIPALITY}) {
+            for (int unit = 0; unit < turnoutVotes.size(level); unit++) {
+                Map<String, Long> values = new HashMap<>();
+                values.put(TagAndAttributeNames.CAST, turnoutVotes.cast(level, unit));
+                values.put(TagAndAttributeNames.TOTAL_COUNTED, turnoutVotes.counted(level, unit));
+                for (int reason = 0; reason < turnoutVotes.reasonCount(); reason++) {
+                    String tag = turnoutVotes.isRejected(reason) ? TagAndAttributeNames.REJECTED_VOTES
+                            : TagAndAttributeNames.UNCOUNTED_VOTES;
+                    values.put(tag + "-" + turnoutVotes.reasonCode(reason), turnoutVotes.votes(level, unit, reason));
+                }
+                String prefix = level == TurnoutVotes.Level.KIESKRING ? "K" : "M";
+                turnout.put(prefix + turnoutVotes.id(level, unit), values);
+            }
+        }
+        return turnout;
+    }
+
+    @Test
+    void testConstituencyTurnout() throws IOException, XMLStreamException, ParserConfigurationException,
+            SAXException {
+        String folderName = PathUtils.getResourcePath("/%s".formatted("TK2023-Partial/Constituency"));
+        Map<String, Map<String, Long>> recorded = turnout(
+                recordVotes(folderName, DutchElectionParser::withConstituencyVotesTransformer));
+        assertTrue(recorded.containsKey("K10"));
+
+        Election election = new Election("TK2023");
+        PartyDictionary partyDictionary = new PartyDictionary();
+        for (int i = 0; i < 2; i++) {
+            // The second import replaces the turnout of the first
+            new DutchElectionParser()
+                    .withConstituencyVotesTransformer(new DutchConstituencyVotesTransformer(election, partyDictionary))
+                    .withPartyDictionary(partyDictionary)
+                    .parseResults("TK2023", folderName);
+            assertEquals(recorded, toMap(election.getTurnoutVotes()));
+        }
+
+        TurnoutVotes turnoutVotes = election.getTurnoutVotes();
+        int aalsmeer = turnoutVotes.find(TurnoutVotes.Level.MUNICIPALITY, "0358");
+        assertEquals("Aalsmeer", turnoutVotes.name(TurnoutVotes.Level.MUNICIPALITY, aalsmeer));
+        Map<String, Long> expected = recorded.get("M0358");
+        assertEquals(expected.get("RejectedVotes-ongeldig") + expected.get("RejectedVotes-blanco"),
+                turnoutVotes.rejected(TurnoutVotes.Level.MUNICIPALITY, aalsmeer));
+    }
+}